@@ -0,0 +1,67 @@
+package com.example.reportgenerator;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Archivos temporales junto al destino de una exportación, que se escriben
+ * completos y después se mueven sobre el destino.
+ *
+ * <p>{@link Files#createTempFile} crea el archivo solo legible por su dueño
+ * (0600 en POSIX), y al moverlo el informe exportado conservaría esos
+ * permisos. Aquí el temporal se crea con {@link Files#createFile}, que aplica
+ * los permisos por defecto del sistema (la umask), y al sustituir un archivo
+ * existente se le copian antes los permisos de este.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+final class ArchivoTemporal {
+
+    private ArchivoTemporal() {
+    }
+
+    /**
+     * Crea un archivo temporal vacío en el directorio de un destino, con un
+     * nombre único {@code <destino>.<aleatorio>.tmp}.
+     *
+     * @param destino Archivo que sustituirá el temporal
+     * @return Ruta absoluta del temporal creado
+     * @throws IOException Si no se puede crear el archivo
+     */
+    static Path junto(Path destino) throws IOException {
+        Path absoluto = destino.toAbsolutePath();
+        while (true) {
+            Path temporal = absoluto.resolveSibling(absoluto.getFileName() + "."
+                + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                return Files.createFile(temporal);
+            } catch (FileAlreadyExistsException e) {
+                // Nombre ya usado por otra exportación: se prueba otro
+            }
+        }
+    }
+
+    /**
+     * Mueve un temporal sobre su destino. Si el destino ya existe, el
+     * temporal recibe antes sus permisos POSIX, donde el sistema los admite.
+     *
+     * @param temporal Archivo temporal ya escrito
+     * @param destino Archivo que se sustituye
+     * @throws IOException Si no se puede mover el archivo
+     */
+    static void sustituir(Path temporal, Path destino) throws IOException {
+        try {
+            Files.setPosixFilePermissions(temporal, Files.getPosixFilePermissions(destino));
+        } catch (NoSuchFileException | UnsupportedOperationException e) {
+            // Destino nuevo o sistema sin permisos POSIX: se quedan los del temporal
+        }
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
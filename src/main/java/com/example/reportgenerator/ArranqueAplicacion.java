@@ -0,0 +1,133 @@
+package com.example.reportgenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Arranque de la aplicación: precarga de las clases del informe y medida de
+ * los tiempos que nota el usuario.
+ *
+ * <p>PDFBox, la fuente incrustada y JFreeChart se cargan e inicializan la
+ * primera vez que se usan, lo que hacía lenta la primera exportación. Tras
+ * mostrar la ventana, {@link #precargarEnSegundoPlano()} genera un informe
+ * pequeño que se descarta, en un hilo de baja prioridad, para que ese coste se
+ * pague mientras el usuario elige el CSV. El mismo informe sirve para entrenar
+ * el archivo de clases compartidas (perfil {@code cds} del pom).
+ *
+ * <p>Se miden el tiempo desde que arranca el proceso hasta que se ve la
+ * ventana y la duración de la primera exportación, y se escriben en la salida
+ * estándar con el prefijo {@value #PREFIJO} para poder seguirlos entre versiones.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+final class ArranqueAplicacion {
+
+    /** Prefijo de las líneas de la salida con los tiempos de arranque. */
+    static final String PREFIJO = "[arranque]";
+
+    private final Instant inicioProceso;
+    private final AtomicBoolean exportacionMedida = new AtomicBoolean();
+    private volatile long milisegundosVentana = -1;
+    private volatile long milisegundosPrecarga = -1;
+
+    /**
+     * Mide los tiempos desde el arranque del proceso actual.
+     */
+    ArranqueAplicacion() {
+        this(ProcessHandle.current().info().startInstant().orElseGet(Instant::now));
+    }
+
+    /**
+     * @param inicioProceso Instante desde el que se mide el tiempo hasta la ventana
+     */
+    ArranqueAplicacion(Instant inicioProceso) {
+        this.inicioProceso = inicioProceso;
+    }
+
+    /**
+     * Genera en memoria el informe de unos pocos clientes y lo descarta, lo que
+     * carga e inicializa PDFBox, la fuente, JFreeChart y las clases del
+     * exportador, y dibuja su primera página como la vista previa.
+     *
+     * @throws IOException Si no se puede generar el informe
+     */
+    static void precargar() throws IOException {
+        List<Cliente> clientes = List.of(
+            new Cliente(1, "Ana Núñez", "ana@ejemplo.com", "Madrid"),
+            new Cliente(2, "Íñigo Pérez", "inigo@ejemplo.com", "Logroño"),
+            new Cliente(3, "Zoe Martín", "zoe@ejemplo.com", "Madrid"));
+        PDFExporter.exportarAPDF(clientes, OutputStream.nullOutputStream(),
+            new OpcionesExportacion().setSalidaCompacta(true));
+        PDFExporter.renderizarPrimeraPagina(clientes, VistaPreviaInforme.DPI_PANTALLA);
+    }
+
+    /**
+     * Lanza {@link #precargar()} en un hilo de baja prioridad que no impide
+     * que la aplicación termine. Un error solo se anota: la exportación
+     * cargará lo que falte cuando se use.
+     *
+     * @return Hilo de la precarga, ya iniciado
+     */
+    Thread precargarEnSegundoPlano() {
+        Thread hilo = new Thread(() -> {
+            long inicio = System.nanoTime();
+            try {
+                precargar();
+                milisegundosPrecarga = (System.nanoTime() - inicio) / 1_000_000;
+                System.out.println(PREFIJO + " Clases del informe precargadas en " + milisegundosPrecarga + " ms");
+            } catch (IOException | RuntimeException e) {
+                System.err.println("No se pudieron precargar las clases del informe: " + e.getMessage());
+            }
+        }, "precarga-informe");
+        hilo.setDaemon(true);
+        hilo.setPriority(Thread.MIN_PRIORITY);
+        hilo.start();
+        return hilo;
+    }
+
+    /**
+     * Anota que la ventana ya se ve.
+     *
+     * @return Milisegundos desde el arranque del proceso
+     */
+    long registrarVentana() {
+        milisegundosVentana = Duration.between(inicioProceso, Instant.now()).toMillis();
+        System.out.println(PREFIJO + " Ventana visible a los " + milisegundosVentana + " ms del arranque");
+        return milisegundosVentana;
+    }
+
+    /**
+     * Anota la duración de una exportación; solo cuenta la primera.
+     *
+     * @param milisegundos Duración de la exportación
+     * @return true si era la primera exportación
+     */
+    boolean registrarExportacion(long milisegundos) {
+        if (!exportacionMedida.compareAndSet(false, true)) {
+            return false;
+        }
+        System.out.println(PREFIJO + " Primera exportación en " + milisegundos + " ms ("
+            + (isPrecargado() ? "con" : "sin") + " las clases precargadas)");
+        return true;
+    }
+
+    /**
+     * @return Milisegundos hasta la ventana, o -1 si aún no se ha mostrado
+     */
+    long getMilisegundosVentana() {
+        return milisegundosVentana;
+    }
+
+    /**
+     * @return true si la precarga ha terminado bien
+     */
+    boolean isPrecargado() {
+        return milisegundosPrecarga >= 0;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.reportgenerator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Filtrado de clientes en memoria a medida que el usuario escribe, fuera del
+ * hilo de la interfaz.
+ *
+ * <p>Cada búsqueda espera un breve retardo antes de ejecutarse; si llega otra
+ * antes, la anterior se descarta sin llegar a empezar. Una búsqueda que ya se
+ * está ejecutando comprueba periódicamente si ha quedado obsoleta y, en ese
+ * caso, se abandona. Solo se entrega el resultado de la última búsqueda.
+ *
+ * <p>Los nombres se pasan a minúsculas una sola vez al cargar los clientes.
+ * Cuando la búsqueda nueva es más restrictiva que la anterior, como al seguir
+ * escribiendo, solo se recorren los clientes del resultado anterior.
+ * Los filtros se comportan igual que en {@link ClienteDAO#obtenerPorFiltros}.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+final class BusquedaClientes implements AutoCloseable {
+
+    /** Cada cuántas filas comprueba una búsqueda en curso si ha quedado obsoleta. */
+    private static final int FILAS_ENTRE_COMPROBACIONES = 4096;
+
+    /**
+     * Resultado de una búsqueda.
+     *
+     * @param consulta Número de la búsqueda que lo produjo
+     * @param clientes Clientes que cumplen los filtros, en el orden original
+     * @param clientesPorCiudad Número de clientes del resultado en cada ciudad
+     */
+    record Resultado(long consulta, List<Cliente> clientes, Map<String, Integer> clientesPorCiudad) {
+    }
+
+    /** Clientes sobre los que se busca, con sus nombres en minúsculas. */
+    private record Datos(List<Cliente> clientes, String[] nombres) {
+    }
+
+    /** Filas que devolvió la última búsqueda terminada, para refinarla. */
+    private record Anterior(Datos datos, String texto, String ciudad, int[] filas) {
+    }
+
+    private final long retardoMs;
+    private final ScheduledExecutorService ejecutor;
+    private final AtomicLong ultimaConsulta = new AtomicLong();
+    private volatile Datos datos = new Datos(List.of(), new String[0]);
+    private ScheduledFuture<?> pendiente;
+    private Anterior anterior;
+
+    /**
+     * Crea una búsqueda con su propio hilo de trabajo.
+     *
+     * @param retardoMs Milisegundos que espera cada búsqueda por si llega otra
+     */
+    BusquedaClientes(long retardoMs) {
+        this.retardoMs = retardoMs;
+        this.ejecutor = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "busqueda-clientes");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Sustituye los clientes sobre los que se busca y descarta las búsquedas
+     * pendientes. Los nombres se preparan en el hilo que llama.
+     *
+     * @param clientes Clientes cargados; la lista no debe modificarse después
+     */
+    void setClientes(List<Cliente> clientes) {
+        String[] nombres = new String[clientes.size()];
+        for (int i = 0; i < nombres.length; i++) {
+            nombres[i] = clientes.get(i).getNombre().toLowerCase();
+        }
+        ultimaConsulta.incrementAndGet();
+        datos = new Datos(clientes, nombres);
+    }
+
+    /**
+     * Programa una búsqueda que sustituye a todas las anteriores.
+     *
+     * @param texto Texto a buscar dentro del nombre, o {@code null}
+     * @param ciudad Ciudad por la cual filtrar, o {@code null}
+     * @param destino Recibe el resultado en el hilo de trabajo, solo si sigue
+     *                siendo la última búsqueda; debe comprobarlo otra vez con
+     *                {@link #esVigente} al aplicarlo en otro hilo
+     * @return Número de la búsqueda
+     */
+    synchronized long buscar(String texto, String ciudad, Consumer<Resultado> destino) {
+        long consulta = ultimaConsulta.incrementAndGet();
+        if (pendiente != null) {
+            pendiente.cancel(false);
+        }
+        String textoMinusculas = texto == null ? "" : texto.toLowerCase();
+        String ciudadFiltro = ciudad == null ? "" : ciudad;
+        pendiente = ejecutor.schedule(() -> {
+            Resultado resultado = ejecutar(consulta, textoMinusculas, ciudadFiltro);
+            if (resultado != null && esVigente(resultado)) {
+                destino.accept(resultado);
+            }
+        }, retardoMs, TimeUnit.MILLISECONDS);
+        return consulta;
+    }
+
+    /**
+     * Comprueba si un resultado corresponde a la última búsqueda pedida.
+     *
+     * @param resultado Resultado a comprobar
+     * @return true si no se ha pedido otra búsqueda ni cambiado los clientes después
+     */
+    boolean esVigente(Resultado resultado) {
+        return resultado.consulta() == ultimaConsulta.get();
+    }
+
+    /**
+     * Detiene el hilo de trabajo; las búsquedas pendientes no se entregan.
+     */
+    @Override
+    public void close() {
+        ultimaConsulta.incrementAndGet();
+        ejecutor.shutdownNow();
+    }
+
+    /**
+     * Ejecuta una búsqueda en el hilo de trabajo.
+     *
+     * @return Resultado, o {@code null} si la búsqueda quedó obsoleta por el camino
+     */
+    private Resultado ejecutar(long consulta, String texto, String ciudad) {
+        Datos actuales = datos;
+        int[] candidatas = null;
+        if (anterior != null && anterior.datos() == actuales && texto.contains(anterior.texto())
+                && (anterior.ciudad().isEmpty() || anterior.ciudad().equalsIgnoreCase(ciudad))) {
+            candidatas = anterior.filas();
+        }
+
+        int total = candidatas == null ? actuales.clientes().size() : candidatas.length;
+        int[] filas = new int[total];
+        int encontradas = 0;
+        Map<String, Integer> porCiudad = new HashMap<>();
+        for (int i = 0; i < total; i++) {
+            if (i % FILAS_ENTRE_COMPROBACIONES == 0 && consulta != ultimaConsulta.get()) {
+                return null;
+            }
+            int fila = candidatas == null ? i : candidatas[i];
+            if (!texto.isEmpty() && !actuales.nombres()[fila].contains(texto)) {
+                continue;
+            }
+            Cliente cliente = actuales.clientes().get(fila);
+            if (!ciudad.isEmpty() && !cliente.getCiudad().equalsIgnoreCase(ciudad)) {
+                continue;
+            }
+            filas[encontradas++] = fila;
+            porCiudad.merge(cliente.getCiudad(), 1, Integer::sum);
+        }
+
+        int[] filasResultado = encontradas == total ? filas : Arrays.copyOf(filas, encontradas);
+        anterior = new Anterior(actuales, texto, ciudad, filasResultado);
+        return new Resultado(consulta, new FilasClientes(actuales.clientes(), filasResultado), porCiudad);
+    }
+}
@@ -0,0 +1,435 @@
+package com.example.reportgenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.Year;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Caché en disco de informes PDF direccionada por contenido.
+ *
+ * <p>La clave de cada informe es el hash SHA-256 de las filas de clientes, en
+ * orden, junto con la versión de la plantilla ({@link PDFExporter#VERSION_PLANTILLA}),
+ * el año que se imprime en el pie y si la salida es compacta
+ * ({@link OpcionesExportacion#isSalidaCompacta()}). Dos exportaciones con los
+ * mismos datos, filtros y opciones producen la misma clave, así que la segunda
+ * reutiliza el PDF ya generado; cualquier cambio en una fila, en el orden, en
+ * la plantilla o en el tipo de salida da una clave distinta.
+ *
+ * <p>Los informes se guardan en un directorio local como {@code <clave>.pdf} y
+ * se sirven copiando el archivo con {@link FileChannel#transferTo}, que el
+ * sistema operativo puede resolver sin pasar los datos por la JVM. El tamaño
+ * total está limitado: al superarlo se eliminan los informes usados hace más
+ * tiempo, y los que no caben ni solos se exportan sin guardarse. El orden de
+ * uso se conserva entre ejecuciones mediante la fecha de modificación de los
+ * archivos.
+ *
+ * <p>La clase es segura para uso concurrente.
+ *
+ * @author Álvaro
+ * @version 1.1
+ * @since 2026-10-19
+ */
+public class CacheInformes {
+
+    /** Tamaño máximo por defecto de la caché (256 MB). */
+    public static final long TAMANO_MAXIMO_POR_DEFECTO = 256L * 1024 * 1024;
+
+    private static final String EXTENSION = ".pdf";
+    private static final int LONGITUD_CLAVE = 64;
+
+    /**
+     * Antigüedad a partir de la cual un temporal se considera abandonado. Los
+     * más recientes pueden ser de una generación en curso en otra instancia
+     * que comparte el directorio.
+     */
+    static final Duration ANTIGUEDAD_TEMPORALES = Duration.ofDays(1);
+
+    private final Path directorio;
+    private final long tamanoMaximo;
+    private final LinkedHashMap<String, Long> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    private long tamanoActual;
+
+    /**
+     * Abre una caché de informes en un directorio, creándolo si no existe e
+     * indexando los informes que ya contenga.
+     *
+     * @param directorio Directorio donde se guardan los informes
+     * @param tamanoMaximo Tamaño máximo total de los informes en bytes
+     * @throws IOException Si no se puede crear o leer el directorio
+     */
+    public CacheInformes(Path directorio, long tamanoMaximo) throws IOException {
+        this.directorio = directorio;
+        this.tamanoMaximo = tamanoMaximo;
+        Files.createDirectories(directorio);
+        indexar();
+    }
+
+    /**
+     * Abre la caché de informes en el directorio temporal del sistema con el
+     * tamaño máximo por defecto.
+     *
+     * @return Caché de informes de la aplicación
+     * @throws IOException Si no se puede crear o leer el directorio
+     */
+    public static CacheInformes enDirectorioTemporal() throws IOException {
+        return new CacheInformes(Path.of(System.getProperty("java.io.tmpdir"), "reportgenerator-informes"),
+            TAMANO_MAXIMO_POR_DEFECTO);
+    }
+
+    /**
+     * Exporta el informe de una lista de clientes a un archivo, reutilizando
+     * el PDF de la caché si ya se generó con los mismos datos.
+     *
+     * @param clientes Lista de clientes a incluir en el informe PDF
+     * @param destino Archivo donde se guardará el PDF; se sobrescribe si existe
+     * @throws IOException Si ocurre un error al generar o copiar el PDF
+     */
+    public void exportarAPDF(List<Cliente> clientes, Path destino) throws IOException {
+        exportarAPDF(clientes, destino, new OpcionesExportacion());
+    }
+
+    /**
+     * Exporta el informe de una lista de clientes a un archivo aplicando unas
+     * opciones de exportación. El PDF se escribe en un archivo temporal junto
+     * al destino que lo sustituye solo al terminar; si la exportación falla o
+     * se cancela, el archivo de destino que ya existiera queda intacto.
+     *
+     * @param clientes Lista de clientes a incluir en el informe PDF
+     * @param destino Archivo donde se guardará el PDF; se sobrescribe si existe
+     * @param opciones Opciones de generación, con el oyente de progreso y el token de cancelación
+     * @throws IOException Si ocurre un error al generar o copiar el PDF
+     * @throws java.io.InterruptedIOException Si la exportación se cancela
+     */
+    public void exportarAPDF(List<Cliente> clientes, Path destino, OpcionesExportacion opciones)
+            throws IOException {
+        Path temporal = ArchivoTemporal.junto(destino);
+        try {
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                exportarAPDF(clientes, canal, opciones);
+            }
+            ArchivoTemporal.sustituir(temporal, destino.toAbsolutePath());
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Exporta el informe de una lista de clientes sobre un canal, reutilizando
+     * el PDF de la caché si ya se generó con los mismos datos.
+     * El canal no se cierra al terminar; es responsabilidad del llamante.
+     *
+     * @param clientes Lista de clientes a incluir en el informe PDF
+     * @param canal Canal donde se escribirá el documento PDF
+     * @throws IOException Si ocurre un error al generar o copiar el PDF
+     */
+    public void exportarAPDF(List<Cliente> clientes, WritableByteChannel canal) throws IOException {
+        exportarAPDF(clientes, canal, new OpcionesExportacion());
+    }
+
+    /**
+     * Exporta el informe de una lista de clientes sobre un canal aplicando unas
+     * opciones de exportación. Si el informe hay que generarlo, el progreso se
+     * notifica página a página; si sale de la caché, se notifica una sola vez
+     * al terminar la copia.
+     *
+     * @param clientes Lista de clientes a incluir en el informe PDF
+     * @param canal Canal donde se escribirá el documento PDF
+     * @param opciones Opciones de generación, con el oyente de progreso y el token de cancelación
+     * @throws IOException Si ocurre un error al generar o copiar el PDF
+     * @throws java.io.InterruptedIOException Si la exportación se cancela
+     */
+    public void exportarAPDF(List<Cliente> clientes, WritableByteChannel canal, OpcionesExportacion opciones)
+            throws IOException {
+        String clave = calcularClave(clientes, opciones.isSalidaCompacta());
+        try (FileChannel informe = abrirInforme(clave, clientes, opciones)) {
+            long posicion = 0;
+            long tamano = informe.size();
+            while (posicion < tamano) {
+                if (opciones.getCancelacion() != null) {
+                    opciones.getCancelacion().comprobar();
+                }
+                posicion += informe.transferTo(posicion, tamano - posicion, canal);
+            }
+            if (opciones.getOyenteProgreso() != null) {
+                int paginas = PDFExporter.calcularNumeroPaginas(clientes.size());
+                opciones.getOyenteProgreso().actualizar(
+                    new ProgresoExportacion(clientes.size(), clientes.size(), paginas, paginas, tamano));
+            }
+        }
+    }
+
+    /**
+     * Calcula la clave de caché del informe de una lista de clientes.
+     *
+     * @param clientes Lista de clientes del informe, en el orden en que se listan
+     * @return Hash SHA-256 en hexadecimal de las filas y la versión de la plantilla
+     */
+    public static String calcularClave(List<Cliente> clientes) {
+        return calcularClave(clientes, false);
+    }
+
+    /**
+     * Calcula la clave de caché del informe de una lista de clientes en el
+     * formato normal o en el compacto, que generan archivos distintos.
+     *
+     * @param clientes Lista de clientes del informe, en el orden en que se listan
+     * @param salidaCompacta true si el informe se genera con la salida compacta
+     * @return Hash SHA-256 en hexadecimal de las filas, el formato y la versión de la plantilla
+     * @see OpcionesExportacion#setSalidaCompacta(boolean)
+     */
+    public static String calcularClave(List<Cliente> clientes, boolean salidaCompacta) {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+
+        try (DataOutputStream datos = new DataOutputStream(new BufferedOutputStream(
+                new DigestOutputStream(OutputStream.nullOutputStream(), sha256), 8 * 1024))) {
+            datos.writeInt(PDFExporter.VERSION_PLANTILLA);
+            datos.writeBoolean(salidaCompacta);
+            datos.writeInt(Year.now().getValue());
+            datos.writeInt(clientes.size());
+            for (Cliente cliente : clientes) {
+                datos.writeInt(cliente.getId());
+                escribirCadena(datos, cliente.getNombre());
+                escribirCadena(datos, cliente.getEmail());
+                escribirCadena(datos, cliente.getCiudad());
+            }
+        } catch (IOException e) {
+            // El flujo de destino es nulo: no puede fallar
+            throw new IllegalStateException(e);
+        }
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    /**
+     * Número de exportaciones servidas desde la caché.
+     *
+     * @return Aciertos acumulados
+     */
+    public long getAciertos() {
+        return aciertos.get();
+    }
+
+    /**
+     * Número de exportaciones que han tenido que generar el PDF.
+     *
+     * @return Fallos acumulados
+     */
+    public long getFallos() {
+        return fallos.get();
+    }
+
+    /**
+     * Número de informes guardados actualmente en la caché.
+     *
+     * @return Informes en caché
+     */
+    public synchronized int getNumeroInformes() {
+        return entradas.size();
+    }
+
+    /**
+     * Tamaño total de los informes guardados en la caché.
+     *
+     * @return Bytes ocupados en disco
+     */
+    public synchronized long getTamanoActual() {
+        return tamanoActual;
+    }
+
+    /**
+     * Abre el informe de una clave para leerlo, generándolo si no está en caché.
+     * El canal se abre antes de cualquier expulsión, por lo que sigue siendo
+     * legible aunque otro hilo elimine después el archivo. Un informe mayor que
+     * el tamaño máximo de la caché no se guarda: se sirve desde su temporal,
+     * que se elimina al cerrar el canal.
+     *
+     * @param clave Clave del informe
+     * @param clientes Clientes con los que generar el informe si no está en caché
+     * @param opciones Opciones con las que generar el informe
+     * @return Canal de lectura sobre el PDF
+     * @throws IOException Si ocurre un error al generar o abrir el PDF
+     */
+    private FileChannel abrirInforme(String clave, List<Cliente> clientes, OpcionesExportacion opciones)
+            throws IOException {
+        Path archivo = directorio.resolve(clave + EXTENSION);
+
+        synchronized (this) {
+            Long tamano = entradas.get(clave);
+            if (tamano != null) {
+                try {
+                    Files.setLastModifiedTime(archivo, FileTime.fromMillis(System.currentTimeMillis()));
+                    FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ);
+                    aciertos.incrementAndGet();
+                    return canal;
+                } catch (NoSuchFileException e) {
+                    // Lo ha borrado otro proceso que comparte el directorio: se vuelve a generar
+                    entradas.remove(clave);
+                    tamanoActual -= tamano;
+                }
+            }
+        }
+
+        // La generación se hace fuera del bloqueo para no frenar otras exportaciones
+        fallos.incrementAndGet();
+        Path temporal = Files.createTempFile(directorio, clave, ".tmp");
+        boolean servidoDesdeTemporal = false;
+        try {
+            PDFExporter.exportarAPDF(clientes, temporal.toString(), opciones);
+            if (Files.size(temporal) > tamanoMaximo) {
+                FileChannel canal = FileChannel.open(temporal, StandardOpenOption.READ,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+                servidoDesdeTemporal = true;
+                return canal;
+            }
+            synchronized (this) {
+                Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ);
+                registrar(clave, canal.size());
+                return canal;
+            }
+        } finally {
+            if (!servidoDesdeTemporal) {
+                Files.deleteIfExists(temporal);
+            }
+        }
+    }
+
+    /**
+     * Añade un informe al índice y expulsa los menos usados, sin contar el
+     * propio informe, si se supera el tamaño máximo.
+     *
+     * @param clave Clave del informe
+     * @param tamano Tamaño del archivo en bytes; no mayor que el tamaño máximo
+     */
+    private void registrar(String clave, long tamano) {
+        Long anterior = entradas.put(clave, tamano);
+        if (anterior != null) {
+            tamanoActual -= anterior;
+        }
+        tamanoActual += tamano;
+
+        Iterator<Map.Entry<String, Long>> it = entradas.entrySet().iterator();
+        while (tamanoActual > tamanoMaximo && it.hasNext()) {
+            Map.Entry<String, Long> expulsada = it.next();
+            if (expulsada.getKey().equals(clave)) {
+                continue;
+            }
+            eliminar(directorio.resolve(expulsada.getKey() + EXTENSION));
+            tamanoActual -= expulsada.getValue();
+            it.remove();
+        }
+    }
+
+    /**
+     * Elimina el archivo de un informe expulsado. Si no se puede, por ejemplo
+     * porque en Windows otra exportación aún lo está copiando, el error solo
+     * se anota: el archivo ya está fuera del índice y la próxima vez que se
+     * indexe el directorio vuelve a entrar y a expulsarse si no cabe.
+     *
+     * @param informe Archivo del informe
+     */
+    private static void eliminar(Path informe) {
+        try {
+            Files.deleteIfExists(informe);
+        } catch (IOException e) {
+            System.err.println("No se pudo eliminar el informe expulsado " + informe.getFileName() + ": " + e);
+        }
+    }
+
+    /**
+     * Indexa los informes existentes en el directorio, del usado hace más
+     * tiempo al más reciente, y elimina los que no caben en la caché y los
+     * temporales de generaciones interrumpidas, es decir, los modificados
+     * hace más de {@link #ANTIGUEDAD_TEMPORALES}.
+     *
+     * @throws IOException Si no se puede leer el directorio
+     */
+    private synchronized void indexar() throws IOException {
+        List<Path> informes;
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            informes = archivos.filter(Files::isRegularFile).toList();
+        }
+
+        List<Path> validos = informes.stream()
+            .filter(p -> esInforme(p.getFileName().toString()))
+            .sorted(Comparator.comparing(CacheInformes::fechaModificacion))
+            .toList();
+        for (Path informe : validos) {
+            String nombre = informe.getFileName().toString();
+            long tamano = Files.size(informe);
+            if (tamano > tamanoMaximo) {
+                eliminar(informe);
+            } else {
+                registrar(nombre.substring(0, LONGITUD_CLAVE), tamano);
+            }
+        }
+
+        FileTime limite = FileTime.from(Instant.now().minus(ANTIGUEDAD_TEMPORALES));
+        for (Path archivo : informes) {
+            if (archivo.getFileName().toString().endsWith(".tmp")
+                    && fechaModificacion(archivo).compareTo(limite) < 0) {
+                Files.deleteIfExists(archivo);
+            }
+        }
+    }
+
+    private static boolean esInforme(String nombre) {
+        return nombre.length() == LONGITUD_CLAVE + EXTENSION.length() && nombre.endsWith(EXTENSION);
+    }
+
+    private static FileTime fechaModificacion(Path archivo) {
+        try {
+            return Files.getLastModifiedTime(archivo);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Escribe una cadena con su longitud delante, para que campos distintos
+     * no puedan dar la misma secuencia de bytes al concatenarse.
+     *
+     * @param datos Flujo del hash
+     * @param valor Cadena a escribir; puede ser null
+     * @throws IOException Si ocurre un error de escritura
+     */
+    private static void escribirCadena(DataOutputStream datos, String valor) throws IOException {
+        if (valor == null) {
+            datos.writeInt(-1);
+            return;
+        }
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        datos.writeInt(bytes.length);
+        datos.write(bytes);
+    }
+}
@@ -2,11 +2,25 @@ package com.example.reportgenerator;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Clase DAO (Data Access Object) para gestionar el acceso a los datos de clientes.
@@ -27,6 +41,12 @@ import java.util.HashMap;
  */
 public class ClienteDAO {
 
+    /** Bytes que se leen de cada vez al buscar los límites de una línea de la muestra. */
+    private static final int VENTANA_MUESTRA = 256;
+
+    /** Valor de la normal estándar para un intervalo de confianza del 95 %. */
+    private static final double Z_95 = 1.96;
+
     private String rutaCSV;
 
     /**
@@ -92,6 +112,459 @@ public class ClienteDAO {
         return resultado;
     }
 
+    /**
+     * Obtiene los clientes que cumplen a la vez los filtros de nombre y ciudad.
+     * Simula la consulta SQL:
+     * SELECT * FROM clientes WHERE nombre LIKE '%texto%' AND ciudad = ?
+     *
+     * <p>Ambos filtros ignoran mayúsculas/minúsculas. Un filtro {@code null}
+     * o vacío no restringe el resultado. El CSV se recorre una sola vez.
+     *
+     * @param texto Texto a buscar dentro del nombre del cliente, o {@code null}
+     * @param ciudadFiltro Ciudad por la cual filtrar, o {@code null}
+     * @return Lista de clientes que cumplen ambos filtros
+     */
+    public List<Cliente> obtenerPorFiltros(String texto, String ciudadFiltro) {
+
+        String textoMinusculas = texto == null ? "" : texto.toLowerCase();
+
+        List<Cliente> resultado = new ArrayList<>();
+
+        for (Cliente c : leerCSV()) {
+            if (cumpleFiltros(c, textoMinusculas, ciudadFiltro)) {
+                resultado.add(c);
+            }
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Recibe los lotes de clientes que produce {@link #leerPorLotes}.
+     */
+    @FunctionalInterface
+    public interface ConsumidorLotes {
+        /**
+         * Procesa un lote de clientes. Puede bloquear, por ejemplo al
+         * entregarlo a una cola llena, para frenar la lectura.
+         *
+         * @param lote Clientes leídos, en el orden del archivo
+         * @throws InterruptedException Si se interrumpe la espera
+         */
+        void aceptar(List<Cliente> lote) throws InterruptedException;
+    }
+
+    /**
+     * Lee el CSV de forma incremental, entregando los clientes que cumplen los
+     * filtros en lotes a medida que se leen, sin cargar el archivo completo.
+     * Los filtros funcionan igual que en {@link #obtenerPorFiltros(String, String)}.
+     *
+     * @param texto Texto a buscar dentro del nombre del cliente, o {@code null}
+     * @param ciudadFiltro Ciudad por la cual filtrar, o {@code null}
+     * @param tamanoLote Número máximo de clientes por lote
+     * @param consumidor Destino de los lotes; el último puede ser más pequeño
+     * @throws IOException Si ocurre un error leyendo el archivo
+     * @throws InterruptedException Si el consumidor se interrumpe
+     */
+    public void leerPorLotes(String texto, String ciudadFiltro, int tamanoLote, ConsumidorLotes consumidor)
+            throws IOException, InterruptedException {
+
+        String textoMinusculas = texto == null ? "" : texto.toLowerCase();
+        List<Cliente> lote = new ArrayList<>(tamanoLote);
+
+        try (BufferedReader br = new BufferedReader(new FileReader(rutaCSV))) {
+
+            br.readLine(); // Cabecera
+            String linea;
+
+            while ((linea = br.readLine()) != null) {
+                Cliente c = parsearLinea(linea);
+                if (!cumpleFiltros(c, textoMinusculas, ciudadFiltro)) {
+                    continue;
+                }
+                lote.add(c);
+                if (lote.size() == tamanoLote) {
+                    consumidor.aceptar(lote);
+                    lote = new ArrayList<>(tamanoLote);
+                }
+            }
+        }
+
+        if (!lote.isEmpty()) {
+            consumidor.aceptar(lote);
+        }
+    }
+
+    /**
+     * Recibe los lotes de {@link #cargarPorLotes} junto con el avance de la lectura.
+     */
+    @FunctionalInterface
+    public interface ConsumidorCarga {
+        /**
+         * Procesa un lote de clientes recién leído. Se invoca desde el hilo que
+         * lee el archivo.
+         *
+         * @param lote Clientes leídos, en el orden del archivo; es inmutable y
+         *             puede entregarse a otro hilo
+         * @param bytesLeidos Bytes del archivo leídos hasta el momento
+         * @param bytesTotales Tamaño del archivo en bytes
+         * @throws InterruptedException Si la carga debe detenerse
+         */
+        void aceptar(List<Cliente> lote, long bytesLeidos, long bytesTotales) throws InterruptedException;
+    }
+
+    /**
+     * Resultado de {@link #cargarPorLotes}: todos los clientes del archivo y su
+     * recuento por ciudad, obtenidos en la misma pasada.
+     *
+     * @param clientes Clientes del archivo, en orden
+     * @param clientesPorCiudad Número de clientes de cada ciudad
+     */
+    public record Carga(List<Cliente> clientes, Map<String, Integer> clientesPorCiudad) {
+    }
+
+    /**
+     * Carga el CSV completo en una sola pasada, entregando los clientes en lotes
+     * a medida que se leen y contando a la vez los de cada ciudad, de modo que
+     * no hace falta volver a leer el archivo para {@link #contarClientesPorCiudad()}.
+     *
+     * <p>El primer lote puede ser más pequeño que los demás para que quien
+     * muestra los datos tenga algo que enseñar en cuanto empieza la lectura.
+     * El avance se mide en bytes del archivo.
+     *
+     * @param primerLote Número máximo de clientes del primer lote
+     * @param tamanoLote Número máximo de clientes de los lotes siguientes
+     * @param consumidor Destino de los lotes; el último puede ser más pequeño
+     * @return Todos los clientes y su recuento por ciudad
+     * @throws IOException Si ocurre un error leyendo el archivo
+     * @throws InterruptedException Si el consumidor detiene la carga
+     */
+    public Carga cargarPorLotes(int primerLote, int tamanoLote, ConsumidorCarga consumidor)
+            throws IOException, InterruptedException {
+
+        Path archivo = Path.of(rutaCSV);
+        long bytesTotales = Files.size(archivo);
+        List<Cliente> clientes = new ArrayList<>();
+        Map<String, Integer> clientesPorCiudad = new HashMap<>();
+        int inicioLote = 0;
+        int limiteLote = primerLote;
+
+        try (InputStream entrada = Files.newInputStream(archivo);
+             ContadorBytes contador = new ContadorBytes(entrada);
+             BufferedReader br = new BufferedReader(new InputStreamReader(contador, Charset.defaultCharset()))) {
+
+            br.readLine(); // Cabecera
+            String linea;
+
+            while ((linea = br.readLine()) != null) {
+                Cliente c = parsearLinea(linea);
+                clientes.add(c);
+                clientesPorCiudad.merge(c.getCiudad(), 1, Integer::sum);
+                if (clientes.size() - inicioLote == limiteLote) {
+                    consumidor.aceptar(List.copyOf(clientes.subList(inicioLote, clientes.size())),
+                        contador.leidos, bytesTotales);
+                    inicioLote = clientes.size();
+                    limiteLote = tamanoLote;
+                }
+            }
+        }
+
+        if (inicioLote < clientes.size()) {
+            consumidor.aceptar(List.copyOf(clientes.subList(inicioLote, clientes.size())), bytesTotales, bytesTotales);
+        }
+        return new Carga(clientes, clientesPorCiudad);
+    }
+
+    /**
+     * Flujo de entrada que cuenta los bytes leídos del archivo.
+     */
+    private static final class ContadorBytes extends FilterInputStream {
+
+        private long leidos;
+
+        ContadorBytes(InputStream entrada) {
+            super(entrada);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                leidos++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                leidos += n;
+            }
+            return n;
+        }
+    }
+
+    /**
+     * Estimación a partir de una {@link Muestra} de la parte de los clientes
+     * que cumple una condición.
+     *
+     * @param proporcion Proporción estimada, entre 0 y 1
+     * @param margen Margen de error de la proporción con una confianza del 95 %
+     * @param clientes Número estimado de clientes
+     */
+    public record Estimacion(double proporcion, double margen, long clientes) {
+    }
+
+    /**
+     * Muestra aleatoria de los clientes de un CSV, obtenida con
+     * {@link #muestrear} sin leer el archivo completo.
+     *
+     * <p>Cada extracción es una posición al azar del archivo y toma la línea
+     * que la contiene, así que las líneas largas salen más a menudo. Las
+     * estimaciones lo compensan pesando cada extracción por el inverso de la
+     * longitud de su línea, de modo que no se desvían aunque, por ejemplo, los
+     * clientes de unas ciudades tengan líneas más largas que los de otras. El
+     * margen del número de clientes de una estimación no tiene en cuenta el
+     * error del total estimado.
+     */
+    public static final class Muestra {
+
+        private final List<Cliente> clientes;
+        private final List<Cliente> extraidos;
+        private final double[] pesos;
+        private final double pesoTotal;
+        private final long clientesEstimados;
+
+        private Muestra(List<Cliente> clientes, List<Cliente> extraidos, double[] pesos, long clientesEstimados) {
+            this.clientes = clientes;
+            this.extraidos = extraidos;
+            this.pesos = pesos;
+            this.clientesEstimados = clientesEstimados;
+            double total = 0;
+            for (double peso : pesos) {
+                total += peso;
+            }
+            this.pesoTotal = total;
+        }
+
+        /**
+         * @return Clientes distintos de la muestra, en el orden del archivo
+         */
+        public List<Cliente> getClientes() {
+            return clientes;
+        }
+
+        /**
+         * @return Número estimado de clientes del archivo
+         */
+        public long getClientesEstimados() {
+            return clientesEstimados;
+        }
+
+        /**
+         * Estima qué parte de los clientes del archivo cumple una condición.
+         *
+         * @param condicion Condición a evaluar sobre los clientes de la muestra
+         * @return Proporción y número de clientes estimados, con su margen de error
+         */
+        public Estimacion estimar(Predicate<Cliente> condicion) {
+            if (pesoTotal == 0) {
+                return new Estimacion(0, 0, 0);
+            }
+            double cumplen = 0;
+            for (int i = 0; i < pesos.length; i++) {
+                if (condicion.test(extraidos.get(i))) {
+                    cumplen += pesos[i];
+                }
+            }
+            double proporcion = cumplen / pesoTotal;
+            // Varianza del estimador de razón para extracciones con reemplazamiento
+            double varianza = 0;
+            for (int i = 0; i < pesos.length; i++) {
+                double desviacion = (condicion.test(extraidos.get(i)) ? 1 : 0) - proporcion;
+                varianza += pesos[i] * pesos[i] * desviacion * desviacion;
+            }
+            double margen = Z_95 * Math.sqrt(varianza) / pesoTotal;
+            return new Estimacion(proporcion, margen, Math.round(proporcion * clientesEstimados));
+        }
+
+        /**
+         * Estima el número de clientes de cada ciudad que aparece en la muestra.
+         *
+         * @return Número estimado de clientes de cada ciudad
+         */
+        public Map<String, Integer> getClientesPorCiudad() {
+            Map<String, Double> pesosPorCiudad = new HashMap<>();
+            for (int i = 0; i < pesos.length; i++) {
+                pesosPorCiudad.merge(extraidos.get(i).getCiudad(), pesos[i], Double::sum);
+            }
+            Map<String, Integer> clientesPorCiudad = new HashMap<>();
+            pesosPorCiudad.forEach((ciudad, peso) ->
+                clientesPorCiudad.put(ciudad, (int) Math.round(peso / pesoTotal * clientesEstimados)));
+            return clientesPorCiudad;
+        }
+    }
+
+    /**
+     * Toma una muestra aleatoria uniforme de los clientes del CSV leyendo solo
+     * unas pocas líneas sueltas, de modo que con un archivo de decenas de
+     * millones de líneas tarda lo mismo que con uno pequeño y permite enseñar
+     * la forma de los datos mientras se hace la carga completa.
+     *
+     * <p>Se eligen posiciones al azar del archivo y de cada una se lee la línea
+     * que la contiene; las líneas vacías o mal formadas se descartan. Una misma
+     * línea puede salir más de una vez: cuenta en las estimaciones, pero en
+     * {@link Muestra#getClientes()} aparece una sola vez.
+     *
+     * @param extracciones Número de posiciones a leer
+     * @param aleatorio Generador de las posiciones
+     * @return Muestra de los clientes
+     * @throws IOException Si ocurre un error leyendo el archivo
+     */
+    public Muestra muestrear(int extracciones, Random aleatorio) throws IOException {
+
+        Charset charset = Charset.defaultCharset();
+        TreeMap<Long, Cliente> porPosicion = new TreeMap<>();
+        List<Cliente> extraidos = new ArrayList<>(extracciones);
+        double[] pesos = new double[extracciones];
+        long clientesEstimados = 0;
+
+        try (FileChannel canal = FileChannel.open(Path.of(rutaCSV))) {
+
+            long bytesTotales = canal.size();
+            long inicioDatos = Math.min(bytesTotales, buscarSalto(canal, 0, bytesTotales) + 1); // Tras la cabecera
+            long bytesDatos = bytesTotales - inicioDatos;
+            if (bytesDatos == 0) {
+                return new Muestra(List.of(), List.of(), new double[0], 0);
+            }
+
+            double sumaPesos = 0;
+            for (int i = 0; i < extracciones; i++) {
+                long posicion = inicioDatos + aleatorio.nextLong(bytesDatos);
+                long inicio = buscarInicioLinea(canal, posicion, inicioDatos);
+                long fin = buscarSalto(canal, posicion, bytesTotales);
+                // Una línea ocupa sus bytes más el salto que la termina
+                long longitud = Math.min(fin + 1, bytesTotales) - inicio;
+
+                Cliente cliente;
+                try {
+                    cliente = parsearLinea(new String(leerBytes(canal, inicio, fin), charset).strip());
+                } catch (RuntimeException e) {
+                    continue; // Línea vacía o mal formada
+                }
+                pesos[extraidos.size()] = 1.0 / longitud;
+                extraidos.add(cliente);
+                porPosicion.putIfAbsent(inicio, cliente);
+                sumaPesos += 1.0 / longitud;
+            }
+            // Cada línea válida aporta en media su longitud por su peso: 1 cada bytesDatos bytes
+            clientesEstimados = Math.round(bytesDatos * sumaPesos / extracciones);
+        }
+
+        return new Muestra(List.copyOf(porPosicion.values()), extraidos,
+            Arrays.copyOf(pesos, extraidos.size()), clientesEstimados);
+    }
+
+    /**
+     * Busca hacia atrás el primer byte de la línea que contiene una posición.
+     */
+    private static long buscarInicioLinea(FileChannel canal, long posicion, long minimo) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(VENTANA_MUESTRA);
+        long hasta = posicion;
+        while (hasta > minimo) {
+            long desde = Math.max(minimo, hasta - VENTANA_MUESTRA);
+            buffer.clear().limit((int) (hasta - desde));
+            leerCompleto(canal, buffer, desde);
+            for (int i = buffer.limit() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return desde + i + 1;
+                }
+            }
+            hasta = desde;
+        }
+        return minimo;
+    }
+
+    /**
+     * Busca hacia delante el salto de línea que termina la línea de una
+     * posición, incluida ella misma.
+     *
+     * @return Posición del salto, o el tamaño del archivo si la última línea no lo tiene
+     */
+    private static long buscarSalto(FileChannel canal, long posicion, long bytesTotales) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(VENTANA_MUESTRA);
+        long desde = posicion;
+        while (desde < bytesTotales) {
+            buffer.clear().limit((int) Math.min(VENTANA_MUESTRA, bytesTotales - desde));
+            leerCompleto(canal, buffer, desde);
+            for (int i = 0; i < buffer.limit(); i++) {
+                if (buffer.get(i) == '\n') {
+                    return desde + i;
+                }
+            }
+            desde += buffer.limit();
+        }
+        return bytesTotales;
+    }
+
+    private static byte[] leerBytes(FileChannel canal, long desde, long hasta) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (hasta - desde));
+        leerCompleto(canal, buffer, desde);
+        return buffer.array();
+    }
+
+    private static void leerCompleto(FileChannel canal, ByteBuffer buffer, long posicion) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer, posicion + buffer.position()) < 0) {
+                throw new IOException("El archivo se ha acortado durante la lectura");
+            }
+        }
+    }
+
+    /**
+     * Abre un flujo perezoso con los clientes del CSV que cumplen los filtros.
+     * Las líneas se leen y se parsean a medida que se consume el flujo, sin
+     * cargar el archivo completo ni construir listas intermedias, por lo que
+     * sirve para recorrer archivos de cualquier tamaño con memoria constante.
+     * Los filtros funcionan igual que en {@link #obtenerPorFiltros(String, String)}.
+     * 
+     * <p>El flujo mantiene el archivo abierto y debe cerrarse, por ejemplo con
+     * try-with-resources. Los errores de lectura durante el recorrido se lanzan
+     * como {@link UncheckedIOException}.
+     *
+     * @param texto Texto a buscar dentro del nombre del cliente, o {@code null}
+     * @param ciudadFiltro Ciudad por la cual filtrar, o {@code null}
+     * @return Flujo de clientes en el orden del archivo
+     * @throws IOException Si no se puede abrir el archivo
+     */
+    public Stream<Cliente> flujoPorFiltros(String texto, String ciudadFiltro) throws IOException {
+
+        String textoMinusculas = texto == null ? "" : texto.toLowerCase();
+        BufferedReader br = new BufferedReader(new FileReader(rutaCSV));
+
+        return br.lines()
+            .skip(1) // Cabecera
+            .map(ClienteDAO::parsearLinea)
+            .filter(c -> cumpleFiltros(c, textoMinusculas, ciudadFiltro))
+            .onClose(() -> {
+                try {
+                    br.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+    }
+
+    /**
+     * Devuelve la ruta del archivo CSV asociado a este DAO.
+     *
+     * @return Ruta del archivo CSV
+     */
+    public String getRutaCSV() {
+        return rutaCSV;
+    }
+
     /**
      * Cuenta el número total de clientes registrados.
      * Simula la consulta SQL: SELECT COUNT(*) FROM clientes
@@ -145,14 +618,7 @@ public class ClienteDAO {
                     continue;
                 }
 
-                String[] campos = linea.split(",");
-
-                int id = Integer.parseInt(campos[0]);
-                String nombre = campos[1];
-                String email = campos[2];
-                String ciudad = campos[3];
-
-                clientes.add(new Cliente(id, nombre, email, ciudad));
+                clientes.add(parsearLinea(linea));
             }
 
         } catch (IOException e) {
@@ -162,4 +628,36 @@ public class ClienteDAO {
 
         return clientes;
     }
+
+    /**
+     * Crea un cliente a partir de una línea del CSV con el formato id,nombre,email,ciudad.
+     *
+     * @param linea Línea de datos del CSV
+     * @return Cliente con los datos de la línea
+     */
+    private static Cliente parsearLinea(String linea) {
+        String[] campos = linea.split(",");
+
+        int id = Integer.parseInt(campos[0]);
+        String nombre = campos[1];
+        String email = campos[2];
+        String ciudad = campos[3];
+
+        return new Cliente(id, nombre, email, ciudad);
+    }
+
+    /**
+     * Comprueba si un cliente cumple los filtros de nombre y ciudad.
+     *
+     * @param c Cliente a comprobar
+     * @param textoMinusculas Texto a buscar en el nombre, ya en minúsculas; vacío para no filtrar
+     * @param ciudadFiltro Ciudad por la cual filtrar, o {@code null}/vacía para no filtrar
+     * @return true si el cliente cumple ambos filtros
+     */
+    private static boolean cumpleFiltros(Cliente c, String textoMinusculas, String ciudadFiltro) {
+        if (!textoMinusculas.isEmpty() && !c.getNombre().toLowerCase().contains(textoMinusculas)) {
+            return false;
+        }
+        return ciudadFiltro == null || ciudadFiltro.isEmpty() || c.getCiudad().equalsIgnoreCase(ciudadFiltro);
+    }
 }
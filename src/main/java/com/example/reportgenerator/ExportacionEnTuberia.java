@@ -0,0 +1,161 @@
+package com.example.reportgenerator;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Exportación a PDF que solapa la lectura del CSV con el renderizado del informe.
+ *
+ * <p>En la exportación por etapas se lee y filtra todo el CSV, se construye la
+ * lista completa de clientes y solo entonces empieza el renderizado. Aquí un
+ * hilo productor lee el CSV con {@link ClienteDAO#leerPorLotes} y entrega lotes
+ * de {@value #TAMANO_LOTE} clientes a una cola acotada, mientras el hilo que
+ * exporta los va componiendo en páginas con {@link PDFExporter.InformeIncremental}.
+ * Mientras una etapa espera a la otra (disco o CPU), la otra avanza, y la
+ * memoria retenida queda limitada a los lotes de la cola y una página del
+ * listado en lugar de a todo el resultado del filtro.
+ *
+ * <p>La cola tiene capacidad para {@value #LOTES_EN_COLA} lotes: si el
+ * renderizado es más lento que la lectura, el productor se bloquea al llenarla
+ * (contrapresión). Un error en cualquiera de las dos etapas detiene la otra y
+ * se propaga al llamante.
+ *
+ * <p>El informe generado tiene el mismo contenido que el de
+ * {@link PDFExporter#exportarAPDF(List, String)} para los clientes que cumplen los filtros.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+public final class ExportacionEnTuberia {
+
+    /** Número de clientes por lote entregado del productor al renderizado. */
+    public static final int TAMANO_LOTE = 1000;
+
+    /** Número máximo de lotes leídos pendientes de renderizar. */
+    public static final int LOTES_EN_COLA = 8;
+
+    private static final int TAMANO_BLOQUE = 64 * 1024;
+
+    /** Marca de fin de lectura; se compara por identidad. */
+    private static final List<Cliente> FIN = new ArrayList<>(0);
+
+    private ExportacionEnTuberia() {
+    }
+
+    /**
+     * Exporta a un archivo PDF los clientes del CSV que cumplen los filtros,
+     * leyendo y renderizando en paralelo.
+     *
+     * @param dao DAO del CSV de clientes
+     * @param texto Texto a buscar dentro del nombre del cliente, o {@code null}
+     * @param ciudadFiltro Ciudad por la cual filtrar, o {@code null}
+     * @param rutaPDF Ruta completa donde se guardará el archivo PDF generado
+     * @throws IOException Si ocurre un error leyendo el CSV o generando el PDF
+     */
+    public static void exportarAPDF(ClienteDAO dao, String texto, String ciudadFiltro, String rutaPDF)
+            throws IOException {
+        try (PDDocument document = construirDocumento(dao, texto, ciudadFiltro)) {
+            document.save(rutaPDF);
+        }
+    }
+
+    /**
+     * Exporta sobre un flujo de salida los clientes del CSV que cumplen los
+     * filtros, leyendo y renderizando en paralelo.
+     * El flujo no se cierra al terminar; es responsabilidad del llamante.
+     *
+     * @param dao DAO del CSV de clientes
+     * @param texto Texto a buscar dentro del nombre del cliente, o {@code null}
+     * @param ciudadFiltro Ciudad por la cual filtrar, o {@code null}
+     * @param salida Flujo donde se escribirá el documento PDF
+     * @throws IOException Si ocurre un error leyendo el CSV o generando el PDF
+     */
+    public static void exportarAPDF(ClienteDAO dao, String texto, String ciudadFiltro, OutputStream salida)
+            throws IOException {
+        try (PDDocument document = construirDocumento(dao, texto, ciudadFiltro)) {
+            BufferedOutputStream bloques = new BufferedOutputStream(salida, TAMANO_BLOQUE);
+            document.save(bloques);
+            bloques.flush();
+        }
+    }
+
+    /**
+     * Construye el informe consumiendo los lotes que produce el hilo lector.
+     *
+     * @param dao DAO del CSV de clientes
+     * @param texto Texto a buscar dentro del nombre del cliente, o {@code null}
+     * @param ciudadFiltro Ciudad por la cual filtrar, o {@code null}
+     * @return Documento PDF listo para guardarse; el llamante debe cerrarlo
+     * @throws IOException Si ocurre un error leyendo el CSV o generando el PDF
+     */
+    private static PDDocument construirDocumento(ClienteDAO dao, String texto, String ciudadFiltro)
+            throws IOException {
+        BlockingQueue<List<Cliente>> cola = new ArrayBlockingQueue<>(LOTES_EN_COLA);
+        AtomicReference<Throwable> errorLectura = new AtomicReference<>();
+
+        Thread productor = new Thread(() -> {
+            try {
+                dao.leerPorLotes(texto, ciudadFiltro, TAMANO_LOTE, cola::put);
+            } catch (InterruptedException e) {
+                // El renderizado ha fallado y ya no espera más lotes
+                return;
+            } catch (Throwable e) {
+                errorLectura.set(e);
+            }
+            try {
+                cola.put(FIN);
+            } catch (InterruptedException e) {
+                // Igual que arriba: nadie consume ya la cola
+            }
+        }, "tuberia-csv");
+        productor.setDaemon(true);
+        productor.start();
+
+        boolean terminado = false;
+        try (PDFExporter.InformeIncremental informe = new PDFExporter.InformeIncremental()) {
+            List<Cliente> lote;
+            while ((lote = cola.take()) != FIN) {
+                informe.anadir(lote);
+            }
+            lanzarErrorLectura(errorLectura.get());
+            PDDocument document = informe.terminar();
+            terminado = true;
+            return document;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Exportación interrumpida");
+        } finally {
+            if (!terminado) {
+                productor.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Propaga al hilo que exporta el error con el que terminó la lectura, si lo hubo.
+     *
+     * @param error Error del productor, o {@code null}
+     * @throws IOException Si la lectura falló con un error de E/S
+     */
+    private static void lanzarErrorLectura(Throwable error) throws IOException {
+        if (error instanceof IOException e) {
+            throw new IOException("Error leyendo el CSV", e);
+        }
+        if (error instanceof RuntimeException e) {
+            throw e;
+        }
+        if (error instanceof Error e) {
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.reportgenerator;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Exportación de un informe grande dividido en varios PDF (volúmenes) de
+ * tamaño acotado, generados en paralelo.
+ *
+ * <p>El límite de cada volumen se fija en {@link OpcionesExportacion} por
+ * número de clientes ({@link OpcionesExportacion#setFilasPorVolumen(int)}), por
+ * número de páginas ({@link OpcionesExportacion#setPaginasPorVolumen(int)}) o
+ * por ambos. Cada volumen es un informe completo por sí mismo, con cabecera,
+ * numeración de páginas propia y el rango de clientes que contiene; el total
+ * y el gráfico por ciudad son los del informe entero en todos los volúmenes.
+ *
+ * <p>Los volúmenes se generan a la vez en tantos hilos como permitan los núcleos
+ * y la memoria (ver {@link PlanificadorInformes#calcularTrabajadores}), y
+ * comparten el oyente de progreso y el token de cancelación de las opciones.
+ * Se escriben como temporales y solo se mueven a su nombre definitivo cuando
+ * todos han terminado; si uno falla o se cancela la exportación, se detienen
+ * los demás y no queda ningún volumen. Al final se escribe un manifiesto JSON
+ * ({@code <nombre>}{@value #SUFIJO_MANIFIESTO}) con el rango, las páginas, el
+ * tamaño y el hash SHA-256 de cada volumen.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+public final class ExportacionPorVolumenes {
+
+    /** Sufijo del archivo de manifiesto, tras el nombre base del informe. */
+    public static final String SUFIJO_MANIFIESTO = "-manifiesto.json";
+
+    /**
+     * Volumen generado de un informe dividido.
+     *
+     * @param numero Número del volumen, empezando en 1
+     * @param archivo Archivo PDF del volumen
+     * @param primeraFila Posición en el informe del primer cliente del volumen, empezando en 1
+     * @param filas Clientes del volumen
+     * @param paginas Páginas del volumen
+     * @param bytes Tamaño del archivo
+     * @param sha256 Hash SHA-256 del archivo en hexadecimal
+     */
+    public record Volumen(int numero, Path archivo, int primeraFila, int filas, int paginas, long bytes,
+                          String sha256) {
+    }
+
+    private ExportacionPorVolumenes() {
+    }
+
+    /**
+     * Exporta una lista de clientes en volúmenes PDF dentro de un directorio.
+     * Los volúmenes se llaman {@code <nombreBase>-001.pdf}, {@code <nombreBase>-002.pdf}...
+     * y se sobrescriben si ya existen. Si todos los clientes caben en un volumen,
+     * se genera un único PDF igual al de {@link PDFExporter#exportarAPDF(List, String)}.
+     *
+     * @param clientes Lista de clientes del informe
+     * @param directorio Directorio de destino; se crea si no existe
+     * @param nombreBase Nombre común de los archivos, sin extensión
+     * @param opciones Opciones de exportación con el límite por volumen
+     * @return Volúmenes generados, en orden
+     * @throws IOException Si ocurre un error al generar o escribir algún volumen
+     * @throws java.io.InterruptedIOException Si la exportación se cancela
+     * @throws IllegalArgumentException Si las opciones no fijan ningún límite o no cabe ningún cliente
+     */
+    public static List<Volumen> exportar(List<Cliente> clientes, Path directorio, String nombreBase,
+                                         OpcionesExportacion opciones) throws IOException {
+        int filasPorVolumen = calcularFilasPorVolumen(opciones);
+        int numeroVolumenes = Math.max(1, (int) ((clientes.size() + (long) filasPorVolumen - 1) / filasPorVolumen));
+        Map<String, Integer> clientesPorCiudad = PDFExporter.contarPorCiudad(clientes);
+
+        int paginasTotales = 0;
+        for (int v = 0; v < numeroVolumenes; v++) {
+            paginasTotales += PDFExporter.calcularNumeroPaginas(filasDelVolumen(clientes.size(), filasPorVolumen, v));
+        }
+        SeguimientoExportacion seguimiento = new SeguimientoExportacion(opciones, clientes.size(), paginasTotales);
+
+        Files.createDirectories(directorio);
+        int trabajadores = Math.min(numeroVolumenes, PlanificadorInformes.calcularTrabajadores(
+            Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().maxMemory(),
+            PlanificadorInformes.MEMORIA_POR_TRABAJO));
+
+        List<Path> temporales = new ArrayList<>();
+        List<Path> movidos = new ArrayList<>();
+        Volumen[] volumenes = new Volumen[numeroVolumenes];
+        boolean completado = false;
+        try {
+            for (int v = 0; v < numeroVolumenes; v++) {
+                Path archivo = directorio.resolve(nombreVolumen(nombreBase, v + 1, numeroVolumenes));
+                temporales.add(ArchivoTemporal.junto(archivo));
+            }
+
+            generar(clientes, filasPorVolumen, clientesPorCiudad, opciones, seguimiento, temporales, volumenes,
+                directorio, nombreBase, trabajadores);
+
+            for (int v = 0; v < numeroVolumenes; v++) {
+                ArchivoTemporal.sustituir(temporales.get(v), volumenes[v].archivo());
+                movidos.add(volumenes[v].archivo());
+            }
+            escribirManifiesto(directorio.resolve(nombreBase + SUFIJO_MANIFIESTO), nombreBase, clientes.size(),
+                paginasTotales, clientesPorCiudad, volumenes);
+            completado = true;
+        } finally {
+            for (Path temporal : temporales) {
+                Files.deleteIfExists(temporal);
+            }
+            // Solo se borran los volúmenes de esta exportación, no los que dejara otra anterior
+            if (!completado) {
+                for (Path archivo : movidos) {
+                    Files.deleteIfExists(archivo);
+                }
+            }
+        }
+        return List.of(volumenes);
+    }
+
+    /**
+     * Calcula cuántos clientes caben en cada volumen según los límites de las opciones.
+     *
+     * @param opciones Opciones con el límite por filas, por páginas o ambos
+     * @return Máximo de clientes por volumen
+     * @throws IllegalArgumentException Si no hay ningún límite o en las páginas indicadas no cabe ningún cliente
+     */
+    static int calcularFilasPorVolumen(OpcionesExportacion opciones) {
+        if (opciones.getFilasPorVolumen() == 0 && opciones.getPaginasPorVolumen() == 0) {
+            throw new IllegalArgumentException("Debe indicarse un límite de filas o de páginas por volumen");
+        }
+        int filas = opciones.getFilasPorVolumen() > 0 ? opciones.getFilasPorVolumen() : Integer.MAX_VALUE;
+        if (opciones.getPaginasPorVolumen() > 0) {
+            filas = Math.min(filas, filasQueCabenEnPaginas(opciones.getPaginasPorVolumen()));
+        }
+        return filas;
+    }
+
+    /**
+     * Busca el mayor número de clientes cuyo informe no supera un número de
+     * páginas, incluida la del gráfico. El número de páginas crece con el de
+     * clientes, así que basta una búsqueda binaria sobre la paginación aritmética.
+     *
+     * @param paginas Páginas máximas del informe
+     * @return Máximo de clientes que caben
+     * @throws IllegalArgumentException Si no cabe ningún cliente
+     */
+    private static int filasQueCabenEnPaginas(int paginas) {
+        PaginacionInforme paginacion = PDFExporter.calcularPaginacion(0);
+        long maximo = paginacion.getCapacidad(0) + (long) paginas * paginacion.getCapacidad(1);
+        int desde = 0;
+        int hasta = (int) Math.min(Integer.MAX_VALUE - 1, maximo);
+        while (desde < hasta) {
+            int medio = (int) (((long) desde + hasta + 1) / 2);
+            if (PDFExporter.calcularNumeroPaginas(medio) <= paginas) {
+                desde = medio;
+            } else {
+                hasta = medio - 1;
+            }
+        }
+        if (desde == 0) {
+            throw new IllegalArgumentException("En " + paginas + " páginas no cabe ningún cliente");
+        }
+        return desde;
+    }
+
+    /**
+     * Genera los volúmenes en paralelo sobre sus archivos temporales. Si uno
+     * falla, aborta los demás y propaga el primer error.
+     */
+    private static void generar(List<Cliente> clientes, int filasPorVolumen, Map<String, Integer> clientesPorCiudad,
+                                OpcionesExportacion opciones, SeguimientoExportacion seguimiento,
+                                List<Path> temporales, Volumen[] volumenes, Path directorio, String nombreBase,
+                                int trabajadores) throws IOException {
+        int numeroVolumenes = volumenes.length;
+        Throwable error = null;
+
+        try (ExecutorService ejecutor = Executors.newFixedThreadPool(trabajadores)) {
+            CompletionService<Volumen> terminados = new ExecutorCompletionService<>(ejecutor);
+            for (int v = 0; v < numeroVolumenes; v++) {
+                int indice = v;
+                terminados.submit(() -> {
+                    int desde = indice * filasPorVolumen;
+                    int filas = filasDelVolumen(clientes.size(), filasPorVolumen, indice);
+                    PDFExporter.ContextoVolumen contexto = numeroVolumenes == 1 ? null
+                        : new PDFExporter.ContextoVolumen(indice + 1, numeroVolumenes, desde + 1, clientes.size(),
+                            clientesPorCiudad);
+                    String sha256 = escribirVolumen(clientes.subList(desde, desde + filas), temporales.get(indice),
+                        opciones, seguimiento, contexto);
+                    return new Volumen(indice + 1,
+                        directorio.resolve(nombreVolumen(nombreBase, indice + 1, numeroVolumenes)), desde + 1, filas,
+                        PDFExporter.calcularNumeroPaginas(filas), Files.size(temporales.get(indice)), sha256);
+                });
+            }
+
+            // En orden de finalización: el primer fallo es la causa, no un volumen abortado por ella
+            for (int i = 0; i < numeroVolumenes; i++) {
+                try {
+                    Future<Volumen> terminado = terminados.take();
+                    Volumen volumen = terminado.get();
+                    volumenes[volumen.numero() - 1] = volumen;
+                } catch (ExecutionException e) {
+                    if (error == null) {
+                        error = e.getCause();
+                        seguimiento.abortar();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    seguimiento.abortar();
+                    throw new InterruptedIOException("Interrumpido esperando los volúmenes");
+                }
+            }
+        }
+
+        if (error instanceof IOException e) {
+            throw e;
+        }
+        if (error instanceof RuntimeException e) {
+            throw e;
+        }
+        if (error instanceof Error e) {
+            throw e;
+        }
+    }
+
+    /**
+     * Escribe un volumen calculando a la vez su hash.
+     *
+     * @return Hash SHA-256 del archivo en hexadecimal
+     */
+    private static String escribirVolumen(List<Cliente> clientes, Path archivo, OpcionesExportacion opciones,
+                                          SeguimientoExportacion seguimiento, PDFExporter.ContextoVolumen contexto)
+            throws IOException {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+        try (OutputStream salida = new DigestOutputStream(Files.newOutputStream(archivo), sha256)) {
+            PDFExporter.exportarAPDF(clientes, salida, opciones, seguimiento, contexto);
+        }
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    /**
+     * Escribe el manifiesto JSON del informe dividido.
+     */
+    private static void escribirManifiesto(Path archivo, String nombreBase, int totalClientes, int paginasTotales,
+                                           Map<String, Integer> clientesPorCiudad, Volumen[] volumenes)
+            throws IOException {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"informe\": ");
+        FormatoJSON.escribirCadena(json, nombreBase);
+        json.append(",\n  \"versionPlantilla\": ").append(PDFExporter.VERSION_PLANTILLA)
+            .append(",\n  \"totalClientes\": ").append(totalClientes)
+            .append(",\n  \"totalPaginas\": ").append(paginasTotales)
+            .append(",\n  \"clientesPorCiudad\": {");
+        boolean primero = true;
+        for (Map.Entry<String, Integer> entry : new TreeMap<>(clientesPorCiudad).entrySet()) {
+            json.append(primero ? "" : ",").append("\n    ");
+            FormatoJSON.escribirCadena(json, entry.getKey());
+            json.append(": ").append(entry.getValue());
+            primero = false;
+        }
+        json.append(primero ? "" : "\n  ").append("},\n  \"volumenes\": [");
+        for (int v = 0; v < volumenes.length; v++) {
+            Volumen volumen = volumenes[v];
+            json.append(v == 0 ? "" : ",").append("\n    {\"volumen\": ").append(volumen.numero())
+                .append(", \"archivo\": ");
+            FormatoJSON.escribirCadena(json, volumen.archivo().getFileName().toString());
+            json.append(", \"primeraFila\": ").append(volumen.primeraFila())
+                .append(", \"ultimaFila\": ").append(volumen.primeraFila() + volumen.filas() - 1)
+                .append(", \"filas\": ").append(volumen.filas())
+                .append(", \"paginas\": ").append(volumen.paginas())
+                .append(", \"bytes\": ").append(volumen.bytes())
+                .append(", \"sha256\": \"").append(volumen.sha256()).append("\"}");
+        }
+        json.append("\n  ]\n}\n");
+        Files.writeString(archivo, json, StandardCharsets.UTF_8);
+    }
+
+    private static int filasDelVolumen(int totalFilas, int filasPorVolumen, int indice) {
+        long desde = (long) indice * filasPorVolumen;
+        return (int) Math.max(0, Math.min(filasPorVolumen, totalFilas - desde));
+    }
+
+    private static String nombreVolumen(String nombreBase, int numero, int total) {
+        int digitos = Math.max(3, String.valueOf(total).length());
+        return nombreBase + "-" + String.format("%0" + digitos + "d", numero) + ".pdf";
+    }
+}
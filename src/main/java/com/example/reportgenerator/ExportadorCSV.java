@@ -0,0 +1,71 @@
+package com.example.reportgenerator;
+
+import java.io.IOException;
+
+/**
+ * Exportador CSV con el mismo formato que el archivo de entrada
+ * ({@code id,nombre,email,ciudad}). Los campos que contienen comas, comillas o
+ * saltos de línea se entrecomillan según RFC 4180.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+public final class ExportadorCSV extends ExportadorTexto {
+
+    /**
+     * Crea el exportador; lo usa {@link java.util.ServiceLoader}.
+     */
+    public ExportadorCSV() {
+    }
+
+    @Override
+    public String getFormato() {
+        return "csv";
+    }
+
+    @Override
+    public String getTipoContenido() {
+        return "text/csv; charset=utf-8";
+    }
+
+    @Override
+    protected void escribirCabecera(SalidaTexto salida) throws IOException {
+        salida.append("id,nombre,email,ciudad\n");
+    }
+
+    @Override
+    protected void escribirFila(SalidaTexto salida, Cliente cliente) throws IOException {
+        salida.append(cliente.getId()).append(',');
+        escribirCampo(salida, cliente.getNombre());
+        salida.append(',');
+        escribirCampo(salida, cliente.getEmail());
+        salida.append(',');
+        escribirCampo(salida, cliente.getCiudad());
+        salida.append('\n');
+    }
+
+    private static void escribirCampo(SalidaTexto salida, String valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        boolean entrecomillar = false;
+        for (int i = 0; i < valor.length() && !entrecomillar; i++) {
+            char c = valor.charAt(i);
+            entrecomillar = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!entrecomillar) {
+            salida.append(valor);
+            return;
+        }
+        salida.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                salida.append('"');
+            }
+            salida.append(c);
+        }
+        salida.append('"');
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.reportgenerator;
+
+import java.io.IOException;
+
+/**
+ * Exportador HTML: un documento autónomo con una tabla de clientes, apto para
+ * abrirlo en el navegador o pegarlo en una hoja de cálculo. El texto de las
+ * celdas se escapa para que los datos no puedan inyectar marcado.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+public final class ExportadorHTML extends ExportadorTexto {
+
+    /**
+     * Crea el exportador; lo usa {@link java.util.ServiceLoader}.
+     */
+    public ExportadorHTML() {
+    }
+
+    @Override
+    public String getFormato() {
+        return "html";
+    }
+
+    @Override
+    public String getTipoContenido() {
+        return "text/html; charset=utf-8";
+    }
+
+    @Override
+    protected void escribirCabecera(SalidaTexto salida) throws IOException {
+        salida.append("<!DOCTYPE html>\n<html lang=\"es\">\n<head>\n<meta charset=\"utf-8\">\n")
+            .append("<title>Informe de Clientes</title>\n</head>\n<body>\n<h1>Informe de Clientes</h1>\n")
+            .append("<table>\n<thead><tr><th>ID</th><th>Nombre</th><th>Email</th><th>Ciudad</th></tr></thead>\n")
+            .append("<tbody>\n");
+    }
+
+    @Override
+    protected void escribirFila(SalidaTexto salida, Cliente cliente) throws IOException {
+        salida.append("<tr><td>").append(cliente.getId()).append("</td><td>");
+        escribirTexto(salida, cliente.getNombre());
+        salida.append("</td><td>");
+        escribirTexto(salida, cliente.getEmail());
+        salida.append("</td><td>");
+        escribirTexto(salida, cliente.getCiudad());
+        salida.append("</td></tr>\n");
+    }
+
+    @Override
+    protected void escribirPie(SalidaTexto salida) throws IOException {
+        salida.append("</tbody>\n</table>\n</body>\n</html>\n");
+    }
+
+    private static void escribirTexto(SalidaTexto salida, String valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        int inicio = 0;
+        for (int i = 0; i < valor.length(); i++) {
+            String entidad = switch (valor.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (entidad != null) {
+                salida.append(valor, inicio, i).append(entidad);
+                inicio = i + 1;
+            }
+        }
+        salida.append(valor, inicio, valor.length());
+    }
+}
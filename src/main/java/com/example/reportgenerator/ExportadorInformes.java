@@ -0,0 +1,119 @@
+package com.example.reportgenerator;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.ServiceLoader;
+
+/**
+ * Interfaz de proveedor de servicio (SPI) para los formatos de exportación
+ * de informes de clientes.
+ *
+ * <p>Cada implementación exporta a un formato los clientes del CSV que cumplen
+ * unos filtros. Las implementaciones se descubren con {@link ServiceLoader}: las
+ * de la aplicación se declaran en {@code module-info.java} (y en
+ * {@code META-INF/services} para la ejecución desde el classpath), y otro
+ * módulo puede añadir formatos declarando su propio proveedor.
+ *
+ * <p>La aplicación incluye:
+ * <ul>
+ *   <li>{@code pdf} - {@link ExportadorPDF}, el informe completo con gráfico</li>
+ *   <li>{@code html} - {@link ExportadorHTML}, una tabla HTML</li>
+ *   <li>{@code jsonl} - {@link ExportadorJSONLines}, un objeto JSON por línea</li>
+ *   <li>{@code csv} - {@link ExportadorCSV}, el mismo formato que el CSV de entrada</li>
+ * </ul>
+ *
+ * <p>Los formatos de texto escriben las filas a medida que las lee el DAO, sin
+ * construir listas intermedias, por lo que su memoria no depende del número de filas.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+public interface ExportadorInformes {
+
+    /**
+     * Identificador del formato, que coincide con la extensión habitual de sus archivos.
+     *
+     * @return Formato en minúsculas, por ejemplo {@code "csv"}
+     */
+    String getFormato();
+
+    /**
+     * Tipo MIME de la salida, para servirla por HTTP.
+     *
+     * @return Tipo de contenido, por ejemplo {@code "text/csv; charset=utf-8"}
+     */
+    String getTipoContenido();
+
+    /**
+     * Exporta los clientes que cumplen los filtros sobre un canal.
+     * El canal no se cierra al terminar; es responsabilidad del llamante.
+     *
+     * @param dao DAO del CSV de clientes
+     * @param texto Texto a buscar dentro del nombre del cliente, o {@code null}
+     * @param ciudadFiltro Ciudad por la cual filtrar, o {@code null}
+     * @param canal Canal donde se escribirá el informe
+     * @param opciones Opciones de exportación; todos los formatos atienden el token de
+     *        cancelación, y el PDF además notifica el progreso
+     * @throws IOException Si ocurre un error leyendo el CSV o escribiendo el informe
+     * @throws java.io.InterruptedIOException Si la exportación se cancela
+     */
+    void exportar(ClienteDAO dao, String texto, String ciudadFiltro, WritableByteChannel canal,
+                  OpcionesExportacion opciones) throws IOException;
+
+    /**
+     * Exporta los clientes que cumplen los filtros a un archivo. El informe se
+     * escribe en un temporal junto al destino y solo se mueve a su sitio al
+     * completarse, de modo que un error o una cancelación no dejan un archivo a medias.
+     *
+     * @param dao DAO del CSV de clientes
+     * @param texto Texto a buscar dentro del nombre del cliente, o {@code null}
+     * @param ciudadFiltro Ciudad por la cual filtrar, o {@code null}
+     * @param destino Archivo donde se guardará el informe; se sobrescribe si existe
+     * @param opciones Opciones de exportación
+     * @throws IOException Si ocurre un error leyendo el CSV o escribiendo el informe
+     */
+    default void exportar(ClienteDAO dao, String texto, String ciudadFiltro, Path destino,
+                          OpcionesExportacion opciones) throws IOException {
+        Path temporal = ArchivoTemporal.junto(destino);
+        try {
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                exportar(dao, texto, ciudadFiltro, canal, opciones);
+            }
+            ArchivoTemporal.sustituir(temporal, destino.toAbsolutePath());
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Devuelve todos los exportadores disponibles.
+     *
+     * @return Exportadores registrados como proveedores del servicio
+     */
+    static List<ExportadorInformes> disponibles() {
+        List<ExportadorInformes> exportadores = new ArrayList<>();
+        ServiceLoader.load(ExportadorInformes.class).forEach(exportadores::add);
+        return exportadores;
+    }
+
+    /**
+     * Busca el exportador de un formato.
+     *
+     * @param formato Identificador del formato, sin distinguir mayúsculas
+     * @return Exportador del formato, o vacío si no hay ninguno registrado
+     */
+    static Optional<ExportadorInformes> buscar(String formato) {
+        return ServiceLoader.load(ExportadorInformes.class).stream()
+            .map(ServiceLoader.Provider::get)
+            .filter(e -> e.getFormato().equalsIgnoreCase(formato))
+            .findFirst();
+    }
+}
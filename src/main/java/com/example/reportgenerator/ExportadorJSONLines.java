@@ -0,0 +1,43 @@
+package com.example.reportgenerator;
+
+import java.io.IOException;
+
+/**
+ * Exportador JSON Lines: un objeto JSON por cliente y por línea, con los mismos
+ * campos que el listado {@code /clientes} del {@link ServidorInformes}. Al no
+ * haber un array que lo envuelva, el consumidor puede procesarlo línea a línea
+ * mientras se genera.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+public final class ExportadorJSONLines extends ExportadorTexto {
+
+    /**
+     * Crea el exportador; lo usa {@link java.util.ServiceLoader}.
+     */
+    public ExportadorJSONLines() {
+    }
+
+    @Override
+    public String getFormato() {
+        return "jsonl";
+    }
+
+    @Override
+    public String getTipoContenido() {
+        return "application/jsonl; charset=utf-8";
+    }
+
+    @Override
+    protected void escribirFila(SalidaTexto salida, Cliente cliente) throws IOException {
+        salida.append("{\"id\":").append(cliente.getId()).append(",\"nombre\":");
+        FormatoJSON.escribirCadena(salida, cliente.getNombre());
+        salida.append(",\"email\":");
+        FormatoJSON.escribirCadena(salida, cliente.getEmail());
+        salida.append(",\"ciudad\":");
+        FormatoJSON.escribirCadena(salida, cliente.getCiudad());
+        salida.append("}\n");
+    }
+}
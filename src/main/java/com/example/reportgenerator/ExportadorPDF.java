@@ -0,0 +1,40 @@
+package com.example.reportgenerator;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Exportador del informe PDF completo, con listado, total, gráfico por
+ * ciudad y pie de página. Delega en {@link PDFExporter}.
+ *
+ * <p>A diferencia de los formatos de texto, el PDF necesita conocer el total de
+ * filas antes de maquetar, así que los clientes filtrados se cargan en memoria.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+public final class ExportadorPDF implements ExportadorInformes {
+
+    /**
+     * Crea el exportador; lo usa {@link java.util.ServiceLoader}.
+     */
+    public ExportadorPDF() {
+    }
+
+    @Override
+    public String getFormato() {
+        return "pdf";
+    }
+
+    @Override
+    public String getTipoContenido() {
+        return "application/pdf";
+    }
+
+    @Override
+    public void exportar(ClienteDAO dao, String texto, String ciudadFiltro, WritableByteChannel canal,
+                         OpcionesExportacion opciones) throws IOException {
+        PDFExporter.exportarAPDF(dao.obtenerPorFiltros(texto, ciudadFiltro), canal, opciones);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.reportgenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Base de los exportadores de formatos de texto: recorre el flujo de clientes
+ * del DAO y escribe cada fila en una {@link SalidaTexto} según el formato.
+ *
+ * <p>Las subclases solo definen la cabecera, la fila y el pie del formato.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+abstract class ExportadorTexto implements ExportadorInformes {
+
+    @Override
+    public final void exportar(ClienteDAO dao, String texto, String ciudadFiltro, WritableByteChannel canal,
+                               OpcionesExportacion opciones) throws IOException {
+        SalidaTexto salida = new SalidaTexto(canal, opciones.getCancelacion());
+        try (Stream<Cliente> clientes = dao.flujoPorFiltros(texto, ciudadFiltro)) {
+            escribirCabecera(salida);
+            Iterator<Cliente> it = clientes.iterator();
+            while (it.hasNext()) {
+                escribirFila(salida, it.next());
+            }
+            escribirPie(salida);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        salida.vaciar();
+    }
+
+    /**
+     * Escribe lo que precede a las filas.
+     *
+     * @param salida Salida del informe
+     * @throws IOException Si ocurre un error al escribir
+     */
+    protected void escribirCabecera(SalidaTexto salida) throws IOException {
+    }
+
+    /**
+     * Escribe un cliente.
+     *
+     * @param salida Salida del informe
+     * @param cliente Cliente a escribir
+     * @throws IOException Si ocurre un error al escribir
+     */
+    protected abstract void escribirFila(SalidaTexto salida, Cliente cliente) throws IOException;
+
+    /**
+     * Escribe lo que sigue a las filas.
+     *
+     * @param salida Salida del informe
+     * @throws IOException Si ocurre un error al escribir
+     */
+    protected void escribirPie(SalidaTexto salida) throws IOException {
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.reportgenerator;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Vista inmutable de unas filas de la lista de clientes cargada, sin copiar los
+ * clientes: solo guarda sus posiciones. La usan los resultados de
+ * {@link BusquedaClientes} y de {@link OrdenacionClientes}, de modo que filtrar
+ * u ordenar millones de clientes no crea otra lista de millones de referencias.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+final class FilasClientes extends AbstractList<Cliente> implements RandomAccess {
+
+    private final List<Cliente> clientes;
+    private final int[] filas;
+
+    /**
+     * @param clientes Lista completa de clientes
+     * @param filas Posiciones en {@code clientes} de los clientes de la vista; no debe modificarse después
+     */
+    FilasClientes(List<Cliente> clientes, int[] filas) {
+        this.clientes = clientes;
+        this.filas = filas;
+    }
+
+    /**
+     * @return Lista completa sobre la que se define la vista
+     */
+    List<Cliente> getClientes() {
+        return clientes;
+    }
+
+    /**
+     * @return Posiciones de los clientes de la vista, que no deben modificarse
+     */
+    int[] getFilas() {
+        return filas;
+    }
+
+    @Override
+    public Cliente get(int indice) {
+        return clientes.get(filas[indice]);
+    }
+
+    @Override
+    public int size() {
+        return filas.length;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.reportgenerator;
+
+import java.io.IOException;
+
+/**
+ * Escritura de valores JSON compartida por el servidor de informes y el
+ * exportador JSON Lines.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+final class FormatoJSON {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private FormatoJSON() {
+    }
+
+    /**
+     * Escribe una cadena JSON entrecomillada, escapando las comillas, la barra
+     * invertida y los caracteres de control.
+     *
+     * @param json Destino del texto JSON
+     * @param valor Cadena a escribir; {@code null} se escribe como {@code null}
+     * @throws IOException Si ocurre un error al escribir en el destino
+     */
+    static void escribirCadena(Appendable json, String valor) throws IOException {
+        if (valor == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        int inicio = 0;
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            json.append(valor, inicio, i);
+            inicio = i + 1;
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> json.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            }
+        }
+        json.append(valor, inicio, valor.length());
+        json.append('"');
+    }
+
+    /**
+     * Escribe una cadena JSON entrecomillada en un {@link StringBuilder}.
+     *
+     * @param json Destino del texto JSON
+     * @param valor Cadena a escribir; {@code null} se escribe como {@code null}
+     * @see #escribirCadena(Appendable, String)
+     */
+    static void escribirCadena(StringBuilder json, String valor) {
+        try {
+            escribirCadena((Appendable) json, valor);
+        } catch (IOException e) {
+            // Un StringBuilder no lanza excepciones de E/S
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.reportgenerator;
+
+import org.apache.fontbox.ttf.CmapLookup;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.BitSet;
+
+/**
+ * Gestor de la fuente TrueType Unicode con la que se escriben los datos de los
+ * clientes en los informes PDF.
+ *
+ * <p>La fuente (DejaVu Sans, incluida en los recursos de la aplicación) se lee y
+ * se analiza una sola vez por JVM y se comparte entre todas las exportaciones.
+ * Cada documento la carga como fuente compuesta ({@code Type0}) que se incrusta
+ * como subconjunto: al guardar el PDF solo se incluyen los glifos que el
+ * documento ha usado, de modo que el tamaño del informe apenas crece.
+ *
+ * <p>Los caracteres sin glifo en la fuente (por ejemplo ideogramas o emojis) no
+ * se pueden dibujar; {@link #esRepresentable(int)} permite sustituirlos antes de
+ * codificar el texto.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+final class FuenteUnicode {
+
+    /** Ruta de la fuente dentro de los recursos de la aplicación. */
+    static final String RUTA_FUENTE = "/com/example/reportgenerator/fuentes/DejaVuSans.ttf";
+
+    /** Carácter con el que se sustituyen los caracteres sin glifo. */
+    static final char CARACTER_SUSTITUTO = '?';
+
+    private static volatile TrueTypeFont fuenteCompartida;
+    private static volatile CmapLookup cmap;
+    private static volatile BitSet representablesBMP;
+
+    private FuenteUnicode() {
+    }
+
+    /**
+     * Carga la fuente compartida en un documento como fuente compuesta que se
+     * incrustará como subconjunto al guardar el documento.
+     *
+     * @param document Documento en el que se usará la fuente
+     * @return Fuente lista para escribir texto en el documento
+     * @throws IOException Si no se puede leer la fuente incluida
+     */
+    static PDType0Font cargar(PDDocument document) throws IOException {
+        return PDType0Font.load(document, obtenerFuenteCompartida(), true);
+    }
+
+    /**
+     * Devuelve la fuente TrueType compartida, leyéndola y analizándola la
+     * primera vez que se solicita.
+     *
+     * @return Fuente TrueType analizada, la misma instancia en toda la JVM
+     * @throws IOException Si no se puede leer la fuente incluida
+     */
+    static TrueTypeFont obtenerFuenteCompartida() throws IOException {
+        TrueTypeFont fuente = fuenteCompartida;
+        if (fuente == null) {
+            synchronized (FuenteUnicode.class) {
+                fuente = fuenteCompartida;
+                if (fuente == null) {
+                    fuente = leerFuente();
+                    cmap = fuente.getUnicodeCmapLookup();
+                    representablesBMP = calcularRepresentables(cmap);
+                    fuenteCompartida = fuente;
+                }
+            }
+        }
+        return fuente;
+    }
+
+    /**
+     * Indica si la fuente tiene glifo para un punto de código Unicode.
+     *
+     * @param codePoint Punto de código a comprobar
+     * @return true si el carácter se puede dibujar con la fuente
+     * @throws IOException Si no se puede leer la fuente incluida
+     */
+    static boolean esRepresentable(int codePoint) throws IOException {
+        obtenerFuenteCompartida();
+        if (codePoint <= Character.MAX_VALUE) {
+            return representablesBMP.get(codePoint);
+        }
+        return cmap.getGlyphId(codePoint) > 0;
+    }
+
+    /**
+     * Lee y analiza la fuente desde los recursos de la aplicación.
+     *
+     * @return Fuente TrueType analizada
+     * @throws IOException Si el recurso no existe o no es una fuente válida
+     */
+    private static TrueTypeFont leerFuente() throws IOException {
+        try (InputStream in = FuenteUnicode.class.getResourceAsStream(RUTA_FUENTE)) {
+            if (in == null) {
+                throw new FileNotFoundException("No se encuentra la fuente " + RUTA_FUENTE);
+            }
+            return new TTFParser().parse(new RandomAccessReadBuffer(in.readAllBytes()));
+        }
+    }
+
+    /**
+     * Precalcula qué caracteres del plano multilingüe básico tienen glifo, para
+     * que la comprobación por carácter durante el renderizado sea una consulta
+     * a un mapa de bits.
+     *
+     * @param cmap Tabla de correspondencia Unicode de la fuente
+     * @return Mapa de bits con los caracteres representables
+     */
+    private static BitSet calcularRepresentables(CmapLookup cmap) {
+        BitSet representables = new BitSet(Character.MAX_VALUE + 1);
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            if (!Character.isISOControl(c) && cmap.getGlyphId(c) > 0) {
+                representables.set(c);
+            }
+        }
+        return representables;
+    }
+}
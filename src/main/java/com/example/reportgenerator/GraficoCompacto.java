@@ -0,0 +1,236 @@
+package com.example.reportgenerator;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.graphics.color.PDIndexed;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Imagen del gráfico por ciudad codificada para la salida compacta de
+ * {@link PDFExporter}: un byte por píxel con una paleta de hasta 256 colores,
+ * sin canal alfa y comprimida con Flate.
+ *
+ * <p>El gráfico tiene pocos colores de relleno y algunos miles de tonos del
+ * suavizado de bordes y del texto. Los 256 más frecuentes forman la paleta y
+ * el resto se sustituye por el más parecido, una diferencia inapreciable al
+ * tamaño al que se dibuja en la página; la imagen ocupa así menos de la mitad
+ * que la versión sin pérdidas en color real con máscara de transparencia.
+ *
+ * <p>Los gráficos ya codificados se guardan en una pequeña caché por número de
+ * clientes de cada ciudad, de modo que los volúmenes de un mismo informe y las
+ * exportaciones repetidas de los mismos datos no vuelven a dibujarlo ni a
+ * comprimirlo.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+final class GraficoCompacto {
+
+    /** Número máximo de gráficos codificados que se conservan. */
+    private static final int MAXIMO_EN_CACHE = 16;
+
+    private static final int MAXIMO_COLORES = 256;
+
+    private static final Map<Map<String, Integer>, GraficoCompacto> CACHE =
+        new LinkedHashMap<>(MAXIMO_EN_CACHE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Map<String, Integer>, GraficoCompacto> eldest) {
+                return size() > MAXIMO_EN_CACHE;
+            }
+        };
+
+    private final int ancho;
+    private final int alto;
+    private final byte[] paleta;
+    private final byte[] datos;
+
+    private GraficoCompacto(int ancho, int alto, byte[] paleta, byte[] datos) {
+        this.ancho = ancho;
+        this.alto = alto;
+        this.paleta = paleta;
+        this.datos = datos;
+    }
+
+    /**
+     * Devuelve el gráfico codificado de un reparto de clientes por ciudad,
+     * dibujándolo y codificándolo solo si no está ya en la caché.
+     *
+     * @param clientesPorCiudad Número de clientes de cada ciudad
+     * @param dibujar Dibuja el gráfico; puede devolver {@code null} si falla
+     * @return Gráfico codificado, o {@code null} si no se pudo dibujar
+     */
+    static GraficoCompacto de(Map<String, Integer> clientesPorCiudad, Supplier<BufferedImage> dibujar) {
+        Map<String, Integer> clave = Map.copyOf(clientesPorCiudad);
+        synchronized (CACHE) {
+            GraficoCompacto grafico = CACHE.get(clave);
+            if (grafico != null) {
+                return grafico;
+            }
+        }
+
+        // Se codifica fuera del bloqueo; si dos hilos coinciden, el resultado es el mismo
+        BufferedImage imagen = dibujar.get();
+        if (imagen == null) {
+            return null;
+        }
+        GraficoCompacto grafico = codificar(imagen);
+        synchronized (CACHE) {
+            CACHE.put(clave, grafico);
+        }
+        return grafico;
+    }
+
+    /**
+     * Codifica una imagen con una paleta de sus colores más frecuentes. Los
+     * píxeles translúcidos se componen sobre fondo blanco.
+     *
+     * @param imagen Imagen a codificar
+     * @return Imagen codificada
+     */
+    static GraficoCompacto codificar(BufferedImage imagen) {
+        int ancho = imagen.getWidth();
+        int alto = imagen.getHeight();
+        int[] pixeles = imagen.getRGB(0, 0, ancho, alto, null, 0, ancho);
+        for (int i = 0; i < pixeles.length; i++) {
+            pixeles[i] = sobreBlanco(pixeles[i]);
+        }
+
+        // Colores distintos con su frecuencia, contando las rachas del array ordenado
+        int[] ordenados = pixeles.clone();
+        Arrays.sort(ordenados);
+        int distintos = 0;
+        int[] colores = new int[ordenados.length];
+        int[] frecuencias = new int[ordenados.length];
+        for (int i = 0; i < ordenados.length; i++) {
+            if (i == 0 || ordenados[i] != ordenados[i - 1]) {
+                colores[distintos++] = ordenados[i];
+            }
+            frecuencias[distintos - 1]++;
+        }
+
+        // Paleta: los colores más frecuentes
+        Integer[] porFrecuencia = new Integer[distintos];
+        for (int i = 0; i < distintos; i++) {
+            porFrecuencia[i] = i;
+        }
+        Arrays.sort(porFrecuencia, (a, b) -> Integer.compare(frecuencias[b], frecuencias[a]));
+        int enPaleta = Math.min(distintos, MAXIMO_COLORES);
+        int[] paleta = new int[enPaleta];
+        Map<Integer, Integer> indices = new HashMap<>(distintos * 2);
+        for (int i = 0; i < enPaleta; i++) {
+            paleta[i] = colores[porFrecuencia[i]];
+            indices.put(paleta[i], i);
+        }
+        for (int i = enPaleta; i < distintos; i++) {
+            int color = colores[porFrecuencia[i]];
+            indices.put(color, masParecido(paleta, color));
+        }
+
+        byte[] indicesPixeles = new byte[pixeles.length];
+        for (int i = 0; i < pixeles.length; i++) {
+            indicesPixeles[i] = (byte) (int) indices.get(pixeles[i]);
+        }
+
+        byte[] bytesPaleta = new byte[enPaleta * 3];
+        for (int i = 0; i < enPaleta; i++) {
+            bytesPaleta[3 * i] = (byte) (paleta[i] >> 16);
+            bytesPaleta[3 * i + 1] = (byte) (paleta[i] >> 8);
+            bytesPaleta[3 * i + 2] = (byte) paleta[i];
+        }
+        return new GraficoCompacto(ancho, alto, bytesPaleta, comprimir(indicesPixeles));
+    }
+
+    /**
+     * Crea la imagen en un documento, con los datos ya comprimidos tal cual.
+     *
+     * @param document Documento al que pertenecerá la imagen
+     * @return Imagen indexada sobre RGB
+     * @throws IOException Si no se puede crear el flujo de la imagen
+     */
+    PDImageXObject crearImagen(PDDocument document) throws IOException {
+        COSArray espacioColor = new COSArray();
+        espacioColor.add(COSName.INDEXED);
+        espacioColor.add(COSName.DEVICERGB);
+        espacioColor.add(COSInteger.get(paleta.length / 3 - 1));
+        espacioColor.add(new COSString(paleta));
+        return new PDImageXObject(document, new ByteArrayInputStream(datos), COSName.FLATE_DECODE,
+            ancho, alto, 8, new PDIndexed(espacioColor));
+    }
+
+    /**
+     * Tamaño de la imagen codificada: datos comprimidos y paleta.
+     *
+     * @return Bytes que ocupa la imagen en el PDF, sin su diccionario
+     */
+    int getBytes() {
+        return datos.length + paleta.length;
+    }
+
+    /**
+     * Número de colores de la paleta.
+     *
+     * @return Colores de la paleta, como máximo 256
+     */
+    int getColores() {
+        return paleta.length / 3;
+    }
+
+    private static int sobreBlanco(int argb) {
+        int alfa = argb >>> 24;
+        if (alfa == 0xFF) {
+            return argb & 0xFFFFFF;
+        }
+        int blanco = 0xFF * (0xFF - alfa);
+        int r = (((argb >> 16) & 0xFF) * alfa + blanco) / 0xFF;
+        int g = (((argb >> 8) & 0xFF) * alfa + blanco) / 0xFF;
+        int b = ((argb & 0xFF) * alfa + blanco) / 0xFF;
+        return (r << 16) | (g << 8) | b;
+    }
+
+    private static int masParecido(int[] paleta, int color) {
+        int mejor = 0;
+        int menorDistancia = Integer.MAX_VALUE;
+        for (int i = 0; i < paleta.length; i++) {
+            int dr = ((paleta[i] >> 16) & 0xFF) - ((color >> 16) & 0xFF);
+            int dg = ((paleta[i] >> 8) & 0xFF) - ((color >> 8) & 0xFF);
+            int db = (paleta[i] & 0xFF) - (color & 0xFF);
+            int distancia = dr * dr + dg * dg + db * db;
+            if (distancia < menorDistancia) {
+                menorDistancia = distancia;
+                mejor = i;
+            }
+        }
+        return mejor;
+    }
+
+    private static byte[] comprimir(byte[] datos) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(datos.length / 8);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try (DeflaterOutputStream flate = new DeflaterOutputStream(salida, deflater, 8 * 1024)) {
+            flate.write(datos);
+        } catch (IOException e) {
+            // El destino está en memoria: no puede fallar
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return salida.toByteArray();
+    }
+}
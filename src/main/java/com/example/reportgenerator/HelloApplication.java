@@ -1,22 +1,40 @@
 package com.example.reportgenerator;
 
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.embed.swing.SwingFXUtils;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.geometry.Side;
 import javafx.scene.Scene;
 import javafx.scene.chart.PieChart;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 /**
  * Aplicación principal de gestión de clientes con interfaz gráfica JavaFX.
@@ -42,17 +60,84 @@ import java.util.Map;
  */
 public class HelloApplication extends Application {
     
+    /** Clientes del primer lote de la carga del CSV: los suficientes para llenar la tabla. */
+    private static final int PRIMER_LOTE_CARGA = 100;
+    
+    /** Clientes de cada lote siguiente de la carga del CSV. */
+    private static final int TAMANO_LOTE_CARGA = 5000;
+    
+    /** Pausa tras la última pulsación antes de filtrar, para no filtrar con cada tecla. */
+    private static final long RETARDO_FILTRO_MS = 150;
+    
+    /** Porciones del gráfico como máximo, incluida la de "Otros". */
+    private static final int MAXIMO_PORCIONES_GRAFICO = 10;
+    
+    /** Exportaciones que se generan a la vez; las demás esperan en cola. */
+    private static final int MAXIMO_EXPORTACIONES_SIMULTANEAS = 2;
+    
+    /** Tamaño del CSV a partir del cual se enseña una muestra mientras se carga entero. */
+    private static final long TAMANO_MINIMO_MUESTRA = 32L * 1024 * 1024;
+    
+    /** Líneas que se leen al azar del CSV para la muestra. */
+    private static final int EXTRACCIONES_MUESTRA = 2000;
+    
+    /** Palabras que se sugieren como mucho al escribir en el filtro por nombre. */
+    private static final int MAXIMO_SUGERENCIAS = 8;
+    
     private ClienteDAO clienteDAO;
     private TableView<Cliente> tableView;
-    private ObservableList<Cliente> clientesActuales;
+    private ListaClientesVirtual clientesActuales;
     private TextField nombreField;
+    private ContextMenu sugerenciasNombre;
+    
+    /** Palabras de los nombres de la carga actual; vacío hasta que se construye. */
+    private IndiceNombres indiceNombres = IndiceNombres.VACIO;
     private ComboBox<String> ciudadComboBox;
     private Label totalLabel;
     private PieChart pieChart;
     private String csvPath;
+    private CacheInformes cacheInformes;
+    private VBox panelExportaciones;
+    
+    /** Exportaciones en curso o en cola por archivo de destino; solo se usa en el hilo de JavaFX. */
+    private final Map<File, TokenCancelacion> exportacionesEnCurso = new HashMap<>();
+    private final ExecutorService ejecutorExportaciones = Executors.newFixedThreadPool(
+        MAXIMO_EXPORTACIONES_SIMULTANEAS, new FabricaHilosExportacion());
+    private HBox panelCarga;
+    private ProgressBar progresoCarga;
+    private TareaCarga cargaEnCurso;
+    
+    /** La tabla enseña la muestra de la carga en curso en lugar de los lotes ya leídos. */
+    private boolean muestraEnTabla;
+    private final BusquedaClientes busqueda = new BusquedaClientes(RETARDO_FILTRO_MS);
+    private final OrdenacionClientes ordenacion = new OrdenacionClientes();
+    
+    private final VistaPreviaInforme vistaPrevia = new VistaPreviaInforme();
+    private final ArranqueAplicacion arranque = new ArranqueAplicacion();
+    
+    /** Clientes del último filtro en su orden original, que la tabla muestra ordenados. */
+    private List<Cliente> clientesFiltrados = List.of();
+    private String nombreFiltrado = "";
+    private String ciudadFiltrada;
+    
+    /** Número de la carga de datos actual, para la caché de la vista previa. */
+    private long versionDatos;
+    
+    /** Origen de los clientes de la tabla, o {@code null} mientras se cargan. */
+    private VistaPreviaInforme.Clave claveMostrada;
+    private Tab pestanaVistaPrevia;
+    private ImageView imagenVistaPrevia;
+    private Label estadoVistaPrevia;
     
     @Override
     public void start(Stage stage) {
+        try {
+            cacheInformes = CacheInformes.enDirectorioTemporal();
+        } catch (IOException e) {
+            // Sin caché los informes se generan siempre desde cero
+            System.err.println("No se pudo abrir la caché de informes: " + e.getMessage());
+        }
+        
         stage.setTitle("Gestión de Clientes - Informes");
         
         // Layout principal
@@ -67,11 +152,31 @@ public class HelloApplication extends Application {
         VBox centerPanel = createCenterPanel();
         root.setCenter(centerPanel);
         
+        // Panel inferior con una fila por exportación en curso o terminada
+        panelExportaciones = new VBox(5);
+        panelExportaciones.setPadding(new Insets(0, 10, 0, 10));
+        root.setBottom(panelExportaciones);
+        
         Scene scene = new Scene(root, 1100, 650);
         stage.setScene(scene);
+        // Con la ventana ya a la vista se prepara la primera exportación
+        stage.setOnShown(e -> {
+            arranque.registrarVentana();
+            arranque.precargarEnSegundoPlano();
+        });
         stage.show();
     }
     
+    @Override
+    public void stop() {
+        busqueda.close();
+        ordenacion.close();
+        vistaPrevia.close();
+        // Las exportaciones canceladas borran su PDF a medio escribir
+        exportacionesEnCurso.values().forEach(TokenCancelacion::cancelar);
+        ejecutorExportaciones.shutdown();
+    }
+    
     private HBox createTopPanel(Stage stage) {
         HBox panel = new HBox(10);
         panel.setPadding(new Insets(10));
@@ -80,6 +185,14 @@ public class HelloApplication extends Application {
         Button seleccionarCSVBtn = new Button("Seleccionar CSV");
         seleccionarCSVBtn.setOnAction(e -> seleccionarCSV(stage));
         
+        // Progreso de la carga del CSV, visible solo mientras se lee
+        progresoCarga = new ProgressBar(0);
+        progresoCarga.setPrefWidth(120);
+        panelCarga = new HBox(10, new Label("Cargando CSV..."), progresoCarga);
+        panelCarga.setAlignment(Pos.CENTER_LEFT);
+        panelCarga.setVisible(false);
+        panelCarga.managedProperty().bind(panelCarga.visibleProperty());
+        
         Button exportarPDFBtn = new Button("Exportar a PDF");
         exportarPDFBtn.setOnAction(e -> exportarAPDF(stage));
         
@@ -90,7 +203,7 @@ public class HelloApplication extends Application {
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
         
-        panel.getChildren().addAll(seleccionarCSVBtn, exportarPDFBtn, spacer, ayudaBtn);
+        panel.getChildren().addAll(seleccionarCSVBtn, panelCarga, exportarPDFBtn, spacer, ayudaBtn);
         return panel;
     }
     
@@ -108,7 +221,16 @@ public class HelloApplication extends Application {
         VBox tablaPanel = createTablaPanel();
         
         // Panel derecho con gráfico
-        VBox graficoPanel = createGraficoPanel();
+        // La vista previa del informe solo se genera mientras su pestaña está a la vista
+        Tab pestanaGrafico = new Tab("Gráfico", createGraficoPanel());
+        pestanaVistaPrevia = new Tab("Vista previa del informe", createVistaPreviaPanel());
+        pestanaVistaPrevia.selectedProperty().addListener((obs, anterior, seleccionada) -> {
+            if (seleccionada) {
+                actualizarVistaPrevia();
+            }
+        });
+        TabPane graficoPanel = new TabPane(pestanaGrafico, pestanaVistaPrevia);
+        graficoPanel.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
         
         contenidoPanel.getChildren().addAll(tablaPanel, graficoPanel);
         HBox.setHgrow(tablaPanel, Priority.SOMETIMES);
@@ -126,16 +248,26 @@ public class HelloApplication extends Application {
         Label nombreLabel = new Label("Nombre contiene...");
         nombreField = new TextField();
         nombreField.setPrefWidth(150);
+        sugerenciasNombre = new ContextMenu();
+        nombreField.focusedProperty().addListener((obs, anterior, enfocado) -> {
+            if (!enfocado) {
+                sugerenciasNombre.hide();
+            }
+        });
         
         ciudadComboBox = new ComboBox<>();
         ciudadComboBox.getItems().add("Ciudad");
         ciudadComboBox.setValue("Ciudad");
         ciudadComboBox.setPrefWidth(120);
         
-        Button aplicarFiltrosBtn = new Button("Aplicar filtros");
-        aplicarFiltrosBtn.setOnAction(e -> aplicarFiltros());
+        // Los filtros se aplican mientras se escribe o se elige la ciudad
+        nombreField.textProperty().addListener((obs, anterior, actual) -> {
+            aplicarFiltros();
+            sugerirNombres();
+        });
+        ciudadComboBox.valueProperty().addListener((obs, anterior, actual) -> aplicarFiltros());
         
-        panel.getChildren().addAll(nombreLabel, nombreField, ciudadComboBox, aplicarFiltrosBtn);
+        panel.getChildren().addAll(nombreLabel, nombreField, ciudadComboBox);
         return panel;
     }
     
@@ -144,24 +276,42 @@ public class HelloApplication extends Application {
         panel.setPrefWidth(450);
         
         // Tabla
+        // La lista es una vista sobre los clientes cargados: la tabla solo lee las
+        // filas que tiene en pantalla, y con una altura de fila fija no necesita medirlas
         tableView = new TableView<>();
-        clientesActuales = FXCollections.observableArrayList();
+        clientesActuales = new ListaClientesVirtual();
         tableView.setItems(clientesActuales);
+        tableView.setFixedCellSize(24);
         tableView.setPlaceholder(new Label("Tabla sin contenido"));
+        // La tabla no ordena su lista: se ordena en segundo plano y se sustituye de una vez
+        tableView.setSortPolicy(tabla -> {
+            if (cargaEnCurso == null || !cargaEnCurso.isRunning()) {
+                mostrarClientes(clientesFiltrados, nombreFiltrado, ciudadFiltrada);
+            }
+            return true;
+        });
+        
+        TableColumn<Cliente, Integer> idCol = new TableColumn<>("ID");
+        idCol.setCellValueFactory(celda -> new ReadOnlyObjectWrapper<>(celda.getValue().getId()));
+        idCol.setUserData(OrdenacionClientes.Columna.ID);
+        idCol.setPrefWidth(60);
         
         TableColumn<Cliente, String> nombreCol = new TableColumn<>("Nombre");
-        nombreCol.setCellValueFactory(new PropertyValueFactory<>("nombre"));
+        nombreCol.setCellValueFactory(celda -> new SimpleStringProperty(celda.getValue().getNombre()));
+        nombreCol.setUserData(OrdenacionClientes.Columna.NOMBRE);
         nombreCol.setPrefWidth(150);
         
         TableColumn<Cliente, String> emailCol = new TableColumn<>("Email");
-        emailCol.setCellValueFactory(new PropertyValueFactory<>("email"));
+        emailCol.setCellValueFactory(celda -> new SimpleStringProperty(celda.getValue().getEmail()));
+        emailCol.setUserData(OrdenacionClientes.Columna.EMAIL);
         emailCol.setPrefWidth(150);
         
         TableColumn<Cliente, String> ciudadCol = new TableColumn<>("Ciudad");
-        ciudadCol.setCellValueFactory(new PropertyValueFactory<>("ciudad"));
+        ciudadCol.setCellValueFactory(celda -> new SimpleStringProperty(celda.getValue().getCiudad()));
+        ciudadCol.setUserData(OrdenacionClientes.Columna.CIUDAD);
         ciudadCol.setPrefWidth(120);
         
-        tableView.getColumns().addAll(nombreCol, emailCol, ciudadCol);
+        tableView.getColumns().addAll(idCol, nombreCol, emailCol, ciudadCol);
         tableView.setPrefHeight(450);
         
         // Label total
@@ -188,6 +338,21 @@ public class HelloApplication extends Application {
         return panel;
     }
     
+    private VBox createVistaPreviaPanel() {
+        VBox panel = new VBox(10);
+        panel.setPadding(new Insets(10));
+        panel.setAlignment(Pos.TOP_CENTER);
+        
+        estadoVistaPrevia = new Label("Carga un CSV para ver la primera página del informe");
+        imagenVistaPrevia = new ImageView();
+        imagenVistaPrevia.setPreserveRatio(true);
+        imagenVistaPrevia.setSmooth(true);
+        imagenVistaPrevia.setFitHeight(470);
+        
+        panel.getChildren().addAll(estadoVistaPrevia, imagenVistaPrevia);
+        return panel;
+    }
+    
     private void seleccionarCSV(Stage stage) {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Seleccionar archivo CSV");
@@ -200,81 +365,337 @@ public class HelloApplication extends Application {
             csvPath = file.getAbsolutePath();
             clienteDAO = new ClienteDAO(csvPath);
             cargarDatos();
-            actualizarCiudadesComboBox();
         }
     }
     
+    /**
+     * Carga el CSV seleccionado en un hilo en segundo plano. Las filas aparecen
+     * en la tabla por lotes a medida que se leen, empezando por un lote pequeño
+     * para que la primera pantalla se vea enseguida, y al terminar se rellenan
+     * las ciudades y el gráfico con el recuento hecho en la misma lectura.
+     * Con archivos grandes se enseña antes una muestra aleatoria. Si ya había
+     * una carga en curso, se cancela.
+     */
     private void cargarDatos() {
         if (clienteDAO == null) {
             mostrarAlerta("Error", "Primero debe seleccionar un archivo CSV");
             return;
         }
+        if (cargaEnCurso != null) {
+            cargaEnCurso.cancel();
+        }
+        
+        TareaCarga tarea = new TareaCarga(clienteDAO);
+        cargaEnCurso = tarea;
+        versionDatos++;
+        claveMostrada = null;
+        muestraEnTabla = false;
+        indiceNombres = IndiceNombres.VACIO;
+        sugerenciasNombre.hide();
+        clientesFiltrados = List.of();
+        clientesActuales.vaciar();
+        totalLabel.setText("Cargando clientes...");
+        progresoCarga.progressProperty().bind(tarea.progressProperty());
+        panelCarga.visibleProperty().bind(tarea.runningProperty());
+        
+        // Los lotes pendientes se entregan antes que este evento, que se encola después
+        tarea.setOnSucceeded(e -> {
+            ClienteDAO.Carga carga = tarea.getValue();
+            // La tabla pasa a mostrar la lista del DAO, en el orden elegido, y deja la muestra o la copia hecha por lotes
+            muestraEnTabla = false;
+            mostrarClientes(carga.clientes(), "", null);
+            totalLabel.setText("Total clientes: " + carga.clientes().size());
+            actualizarCiudadesComboBox(carga.clientesPorCiudad());
+            actualizarGrafico(carga.clientesPorCiudad());
+            construirIndiceNombres(tarea, carga.clientes());
+            if (!nombreField.getText().isBlank()) {
+                aplicarFiltros();
+            }
+        });
+        tarea.setOnFailed(e -> {
+            Throwable error = tarea.getException();
+            totalLabel.setText("Total clientes: " + clientesActuales.size());
+            mostrarAlerta("Error", "Error al cargar el CSV: " + error.getMessage());
+            error.printStackTrace();
+        });
         
-        List<Cliente> clientes = clienteDAO.obtenerTodos();
-        clientesActuales.clear();
-        clientesActuales.addAll(clientes);
+        Thread hilo = new Thread(tarea, "carga-csv");
+        hilo.setDaemon(true);
+        hilo.start();
         
-        totalLabel.setText("Total clientes: " + clientes.size());
+        if (new File(clienteDAO.getRutaCSV()).length() >= TAMANO_MINIMO_MUESTRA) {
+            muestrearDuranteCarga(tarea, clienteDAO);
+        }
+    }
+    
+    /**
+     * Con un CSV grande, enseña en cuanto está lista una muestra aleatoria de
+     * sus clientes, leída con {@link ClienteDAO#muestrear} en otro hilo
+     * mientras sigue la carga completa. La tabla muestra los clientes de la
+     * muestra en lugar de los primeros lotes, y el gráfico el reparto estimado
+     * por ciudad con su margen de error. Al terminar la carga ambos pasan a las
+     * cifras exactas.
+     * 
+     * @param carga Carga completa en curso
+     * @param dao DAO del CSV que se está cargando
+     */
+    private void muestrearDuranteCarga(TareaCarga carga, ClienteDAO dao) {
+        Task<ClienteDAO.Muestra> tarea = new Task<>() {
+            @Override
+            protected ClienteDAO.Muestra call() throws IOException {
+                return dao.muestrear(EXTRACCIONES_MUESTRA, new Random());
+            }
+        };
+        tarea.setOnSucceeded(e -> {
+            ClienteDAO.Muestra muestra = tarea.getValue();
+            if (cargaEnCurso != carga || !carga.isRunning() || muestra.getClientes().isEmpty()) {
+                return;
+            }
+            muestraEnTabla = true;
+            clientesActuales.mostrar(muestra.getClientes());
+            totalLabel.setText(String.format("Muestra de %d clientes de unos %,d (cargando el archivo completo...)",
+                muestra.getClientes().size(), muestra.getClientesEstimados()));
+            actualizarGraficoEstimado(muestra);
+        });
+        // Sin muestra, la carga sigue enseñando los lotes según se leen
+        tarea.setOnFailed(e -> System.err.println("No se pudo muestrear el CSV: " + tarea.getException().getMessage()));
         
-        actualizarGrafico(clientes);
+        Thread hilo = new Thread(tarea, "muestra-csv");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+    
+    /**
+     * Construye en otro hilo el índice de las palabras de los nombres para las
+     * sugerencias del filtro, sin retrasar la carga. Si entretanto se ha
+     * elegido otro archivo, el índice se descarta.
+     * 
+     * @param carga Carga terminada de la que salen los clientes
+     * @param clientes Clientes cargados
+     */
+    private void construirIndiceNombres(TareaCarga carga, List<Cliente> clientes) {
+        Thread hilo = new Thread(() -> {
+            IndiceNombres indice = IndiceNombres.construir(clientes);
+            Platform.runLater(() -> {
+                if (cargaEnCurso == carga) {
+                    indiceNombres = indice;
+                }
+            });
+        }, "indice-nombres");
+        hilo.setDaemon(true);
+        hilo.start();
     }
     
-    private void actualizarCiudadesComboBox() {
-        if (clienteDAO == null) return;
+    /**
+     * Sugiere bajo el filtro por nombre cómo completar la palabra que se está
+     * escribiendo, con las palabras más frecuentes de los nombres cargados que
+     * empiezan igual. Consultar el índice cuesta unos microsegundos, así que se
+     * hace en el hilo de la interfaz con cada pulsación. Al elegir una
+     * sugerencia sustituye a la palabra a medio escribir.
+     */
+    private void sugerirNombres() {
+        String texto = nombreField.getText();
+        int inicioPalabra = texto.length();
+        while (inicioPalabra > 0 && !Character.isWhitespace(texto.charAt(inicioPalabra - 1))) {
+            inicioPalabra--;
+        }
+        String palabra = texto.substring(inicioPalabra);
+        List<String> sugerencias = nombreField.isFocused()
+            ? indiceNombres.completar(palabra, MAXIMO_SUGERENCIAS) : List.of();
+        // No se sugiere lo que ya está escrito
+        if (sugerencias.isEmpty() || (sugerencias.size() == 1 && sugerencias.get(0).equalsIgnoreCase(palabra))) {
+            sugerenciasNombre.hide();
+            return;
+        }
         
-        Map<String, Integer> ciudades = clienteDAO.contarClientesPorCiudad();
+        String textoAnterior = texto.substring(0, inicioPalabra);
+        List<MenuItem> opciones = new ArrayList<>(sugerencias.size());
+        for (String sugerencia : sugerencias) {
+            MenuItem opcion = new MenuItem(sugerencia);
+            opcion.setOnAction(e -> {
+                nombreField.setText(textoAnterior + sugerencia);
+                nombreField.positionCaret(nombreField.getLength());
+                sugerenciasNombre.hide();
+            });
+            opciones.add(opcion);
+        }
+        sugerenciasNombre.getItems().setAll(opciones);
+        if (!sugerenciasNombre.isShowing()) {
+            sugerenciasNombre.show(nombreField, Side.BOTTOM, 0, 0);
+        }
+    }
+    
+    /**
+     * Indica si el CSV se está cargando todavía, avisando al usuario en ese caso.
+     * 
+     * @return true si hay una carga en curso
+     */
+    private boolean avisarSiCargando() {
+        if (cargaEnCurso != null && cargaEnCurso.isRunning()) {
+            mostrarAlerta("Cargando", "Espere a que termine la carga del CSV");
+            return true;
+        }
+        return false;
+    }
+    
+    private void actualizarCiudadesComboBox(Map<String, Integer> ciudades) {
         ciudadComboBox.getItems().clear();
         ciudadComboBox.getItems().add("Ciudad");
         ciudadComboBox.getItems().addAll(ciudades.keySet());
         ciudadComboBox.setValue("Ciudad");
     }
     
+    /**
+     * Filtra los clientes cargados por nombre y ciudad. El filtrado se hace en
+     * memoria y fuera del hilo de la interfaz con {@link BusquedaClientes}, que
+     * espera a que se deje de escribir y descarta las búsquedas superadas; solo
+     * se aplica a la tabla y al gráfico el resultado de la última. Mientras se
+     * carga el CSV no se filtra: los filtros se aplican al terminar la carga.
+     */
     private void aplicarFiltros() {
-        if (clienteDAO == null) {
-            mostrarAlerta("Error", "Primero debe seleccionar un archivo CSV");
+        if (clienteDAO == null || (cargaEnCurso != null && cargaEnCurso.isRunning())) {
             return;
         }
         
-        List<Cliente> clientesFiltrados = clienteDAO.obtenerTodos();
-        
-        // Filtro por nombre
-        String nombreFiltro = nombreField.getText().trim();
-        if (!nombreFiltro.isEmpty()) {
-            clientesFiltrados = clienteDAO.obtenerPorNombreContiene(nombreFiltro);
+        String ciudadSeleccionada = ciudadComboBox.getValue();
+        String ciudadFiltro = "Ciudad".equals(ciudadSeleccionada) ? null : ciudadSeleccionada;
+        String nombre = nombreField.getText().trim();
+        busqueda.buscar(nombre, ciudadFiltro, resultado -> Platform.runLater(() -> {
+            if (busqueda.esVigente(resultado)) {
+                mostrarClientes(resultado.clientes(), nombre, ciudadFiltro);
+                totalLabel.setText("Total clientes: " + resultado.clientes().size());
+                actualizarGrafico(resultado.clientesPorCiudad());
+            }
+        }));
+    }
+    
+    /**
+     * Muestra unos clientes en la tabla, en el orden elegido en sus columnas.
+     * Si hay que ordenarlos, {@link OrdenacionClientes} lo hace en segundo plano
+     * y la tabla cambia de una vez al terminar; una ordenación nueva descarta la
+     * anterior.
+     * 
+     * @param clientes Clientes en su orden original
+     * @param nombre Filtro por nombre del que salen los clientes
+     * @param ciudad Filtro por ciudad del que salen los clientes, o {@code null}
+     */
+    private void mostrarClientes(List<Cliente> clientes, String nombre, String ciudad) {
+        clientesFiltrados = clientes;
+        nombreFiltrado = nombre;
+        ciudadFiltrada = ciudad;
+        List<OrdenacionClientes.Criterio> criterios = new ArrayList<>();
+        for (TableColumn<Cliente, ?> columna : tableView.getSortOrder()) {
+            criterios.add(new OrdenacionClientes.Criterio((OrdenacionClientes.Columna) columna.getUserData(),
+                columna.getSortType() == TableColumn.SortType.DESCENDING));
         }
-        
-        // Filtro por ciudad
-        String ciudadFiltro = ciudadComboBox.getValue();
-        if (ciudadFiltro != null && !ciudadFiltro.equals("Ciudad")) {
-            if (!nombreFiltro.isEmpty()) {
-                // Aplicar ambos filtros
-                clientesFiltrados.removeIf(c -> !c.getCiudad().equalsIgnoreCase(ciudadFiltro));
-            } else {
-                clientesFiltrados = clienteDAO.obtenerPorCiudad(ciudadFiltro);
+        VistaPreviaInforme.Clave clave =
+            new VistaPreviaInforme.Clave(versionDatos, nombre, ciudad, List.copyOf(criterios));
+        if (criterios.isEmpty()) {
+            ordenacion.cancelar();
+            mostrarEnTabla(clientes, clave);
+            return;
+        }
+        ordenacion.ordenar(clientes, criterios, resultado -> Platform.runLater(() -> {
+            if (ordenacion.esVigente(resultado)) {
+                mostrarEnTabla(resultado.clientes(), clave);
             }
+        }));
+    }
+    
+    private void mostrarEnTabla(List<Cliente> clientes, VistaPreviaInforme.Clave clave) {
+        clientesActuales.mostrar(clientes);
+        claveMostrada = clave;
+        actualizarVistaPrevia();
+    }
+    
+    /**
+     * Pide la vista previa de la primera página del informe con los clientes de
+     * la tabla, si su pestaña está a la vista. Se genera en segundo plano y se
+     * reutiliza si ya se generó para los mismos datos, filtro y orden. Mientras
+     * se carga el CSV no hay vista previa.
+     */
+    private void actualizarVistaPrevia() {
+        if (!pestanaVistaPrevia.isSelected() || claveMostrada == null) {
+            return;
+        }
+        List<Cliente> clientes = clientesActuales.getClientes();
+        if (clientes.isEmpty()) {
+            vistaPrevia.cancelar();
+            imagenVistaPrevia.setImage(null);
+            estadoVistaPrevia.setText("No hay clientes que mostrar");
+            return;
         }
         
-        clientesActuales.clear();
-        clientesActuales.addAll(clientesFiltrados);
-        
-        totalLabel.setText("Total clientes: " + clientesFiltrados.size());
-        
-        actualizarGrafico(clientesFiltrados);
+        estadoVistaPrevia.setText("Generando la vista previa...");
+        vistaPrevia.generar(claveMostrada, clientes, resultado -> {
+            // La imagen de JavaFX también se prepara fuera del hilo de la interfaz
+            Image imagen = resultado.imagen() == null ? null : SwingFXUtils.toFXImage(resultado.imagen(), null);
+            Platform.runLater(() -> {
+                if (!vistaPrevia.esVigente(resultado)) {
+                    return;
+                }
+                imagenVistaPrevia.setImage(imagen);
+                if (imagen == null) {
+                    estadoVistaPrevia.setText("No se pudo generar la vista previa");
+                } else {
+                    estadoVistaPrevia.setText("Primera página del informe de " + clientes.size() + " clientes"
+                        + (resultado.milisegundos() == 0 ? "" : " (" + resultado.milisegundos() + " ms)"));
+                }
+            });
+        });
     }
     
-    private void actualizarGrafico(List<Cliente> clientes) {
-        ObservableList<PieChart.Data> pieChartData = FXCollections.observableArrayList();
-        
-        Map<String, Integer> ciudadCount = new java.util.HashMap<>();
-        for (Cliente c : clientes) {
-            ciudadCount.put(c.getCiudad(), ciudadCount.getOrDefault(c.getCiudad(), 0) + 1);
+    /**
+     * Muestra en el gráfico las ciudades con más clientes y una porción "Otros"
+     * con el resto. Las porciones que ya tiene el gráfico se reutilizan
+     * cambiando su nombre y su valor, así que filtrar no crea nodos nuevos y el
+     * coste no depende del número de ciudades.
+     * 
+     * @param ciudadCount Número de clientes de cada ciudad, ya calculado con la carga o el filtro
+     */
+    private void actualizarGrafico(Map<String, Integer> ciudadCount) {
+        dibujarPorciones(RepartoCiudades.agrupar(ciudadCount, MAXIMO_PORCIONES_GRAFICO), RepartoCiudades.Porcion::ciudad);
+    }
+    
+    /**
+     * Muestra en el gráfico el reparto por ciudad estimado con una muestra del
+     * CSV. Cada porción indica su porcentaje estimado y el margen de error con
+     * una confianza del 95 %.
+     * 
+     * @param muestra Muestra aleatoria de los clientes del CSV
+     */
+    private void actualizarGraficoEstimado(ClienteDAO.Muestra muestra) {
+        List<RepartoCiudades.Porcion> porciones =
+            RepartoCiudades.agrupar(muestra.getClientesPorCiudad(), MAXIMO_PORCIONES_GRAFICO);
+        Set<String> principales = new HashSet<>();
+        porciones.forEach(porcion -> principales.add(porcion.ciudad()));
+        principales.remove(RepartoCiudades.OTROS);
+        
+        dibujarPorciones(porciones, porcion -> {
+            ClienteDAO.Estimacion estimacion = RepartoCiudades.OTROS.equals(porcion.ciudad())
+                ? muestra.estimar(c -> !principales.contains(c.getCiudad()))
+                : muestra.estimar(c -> c.getCiudad().equals(porcion.ciudad()));
+            return String.format("%s ≈ %.1f %% ± %.1f", porcion.ciudad(),
+                100 * estimacion.proporcion(), 100 * estimacion.margen());
+        });
+    }
+    
+    private void dibujarPorciones(List<RepartoCiudades.Porcion> porciones,
+                                  Function<RepartoCiudades.Porcion, String> nombre) {
+        ObservableList<PieChart.Data> pieChartData = pieChart.getData();
+        
+        for (int i = 0; i < porciones.size(); i++) {
+            RepartoCiudades.Porcion porcion = porciones.get(i);
+            if (i < pieChartData.size()) {
+                pieChartData.get(i).setName(nombre.apply(porcion));
+                pieChartData.get(i).setPieValue(porcion.clientes());
+            } else {
+                pieChartData.add(new PieChart.Data(nombre.apply(porcion), porcion.clientes()));
+            }
         }
-        
-        for (Map.Entry<String, Integer> entry : ciudadCount.entrySet()) {
-            pieChartData.add(new PieChart.Data(entry.getKey(), entry.getValue()));
+        if (pieChartData.size() > porciones.size()) {
+            pieChartData.remove(porciones.size(), pieChartData.size());
         }
-        
-        pieChart.setData(pieChartData);
     }
     
     private void exportarAPDF(Stage stage) {
@@ -282,6 +703,9 @@ public class HelloApplication extends Application {
             mostrarAlerta("Error", "No hay datos para exportar");
             return;
         }
+        if (avisarSiCargando()) {
+            return;
+        }
         
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Guardar PDF");
@@ -291,13 +715,186 @@ public class HelloApplication extends Application {
         fileChooser.setInitialFileName("informe_clientes.pdf");
         
         File file = fileChooser.showSaveDialog(stage);
-        if (file != null) {
-            try {
-                PDFExporter.exportarAPDF(clientesActuales, file.getAbsolutePath());
-                mostrarAlerta("Éxito", "PDF exportado correctamente");
-            } catch (Exception e) {
-                mostrarAlerta("Error", "Error al exportar PDF: " + e.getMessage());
-                e.printStackTrace();
+        if (file == null) {
+            return;
+        }
+        if (exportacionesEnCurso.containsKey(file)) {
+            mostrarAlerta("Exportando", "Ya se está exportando un informe a " + file.getName());
+            return;
+        }
+        // Fuera de la carga la lista de la tabla no cambia: filtrar u ordenar la sustituye por otra,
+        // así que se puede exportar sin copiarla en el hilo de JavaFX
+        iniciarExportacion(clientesActuales.getClientes(), file);
+    }
+    
+    /**
+     * Exporta el informe en segundo plano, con una fila propia en el panel
+     * inferior que muestra su progreso y permite cancelarlo. Se pueden lanzar
+     * varias exportaciones seguidas: se generan como mucho
+     * {@value #MAXIMO_EXPORTACIONES_SIMULTANEAS} a la vez y el resto espera en
+     * cola. Al terminar, la fila avisa del resultado hasta que se cierra; si se
+     * cancela, no queda ningún PDF a medio escribir. El informe se genera con
+     * la salida compacta y se indica cuánto ocupa por página.
+     * 
+     * @param clientes Clientes a exportar; la lista no cambia aunque la tabla pase a mostrar otros
+     * @param file Archivo de destino
+     */
+    private void iniciarExportacion(List<Cliente> clientes, File file) {
+        TokenCancelacion cancelacion = new TokenCancelacion();
+        AtomicReference<ProgresoExportacion> ultimoProgreso = new AtomicReference<>();
+        
+        Task<Void> tarea = new Task<>() {
+            @Override
+            protected Void call() throws IOException {
+                long inicio = System.nanoTime();
+                updateMessage("Preparando el informe...");
+                OpcionesExportacion opciones = new OpcionesExportacion()
+                    .setSalidaCompacta(true)
+                    .setCancelacion(cancelacion)
+                    .setOyenteProgreso(progreso -> {
+                        ultimoProgreso.set(progreso);
+                        updateProgress(progreso.paginasRenderizadas(), progreso.paginasTotales());
+                        updateMessage(progreso.paginasRenderizadas() + " de " + progreso.paginasTotales()
+                            + " páginas, " + progreso.bytesEscritos() / 1024 + " KB");
+                    });
+                if (cacheInformes != null) {
+                    cacheInformes.exportarAPDF(clientes, file.toPath(), opciones);
+                } else {
+                    PDFExporter.exportarAPDF(clientes, file.getAbsolutePath(), opciones);
+                }
+                arranque.registrarExportacion((System.nanoTime() - inicio) / 1_000_000);
+                return null;
+            }
+        };
+        
+        ProgressBar progreso = new ProgressBar(0);
+        progreso.setPrefWidth(160);
+        progreso.progressProperty().bind(tarea.progressProperty());
+        Label estado = new Label("En cola");
+        Button accion = new Button("Cancelar");
+        HBox fila = new HBox(10, new Label(file.getName()), progreso, estado, accion);
+        fila.setAlignment(Pos.CENTER_LEFT);
+        panelExportaciones.getChildren().add(fila);
+        exportacionesEnCurso.put(file, cancelacion);
+        
+        accion.setOnAction(e -> {
+            // En cola basta con no empezarla; en curso, el exportador se detiene y borra el PDF
+            cancelacion.cancelar();
+            if (!tarea.isRunning()) {
+                tarea.cancel();
+            }
+            accion.setDisable(true);
+        });
+        tarea.setOnRunning(e -> estado.textProperty().bind(tarea.messageProperty()));
+        
+        tarea.setOnSucceeded(e -> {
+            ProgresoExportacion ultimo = ultimoProgreso.get();
+            terminarExportacion(file, fila, estado, accion, false, ultimo == null ? "PDF exportado correctamente"
+                : String.format("PDF exportado correctamente: %d páginas, %.0f bytes por página",
+                    ultimo.paginasTotales(), ultimo.getBytesPorPagina()));
+        });
+        tarea.setOnCancelled(e -> terminarExportacion(file, fila, estado, accion, false, "Exportación cancelada"));
+        tarea.setOnFailed(e -> {
+            Throwable error = tarea.getException();
+            if (cancelacion.isCancelado() && error instanceof InterruptedIOException) {
+                terminarExportacion(file, fila, estado, accion, false, "Exportación cancelada");
+            } else {
+                terminarExportacion(file, fila, estado, accion, true, "Error al exportar PDF: " + error.getMessage());
+                error.printStackTrace();
+            }
+        });
+        
+        ejecutorExportaciones.execute(tarea);
+    }
+    
+    /**
+     * Deja la fila de una exportación terminada como aviso de su resultado, con
+     * un botón para cerrarla.
+     */
+    private void terminarExportacion(File file, HBox fila, Label estado, Button accion, boolean error, String mensaje) {
+        exportacionesEnCurso.remove(file);
+        fila.getChildren().removeIf(nodo -> nodo instanceof ProgressBar);
+        estado.textProperty().unbind();
+        estado.setText(mensaje);
+        estado.setStyle(error ? "-fx-text-fill: #c0392b;" : "-fx-text-fill: #27ae60;");
+        accion.setText("Cerrar");
+        accion.setDisable(false);
+        accion.setOnAction(e -> panelExportaciones.getChildren().remove(fila));
+    }
+    
+    /**
+     * Crea los hilos de las exportaciones, numerados y sin impedir que la aplicación termine.
+     */
+    private static final class FabricaHilosExportacion implements ThreadFactory {
+        
+        private final AtomicInteger numero = new AtomicInteger();
+        
+        @Override
+        public Thread newThread(Runnable tarea) {
+            Thread hilo = new Thread(tarea, "exportacion-pdf-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        }
+    }
+    
+    /**
+     * Carga del CSV en segundo plano con {@link ClienteDAO#cargarPorLotes}.
+     * 
+     * <p>Los lotes leídos se acumulan y se añaden a la tabla en el hilo de
+     * JavaFX. Mientras una entrega está pendiente, los lotes siguientes se suman
+     * a ella, de modo que la cola de eventos de la interfaz nunca tiene más de
+     * una entrega a la vez por mucho que la lectura vaya por delante. Si la
+     * carga ya no es la actual porque se eligió otro archivo, sus lotes se descartan.
+     */
+    private final class TareaCarga extends Task<ClienteDAO.Carga> {
+        
+        private final ClienteDAO dao;
+        private final List<Cliente> pendientes = new ArrayList<>();
+        private boolean entregaProgramada;
+        
+        TareaCarga(ClienteDAO dao) {
+            this.dao = dao;
+        }
+        
+        @Override
+        protected ClienteDAO.Carga call() throws IOException, InterruptedException {
+            ClienteDAO.Carga carga = dao.cargarPorLotes(PRIMER_LOTE_CARGA, TAMANO_LOTE_CARGA,
+                (lote, leidos, totales) -> {
+                    if (isCancelled()) {
+                        throw new InterruptedException("Carga cancelada");
+                    }
+                    updateProgress(leidos, totales);
+                    publicar(lote);
+                });
+            // Los clientes para filtrar y ordenar se preparan también fuera del hilo de la interfaz
+            if (!isCancelled()) {
+                busqueda.setClientes(carga.clientes());
+                ordenacion.setClientes(carga.clientes());
+            }
+            return carga;
+        }
+        
+        private void publicar(List<Cliente> lote) {
+            synchronized (pendientes) {
+                pendientes.addAll(lote);
+                if (entregaProgramada) {
+                    return;
+                }
+                entregaProgramada = true;
+            }
+            Platform.runLater(this::entregar);
+        }
+        
+        private void entregar() {
+            List<Cliente> lote;
+            synchronized (pendientes) {
+                lote = new ArrayList<>(pendientes);
+                pendientes.clear();
+                entregaProgramada = false;
+            }
+            if (cargaEnCurso == this && !muestraEnTabla) {
+                clientesActuales.anadir(lote);
+                totalLabel.setText("Cargando clientes: " + clientesActuales.size());
             }
         }
     }
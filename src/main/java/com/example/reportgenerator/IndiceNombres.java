@@ -0,0 +1,224 @@
+package com.example.reportgenerator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Índice de las palabras de los nombres de los clientes para sugerir cómo
+ * completar la palabra que se está escribiendo en el filtro por nombre.
+ *
+ * <p>Guarda cada palabra distinta una sola vez, en un array ordenado por su
+ * clave sin acentos ni mayúsculas ({@link OrdenacionClientes#claveOrden}), de
+ * modo que las que empiezan por un texto forman un tramo contiguo que se
+ * encuentra con dos búsquedas binarias. Sobre el array hay un árbol de
+ * segmentos con la palabra más frecuente de cada intervalo, así que las más
+ * frecuentes del tramo se obtienen sin recorrerlo: sugerir cuesta unos
+ * microsegundos aunque el tramo tenga millones de palabras.
+ *
+ * <p>El índice es inmutable; se construye con los clientes de cada carga.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+final class IndiceNombres {
+
+    /** Índice sin palabras, para cuando no hay clientes cargados. */
+    static final IndiceNombres VACIO = construir(List.of());
+
+    /** Claves de las palabras, ordenadas. */
+    private final String[] claves;
+
+    /** Palabras tal como se escribieron la primera vez que aparecen. */
+    private final String[] palabras;
+
+    /** Veces que aparece cada palabra en los nombres. */
+    private final int[] apariciones;
+
+    /**
+     * Árbol de segmentos: en {@code arbol[n + i]} la palabra i y en cada nodo
+     * interno la más frecuente de sus dos hijos.
+     */
+    private final int[] arbol;
+
+    private IndiceNombres(String[] claves, String[] palabras, int[] apariciones) {
+        this.claves = claves;
+        this.palabras = palabras;
+        this.apariciones = apariciones;
+        int n = claves.length;
+        this.arbol = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            arbol[n + i] = i;
+        }
+        for (int nodo = n - 1; nodo > 0; nodo--) {
+            arbol[nodo] = mejor(arbol[2 * nodo], arbol[2 * nodo + 1]);
+        }
+    }
+
+    /**
+     * Construye el índice con las palabras de los nombres de unos clientes.
+     * Las palabras que solo se distinguen por mayúsculas cuentan como una; las
+     * que se distinguen por acentos no, porque el filtro por nombre sí los
+     * distingue.
+     *
+     * @param clientes Clientes cargados
+     * @return Índice de las palabras de sus nombres
+     */
+    static IndiceNombres construir(List<Cliente> clientes) {
+        Map<String, Palabra> distintas = new HashMap<>();
+        for (Cliente cliente : clientes) {
+            String nombre = cliente.getNombre();
+            int inicio = -1;
+            for (int i = 0; i <= nombre.length(); i++) {
+                boolean separador = i == nombre.length() || Character.isWhitespace(nombre.charAt(i));
+                if (!separador && inicio < 0) {
+                    inicio = i;
+                } else if (separador && inicio >= 0) {
+                    String palabra = nombre.substring(inicio, i);
+                    distintas.computeIfAbsent(palabra.toLowerCase(), minusculas -> new Palabra(palabra)).apariciones++;
+                    inicio = -1;
+                }
+            }
+        }
+
+        // Mismo orden que la ordenación de la tabla; a igual clave, por su forma en minúsculas
+        List<Map.Entry<String, Palabra>> entradas = new ArrayList<>(distintas.entrySet());
+        for (Map.Entry<String, Palabra> entrada : entradas) {
+            entrada.getValue().clave = OrdenacionClientes.claveOrden(entrada.getKey());
+        }
+        entradas.sort(Comparator.comparing((Map.Entry<String, Palabra> entrada) -> entrada.getValue().clave)
+            .thenComparing(Map.Entry::getKey));
+
+        int n = entradas.size();
+        String[] claves = new String[n];
+        String[] palabras = new String[n];
+        int[] apariciones = new int[n];
+        for (int i = 0; i < n; i++) {
+            Palabra palabra = entradas.get(i).getValue();
+            claves[i] = palabra.clave;
+            palabras[i] = palabra.forma;
+            apariciones[i] = palabra.apariciones;
+        }
+        return new IndiceNombres(claves, palabras, apariciones);
+    }
+
+    /**
+     * Palabras que empiezan por un texto, sin distinguir mayúsculas ni acentos,
+     * de más a menos frecuente; a igual frecuencia, en orden alfabético.
+     *
+     * @param prefijo Comienzo de la palabra
+     * @param maximo Número máximo de palabras
+     * @return Palabras sugeridas; vacío si el prefijo está en blanco
+     */
+    List<String> completar(String prefijo, int maximo) {
+        String clave = OrdenacionClientes.claveOrden(prefijo.strip());
+        if (clave.isEmpty() || maximo <= 0) {
+            return List.of();
+        }
+        int desde = primeraNoMenor(clave);
+        int hasta = primeraSinPrefijo(clave, desde);
+
+        // Cada tramo pendiente se guarda con su palabra más frecuente: {palabra, desde, hasta}
+        PriorityQueue<int[]> tramos = new PriorityQueue<>((a, b) -> mejor(a[0], b[0]) == a[0] ? -1 : 1);
+        if (desde < hasta) {
+            tramos.add(new int[] {masFrecuente(desde, hasta), desde, hasta});
+        }
+        List<String> sugerencias = new ArrayList<>(Math.min(maximo, hasta - desde));
+        while (!tramos.isEmpty() && sugerencias.size() < maximo) {
+            int[] tramo = tramos.poll();
+            int palabra = tramo[0];
+            sugerencias.add(palabras[palabra]);
+            if (tramo[1] < palabra) {
+                tramos.add(new int[] {masFrecuente(tramo[1], palabra), tramo[1], palabra});
+            }
+            if (palabra + 1 < tramo[2]) {
+                tramos.add(new int[] {masFrecuente(palabra + 1, tramo[2]), palabra + 1, tramo[2]});
+            }
+        }
+        return sugerencias;
+    }
+
+    /**
+     * @return Número de palabras distintas
+     */
+    int size() {
+        return claves.length;
+    }
+
+    /**
+     * Primera posición cuya clave no es menor que la dada.
+     */
+    private int primeraNoMenor(String clave) {
+        int desde = 0;
+        int hasta = claves.length;
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            if (claves[medio].compareTo(clave) < 0) {
+                desde = medio + 1;
+            } else {
+                hasta = medio;
+            }
+        }
+        return desde;
+    }
+
+    /**
+     * Primera posición a partir de una dada cuya clave no empieza por el
+     * prefijo; las que sí empiezan por él van seguidas desde {@code desde}.
+     */
+    private int primeraSinPrefijo(String prefijo, int desde) {
+        int hasta = claves.length;
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            if (claves[medio].startsWith(prefijo)) {
+                desde = medio + 1;
+            } else {
+                hasta = medio;
+            }
+        }
+        return desde;
+    }
+
+    /**
+     * Palabra más frecuente de las posiciones {@code [desde, hasta)}, que no está vacío.
+     */
+    private int masFrecuente(int desde, int hasta) {
+        int n = claves.length;
+        int resultado = desde;
+        for (desde += n, hasta += n; desde < hasta; desde >>= 1, hasta >>= 1) {
+            if ((desde & 1) == 1) {
+                resultado = mejor(resultado, arbol[desde++]);
+            }
+            if ((hasta & 1) == 1) {
+                resultado = mejor(resultado, arbol[--hasta]);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * De dos palabras, la que aparece más veces; a igualdad, la primera en orden alfabético.
+     */
+    private int mejor(int a, int b) {
+        if (apariciones[a] != apariciones[b]) {
+            return apariciones[a] > apariciones[b] ? a : b;
+        }
+        return Math.min(a, b);
+    }
+
+    /** Palabra distinta mientras se construye el índice. */
+    private static final class Palabra {
+
+        private final String forma;
+        private String clave;
+        private int apariciones;
+
+        Palabra(String forma) {
+            this.forma = forma;
+        }
+    }
+}
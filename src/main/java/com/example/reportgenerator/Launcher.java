@@ -2,8 +2,18 @@ package com.example.reportgenerator;
 
 import javafx.application.Application;
 
+import java.io.IOException;
+
 public class Launcher {
-    public static void main(String[] args) {
+
+    /** Argumento que genera un informe de prueba sin abrir la ventana, para entrenar el archivo CDS. */
+    static final String ENTRENAR_CDS = "--entrenar-cds";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 1 && ENTRENAR_CDS.equals(args[0])) {
+            ArranqueAplicacion.precargar();
+            return;
+        }
         Application.launch(HelloApplication.class, args);
     }
 }
@@ -0,0 +1,161 @@
+package com.example.reportgenerator;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lista observable de solo lectura que muestra en la tabla una lista de
+ * clientes ya cargada, sin copiarla.
+ *
+ * <p>{@code TableView} solo pide a su lista el tamaño y las filas que tiene en
+ * pantalla, así que con esta vista el coste de cambiar de datos no depende de
+ * cuántos haya: {@link #mostrar} sustituye la lista de fondo y notifica un
+ * único cambio, en lugar de copiar millones de referencias a un
+ * {@code observableArrayList} y notificarlas una a una. Los resultados de
+ * {@link BusquedaClientes} son ya vistas por índice sobre los clientes
+ * cargados, por lo que filtrar tampoco crea copias. El orden de la tabla lo
+ * calcula {@link OrdenacionClientes} en segundo plano, y la lista ya ordenada
+ * se muestra de una vez con {@link #mostrar}.
+ *
+ * <p>Mientras se carga el CSV, {@link #anadir} agrega lotes al final. La lista
+ * no admite las modificaciones de {@link java.util.List}; debe usarse solo
+ * desde el hilo de JavaFX.
+ *
+ * @author Álvaro
+ * @version 1.1
+ * @since 2026-10-19
+ */
+public final class ListaClientesVirtual extends ObservableListBase<Cliente> {
+
+    /** Clientes tal como se muestran. */
+    private List<Cliente> visibles = List.of();
+
+    /** Lista de fondo mientras se añaden lotes, o {@code null} si no se está cargando. */
+    private ArrayList<Cliente> ampliable;
+
+    /**
+     * Muestra otra lista de clientes, en su orden.
+     *
+     * @param clientes Clientes a mostrar; la lista no debe modificarse después
+     */
+    public void mostrar(List<Cliente> clientes) {
+        ampliable = null;
+        sustituir(clientes);
+    }
+
+    /**
+     * Vacía la lista y la prepara para recibir lotes con {@link #anadir}.
+     */
+    public void vaciar() {
+        ampliable = new ArrayList<>();
+        sustituir(ampliable);
+    }
+
+    /**
+     * Añade un lote de clientes al final, durante la carga.
+     *
+     * @param lote Clientes a añadir
+     * @throws IllegalStateException Si la lista no se ha vaciado antes con {@link #vaciar}
+     */
+    public void anadir(List<Cliente> lote) {
+        if (ampliable == null) {
+            throw new IllegalStateException("La lista no se está cargando");
+        }
+        int desde = ampliable.size();
+        ampliable.addAll(lote);
+        beginChange();
+        nextAdd(desde, ampliable.size());
+        endChange();
+    }
+
+    /**
+     * Devuelve los clientes mostrados, en su orden.
+     *
+     * <p>Fuera de una carga, la lista devuelta no vuelve a cambiar: mostrar
+     * otros clientes o empezar otra carga la sustituyen en lugar de
+     * modificarla, y {@link #anadir} solo amplía la lista de la carga en curso.
+     * Sirve por tanto como instantánea para usarla en otro hilo sin copiarla.
+     *
+     * @return Lista de fondo, que no debe modificarse
+     */
+    public List<Cliente> getClientes() {
+        return visibles;
+    }
+
+    @Override
+    public Cliente get(int index) {
+        return visibles.get(index);
+    }
+
+    @Override
+    public int size() {
+        return visibles.size();
+    }
+
+    /**
+     * Cambia la lista de fondo y notifica la sustitución completa como un único
+     * cambio. La lista anterior se entrega como eliminada sin copiarla, cosa que
+     * sí haría {@code nextReplace}.
+     */
+    private void sustituir(List<Cliente> nuevos) {
+        List<Cliente> anteriores = visibles;
+        visibles = nuevos;
+        if (!anteriores.isEmpty() || !nuevos.isEmpty()) {
+            fireChange(new Sustitucion(this, anteriores, nuevos.size()));
+        }
+    }
+
+    /**
+     * Cambio que sustituye todo el contenido de la lista.
+     */
+    private static final class Sustitucion extends ListChangeListener.Change<Cliente> {
+
+        private final List<Cliente> anteriores;
+        private final int anadidos;
+        private boolean iniciado;
+
+        Sustitucion(ListaClientesVirtual lista, List<Cliente> anteriores, int anadidos) {
+            super(lista);
+            this.anteriores = anteriores;
+            this.anadidos = anadidos;
+        }
+
+        @Override
+        public boolean next() {
+            if (iniciado) {
+                return false;
+            }
+            iniciado = true;
+            return true;
+        }
+
+        @Override
+        public void reset() {
+            iniciado = false;
+        }
+
+        @Override
+        public int getFrom() {
+            return 0;
+        }
+
+        @Override
+        public int getTo() {
+            return anadidos;
+        }
+
+        @Override
+        public List<Cliente> getRemoved() {
+            return Collections.unmodifiableList(anteriores);
+        }
+
+        @Override
+        protected int[] getPermutation() {
+            return new int[0];
+        }
+    }
+}
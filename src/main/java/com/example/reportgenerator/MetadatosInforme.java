@@ -0,0 +1,112 @@
+package com.example.reportgenerator;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Datos que un informe PDF guarda sobre su contenido para poder actualizarse
+ * de forma incremental con {@link PDFExporter#actualizarPDF}.
+ *
+ * <p>Se escriben en una entrada privada del catálogo del documento:
+ * la versión de la plantilla, el número de clientes del listado y una huella de
+ * sus datos. La huella se calcula encadenando un valor por cliente, de modo que
+ * la de una lista ampliada se obtiene a partir de la anterior sin volver a
+ * recorrerla, y sirve para comprobar que los clientes del informe siguen
+ * siendo los primeros de la lista actual.
+ *
+ * @param filas Clientes del listado del informe
+ * @param huella Huella de los datos de esos clientes, en orden
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+record MetadatosInforme(int filas, long huella) {
+
+    private static final COSName CLAVE = COSName.getPDFName("RGInforme");
+    private static final COSName VERSION = COSName.getPDFName("Version");
+    private static final COSName FILAS = COSName.getPDFName("Filas");
+    private static final COSName HUELLA = COSName.getPDFName("Huella");
+
+    /** Multiplicador impar de 64 bits con el que se encadena la huella. */
+    private static final long MULTIPLICADOR = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Calcula los metadatos de un listado de clientes.
+     *
+     * @param clientes Clientes del informe, en orden
+     * @return Metadatos del informe
+     */
+    static MetadatosInforme de(List<Cliente> clientes) {
+        return new MetadatosInforme(clientes.size(), huella(clientes, clientes.size()));
+    }
+
+    /**
+     * Lee los metadatos de un informe, si los tiene y son de la versión actual de la plantilla.
+     *
+     * @param document Documento del informe
+     * @return Metadatos del informe, o vacío si no se puede actualizar
+     */
+    static Optional<MetadatosInforme> leer(PDDocument document) {
+        COSDictionary datos = document.getDocumentCatalog().getCOSObject().getCOSDictionary(CLAVE);
+        if (datos == null || datos.getInt(VERSION) != PDFExporter.VERSION_PLANTILLA || datos.getInt(FILAS) < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new MetadatosInforme(datos.getInt(FILAS), datos.getLong(HUELLA)));
+    }
+
+    /**
+     * Escribe los metadatos en el catálogo del documento, sustituyendo los anteriores.
+     *
+     * @param document Documento del informe
+     */
+    void escribir(PDDocument document) {
+        COSDictionary datos = new COSDictionary();
+        datos.setInt(VERSION, PDFExporter.VERSION_PLANTILLA);
+        datos.setInt(FILAS, filas);
+        datos.setItem(HUELLA, COSInteger.get(huella));
+        document.getDocumentCatalog().getCOSObject().setItem(CLAVE, datos);
+    }
+
+    /**
+     * Comprueba si los clientes del informe son los primeros de una lista.
+     *
+     * @param clientes Lista actual de clientes
+     * @return true si la lista empieza por los mismos clientes, en el mismo orden
+     */
+    boolean esPrefijoDe(List<Cliente> clientes) {
+        return filas <= clientes.size() && huella(clientes, filas) == huella;
+    }
+
+    /**
+     * Calcula la huella de los primeros clientes de una lista.
+     *
+     * @param clientes Lista de clientes
+     * @param hasta Número de clientes a incluir desde el principio
+     * @return Huella de esos clientes
+     */
+    static long huella(List<Cliente> clientes, int hasta) {
+        long huella = 0;
+        for (int i = 0; i < hasta; i++) {
+            huella = huella(huella, clientes.get(i));
+        }
+        return huella;
+    }
+
+    /**
+     * Añade un cliente a una huella.
+     *
+     * @param previa Huella de los clientes anteriores
+     * @param cliente Cliente siguiente
+     * @return Huella con el cliente añadido
+     */
+    static long huella(long previa, Cliente cliente) {
+        int valor = Objects.hash(cliente.getId(), cliente.getNombre(), cliente.getEmail(), cliente.getCiudad());
+        return (previa + valor) * MULTIPLICADOR;
+    }
+}
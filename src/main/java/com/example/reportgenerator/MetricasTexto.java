@@ -0,0 +1,172 @@
+package com.example.reportgenerator;
+
+import org.apache.fontbox.ttf.CmapLookup;
+import org.apache.fontbox.ttf.HorizontalMetricsTable;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDSimpleFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.apache.pdfbox.pdmodel.font.encoding.GlyphList;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Métricas de texto de una fuente para maquetar el informe: anchos de cadenas,
+ * centrado, alineación y truncado de filas.
+ *
+ * <p>El avance de cada carácter del plano multilingüe básico se calcula una sola
+ * vez por fuente y JVM y se guarda en un array indexado por el propio carácter,
+ * en milésimas de em. El ancho de un texto es entonces un bucle sobre sus
+ * caracteres que suma posiciones del array y escala por el tamaño, sin crear
+ * objetos ni codificar el texto. Como el ancho es proporcional al tamaño, una
+ * misma tabla sirve para todos los tamaños de la fuente.
+ *
+ * <p>Los caracteres que la fuente no puede dibujar miden lo mismo que
+ * {@link FuenteUnicode#CARACTER_SUSTITUTO}, que es lo que se escribe en su
+ * lugar. Los caracteres fuera del plano básico se miden como dos sustitutos,
+ * una estimación por exceso que nunca hace que un texto truncado desborde.
+ *
+ * <p>Las instancias son inmutables y seguras entre hilos.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+final class MetricasTexto {
+
+    /** Carácter que se añade al final de un texto truncado. */
+    static final char ELIPSIS = '…';
+
+    private static final Map<String, MetricasTexto> CACHE = new ConcurrentHashMap<>();
+
+    private final float[] avances;
+    private final float avanceSustituto;
+
+    private MetricasTexto(float[] avances) {
+        this.avances = avances;
+        this.avanceSustituto = avances[FuenteUnicode.CARACTER_SUSTITUTO];
+        for (int c = 0; c < avances.length; c++) {
+            if (Float.isNaN(avances[c])) {
+                avances[c] = avanceSustituto;
+            }
+        }
+    }
+
+    /**
+     * Devuelve las métricas de una fuente, calculándolas la primera vez.
+     *
+     * @param fuente Fuente Unicode de {@link FuenteUnicode} o una fuente simple (como las estándar)
+     * @return Métricas compartidas de la fuente
+     * @throws IOException Si no se pueden leer los datos de la fuente
+     * @throws IllegalArgumentException Si la fuente es compuesta pero no es la Unicode de la aplicación
+     */
+    static MetricasTexto de(PDFont fuente) throws IOException {
+        MetricasTexto metricas = CACHE.get(fuente.getName());
+        if (metricas == null) {
+            metricas = new MetricasTexto(calcularAvances(fuente));
+            MetricasTexto previas = CACHE.putIfAbsent(fuente.getName(), metricas);
+            if (previas != null) {
+                metricas = previas;
+            }
+        }
+        return metricas;
+    }
+
+    /**
+     * Calcula el ancho de un texto.
+     *
+     * @param texto Texto a medir
+     * @param tamano Tamaño de la fuente en puntos
+     * @return Ancho del texto en puntos
+     */
+    float anchoTexto(CharSequence texto, float tamano) {
+        float total = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            total += avances[texto.charAt(i)];
+        }
+        return total / 1000 * tamano;
+    }
+
+    /**
+     * Calcula cuántos caracteres iniciales de un texto caben en un ancho.
+     *
+     * @param texto Texto a medir
+     * @param tamano Tamaño de la fuente en puntos
+     * @param anchoMaximo Ancho disponible en puntos
+     * @return Número de caracteres del prefijo más largo que cabe
+     */
+    int caracteresQueCaben(CharSequence texto, float tamano, float anchoMaximo) {
+        float limite = anchoMaximo * 1000 / tamano;
+        float acumulado = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            acumulado += avances[texto.charAt(i)];
+            if (acumulado > limite) {
+                return i;
+            }
+        }
+        return texto.length();
+    }
+
+    /**
+     * Recorta un texto para que quepa en un ancho, terminándolo en
+     * {@link #ELIPSIS} si hace falta recortarlo.
+     *
+     * @param texto Texto a ajustar; se modifica en el sitio
+     * @param tamano Tamaño de la fuente en puntos
+     * @param anchoMaximo Ancho disponible en puntos
+     * @return true si el texto se ha truncado
+     */
+    boolean truncar(StringBuilder texto, float tamano, float anchoMaximo) {
+        if (caracteresQueCaben(texto, tamano, anchoMaximo) == texto.length()) {
+            return false;
+        }
+        float anchoElipsis = avances[ELIPSIS] / 1000 * tamano;
+        int caben = caracteresQueCaben(texto, tamano, anchoMaximo - anchoElipsis);
+        texto.setLength(caben);
+        texto.append(ELIPSIS);
+        return true;
+    }
+
+    /**
+     * Calcula la tabla de avances de una fuente. Las posiciones de los
+     * caracteres sin glifo quedan a {@code NaN} para rellenarlas con el
+     * avance del sustituto.
+     *
+     * @param fuente Fuente a medir
+     * @return Avance de cada carácter del plano básico en milésimas de em
+     * @throws IOException Si no se pueden leer los datos de la fuente
+     */
+    private static float[] calcularAvances(PDFont fuente) throws IOException {
+        float[] avances = new float[Character.MAX_VALUE + 1];
+        Arrays.fill(avances, Float.NaN);
+
+        if (fuente instanceof PDType0Font) {
+            TrueTypeFont ttf = FuenteUnicode.obtenerFuenteCompartida();
+            if (!fuente.getName().equals(ttf.getName())) {
+                throw new IllegalArgumentException("Fuente compuesta no soportada: " + fuente.getName());
+            }
+            CmapLookup cmap = ttf.getUnicodeCmapLookup();
+            HorizontalMetricsTable hmtx = ttf.getHorizontalMetrics();
+            float escala = 1000f / ttf.getUnitsPerEm();
+            for (int c = 0; c <= Character.MAX_VALUE; c++) {
+                if (FuenteUnicode.esRepresentable(c)) {
+                    avances[c] = Math.round(hmtx.getAdvanceWidth(cmap.getGlyphId(c)) * escala);
+                }
+            }
+        } else if (fuente instanceof PDSimpleFont simple) {
+            GlyphList glifos = GlyphList.getAdobeGlyphList();
+            for (Map.Entry<Integer, String> entrada : simple.getEncoding().getCodeToNameMap().entrySet()) {
+                String unicode = glifos.toUnicode(entrada.getValue());
+                if (unicode != null && unicode.length() == 1 && !Character.isISOControl(unicode.charAt(0))) {
+                    avances[unicode.charAt(0)] = simple.getWidth(entrada.getKey());
+                }
+            }
+        } else {
+            throw new IllegalArgumentException("Fuente no soportada: " + fuente.getName());
+        }
+        return avances;
+    }
+}
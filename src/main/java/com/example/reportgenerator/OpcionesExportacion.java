@@ -0,0 +1,168 @@
+package com.example.reportgenerator;
+
+/**
+ * Opciones que modifican la forma en que {@link PDFExporter} genera un informe.
+ *
+ * <p>Los valores por defecto producen el mismo informe que las sobrecargas de
+ * {@code exportarAPDF} sin opciones.
+ *
+ * @author Álvaro
+ * @version 1.3
+ * @since 2026-10-19
+ */
+public class OpcionesExportacion {
+
+    private boolean composicionParalela;
+    private ProgresoExportacion.Oyente oyenteProgreso;
+    private TokenCancelacion cancelacion;
+    private int filasPorVolumen;
+    private int paginasPorVolumen;
+    private boolean salidaCompacta;
+
+    /**
+     * Crea unas opciones con los valores por defecto.
+     */
+    public OpcionesExportacion() {
+    }
+
+    /**
+     * Indica si el contenido de las páginas del listado se compone en paralelo.
+     *
+     * @return true si la composición de páginas es paralela
+     */
+    public boolean isComposicionParalela() {
+        return composicionParalela;
+    }
+
+    /**
+     * Activa o desactiva la composición paralela de las páginas del listado.
+     * Con la composición paralela, las páginas se reparten entre los núcleos
+     * disponibles y se ensamblan después en orden; el documento resultante es
+     * el mismo que con la composición secuencial.
+     *
+     * @param composicionParalela true para componer las páginas en paralelo
+     * @return Estas mismas opciones, para encadenar llamadas
+     */
+    public OpcionesExportacion setComposicionParalela(boolean composicionParalela) {
+        this.composicionParalela = composicionParalela;
+        return this;
+    }
+
+    /**
+     * Devuelve el oyente que recibe el progreso de la exportación.
+     *
+     * @return Oyente de progreso, o {@code null} si no hay ninguno
+     */
+    public ProgresoExportacion.Oyente getOyenteProgreso() {
+        return oyenteProgreso;
+    }
+
+    /**
+     * Registra un oyente que recibe el progreso de la exportación: filas y
+     * páginas compuestas y bytes escritos.
+     *
+     * @param oyenteProgreso Oyente de progreso, o {@code null} para ninguno
+     * @return Estas mismas opciones, para encadenar llamadas
+     */
+    public OpcionesExportacion setOyenteProgreso(ProgresoExportacion.Oyente oyenteProgreso) {
+        this.oyenteProgreso = oyenteProgreso;
+        return this;
+    }
+
+    /**
+     * Devuelve el token con el que se puede cancelar la exportación.
+     *
+     * @return Token de cancelación, o {@code null} si no hay ninguno
+     */
+    public TokenCancelacion getCancelacion() {
+        return cancelacion;
+    }
+
+    /**
+     * Registra un token para cancelar la exportación desde otro hilo. La
+     * cancelación se comprueba al terminar cada página y cada bloque escrito.
+     *
+     * @param cancelacion Token de cancelación, o {@code null} para ninguno
+     * @return Estas mismas opciones, para encadenar llamadas
+     */
+    public OpcionesExportacion setCancelacion(TokenCancelacion cancelacion) {
+        this.cancelacion = cancelacion;
+        return this;
+    }
+
+    /**
+     * Devuelve el número máximo de clientes por volumen al dividir el informe.
+     *
+     * @return Clientes por volumen, o 0 si no hay límite por filas
+     */
+    public int getFilasPorVolumen() {
+        return filasPorVolumen;
+    }
+
+    /**
+     * Limita el número de clientes de cada volumen cuando el informe se divide
+     * con {@link ExportacionPorVolumenes}. Si también se limitan las páginas,
+     * se aplica el límite más estricto.
+     *
+     * @param filasPorVolumen Clientes por volumen, o 0 para no limitar por filas
+     * @return Estas mismas opciones, para encadenar llamadas
+     * @throws IllegalArgumentException Si el valor es negativo
+     */
+    public OpcionesExportacion setFilasPorVolumen(int filasPorVolumen) {
+        if (filasPorVolumen < 0) {
+            throw new IllegalArgumentException("El número de filas por volumen no puede ser negativo");
+        }
+        this.filasPorVolumen = filasPorVolumen;
+        return this;
+    }
+
+    /**
+     * Devuelve el número máximo de páginas por volumen al dividir el informe.
+     *
+     * @return Páginas por volumen, o 0 si no hay límite por páginas
+     */
+    public int getPaginasPorVolumen() {
+        return paginasPorVolumen;
+    }
+
+    /**
+     * Limita el número de páginas de cada volumen, incluida la del gráfico,
+     * cuando el informe se divide con {@link ExportacionPorVolumenes}.
+     *
+     * @param paginasPorVolumen Páginas por volumen, o 0 para no limitar por páginas
+     * @return Estas mismas opciones, para encadenar llamadas
+     * @throws IllegalArgumentException Si el valor es negativo
+     */
+    public OpcionesExportacion setPaginasPorVolumen(int paginasPorVolumen) {
+        if (paginasPorVolumen < 0) {
+            throw new IllegalArgumentException("El número de páginas por volumen no puede ser negativo");
+        }
+        this.paginasPorVolumen = paginasPorVolumen;
+        return this;
+    }
+
+    /**
+     * Indica si el informe se genera en el formato compacto.
+     *
+     * @return true si la salida es compacta
+     */
+    public boolean isSalidaCompacta() {
+        return salidaCompacta;
+    }
+
+    /**
+     * Activa o desactiva la salida compacta. El informe tiene el mismo texto y
+     * las mismas páginas, pero ocupa menos: las páginas intermedias del listado
+     * comparten un único diccionario de recursos y el gráfico se incrusta con
+     * una paleta de 256 colores, sin máscara de transparencia. El gráfico
+     * codificado se reutiliza entre exportaciones con el mismo reparto por
+     * ciudad, por lo que la exportación no es más lenta que la normal.
+     *
+     * @param salidaCompacta true para generar el informe compacto
+     * @return Estas mismas opciones, para encadenar llamadas
+     */
+    public OpcionesExportacion setSalidaCompacta(boolean salidaCompacta) {
+        this.salidaCompacta = salidaCompacta;
+        return this;
+    }
+}
@@ -0,0 +1,433 @@
+package com.example.reportgenerator;
+
+import java.text.Collator;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Ordenación de los clientes de la tabla por una o varias columnas, fuera del
+ * hilo de la interfaz.
+ *
+ * <p>La primera vez que se ordena por una columna se calcula, sobre todos los
+ * clientes cargados, la permutación que los ordena y el rango de cada cliente
+ * en ella: los clientes con el mismo valor comparten rango. Las dos se guardan
+ * y, a partir de ahí, ordenar cualquier resultado del filtro solo compara
+ * enteros: con una ordenación estable por recuento de rangos por cada columna,
+ * empezando por la última, o comparando los rangos si el resultado es pequeño.
+ * Los últimos resultados se guardan también, así que repetir una ordenación es
+ * inmediato.
+ *
+ * <p>Los textos se ordenan como en español: sin distinguir mayúsculas ni
+ * acentos salvo para deshacer empates, y con la ñ entre la n y la o. La clave
+ * de orden de cada texto se calcula una sola vez, al construir la permutación.
+ * Los empates se resuelven por el orden original de los clientes.
+ *
+ * <p>Solo se entrega el resultado de la última ordenación pedida.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+final class OrdenacionClientes implements AutoCloseable {
+
+    /** Número de resultados recientes que se conservan. */
+    private static final int MAXIMO_EN_CACHE = 4;
+
+    /** Número máximo de valores repetidos cuya clave de orden se reutiliza, como las ciudades. */
+    private static final int MAXIMO_CLAVES_REPETIDAS = 4096;
+
+    /** Por debajo de este tamaño un tramo se ordena por inserción. */
+    private static final int TRAMO_POR_INSERCION = 16;
+
+    /** Columnas por las que se puede ordenar. */
+    enum Columna {
+        ID, NOMBRE, EMAIL, CIUDAD
+    }
+
+    /**
+     * Columna y sentido de una ordenación.
+     *
+     * @param columna Columna por la que ordenar
+     * @param descendente true para ordenar de mayor a menor
+     */
+    record Criterio(Columna columna, boolean descendente) {
+    }
+
+    /**
+     * Resultado de una ordenación.
+     *
+     * @param consulta Número de la ordenación que lo produjo
+     * @param origen Lista que se pidió ordenar
+     * @param clientes Los mismos clientes, ordenados
+     */
+    record Resultado(long consulta, List<Cliente> origen, List<Cliente> clientes) {
+    }
+
+    /** Permutación que ordena todos los clientes por una columna y rango de cada cliente. */
+    private record Permutacion(int[] filas, int[] rangos, int distintos) {
+    }
+
+    /** Resultado reciente, para repetirlo sin volver a ordenar. */
+    private record Guardado(List<Cliente> origen, List<Criterio> criterios, List<Cliente> clientes) {
+    }
+
+    /** Compara dos filas de la lista de clientes por su posición. */
+    @FunctionalInterface
+    private interface ComparadorFilas {
+        int comparar(int fila1, int fila2);
+    }
+
+    /** Clientes cargados con lo ya calculado sobre ellos; solo lo usa el hilo de trabajo. */
+    private static final class Datos {
+        private final List<Cliente> clientes;
+        private final Map<Columna, Permutacion> permutaciones = new EnumMap<>(Columna.class);
+        private final List<Guardado> guardados = new ArrayList<>();
+
+        Datos(List<Cliente> clientes) {
+            this.clientes = clientes;
+        }
+    }
+
+    private final ExecutorService ejecutor;
+    private final AtomicLong ultimaConsulta = new AtomicLong();
+    private final Collator colador = Collator.getInstance(Locale.of("es", "ES"));
+    private volatile Datos datos = new Datos(List.of());
+
+    /**
+     * Crea una ordenación con su propio hilo de trabajo.
+     */
+    OrdenacionClientes() {
+        this.ejecutor = Executors.newSingleThreadExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "ordenacion-clientes");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Sustituye los clientes cargados, descarta lo calculado sobre los anteriores
+     * y las ordenaciones pendientes.
+     *
+     * @param clientes Clientes cargados; la lista no debe modificarse después
+     */
+    void setClientes(List<Cliente> clientes) {
+        ultimaConsulta.incrementAndGet();
+        datos = new Datos(clientes);
+    }
+
+    /**
+     * Pide una ordenación que sustituye a todas las anteriores. Se ordenan sin
+     * copiar los clientes cargados o un resultado de {@link BusquedaClientes}
+     * sobre ellos; cualquier otra lista se ordena comparando sus clientes.
+     *
+     * @param clientes Clientes a ordenar; la lista no debe modificarse después
+     * @param criterios Columnas por las que ordenar, de más a menos importante
+     * @param destino Recibe el resultado en el hilo de trabajo, solo si sigue
+     *                siendo la última ordenación; debe comprobarlo otra vez con
+     *                {@link #esVigente} al aplicarlo en otro hilo
+     * @return Número de la ordenación
+     */
+    long ordenar(List<Cliente> clientes, List<Criterio> criterios, Consumer<Resultado> destino) {
+        long consulta = ultimaConsulta.incrementAndGet();
+        List<Criterio> copia = List.copyOf(criterios);
+        ejecutor.execute(() -> {
+            if (consulta != ultimaConsulta.get()) {
+                return;
+            }
+            Resultado resultado = new Resultado(consulta, clientes, ordenados(datos, clientes, copia));
+            if (esVigente(resultado)) {
+                destino.accept(resultado);
+            }
+        });
+        return consulta;
+    }
+
+    /**
+     * Descarta las ordenaciones pendientes sin pedir otra.
+     */
+    void cancelar() {
+        ultimaConsulta.incrementAndGet();
+    }
+
+    /**
+     * Comprueba si un resultado corresponde a la última ordenación pedida.
+     *
+     * @param resultado Resultado a comprobar
+     * @return true si no se ha pedido otra ordenación ni cambiado los clientes después
+     */
+    boolean esVigente(Resultado resultado) {
+        return resultado.consulta() == ultimaConsulta.get();
+    }
+
+    /**
+     * Detiene el hilo de trabajo; las ordenaciones pendientes no se entregan.
+     */
+    @Override
+    public void close() {
+        ultimaConsulta.incrementAndGet();
+        ejecutor.shutdownNow();
+    }
+
+    /**
+     * Clave de orden de un texto en español: en minúsculas y sin acentos, con la
+     * ñ detrás de cualquier palabra que siga con n. Dos textos con la misma clave
+     * solo se diferencian en mayúsculas o acentos.
+     *
+     * @param texto Texto original
+     * @return Clave que se compara con {@link String#compareTo}
+     */
+    static String claveOrden(String texto) {
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder clave = new StringBuilder(descompuesto.length());
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char c = descompuesto.charAt(i);
+            if (c == '\u0303' && clave.length() > 0 && clave.charAt(clave.length() - 1) == 'n') {
+                clave.append('\uFFFF');
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                clave.append(Character.toLowerCase(c));
+            }
+        }
+        return clave.toString();
+    }
+
+    /**
+     * Ordena en el hilo de trabajo, reutilizando un resultado reciente si lo hay.
+     */
+    private List<Cliente> ordenados(Datos actuales, List<Cliente> clientes, List<Criterio> criterios) {
+        if (criterios.isEmpty()) {
+            return clientes;
+        }
+        for (int i = 0; i < actuales.guardados.size(); i++) {
+            Guardado guardado = actuales.guardados.get(i);
+            if (guardado.origen() == clientes && guardado.criterios().equals(criterios)) {
+                actuales.guardados.add(actuales.guardados.remove(i));
+                return guardado.clientes();
+            }
+        }
+
+        List<Cliente> resultado;
+        if (clientes == actuales.clientes) {
+            resultado = ordenadasPorRango(actuales, null, criterios);
+        } else if (clientes instanceof FilasClientes vista && vista.getClientes() == actuales.clientes) {
+            resultado = ordenadasPorRango(actuales, vista.getFilas(), criterios);
+        } else {
+            List<Cliente> copia = new ArrayList<>(clientes);
+            copia.sort(comparador(criterios));
+            resultado = copia;
+        }
+
+        actuales.guardados.add(new Guardado(clientes, criterios, resultado));
+        if (actuales.guardados.size() > MAXIMO_EN_CACHE) {
+            actuales.guardados.remove(0);
+        }
+        return resultado;
+    }
+
+    /**
+     * Ordena filas de los clientes cargados usando los rangos de cada columna.
+     *
+     * @param filas Filas a ordenar en orden original, o {@code null} para todas
+     */
+    private FilasClientes ordenadasPorRango(Datos actuales, int[] filas, List<Criterio> criterios) {
+        Permutacion[] permutaciones = new Permutacion[criterios.size()];
+        int maximoDistintos = 0;
+        for (int i = 0; i < permutaciones.length; i++) {
+            permutaciones[i] = actuales.permutaciones.computeIfAbsent(criterios.get(i).columna(),
+                columna -> construir(columna, actuales.clientes));
+            maximoDistintos = Math.max(maximoDistintos, permutaciones[i].distintos());
+        }
+
+        // Todos los clientes por una sola columna, de menor a mayor: es la propia permutación
+        if (filas == null && criterios.size() == 1 && !criterios.get(0).descendente()) {
+            return new FilasClientes(actuales.clientes, permutaciones[0].filas());
+        }
+        if (filas == null) {
+            filas = new int[actuales.clientes.size()];
+            for (int i = 0; i < filas.length; i++) {
+                filas[i] = i;
+            }
+        }
+
+        int[] orden = filas.clone();
+        if ((long) orden.length * 4 >= maximoDistintos) {
+            // Ordenación por recuento, estable, desde el criterio menos importante
+            int[] auxiliar = new int[orden.length];
+            for (int i = criterios.size() - 1; i >= 0; i--) {
+                contar(orden, auxiliar, permutaciones[i], criterios.get(i).descendente());
+                int[] ordenado = auxiliar;
+                auxiliar = orden;
+                orden = ordenado;
+            }
+        } else {
+            // Pocas filas frente a los valores distintos: contar costaría más que comparar
+            ordenarPor(orden, (fila1, fila2) -> {
+                for (int i = 0; i < permutaciones.length; i++) {
+                    int[] rangos = permutaciones[i].rangos();
+                    int comparacion = Integer.compare(rangos[fila1], rangos[fila2]);
+                    if (comparacion != 0) {
+                        return criterios.get(i).descendente() ? -comparacion : comparacion;
+                    }
+                }
+                return 0;
+            });
+        }
+        return new FilasClientes(actuales.clientes, orden);
+    }
+
+    /**
+     * Calcula la permutación que ordena todos los clientes por una columna y el
+     * rango de cada uno.
+     */
+    private Permutacion construir(Columna columna, List<Cliente> clientes) {
+        int total = clientes.size();
+        ComparadorFilas comparador;
+        if (columna == Columna.ID) {
+            int[] ids = new int[total];
+            for (int i = 0; i < total; i++) {
+                ids[i] = clientes.get(i).getId();
+            }
+            comparador = (fila1, fila2) -> Integer.compare(ids[fila1], ids[fila2]);
+        } else {
+            String[] valores = new String[total];
+            String[] claves = new String[total];
+            Map<String, String> repetidas = new HashMap<>();
+            for (int i = 0; i < total; i++) {
+                valores[i] = texto(columna, clientes.get(i));
+                String clave = repetidas.get(valores[i]);
+                if (clave == null) {
+                    clave = claveOrden(valores[i]);
+                    if (repetidas.size() < MAXIMO_CLAVES_REPETIDAS) {
+                        repetidas.put(valores[i], clave);
+                    }
+                }
+                claves[i] = clave;
+            }
+            comparador = (fila1, fila2) -> compararTextos(claves[fila1], valores[fila1], claves[fila2], valores[fila2]);
+        }
+
+        int[] filas = new int[total];
+        for (int i = 0; i < total; i++) {
+            filas[i] = i;
+        }
+        ordenarPor(filas, comparador);
+
+        int[] rangos = new int[total];
+        int rango = 0;
+        for (int i = 0; i < total; i++) {
+            if (i > 0 && comparador.comparar(filas[i - 1], filas[i]) != 0) {
+                rango++;
+            }
+            rangos[filas[i]] = rango;
+        }
+        return new Permutacion(filas, rangos, total == 0 ? 0 : rango + 1);
+    }
+
+    /**
+     * Comparador para listas que no son de los clientes cargados, con el mismo
+     * orden que las permutaciones.
+     */
+    private Comparator<Cliente> comparador(List<Criterio> criterios) {
+        Comparator<Cliente> resultado = (cliente1, cliente2) -> 0;
+        for (Criterio criterio : criterios) {
+            Columna columna = criterio.columna();
+            Comparator<Cliente> porColumna = columna == Columna.ID
+                ? Comparator.comparingInt(Cliente::getId)
+                : (cliente1, cliente2) -> {
+                    String valor1 = texto(columna, cliente1);
+                    String valor2 = texto(columna, cliente2);
+                    return compararTextos(claveOrden(valor1), valor1, claveOrden(valor2), valor2);
+                };
+            resultado = resultado.thenComparing(criterio.descendente() ? porColumna.reversed() : porColumna);
+        }
+        return resultado;
+    }
+
+    private int compararTextos(String clave1, String valor1, String clave2, String valor2) {
+        int comparacion = clave1.compareTo(clave2);
+        if (comparacion != 0 || valor1.equals(valor2)) {
+            return comparacion;
+        }
+        // Solo difieren en mayúsculas o acentos
+        return colador.compare(valor1, valor2);
+    }
+
+    private static String texto(Columna columna, Cliente cliente) {
+        String texto = switch (columna) {
+            case NOMBRE -> cliente.getNombre();
+            case EMAIL -> cliente.getEmail();
+            case CIUDAD -> cliente.getCiudad();
+            case ID -> String.valueOf(cliente.getId());
+        };
+        return texto == null ? "" : texto;
+    }
+
+    /**
+     * Ordenación estable por recuento de las filas de {@code origen} según su
+     * rango en una permutación.
+     */
+    private static void contar(int[] origen, int[] destino, Permutacion permutacion, boolean descendente) {
+        int[] rangos = permutacion.rangos();
+        int ultimo = permutacion.distintos() - 1;
+        int[] posiciones = new int[permutacion.distintos() + 1];
+        for (int fila : origen) {
+            posiciones[(descendente ? ultimo - rangos[fila] : rangos[fila]) + 1]++;
+        }
+        for (int i = 1; i < posiciones.length; i++) {
+            posiciones[i] += posiciones[i - 1];
+        }
+        for (int fila : origen) {
+            destino[posiciones[descendente ? ultimo - rangos[fila] : rangos[fila]]++] = fila;
+        }
+    }
+
+    /**
+     * Ordenación estable por mezcla de un array de filas, sin convertirlas en objetos.
+     */
+    private static void ordenarPor(int[] filas, ComparadorFilas comparador) {
+        mezclar(filas.clone(), filas, 0, filas.length, comparador);
+    }
+
+    /**
+     * Ordena el tramo de {@code origen} en {@code destino}; al empezar, los dos
+     * tienen el mismo contenido en el tramo y {@code origen} sirve de auxiliar.
+     */
+    private static void mezclar(int[] origen, int[] destino, int desde, int hasta, ComparadorFilas comparador) {
+        if (hasta - desde <= TRAMO_POR_INSERCION) {
+            for (int i = desde + 1; i < hasta; i++) {
+                int fila = destino[i];
+                int j = i;
+                while (j > desde && comparador.comparar(destino[j - 1], fila) > 0) {
+                    destino[j] = destino[j - 1];
+                    j--;
+                }
+                destino[j] = fila;
+            }
+            return;
+        }
+        int medio = (desde + hasta) >>> 1;
+        mezclar(destino, origen, desde, medio, comparador);
+        mezclar(destino, origen, medio, hasta, comparador);
+
+        if (comparador.comparar(origen[medio - 1], origen[medio]) <= 0) {
+            System.arraycopy(origen, desde, destino, desde, hasta - desde);
+            return;
+        }
+        for (int i = desde, p = desde, q = medio; i < hasta; i++) {
+            if (q >= hasta || (p < medio && comparador.comparar(origen[p], origen[q]) <= 0)) {
+                destino[i] = origen[p++];
+            } else {
+                destino[i] = origen[q++];
+            }
+        }
+    }
+}
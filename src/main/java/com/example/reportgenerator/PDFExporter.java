@@ -1,24 +1,48 @@
 package com.example.reportgenerator;
 
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.JFreeChart;
 import org.jfree.data.general.DefaultPieDataset;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
+import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
-import java.io.File;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * Clase responsable de exportar los datos de clientes a formato PDF.
@@ -39,12 +63,74 @@ import java.util.List;
  */
 public class PDFExporter {
     
+    /**
+     * Versión de la plantilla del informe. Debe incrementarse con cualquier cambio
+     * que altere el PDF generado para unos mismos datos, ya que forma parte de la
+     * clave de {@link CacheInformes}.
+     */
+    public static final int VERSION_PLANTILLA = 2;
+    
     private static final float MARGIN = 50;
     private static final float FONT_SIZE_TITLE = 20;
     private static final float FONT_SIZE_SUBTITLE = 14;
     private static final float FONT_SIZE_NORMAL = 10;
     private static final float LINE_HEIGHT = 15;
     
+    /** Ancho disponible para cada fila del listado; las más anchas se truncan. */
+    private static final float ANCHO_LISTADO = PDRectangle.A4.getWidth() - 2 * MARGIN;
+    
+    /** Posición vertical por debajo de la cual el listado continúa en una página nueva. */
+    private static final float LIMITE_INFERIOR_LISTADO = 150;
+    
+    /** Espacio que ocupa la cabecera: título (30), separador (10 + 20), descripción (30) y subtítulo (25). */
+    private static final float ALTO_CABECERA = 115;
+    
+    /** Espacio que ocupa el resumen tras el listado: margen (20) y total de clientes (40). */
+    private static final float ALTO_RESUMEN = 60;
+    
+    /** Posición vertical mínima desde la que cabe el gráfico en la página. */
+    private static final float ESPACIO_MINIMO_GRAFICO = 350;
+    
+    private static final float FONT_SIZE_PIE = 8;
+    private static final float Y_PIE = 30;
+    
+    /** Tamaño de los bloques en los que se escribe el PDF sobre flujos y canales. */
+    private static final int TAMANO_BLOQUE = 64 * 1024;
+    
+    private static final String SUBTITULO_LISTADO = "Listado de clientes:";
+    
+    /**
+     * Nombre del recurso con el total de páginas. El pie "Página X de Y" de cada
+     * página escribe "Página X de " y dibuja este formulario, compartido por todo
+     * el documento, para que una actualización incremental cambie el total de
+     * todas las páginas reescribiendo un único objeto.
+     */
+    private static final COSName RECURSO_TOTAL_PAGINAS = COSName.getPDFName("TP");
+    
+    /**
+     * Posición de un volumen dentro de un informe dividido por
+     * {@link ExportacionPorVolumenes}. Todos los volúmenes muestran el total y el
+     * gráfico del informe completo, además de su propio rango de clientes.
+     * 
+     * @param numero Número del volumen, empezando en 1
+     * @param total Número de volúmenes del informe
+     * @param primeraFila Posición en el informe del primer cliente del volumen, empezando en 1
+     * @param totalClientes Clientes del informe completo
+     * @param clientesPorCiudad Clientes de cada ciudad en el informe completo
+     */
+    record ContextoVolumen(int numero, int total, int primeraFila, int totalClientes,
+                           Map<String, Integer> clientesPorCiudad) {
+        
+        String subtitulo(int filas) {
+            return "Listado de clientes (volumen " + numero + " de " + total + ", clientes "
+                + primeraFila + " a " + (primeraFila + filas - 1) + "):";
+        }
+        
+        String textoTotal(int filas) {
+            return "Total de clientes: " + totalClientes + " (" + filas + " en este volumen)";
+        }
+    }
+    
     /**
      * Exporta una lista de clientes a un archivo PDF con formato profesional.
      * Este método genera un documento PDF completo que incluye:
@@ -54,29 +140,511 @@ public class PDFExporter {
      *   <li>Total de clientes registrados</li>
      *   <li>Gráfico circular (pie chart) mostrando la distribución por ciudad</li>
      *   <li>Pie de página con información de copyright</li>
+     *   <li>Numeración "Página X de Y" en todas las páginas</li>
      * </ul>
      * 
      * <p>El método maneja automáticamente el salto de página cuando el contenido
-     * excede el espacio disponible.
+     * excede el espacio disponible. La paginación se calcula antes de dibujar,
+     * de modo que el total de páginas se estampa en una sola pasada.
      * 
      * @param clientes Lista de clientes a incluir en el informe PDF
      * @param rutaPDF Ruta completa donde se guardará el archivo PDF generado
      * @throws IOException Si ocurre un error durante la creación o escritura del PDF
      */
     public static void exportarAPDF(List<Cliente> clientes, String rutaPDF) throws IOException {
+        exportarAPDF(clientes, rutaPDF, new OpcionesExportacion());
+    }
+    
+    /**
+     * Exporta una lista de clientes a un archivo PDF aplicando unas opciones de exportación.
+     * 
+     * <p>El documento se escribe primero en un archivo temporal junto al destino
+     * y solo se mueve a {@code rutaPDF} al completarse. Si la exportación falla o
+     * se cancela, el temporal se elimina y el destino queda como estaba.
+     * 
+     * @param clientes Lista de clientes a incluir en el informe PDF
+     * @param rutaPDF Ruta completa donde se guardará el archivo PDF generado
+     * @param opciones Opciones de generación del informe
+     * @throws IOException Si ocurre un error durante la creación o escritura del PDF
+     * @throws InterruptedIOException Si la exportación se cancela con el token de las opciones
+     * @see #exportarAPDF(List, String)
+     */
+    public static void exportarAPDF(List<Cliente> clientes, String rutaPDF, OpcionesExportacion opciones)
+            throws IOException {
+        Path destino = Path.of(rutaPDF).toAbsolutePath();
+        Path temporal = ArchivoTemporal.junto(destino);
+        try {
+            try (OutputStream salida = Files.newOutputStream(temporal)) {
+                exportarAPDF(clientes, salida, opciones);
+            }
+            ArchivoTemporal.sustituir(temporal, destino);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+    
+    /**
+     * Exporta una lista de clientes en formato PDF escribiendo directamente
+     * sobre un flujo de salida, sin pasar por un archivo intermedio.
+     * 
+     * <p>El contenido del informe es idéntico al generado por
+     * {@link #exportarAPDF(List, String)}. La escritura se agrupa en bloques de
+     * {@value #TAMANO_BLOQUE} bytes, por lo que el destino puede ser un socket,
+     * un compresor o un buffer en memoria sin penalizar las escrituras pequeñas.
+     * El flujo no se cierra al terminar; es responsabilidad del llamante.
+     * 
+     * @param clientes Lista de clientes a incluir en el informe PDF
+     * @param salida Flujo donde se escribirá el documento PDF
+     * @throws IOException Si ocurre un error durante la creación o escritura del PDF
+     */
+    public static void exportarAPDF(List<Cliente> clientes, OutputStream salida) throws IOException {
+        exportarAPDF(clientes, salida, new OpcionesExportacion());
+    }
+    
+    /**
+     * Exporta una lista de clientes en formato PDF sobre un flujo de salida
+     * aplicando unas opciones de exportación.
+     * 
+     * @param clientes Lista de clientes a incluir en el informe PDF
+     * @param salida Flujo donde se escribirá el documento PDF
+     * @param opciones Opciones de generación del informe
+     * @throws IOException Si ocurre un error durante la creación o escritura del PDF
+     * @throws InterruptedIOException Si la exportación se cancela con el token de las
+     *         opciones; lo ya escrito en el flujo queda incompleto
+     * @see #exportarAPDF(List, OutputStream)
+     */
+    public static void exportarAPDF(List<Cliente> clientes, OutputStream salida, OpcionesExportacion opciones)
+            throws IOException {
+        SeguimientoExportacion seguimiento =
+            new SeguimientoExportacion(opciones, clientes.size(), calcularNumeroPaginas(clientes.size()));
+        exportarAPDF(clientes, salida, opciones, seguimiento, null);
+    }
+    
+    /**
+     * Exporta un informe, o un volumen de un informe dividido, sobre un flujo
+     * de salida con un seguimiento de progreso que puede compartirse entre
+     * varias exportaciones, como hace {@link ExportacionPorVolumenes}.
+     * 
+     * @param clientes Clientes del informe o del volumen
+     * @param salida Flujo donde se escribirá el documento PDF; no se cierra
+     * @param opciones Opciones de generación del informe
+     * @param seguimiento Progreso y cancelación de la exportación
+     * @param volumen Datos del volumen, o {@code null} si el informe no está dividido
+     * @throws IOException Si ocurre un error durante la creación o escritura del PDF o se cancela
+     */
+    static void exportarAPDF(List<Cliente> clientes, OutputStream salida, OpcionesExportacion opciones,
+                             SeguimientoExportacion seguimiento, ContextoVolumen volumen) throws IOException {
+        try (PDDocument document = construirDocumento(clientes, opciones, seguimiento, volumen)) {
+            BufferedOutputStream bloques = new BufferedOutputStream(seguimiento.seguir(salida), TAMANO_BLOQUE);
+            document.save(bloques);
+            bloques.flush();
+        }
+    }
+    
+    /**
+     * Exporta una lista de clientes en formato PDF escribiendo sobre un canal,
+     * por ejemplo un {@link java.nio.channels.FileChannel} o un
+     * {@link java.nio.channels.SocketChannel}.
+     * 
+     * <p>Los datos se entregan al canal en bloques de {@value #TAMANO_BLOQUE} bytes.
+     * El canal no se cierra al terminar; es responsabilidad del llamante.
+     * 
+     * @param clientes Lista de clientes a incluir en el informe PDF
+     * @param canal Canal donde se escribirá el documento PDF
+     * @throws IOException Si ocurre un error durante la creación o escritura del PDF
+     */
+    public static void exportarAPDF(List<Cliente> clientes, WritableByteChannel canal) throws IOException {
+        exportarAPDF(clientes, Channels.newOutputStream(canal), new OpcionesExportacion());
+    }
+    
+    /**
+     * Exporta una lista de clientes en formato PDF sobre un canal
+     * aplicando unas opciones de exportación.
+     * 
+     * @param clientes Lista de clientes a incluir en el informe PDF
+     * @param canal Canal donde se escribirá el documento PDF
+     * @param opciones Opciones de generación del informe
+     * @throws IOException Si ocurre un error durante la creación o escritura del PDF
+     * @see #exportarAPDF(List, WritableByteChannel)
+     */
+    public static void exportarAPDF(List<Cliente> clientes, WritableByteChannel canal, OpcionesExportacion opciones)
+            throws IOException {
+        exportarAPDF(clientes, Channels.newOutputStream(canal), opciones);
+    }
+    
+    /**
+     * Actualiza un informe PDF generado antes añadiéndole los clientes nuevos,
+     * sin volver a generarlo entero.
+     * 
+     * @param clientes Lista actual de clientes, con los del informe al principio
+     * @param rutaPDF Ruta del informe a actualizar
+     * @return true si se ha actualizado de forma incremental, false si se ha generado de nuevo
+     * @throws IOException Si ocurre un error al leer o escribir el informe
+     * @see #actualizarPDF(List, String, OpcionesExportacion)
+     */
+    public static boolean actualizarPDF(List<Cliente> clientes, String rutaPDF) throws IOException {
+        return actualizarPDF(clientes, rutaPDF, new OpcionesExportacion());
+    }
+    
+    /**
+     * Actualiza un informe PDF generado antes añadiéndole los clientes que se
+     * han incorporado desde entonces al final de la lista.
+     * 
+     * <p>El informe guarda en su catálogo cuántos clientes contiene y una huella
+     * de sus datos ({@link MetadatosInforme}). Si {@code clientes} empieza por
+     * esos mismos clientes, solo se recomponen la última página del listado, que
+     * puede tener hueco para más filas, las páginas nuevas y el resumen con el
+     * total y el gráfico; el resto de páginas no se tocan. El total del pie
+     * "Página X de Y" es un único objeto compartido por todas las páginas, así
+     * que se actualiza en todas reescribiendo solo ese objeto.
+     * 
+     * <p>Los cambios se añaden al final del archivo como una actualización
+     * incremental de PDF: no se reescribe ni se vuelve a renderizar lo que ya
+     * había, por lo que el coste es proporcional a los clientes añadidos. Si la
+     * escritura falla o se cancela, el archivo se recorta a su longitud original.
+     * Cada actualización deja en el archivo la versión anterior de las páginas
+     * sustituidas; una exportación completa lo vuelve a compactar.
+     * 
+     * <p>Si el archivo no existe o no puede leerse, no es un informe de esta
+     * versión de la plantilla o los clientes que ya contenía han cambiado
+     * (editados, borrados o reordenados), el informe se genera de nuevo entero
+     * con {@link #exportarAPDF(List, String, OpcionesExportacion)}.
+     * 
+     * @param clientes Lista actual de clientes, con los del informe al principio
+     * @param rutaPDF Ruta del informe a actualizar
+     * @param opciones Opciones de generación de las páginas nuevas
+     * @return true si se ha actualizado de forma incremental (o no había clientes
+     *         nuevos), false si se ha generado de nuevo entero
+     * @throws IOException Si ocurre un error al leer o escribir el informe
+     * @throws InterruptedIOException Si la actualización se cancela con el token
+     *         de las opciones; el informe queda como estaba
+     */
+    public static boolean actualizarPDF(List<Cliente> clientes, String rutaPDF, OpcionesExportacion opciones)
+            throws IOException {
+        Path archivo = Path.of(rutaPDF);
+        PDDocument document = null;
+        if (Files.isRegularFile(archivo)) {
+            try {
+                document = Loader.loadPDF(archivo.toFile());
+            } catch (IOException e) {
+                // Archivo dañado o que no es un PDF: se sustituye por uno nuevo
+            }
+        }
+        
+        try {
+            Optional<MetadatosInforme> metadatos = document == null
+                ? Optional.empty() : MetadatosInforme.leer(document);
+            PDFormXObject totalPaginas = metadatos.isPresent() && metadatos.get().esPrefijoDe(clientes)
+                ? buscarTotalPaginas(document) : null;
+            if (totalPaginas != null) {
+                int filasPrevias = metadatos.get().filas();
+                if (filasPrevias < clientes.size()) {
+                    long longitudOriginal = Files.size(archivo);
+                    SeguimientoExportacion seguimiento =
+                        anadirClientes(document, clientes, filasPrevias, totalPaginas, opciones);
+                    anadirIncremento(document, archivo, longitudOriginal, seguimiento);
+                }
+                return true;
+            }
+        } finally {
+            if (document != null) {
+                document.close();
+            }
+        }
+        
+        exportarAPDF(clientes, rutaPDF, opciones);
+        return false;
+    }
+    
+    /**
+     * Recompone en un informe ya generado la última página del listado, las
+     * páginas nuevas y el resumen para la lista ampliada de clientes.
+     * 
+     * <p>Las páginas nuevas usan otra instancia de la fuente Unicode, ya que el
+     * subconjunto de la original quedó fijado al guardarla y puede no incluir
+     * los caracteres de los clientes nuevos. Como todas las instancias
+     * comparten la misma fuente TrueType, el texto se codifica igual.
+     * 
+     * @param document Informe cargado
+     * @param clientes Lista ampliada de clientes
+     * @param filasPrevias Clientes que ya contenía el informe
+     * @param totalPaginas Formulario del informe con el total de páginas
+     * @param opciones Opciones de generación de las páginas nuevas
+     * @return Seguimiento de la actualización, para la escritura
+     * @throws IOException Si ocurre un error al componer las páginas o se cancela
+     */
+    private static SeguimientoExportacion anadirClientes(PDDocument document, List<Cliente> clientes,
+                                                         int filasPrevias, PDFormXObject totalPaginas,
+                                                         OpcionesExportacion opciones) throws IOException {
+        PaginacionInforme anterior = calcularPaginacion(filasPrevias);
+        PaginacionInforme paginacion = calcularPaginacion(clientes.size());
+        int primeraPagina = anterior.getPaginasListado() - 1;
+        SeguimientoExportacion seguimiento = new SeguimientoExportacion(opciones,
+            clientes.size() - paginacion.getDesde(primeraPagina), paginacion.getPaginasTotales() - primeraPagina);
+        seguimiento.comprobarCancelacion();
+        
+        // Se descartan la última página del listado y, si la hay, la del gráfico
+        descartarPaginasDesde(document, primeraPagina);
+        
+        PDFont fuenteNormal = FuenteUnicode.cargar(document);
+        PDFont fuenteNegrita = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+        
+        // Las páginas que se conservan tienen "Página X de " alineado contra la posición del total
+        float xTotal = totalPaginas.getMatrix().getTranslateX();
+        fijarTotalPaginas(totalPaginas, fuenteNormal, paginacion.getPaginasTotales(), xTotal);
+        
+        PDPage page = primeraPagina == 0
+            ? crearPrimeraPagina(document, fuenteNormal, fuenteNegrita, totalPaginas, SUBTITULO_LISTADO)
+            : nuevaPagina(document, fuenteNormal, totalPaginas);
+        byte[][] fragmentos = opciones.isComposicionParalela()
+            ? componerListadoEnParalelo(clientes, paginacion, primeraPagina, xTotal, fuenteNormal, seguimiento)
+            : componerListado(clientes, paginacion, primeraPagina, xTotal, fuenteNormal, seguimiento);
+        for (int p = 0; p < fragmentos.length; p++) {
+            if (p > 0) {
+                page = nuevaPagina(document, fuenteNormal, totalPaginas);
+            }
+            anadirFragmento(document, page, fragmentos[p]);
+        }
+        
+        terminarDocumento(document, page, paginacion, "Total de clientes: " + clientes.size(),
+            contarPorCiudad(clientes), fuenteNormal, fuenteNegrita, totalPaginas, opciones.isSalidaCompacta());
+        if (paginacion.isGraficoEnPaginaNueva()) {
+            seguimiento.paginaCompletada(0);
+        }
+        MetadatosInforme.de(clientes).escribir(document);
+        return seguimiento;
+    }
+    
+    /**
+     * Busca el formulario con el total de páginas en los recursos de la primera
+     * página. La página se toma directamente de la raíz del árbol de páginas,
+     * porque {@link PDDocument#getPage(int)} carga por el camino todas sus hermanas.
+     * 
+     * @param document Documento del informe
+     * @return Formulario del total de páginas, o {@code null} si el documento no lo tiene
+     * @throws IOException Si no se pueden leer los recursos de la página
+     */
+    private static PDFormXObject buscarTotalPaginas(PDDocument document) throws IOException {
+        COSArray hijos = document.getPages().getCOSObject().getCOSArray(COSName.KIDS);
+        if (hijos == null || hijos.size() == 0 || !(hijos.getObject(0) instanceof COSDictionary primera)) {
+            return null;
+        }
+        PDResources recursos = new PDPage(primera).getResources();
+        return recursos != null && recursos.getXObject(RECURSO_TOTAL_PAGINAS) instanceof PDFormXObject totalPaginas
+            ? totalPaginas : null;
+    }
+    
+    /**
+     * Elimina del documento las páginas a partir de una dada.
+     * 
+     * <p>PDFBox crea el árbol de páginas plano, con todas las páginas colgando
+     * de la raíz; en ese caso basta con recortar la lista de la raíz, sin cargar
+     * las páginas que se conservan, que es lo que haría
+     * {@link PDDocument#removePage(int)} para localizar cada una.
+     * 
+     * @param document Documento del informe
+     * @param primera Índice de la primera página a eliminar
+     */
+    private static void descartarPaginasDesde(PDDocument document, int primera) {
+        COSDictionary raiz = document.getPages().getCOSObject();
+        COSArray hijos = raiz.getCOSArray(COSName.KIDS);
+        if (hijos != null && hijos.size() == document.getNumberOfPages()) {
+            while (hijos.size() > primera) {
+                hijos.remove(hijos.size() - 1);
+            }
+            raiz.setInt(COSName.COUNT, primera);
+        } else {
+            while (document.getNumberOfPages() > primera) {
+                document.removePage(document.getNumberOfPages() - 1);
+            }
+        }
+    }
+    
+    /**
+     * Añade al final del archivo del informe la actualización incremental del documento.
+     * 
+     * <p>PDFBox escribe la actualización precedida de una copia del documento
+     * original; esa copia se descarta y solo se añade lo nuevo. Si la escritura
+     * no se completa, el archivo se recorta a su longitud original.
+     * 
+     * @param document Informe cargado del archivo y ya modificado
+     * @param archivo Archivo del informe
+     * @param longitudOriginal Longitud del archivo al cargarlo
+     * @param seguimiento Progreso y cancelación de la escritura
+     * @throws IOException Si ocurre un error al escribir o se cancela
+     */
+    private static void anadirIncremento(PDDocument document, Path archivo, long longitudOriginal,
+                                         SeguimientoExportacion seguimiento) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+            try {
+                canal.position(longitudOriginal);
+                BufferedOutputStream bloques = new BufferedOutputStream(
+                    omitirPrefijo(seguimiento.seguir(Channels.newOutputStream(canal)), longitudOriginal),
+                    TAMANO_BLOQUE);
+                document.saveIncremental(bloques);
+                bloques.flush();
+                canal.force(false);
+            } catch (IOException | RuntimeException e) {
+                canal.truncate(longitudOriginal);
+                throw e;
+            }
+        }
+    }
+    
+    /**
+     * Envuelve un flujo para descartar sus primeros bytes.
+     * 
+     * @param salida Flujo de destino
+     * @param longitud Número de bytes iniciales a descartar
+     * @return Flujo que escribe en {@code salida} a partir de ese punto
+     */
+    private static OutputStream omitirPrefijo(OutputStream salida, long longitud) {
+        return new FilterOutputStream(salida) {
+            private long pendientes = longitud;
+            
+            @Override
+            public void write(int b) throws IOException {
+                if (pendientes > 0) {
+                    pendientes--;
+                } else {
+                    out.write(b);
+                }
+            }
+            
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                int omitidos = (int) Math.min(pendientes, len);
+                pendientes -= omitidos;
+                if (len > omitidos) {
+                    out.write(b, off + omitidos, len - omitidos);
+                }
+            }
+        };
+    }
+    
+    /**
+     * Calcula el número de páginas que tendrá el informe de un número de clientes,
+     * sin generar el documento. El cálculo es puramente aritmético, por lo que
+     * puede usarse para estimaciones y barras de progreso antes de exportar.
+     * 
+     * @param numeroClientes Número de clientes del informe
+     * @return Número total de páginas del PDF resultante
+     */
+    public static int calcularNumeroPaginas(int numeroClientes) {
+        return calcularPaginacion(numeroClientes).getPaginasTotales();
+    }
+    
+    /**
+     * Realiza la pasada de maquetación del informe para un número de filas.
+     * 
+     * @param numeroClientes Número de clientes del listado
+     * @return Paginación del informe
+     */
+    static PaginacionInforme calcularPaginacion(int numeroClientes) {
+        float yResto = PDRectangle.A4.getHeight() - MARGIN;
+        return new PaginacionInforme(numeroClientes, yResto - ALTO_CABECERA, yResto,
+            LIMITE_INFERIOR_LISTADO, LINE_HEIGHT, ALTO_RESUMEN, ESPACIO_MINIMO_GRAFICO);
+    }
+    
+    /**
+     * Construye en memoria el documento PDF del informe.
+     * 
+     * <p>Primero se dibuja la cabecera para conocer el espacio libre de la primera
+     * página; con él se calcula la paginación del listado y se componen los
+     * fragmentos de cada página (en paralelo si así se indica en las opciones).
+     * Por último los fragmentos se ensamblan en orden y se añaden el total,
+     * el gráfico y el pie de página.
+     * 
+     * @param clientes Lista de clientes a incluir en el informe PDF
+     * @param opciones Opciones de generación del informe
+     * @param seguimiento Progreso y cancelación de la exportación
+     * @param volumen Datos del volumen, o {@code null} si el informe no está dividido
+     * @return Documento PDF listo para guardarse; el llamante debe cerrarlo
+     * @throws IOException Si ocurre un error durante la creación del PDF o se cancela
+     */
+    private static PDDocument construirDocumento(List<Cliente> clientes, OpcionesExportacion opciones,
+                                                 SeguimientoExportacion seguimiento, ContextoVolumen volumen)
+            throws IOException {
+        seguimiento.comprobarCancelacion();
         PDDocument document = new PDDocument();
         
         try {
-            // Crear página
-            PDPage page = new PDPage(PDRectangle.A4);
-            document.addPage(page);
+            // Fuentes compartidas por todas las páginas del documento: la Unicode,
+            // incrustada como subconjunto, para el texto y los datos de clientes
+            PDFont fuenteNormal = FuenteUnicode.cargar(document);
+            PDFont fuenteNegrita = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+            
+            PaginacionInforme paginacion = calcularPaginacion(clientes.size());
+            PDFormXObject totalPaginas = crearTotalPaginas(document);
+            float xTotal = posicionTotalPaginas(fuenteNormal, paginacion.getPaginasTotales());
+            fijarTotalPaginas(totalPaginas, fuenteNormal, paginacion.getPaginasTotales(), xTotal);
+            
+            String subtitulo = volumen == null ? SUBTITULO_LISTADO : volumen.subtitulo(clientes.size());
+            PDPage page = crearPrimeraPagina(document, fuenteNormal, fuenteNegrita, totalPaginas, subtitulo);
             
-            PDPageContentStream contentStream = new PDPageContentStream(document, page);
+            // Lista de clientes: un fragmento (filas y número de página) por página
+            byte[][] fragmentos = opciones.isComposicionParalela()
+                ? componerListadoEnParalelo(clientes, paginacion, 0, xTotal, fuenteNormal, seguimiento)
+                : componerListado(clientes, paginacion, 0, xTotal, fuenteNormal, seguimiento);
             
-            float yPosition = page.getMediaBox().getHeight() - MARGIN;
+            // En la salida compacta, las páginas intermedias comparten los recursos; la
+            // primera y la última tienen los suyos porque se les añaden la cabecera y el resumen
+            PDResources recursosCompartidos =
+                opciones.isSalidaCompacta() ? recursosListado(fuenteNormal, totalPaginas) : null;
+            for (int p = 0; p < fragmentos.length; p++) {
+                if (p > 0) {
+                    page = recursosCompartidos != null && p < fragmentos.length - 1
+                        ? nuevaPagina(document, recursosCompartidos)
+                        : nuevaPagina(document, fuenteNormal, totalPaginas);
+                }
+                anadirFragmento(document, page, fragmentos[p]);
+            }
+            
+            // En un volumen, el total y el gráfico son los del informe completo
+            if (volumen == null) {
+                terminarDocumento(document, page, paginacion, "Total de clientes: " + clientes.size(),
+                    contarPorCiudad(clientes), fuenteNormal, fuenteNegrita, totalPaginas,
+                    opciones.isSalidaCompacta());
+                MetadatosInforme.de(clientes).escribir(document);
+            } else {
+                terminarDocumento(document, page, paginacion, volumen.textoTotal(clientes.size()),
+                    volumen.clientesPorCiudad(), fuenteNormal, fuenteNegrita, totalPaginas,
+                    opciones.isSalidaCompacta());
+            }
+            if (paginacion.isGraficoEnPaginaNueva()) {
+                seguimiento.paginaCompletada(0);
+            }
+            
+            return document;
+            
+        } catch (IOException | RuntimeException e) {
+            document.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Crea la primera página del informe con la cabecera, la descripción y
+     * el subtítulo del listado.
+     * 
+     * @param document Documento al que se añade la página
+     * @param fuenteNormal Fuente normal del documento
+     * @param fuenteNegrita Fuente en negrita del documento
+     * @param totalPaginas Formulario con el total de páginas del documento
+     * @param subtitulo Subtítulo que precede al listado
+     * @return Primera página, lista para recibir el listado
+     * @throws IOException Si ocurre un error al escribir en la página
+     */
+    private static PDPage crearPrimeraPagina(PDDocument document, PDFont fuenteNormal, PDFont fuenteNegrita,
+                                             PDFormXObject totalPaginas, String subtitulo) throws IOException {
+        PDPage page = nuevaPagina(document, fuenteNormal, totalPaginas);
+        float alturaPagina = page.getMediaBox().getHeight();
+        
+        try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+            float yPosition = alturaPagina - MARGIN;
             
             // Cabecera
-            yPosition = dibujarCabecera(contentStream, page, yPosition);
+            yPosition = dibujarCabecera(contentStream, fuenteNegrita, yPosition);
             
             // Línea separadora
             yPosition -= 10;
@@ -84,7 +652,7 @@ public class PDFExporter {
             yPosition -= 20;
             
             // Contenido - Descripción
-            contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), FONT_SIZE_NORMAL);
+            contentStream.setFont(fuenteNormal, FONT_SIZE_NORMAL);
             contentStream.beginText();
             contentStream.newLineAtOffset(MARGIN, yPosition);
             contentStream.showText("Este documento presenta un resumen de los clientes registrados en la aplicación.");
@@ -92,78 +660,494 @@ public class PDFExporter {
             yPosition -= 30;
             
             // Subtítulo - Listado de clientes
-            contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), FONT_SIZE_SUBTITLE);
+            contentStream.setFont(fuenteNegrita, FONT_SIZE_SUBTITLE);
             contentStream.beginText();
             contentStream.newLineAtOffset(MARGIN, yPosition);
-            contentStream.showText("Listado de clientes:");
+            contentStream.showText(subtitulo);
             contentStream.endText();
-            yPosition -= 25;
-            
-            // Lista de clientes
-            contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), FONT_SIZE_NORMAL);
-            for (Cliente cliente : clientes) {
-                if (yPosition < 150) {
-                    // Si no hay espacio, crear nueva página
-                    contentStream.close();
-                    page = new PDPage(PDRectangle.A4);
-                    document.addPage(page);
-                    contentStream = new PDPageContentStream(document, page);
-                    contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), FONT_SIZE_NORMAL);
-                    yPosition = page.getMediaBox().getHeight() - MARGIN;
-                }
-                
-                contentStream.beginText();
-                contentStream.newLineAtOffset(MARGIN, yPosition);
-                contentStream.showText("- " + cliente.getNombre() + " (" + cliente.getCiudad() + ")");
-                contentStream.endText();
-                yPosition -= LINE_HEIGHT;
-            }
-            
-            yPosition -= 20;
+        }
+        
+        return page;
+    }
+    
+    /**
+     * Dibuja la primera página del informe que generaría
+     * {@link #exportarAPDF(List, String, OpcionesExportacion)} con la salida
+     * compacta, sin componer el resto. Solo se codifican las filas de esa
+     * página y, si el listado cabe en ella, el total y el gráfico, así que el
+     * coste no depende del número de clientes.
+     * 
+     * @param clientes Lista de clientes del informe
+     * @param dpi Resolución de la imagen; 72 equivale a un píxel por punto
+     * @return Imagen de la primera página
+     * @throws IOException Si ocurre un error al componer o dibujar la página
+     */
+    public static BufferedImage renderizarPrimeraPagina(List<Cliente> clientes, float dpi) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PDFont fuenteNormal = FuenteUnicode.cargar(document);
+            PDFont fuenteNegrita = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
             
-            // Total de clientes
-            contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), FONT_SIZE_SUBTITLE);
-            contentStream.beginText();
-            contentStream.newLineAtOffset(MARGIN, yPosition);
-            contentStream.showText("Total de clientes: " + clientes.size());
-            contentStream.endText();
-            yPosition -= 40;
+            PaginacionInforme paginacion = calcularPaginacion(clientes.size());
+            PDFormXObject totalPaginas = crearTotalPaginas(document);
+            float xTotal = posicionTotalPaginas(fuenteNormal, paginacion.getPaginasTotales());
+            fijarTotalPaginas(totalPaginas, fuenteNormal, paginacion.getPaginasTotales(), xTotal);
             
-            // Verificar si hay espacio para el gráfico
-            if (yPosition < 350) {
-                contentStream.close();
-                page = new PDPage(PDRectangle.A4);
-                document.addPage(page);
-                contentStream = new PDPageContentStream(document, page);
-                yPosition = page.getMediaBox().getHeight() - MARGIN;
+            PDPage page = crearPrimeraPagina(document, fuenteNormal, fuenteNegrita, totalPaginas, SUBTITULO_LISTADO);
+            TablaPDF tabla = new TablaPDF(fuenteNormal, FONT_SIZE_NORMAL, LINE_HEIGHT, ANCHO_LISTADO);
+            anadirFragmento(document, page, componerPagina(tabla, clientes, paginacion, 0, xTotal));
+            tabla.registrarCaracteresUsados(fuenteNormal);
+            if (paginacion.getPaginasListado() == 1) {
+                terminarDocumento(document, page, paginacion, "Total de clientes: " + clientes.size(),
+                    contarPorCiudad(clientes), fuenteNormal, fuenteNegrita, totalPaginas, true);
             }
             
-            // Generar y añadir gráfico
-            File chartFile = generarGrafico(clientes);
-            if (chartFile != null && chartFile.exists()) {
-                PDImageXObject chartImage = PDImageXObject.createFromFile(chartFile.getAbsolutePath(), document);
-                
-                float chartWidth = 300;
-                float chartHeight = 200;
-                float xPosition = (page.getMediaBox().getWidth() - chartWidth) / 2;
-                
-                contentStream.drawImage(chartImage, xPosition, yPosition - chartHeight, chartWidth, chartHeight);
-                yPosition -= (chartHeight + 30);
-                
-                // Eliminar archivo temporal
-                chartFile.delete();
+            return new PDFRenderer(document).renderImageWithDPI(0, dpi, ImageType.RGB);
+        }
+    }
+    
+    /**
+     * Completa el informe tras el listado: total de clientes, gráfico por ciudad
+     * (en una página nueva si no cabe) y pie de página.
+     * 
+     * @param document Documento del informe
+     * @param page Última página del listado
+     * @param paginacion Paginación del informe
+     * @param textoTotal Línea con el total de clientes
+     * @param clientesPorCiudad Número de clientes de cada ciudad, para el gráfico
+     * @param fuenteNormal Fuente normal del documento
+     * @param fuenteNegrita Fuente en negrita del documento
+     * @param totalPaginas Formulario con el total de páginas del documento
+     * @param salidaCompacta true para incrustar el gráfico con paleta, como {@link GraficoCompacto}
+     * @throws IOException Si ocurre un error al escribir en el documento
+     */
+    private static void terminarDocumento(PDDocument document, PDPage page, PaginacionInforme paginacion,
+                                          String textoTotal, Map<String, Integer> clientesPorCiudad,
+                                          PDFont fuenteNormal, PDFont fuenteNegrita, PDFormXObject totalPaginas,
+                                          boolean salidaCompacta) throws IOException {
+        int paginasTotales = paginacion.getPaginasTotales();
+        float yPosition = paginacion.getYFinalListado();
+        PDPageContentStream contentStream =
+            new PDPageContentStream(document, page, PDPageContentStream.AppendMode.APPEND, true);
+        
+        yPosition -= 20;
+        
+        // Total de clientes
+        contentStream.setFont(fuenteNegrita, FONT_SIZE_SUBTITLE);
+        contentStream.beginText();
+        contentStream.newLineAtOffset(MARGIN, yPosition);
+        contentStream.showText(textoTotal);
+        contentStream.endText();
+        yPosition -= 40;
+        
+        // Verificar si hay espacio para el gráfico
+        if (paginacion.isGraficoEnPaginaNueva()) {
+            contentStream.close();
+            page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+            contentStream = new PDPageContentStream(document, page);
+            yPosition = page.getMediaBox().getHeight() - MARGIN;
+            dibujarNumeroPagina(contentStream, fuenteNormal, paginasTotales, totalPaginas);
+        }
+        
+        // Generar y añadir gráfico (en memoria, sin archivo temporal)
+        PDImageXObject chartImage = null;
+        if (salidaCompacta) {
+            GraficoCompacto grafico = GraficoCompacto.de(clientesPorCiudad, () -> generarGrafico(clientesPorCiudad));
+            if (grafico != null) {
+                chartImage = grafico.crearImagen(document);
             }
+        } else {
+            BufferedImage chartBitmap = generarGrafico(clientesPorCiudad);
+            if (chartBitmap != null) {
+                chartImage = LosslessFactory.createFromImage(document, chartBitmap);
+            }
+        }
+        if (chartImage != null) {
+            float chartWidth = 300;
+            float chartHeight = 200;
+            float xPosition = (page.getMediaBox().getWidth() - chartWidth) / 2;
             
-            // Pie de página
-            dibujarPieDePagina(contentStream, page);
-            
-            contentStream.close();
+            contentStream.drawImage(chartImage, xPosition, yPosition - chartHeight, chartWidth, chartHeight);
+        }
+        
+        // Pie de página
+        dibujarPieDePagina(contentStream, page, fuenteNormal);
+        
+        contentStream.close();
+    }
+    
+    /**
+     * Composición incremental del informe para cuando los clientes llegan por
+     * lotes y su número total no se conoce de antemano, como en
+     * {@link ExportacionEnTuberia}.
+     * 
+     * <p>Las filas se acumulan hasta completar la capacidad de la página actual,
+     * que no depende del total, y entonces se codifican como operadores de
+     * contenido de la página. Así solo se retienen los clientes de una página,
+     * y de las anteriores únicamente su contenido sin comprimir, mucho más
+     * pequeño que los objetos {@link Cliente}. Como el total de páginas no se
+     * sabe hasta el final, al terminar se añade a cada contenido el pie
+     * "Página X de Y" y se comprime como un único fragmento, igual que en
+     * {@link #exportarAPDF(List, String)}, por lo que el documento resultante
+     * es equivalente al de ese método con los mismos clientes.
+     * 
+     * <p>No es segura para uso concurrente: los lotes deben entregarse desde un único hilo.
+     */
+    static final class InformeIncremental implements Closeable {
+        
+        private final PDDocument document = new PDDocument();
+        private final PDFont fuenteNormal;
+        private final PDFont fuenteNegrita;
+        private final TablaPDF tabla;
+        private final PaginacionInforme capacidades = calcularPaginacion(0);
+        private final List<Cliente> pendientes = new ArrayList<>();
+        private final List<byte[]> contenidos = new ArrayList<>();
+        private final Map<String, Integer> clientesPorCiudad = new HashMap<>();
+        private final PDFormXObject totalPaginas;
+        private PDPage page;
+        private int paginaActual;
+        private int totalClientes;
+        private long huella;
+        private boolean entregado;
+        
+        /**
+         * Crea el documento y dibuja la cabecera de la primera página.
+         * 
+         * @throws IOException Si ocurre un error al crear el documento
+         */
+        InformeIncremental() throws IOException {
+            try {
+                fuenteNormal = FuenteUnicode.cargar(document);
+                fuenteNegrita = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+                tabla = new TablaPDF(fuenteNormal, FONT_SIZE_NORMAL, LINE_HEIGHT, ANCHO_LISTADO);
+                totalPaginas = crearTotalPaginas(document);
+                page = crearPrimeraPagina(document, fuenteNormal, fuenteNegrita, totalPaginas, SUBTITULO_LISTADO);
+            } catch (IOException | RuntimeException e) {
+                document.close();
+                throw e;
+            }
+        }
+        
+        /**
+         * Añade un lote de clientes al listado, componiendo las páginas que se completen.
+         * 
+         * @param lote Clientes a añadir, en orden
+         * @throws IOException Si ocurre un error al componer una página
+         */
+        void anadir(List<Cliente> lote) throws IOException {
+            for (Cliente cliente : lote) {
+                if (pendientes.size() == capacidades.getCapacidad(paginaActual)) {
+                    volcarPagina();
+                    paginaActual++;
+                    page = nuevaPagina(document, fuenteNormal, totalPaginas);
+                }
+                pendientes.add(cliente);
+                clientesPorCiudad.merge(cliente.getCiudad(), 1, Integer::sum);
+                huella = MetadatosInforme.huella(huella, cliente);
+                totalClientes++;
+            }
+        }
+        
+        /**
+         * Número de clientes añadidos hasta el momento.
+         * 
+         * @return Clientes del listado
+         */
+        int getTotalClientes() {
+            return totalClientes;
+        }
+        
+        /**
+         * Compone la última página del listado, añade los números de página,
+         * el total, el gráfico y el pie, y entrega el documento.
+         * 
+         * @return Documento PDF listo para guardarse; el llamante debe cerrarlo
+         * @throws IOException Si ocurre un error al completar el documento
+         */
+        PDDocument terminar() throws IOException {
+            volcarPagina();
             
-            // Guardar documento
-            document.save(rutaPDF);
+            PaginacionInforme paginacion = calcularPaginacion(totalClientes);
+            float xTotal = posicionTotalPaginas(fuenteNormal, paginacion.getPaginasTotales());
+            fijarTotalPaginas(totalPaginas, fuenteNormal, paginacion.getPaginasTotales(), xTotal);
+            for (int p = 0; p < contenidos.size(); p++) {
+                tabla.iniciarFragmento(contenidos.get(p));
+                contenidos.set(p, null);
+                escribirNumeroPagina(tabla, p + 1, xTotal);
+                anadirFragmento(document, document.getPage(p), tabla.terminarFragmento());
+            }
+            tabla.registrarCaracteresUsados(fuenteNormal);
             
-        } finally {
-            document.close();
+            terminarDocumento(document, page, paginacion, "Total de clientes: " + totalClientes,
+                clientesPorCiudad, fuenteNormal, fuenteNegrita, totalPaginas, false);
+            new MetadatosInforme(totalClientes, huella).escribir(document);
+            entregado = true;
+            return document;
+        }
+        
+        /**
+         * Descarta el documento si no se ha llegado a entregar con {@link #terminar()}.
+         * 
+         * @throws IOException Si ocurre un error al cerrar el documento
+         */
+        @Override
+        public void close() throws IOException {
+            if (!entregado) {
+                document.close();
+            }
+        }
+        
+        /**
+         * Codifica las filas pendientes como contenido de la página actual.
+         * 
+         * @throws IOException Si ocurre un error al codificar el texto
+         */
+        private void volcarPagina() throws IOException {
+            tabla.iniciarFragmento();
+            tabla.escribirFilas(pendientes, 0, pendientes.size(), MARGIN, capacidades.getYInicial(paginaActual));
+            contenidos.add(tabla.contenidoSinComprimir());
+            pendientes.clear();
+        }
+    }
+    
+    /**
+     * Compone secuencialmente los fragmentos de las páginas del listado desde
+     * una dada hasta la última y registra sus caracteres en el subconjunto de
+     * la fuente del documento.
+     * 
+     * @param clientes Lista completa de clientes
+     * @param paginacion Paginación del informe
+     * @param primeraPagina Índice de la primera página a componer
+     * @param xTotal Posición horizontal del total de páginas en el pie
+     * @param fuenteDocumento Fuente del listado en el documento
+     * @param seguimiento Progreso y cancelación, notificados tras cada página
+     * @return Un fragmento comprimido por página, en orden
+     * @throws IOException Si ocurre un error al codificar el texto o se cancela
+     */
+    private static byte[][] componerListado(List<Cliente> clientes, PaginacionInforme paginacion,
+                                            int primeraPagina, float xTotal, PDFont fuenteDocumento,
+                                            SeguimientoExportacion seguimiento) throws IOException {
+        TablaPDF tabla = new TablaPDF(fuenteDocumento, FONT_SIZE_NORMAL, LINE_HEIGHT, ANCHO_LISTADO);
+        byte[][] fragmentos = new byte[paginacion.getPaginasListado() - primeraPagina][];
+        for (int p = primeraPagina; p < paginacion.getPaginasListado(); p++) {
+            fragmentos[p - primeraPagina] = componerPagina(tabla, clientes, paginacion, p, xTotal);
+            seguimiento.paginaCompletada(paginacion.getFilas(p));
+        }
+        tabla.registrarCaracteresUsados(fuenteDocumento);
+        return fragmentos;
+    }
+    
+    /**
+     * Compone los fragmentos de las páginas del listado repartiéndolos entre
+     * los núcleos disponibles. Cada tramo contiguo de páginas se compone con su
+     * propio {@link TablaPDF} y su propia instancia de fuente, cargada en un
+     * documento auxiliar, ya que la codificación de texto de PDFBox no es segura
+     * entre hilos. Todas las instancias comparten la misma fuente TrueType, así
+     * que el texto codificado es el mismo; al terminar, los caracteres de cada
+     * tramo se registran en el subconjunto de la fuente del documento.
+     * 
+     * @param clientes Lista completa de clientes
+     * @param paginacion Paginación del informe
+     * @param primeraPagina Índice de la primera página a componer
+     * @param xTotal Posición horizontal del total de páginas en el pie
+     * @param fuenteDocumento Fuente del listado en el documento
+     * @param seguimiento Progreso y cancelación; cada tramo lo notifica y comprueba tras cada página
+     * @return Un fragmento comprimido por página, en orden
+     * @throws IOException Si ocurre un error al codificar el texto o se cancela
+     */
+    private static byte[][] componerListadoEnParalelo(List<Cliente> clientes, PaginacionInforme paginacion,
+                                                      int primeraPagina, float xTotal, PDFont fuenteDocumento,
+                                                      SeguimientoExportacion seguimiento) throws IOException {
+        int paginas = paginacion.getPaginasListado() - primeraPagina;
+        byte[][] fragmentos = new byte[paginas][];
+        int tramos = Math.min(paginas, Runtime.getRuntime().availableProcessors() * 4);
+        TablaPDF[] tablas = new TablaPDF[tramos];
+        
+        try {
+            IntStream.range(0, tramos).parallel().forEach(t -> {
+                int desde = (int) ((long) paginas * t / tramos);
+                int hasta = (int) ((long) paginas * (t + 1) / tramos);
+                try (PDDocument auxiliar = new PDDocument()) {
+                    TablaPDF tabla = new TablaPDF(FuenteUnicode.cargar(auxiliar), FONT_SIZE_NORMAL, LINE_HEIGHT,
+                        ANCHO_LISTADO);
+                    for (int p = desde; p < hasta; p++) {
+                        fragmentos[p] = componerPagina(tabla, clientes, paginacion, primeraPagina + p, xTotal);
+                        seguimiento.paginaCompletada(paginacion.getFilas(primeraPagina + p));
+                    }
+                    tablas[t] = tabla;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        
+        for (TablaPDF tabla : tablas) {
+            tabla.registrarCaracteresUsados(fuenteDocumento);
+        }
+        return fragmentos;
+    }
+    
+    /**
+     * Compone el fragmento de una página del listado: sus filas y el pie
+     * "Página X de Y", cuyo total se conoce de antemano por la paginación.
+     * 
+     * @param tabla Motor de tabla con el que componer
+     * @param clientes Lista completa de clientes
+     * @param paginacion Paginación del informe
+     * @param pagina Índice de la página del listado, empezando en 0
+     * @param xTotal Posición horizontal del total de páginas en el pie
+     * @return Fragmento comprimido de la página
+     * @throws IOException Si ocurre un error al codificar el texto
+     */
+    private static byte[] componerPagina(TablaPDF tabla, List<Cliente> clientes, PaginacionInforme paginacion,
+                                         int pagina, float xTotal) throws IOException {
+        tabla.iniciarFragmento();
+        tabla.escribirFilas(clientes, paginacion.getDesde(pagina), paginacion.getHasta(pagina),
+            MARGIN, paginacion.getYInicial(pagina));
+        escribirNumeroPagina(tabla, pagina + 1, xTotal);
+        return tabla.terminarFragmento();
+    }
+    
+    /**
+     * Escribe en el fragmento actual el pie "Página X de Y": el texto hasta
+     * "de" alineado a la derecha contra el total, y el total con el formulario
+     * compartido {@link #RECURSO_TOTAL_PAGINAS}.
+     * 
+     * @param tabla Motor de tabla con el fragmento de la página
+     * @param numero Número de la página, empezando en 1
+     * @param xTotal Posición horizontal del total de páginas
+     * @throws IOException Si ocurre un error al codificar el texto
+     */
+    private static void escribirNumeroPagina(TablaPDF tabla, int numero, float xTotal) throws IOException {
+        tabla.escribirTextoAlineadoDerecha(prefijoNumeroPagina(numero), FONT_SIZE_PIE, xTotal, Y_PIE);
+        tabla.dibujarFormulario(RECURSO_TOTAL_PAGINAS);
+    }
+    
+    /**
+     * Texto del pie con el número de página, sin el total.
+     * 
+     * @param numero Número de la página, empezando en 1
+     * @return Texto "Página X de "
+     */
+    private static String prefijoNumeroPagina(int numero) {
+        return "Página " + numero + " de ";
+    }
+    
+    /**
+     * Crea el formulario, todavía vacío, que dibuja el total de páginas en el
+     * pie de todas las páginas del documento.
+     * 
+     * @param document Documento del informe
+     * @return Formulario del total de páginas
+     */
+    private static PDFormXObject crearTotalPaginas(PDDocument document) {
+        PDFormXObject totalPaginas = new PDFormXObject(document);
+        totalPaginas.setBBox(PDRectangle.A4);
+        return totalPaginas;
+    }
+    
+    /**
+     * Calcula la posición horizontal del total de páginas para que el pie
+     * quede alineado al margen derecho con ese total.
+     * 
+     * @param fuente Fuente del pie
+     * @param total Número total de páginas
+     * @return Posición horizontal donde empieza el total
+     * @throws IOException Si no se pueden leer las métricas de la fuente
+     */
+    private static float posicionTotalPaginas(PDFont fuente, int total) throws IOException {
+        return PDRectangle.A4.getWidth() - MARGIN
+            - MetricasTexto.de(fuente).anchoTexto(String.valueOf(total), FONT_SIZE_PIE);
+    }
+    
+    /**
+     * Escribe el total de páginas en su formulario, sustituyendo el anterior.
+     * 
+     * @param totalPaginas Formulario del total de páginas
+     * @param fuente Fuente del pie, que pasa a ser el único recurso del formulario
+     * @param total Número total de páginas
+     * @param xTotal Posición horizontal del total en el pie
+     * @throws IOException Si ocurre un error al escribir el formulario
+     */
+    private static void fijarTotalPaginas(PDFormXObject totalPaginas, PDFont fuente, int total, float xTotal)
+            throws IOException {
+        totalPaginas.setMatrix(AffineTransform.getTranslateInstance(xTotal, Y_PIE));
+        TablaPDF.escribirFormulario(totalPaginas, fuente, FONT_SIZE_PIE, String.valueOf(total));
+    }
+    
+    /**
+     * Crea una página A4 nueva, la añade al documento y registra en sus
+     * recursos la fuente del listado y el total de páginas con los nombres
+     * que usan los fragmentos.
+     * 
+     * @param document Documento al que se añade la página
+     * @param fuenteListado Fuente compartida del listado
+     * @param totalPaginas Formulario con el total de páginas del documento
+     * @return Página creada
+     */
+    private static PDPage nuevaPagina(PDDocument document, PDFont fuenteListado, PDFormXObject totalPaginas) {
+        return nuevaPagina(document, recursosListado(fuenteListado, totalPaginas));
+    }
+    
+    /**
+     * Crea una página A4 nueva con unos recursos dados y la añade al documento.
+     * Si los recursos son compartidos, en la página no debe dibujarse nada que
+     * añada recursos nuevos.
+     * 
+     * @param document Documento al que se añade la página
+     * @param recursos Recursos de la página
+     * @return Página creada
+     */
+    private static PDPage nuevaPagina(PDDocument document, PDResources recursos) {
+        PDPage page = new PDPage(PDRectangle.A4);
+        page.setResources(recursos);
+        document.addPage(page);
+        return page;
+    }
+    
+    /**
+     * Crea los recursos de una página del listado: la fuente del listado y el
+     * total de páginas con los nombres que usan los fragmentos.
+     * 
+     * @param fuenteListado Fuente compartida del listado
+     * @param totalPaginas Formulario con el total de páginas del documento
+     * @return Recursos nuevos
+     */
+    private static PDResources recursosListado(PDFont fuenteListado, PDFormXObject totalPaginas) {
+        PDResources recursos = new PDResources();
+        recursos.put(TablaPDF.RECURSO_FUENTE, fuenteListado);
+        recursos.put(RECURSO_TOTAL_PAGINAS, totalPaginas);
+        return recursos;
+    }
+    
+    /**
+     * Añade un fragmento de contenido ya comprimido al final del contenido de la página.
+     * 
+     * @param document Documento propietario de la página
+     * @param page Página a la que se añade el fragmento
+     * @param fragmento Flujo de contenido comprimido con Flate
+     * @throws IOException Si ocurre un error al escribir el flujo
+     */
+    private static void anadirFragmento(PDDocument document, PDPage page, byte[] fragmento) throws IOException {
+        COSStream stream = document.getDocument().createCOSStream();
+        stream.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+        try (OutputStream salida = stream.createRawOutputStream()) {
+            salida.write(fragmento);
+        }
+        
+        COSDictionary pagina = page.getCOSObject();
+        COSBase contenido = pagina.getDictionaryObject(COSName.CONTENTS);
+        if (contenido == null) {
+            pagina.setItem(COSName.CONTENTS, stream);
+        } else if (contenido instanceof COSArray array) {
+            array.add(stream);
+        } else {
+            COSArray array = new COSArray();
+            array.add(pagina.getItem(COSName.CONTENTS));
+            array.add(stream);
+            pagina.setItem(COSName.CONTENTS, array);
         }
     }
     
@@ -171,15 +1155,15 @@ public class PDFExporter {
      * Dibuja la cabecera del documento PDF con el título principal.
      * 
      * @param contentStream Stream de contenido donde se dibujará la cabecera
-     * @param page Página actual del documento
+     * @param fuenteNegrita Fuente en negrita del documento
      * @param yPosition Posición vertical inicial para dibujar
      * @return Nueva posición vertical después de dibujar la cabecera
      * @throws IOException Si ocurre un error al escribir en el stream
      */
-    private static float dibujarCabecera(PDPageContentStream contentStream, PDPage page, float yPosition) 
+    private static float dibujarCabecera(PDPageContentStream contentStream, PDFont fuenteNegrita, float yPosition) 
             throws IOException {
         // Título
-        contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), FONT_SIZE_TITLE);
+        contentStream.setFont(fuenteNegrita, FONT_SIZE_TITLE);
         contentStream.beginText();
         contentStream.newLineAtOffset(MARGIN, yPosition);
         contentStream.showText("Informe de Clientes");
@@ -194,20 +1178,21 @@ public class PDFExporter {
      * 
      * @param contentStream Stream de contenido donde se dibujará el pie de página
      * @param page Página actual del documento
+     * @param fuente Fuente normal del documento
      * @throws IOException Si ocurre un error al escribir en el stream
      */
-    private static void dibujarPieDePagina(PDPageContentStream contentStream, PDPage page) 
+    private static void dibujarPieDePagina(PDPageContentStream contentStream, PDPage page, PDFont fuente) 
             throws IOException {
-        float yPosition = 30;
+        float yPosition = Y_PIE;
         
-        contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 8);
+        contentStream.setFont(fuente, FONT_SIZE_PIE);
         
         SimpleDateFormat sdf = new SimpleDateFormat("yyyy");
         String year = sdf.format(new Date());
         
         String footer = "© " + year + " Informe generado por la aplicación DAM - Todos los derechos reservados.";
         
-        float textWidth = new PDType1Font(Standard14Fonts.FontName.HELVETICA).getStringWidth(footer) / 1000 * 8;
+        float textWidth = MetricasTexto.de(fuente).anchoTexto(footer, FONT_SIZE_PIE);
         float xPosition = (page.getMediaBox().getWidth() - textWidth) / 2;
         
         contentStream.beginText();
@@ -216,6 +1201,29 @@ public class PDFExporter {
         contentStream.endText();
     }
     
+    /**
+     * Dibuja el número de página ("Página X de Y") en el pie, con el total
+     * tomado del formulario compartido.
+     * 
+     * @param contentStream Stream de contenido donde se dibujará el número
+     * @param fuente Fuente normal del documento
+     * @param numero Número de la página, empezando en 1
+     * @param totalPaginas Formulario con el total de páginas del documento
+     * @throws IOException Si ocurre un error al escribir en el stream
+     */
+    private static void dibujarNumeroPagina(PDPageContentStream contentStream, PDFont fuente, int numero,
+                                            PDFormXObject totalPaginas) throws IOException {
+        String texto = prefijoNumeroPagina(numero);
+        float textWidth = MetricasTexto.de(fuente).anchoTexto(texto, FONT_SIZE_PIE);
+        
+        contentStream.setFont(fuente, FONT_SIZE_PIE);
+        contentStream.beginText();
+        contentStream.newLineAtOffset(totalPaginas.getMatrix().getTranslateX() - textWidth, Y_PIE);
+        contentStream.showText(texto);
+        contentStream.endText();
+        contentStream.drawForm(totalPaginas);
+    }
+    
     /**
      * Dibuja una línea recta entre dos puntos en el documento PDF.
      * 
@@ -233,9 +1241,23 @@ public class PDFExporter {
         contentStream.stroke();
     }
     
+    /**
+     * Cuenta los clientes de cada ciudad para el gráfico del informe.
+     * 
+     * @param clientes Lista de clientes
+     * @return Número de clientes de cada ciudad
+     */
+    static Map<String, Integer> contarPorCiudad(List<Cliente> clientes) {
+        Map<String, Integer> ciudadCount = new HashMap<>();
+        for (Cliente c : clientes) {
+            ciudadCount.merge(c.getCiudad(), 1, Integer::sum);
+        }
+        return ciudadCount;
+    }
+    
     /**
      * Genera un gráfico circular (pie chart) que muestra la distribución de clientes por ciudad.
-     * El gráfico se crea usando JFreeChart y se guarda como archivo temporal PNG.
+     * El gráfico se crea usando JFreeChart y se renderiza directamente a una imagen en memoria.
      * 
      * <p>El gráfico incluye:
      * <ul>
@@ -245,19 +1267,14 @@ public class PDFExporter {
      *   <li>Tooltips informativos</li>
      * </ul>
      * 
-     * @param clientes Lista de clientes para generar las estadísticas del gráfico
-     * @return Archivo temporal que contiene el gráfico en formato PNG, o null si ocurre un error
+     * @param ciudadCount Número de clientes de cada ciudad
+     * @return Imagen con el gráfico renderizado, o null si ocurre un error
      */
-    private static File generarGrafico(List<Cliente> clientes) {
+    private static BufferedImage generarGrafico(Map<String, Integer> ciudadCount) {
         try {
             // Crear dataset
             DefaultPieDataset dataset = new DefaultPieDataset();
             
-            Map<String, Integer> ciudadCount = new HashMap<>();
-            for (Cliente c : clientes) {
-                ciudadCount.put(c.getCiudad(), ciudadCount.getOrDefault(c.getCiudad(), 0) + 1);
-            }
-            
             for (Map.Entry<String, Integer> entry : ciudadCount.entrySet()) {
                 dataset.setValue(entry.getKey(), entry.getValue());
             }
@@ -290,13 +1307,7 @@ public class PDFExporter {
             }
             
             // Renderizar a imagen
-            BufferedImage image = chart.createBufferedImage(600, 400);
-            
-            // Guardar en archivo temporal
-            File tempFile = File.createTempFile("chart", ".png");
-            ImageIO.write(image, "png", tempFile);
-            
-            return tempFile;
+            return chart.createBufferedImage(600, 400);
             
         } catch (Exception e) {
             e.printStackTrace();
@@ -0,0 +1,169 @@
+package com.example.reportgenerator;
+
+/**
+ * Pasada de maquetación del informe: reparte las filas del listado entre
+ * las páginas y calcula el número total de páginas del documento.
+ *
+ * <p>La paginación se obtiene de forma aritmética, en O(1) por página, a partir
+ * del número de filas y de las métricas de línea, sin dibujar nada. Así el
+ * renderizado real puede estampar "Página X de Y" en una sola pasada y el total
+ * de páginas está disponible de antemano para barras de progreso y estimaciones.
+ *
+ * <p>La primera página tiene menos capacidad porque comparte espacio con la
+ * cabecera del informe; el resto de páginas del listado tienen todas la misma
+ * capacidad. Tras el listado se escribe el resumen (total de clientes) y, si no
+ * queda espacio suficiente para el gráfico, este pasa a una página adicional.
+ *
+ * @author Álvaro
+ * @version 1.2
+ * @since 2026-10-19
+ */
+final class PaginacionInforme {
+
+    private final int totalFilas;
+    private final float yPrimeraPagina;
+    private final float yResto;
+    private final float interlineado;
+    private final int capacidadPrimeraPagina;
+    private final int capacidadPagina;
+    private final int paginasListado;
+    private final boolean graficoEnPaginaNueva;
+
+    /**
+     * Calcula la paginación del informe.
+     *
+     * @param totalFilas Número de clientes del listado
+     * @param yPrimeraPagina Posición de la primera fila en la primera página
+     * @param yResto Posición de la primera fila en el resto de páginas
+     * @param limiteInferior Posición mínima en la que todavía se puede escribir una fila
+     * @param interlineado Distancia vertical entre filas consecutivas
+     * @param altoResumen Espacio vertical que consume el resumen tras la última fila
+     * @param espacioMinimoGrafico Posición mínima desde la que cabe el gráfico en la página
+     * @throws IllegalArgumentException Si en alguna página no cabe ninguna fila
+     */
+    PaginacionInforme(int totalFilas, float yPrimeraPagina, float yResto, float limiteInferior,
+                      float interlineado, float altoResumen, float espacioMinimoGrafico) {
+        this.totalFilas = totalFilas;
+        this.yPrimeraPagina = yPrimeraPagina;
+        this.yResto = yResto;
+        this.interlineado = interlineado;
+        this.capacidadPrimeraPagina = filasQueCaben(yPrimeraPagina, limiteInferior, interlineado);
+        this.capacidadPagina = filasQueCaben(yResto, limiteInferior, interlineado);
+        if (capacidadPrimeraPagina <= 0 || capacidadPagina <= 0) {
+            throw new IllegalArgumentException("La capacidad de las páginas debe ser positiva");
+        }
+
+        int restantes = Math.max(0, totalFilas - capacidadPrimeraPagina);
+        this.paginasListado = 1 + (restantes + capacidadPagina - 1) / capacidadPagina;
+        this.graficoEnPaginaNueva = getYFinalListado() - altoResumen < espacioMinimoGrafico;
+    }
+
+    /**
+     * Calcula cuántas filas caben entre una posición vertical y el límite inferior.
+     *
+     * @param yPosition Posición vertical de la primera fila
+     * @param limiteInferior Posición mínima en la que todavía se puede escribir una fila
+     * @param interlineado Distancia vertical entre filas consecutivas
+     * @return Número de filas que caben (0 si ya no queda espacio)
+     */
+    static int filasQueCaben(float yPosition, float limiteInferior, float interlineado) {
+        if (yPosition < limiteInferior) {
+            return 0;
+        }
+        return (int) Math.floor((yPosition - limiteInferior) / interlineado) + 1;
+    }
+
+    /**
+     * Número de páginas que ocupa el listado (al menos una, aunque esté vacío).
+     *
+     * @return Páginas del listado
+     */
+    int getPaginasListado() {
+        return paginasListado;
+    }
+
+    /**
+     * Número total de páginas del documento, incluida la del gráfico si la hay.
+     *
+     * @return Páginas totales del informe
+     */
+    int getPaginasTotales() {
+        return paginasListado + (graficoEnPaginaNueva ? 1 : 0);
+    }
+
+    /**
+     * Indica si el gráfico no cabe tras el resumen y necesita una página propia.
+     *
+     * @return true si el gráfico va en una página adicional
+     */
+    boolean isGraficoEnPaginaNueva() {
+        return graficoEnPaginaNueva;
+    }
+
+    /**
+     * Índice del primer cliente de una página del listado.
+     *
+     * @param pagina Índice de página, empezando en 0
+     * @return Índice del primer cliente de la página (incluido)
+     */
+    int getDesde(int pagina) {
+        if (pagina == 0) {
+            return 0;
+        }
+        return Math.min(totalFilas, capacidadPrimeraPagina + (pagina - 1) * capacidadPagina);
+    }
+
+    /**
+     * Índice siguiente al último cliente de una página del listado.
+     *
+     * @param pagina Índice de página, empezando en 0
+     * @return Índice del último cliente de la página (excluido)
+     */
+    int getHasta(int pagina) {
+        if (pagina == 0) {
+            return Math.min(totalFilas, capacidadPrimeraPagina);
+        }
+        return Math.min(totalFilas, capacidadPrimeraPagina + pagina * capacidadPagina);
+    }
+
+    /**
+     * Número máximo de filas que caben en una página del listado,
+     * independientemente del total de filas.
+     *
+     * @param pagina Índice de página, empezando en 0
+     * @return Capacidad de la página
+     */
+    int getCapacidad(int pagina) {
+        return pagina == 0 ? capacidadPrimeraPagina : capacidadPagina;
+    }
+
+    /**
+     * Número de filas que contiene una página del listado.
+     *
+     * @param pagina Índice de página, empezando en 0
+     * @return Filas de la página
+     */
+    int getFilas(int pagina) {
+        return getHasta(pagina) - getDesde(pagina);
+    }
+
+    /**
+     * Posición vertical de la primera fila de una página del listado.
+     *
+     * @param pagina Índice de página, empezando en 0
+     * @return Posición vertical inicial
+     */
+    float getYInicial(int pagina) {
+        return pagina == 0 ? yPrimeraPagina : yResto;
+    }
+
+    /**
+     * Posición vertical siguiente a la última fila del listado.
+     *
+     * @return Posición vertical tras el listado en su última página
+     */
+    float getYFinalListado() {
+        int ultima = paginasListado - 1;
+        return getYInicial(ultima) - getFilas(ultima) * interlineado;
+    }
+}
@@ -0,0 +1,432 @@
+package com.example.reportgenerator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Planificador de trabajos de exportación de informes.
+ *
+ * <p>Limita cuántos informes se generan a la vez y cuántos pueden esperar, para
+ * que una avalancha de exportaciones (por ejemplo, a fin de mes) no agote la
+ * memoria. Los trabajos se encolan en una cola acotada con dos clases de
+ * prioridad: las exportaciones {@link Prioridad#INTERACTIVA interactivas},
+ * lanzadas por un usuario que espera el resultado, se atienden siempre antes
+ * que las de {@link Prioridad#LOTE lote}. Además, los trabajos por lotes solo
+ * pueden ocupar una parte de la cola, de modo que siempre queda sitio para
+ * las exportaciones interactivas.
+ *
+ * <p>Cuando la cola está llena, {@link #enviar} rechaza el trabajo con una
+ * {@link RejectedExecutionException} y {@link #enviarEsperando} bloquea al
+ * productor hasta que haya hueco (contrapresión). Cada trabajo devuelve sus
+ * tiempos de espera en cola y de ejecución, y el planificador expone la
+ * profundidad de la cola y los contadores acumulados.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+public class PlanificadorInformes implements AutoCloseable {
+
+    /** Memoria que se reserva por trabajo al dimensionar el número de trabajadores (128 MB). */
+    public static final long MEMORIA_POR_TRABAJO = 128L * 1024 * 1024;
+
+    /** Capacidad por defecto de la cola de trabajos. */
+    public static final int CAPACIDAD_POR_DEFECTO = 256;
+
+    /** Fracción de la cola que pueden ocupar los trabajos por lotes. */
+    private static final double FRACCION_LOTE = 0.75;
+
+    /**
+     * Clase de prioridad de un trabajo de exportación.
+     */
+    public enum Prioridad {
+        /** Exportación lanzada desde la interfaz, con un usuario esperando. */
+        INTERACTIVA,
+        /** Exportación programada o masiva, sin nadie esperando el resultado. */
+        LOTE
+    }
+
+    /**
+     * Trabajo de exportación que ejecuta el planificador.
+     */
+    @FunctionalInterface
+    public interface Tarea {
+        /**
+         * Genera el informe.
+         *
+         * @throws IOException Si ocurre un error durante la exportación
+         */
+        void ejecutar() throws IOException;
+    }
+
+    /**
+     * Tiempos de un trabajo terminado.
+     *
+     * @param espera Tiempo que el trabajo pasó en la cola
+     * @param ejecucion Tiempo que tardó en ejecutarse
+     */
+    public record MetricasTrabajo(Duration espera, Duration ejecucion) {
+    }
+
+    private final int capacidad;
+    private final int capacidadLote;
+    private final ArrayDeque<Trabajo> colaInteractiva = new ArrayDeque<>();
+    private final ArrayDeque<Trabajo> colaLote = new ArrayDeque<>();
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    private final Condition hayTrabajo = cerrojo.newCondition();
+    private final Condition hayHueco = cerrojo.newCondition();
+    private final List<Thread> trabajadores = new ArrayList<>();
+    private final AtomicLong completados = new AtomicLong();
+    private final AtomicLong fallidos = new AtomicLong();
+    private final AtomicLong rechazados = new AtomicLong();
+    private final AtomicLong esperaTotalNanos = new AtomicLong();
+    private final AtomicLong ejecucionTotalNanos = new AtomicLong();
+    private int enEjecucion;
+    private boolean cerrado;
+
+    /**
+     * Crea un planificador dimensionado según los núcleos y la memoria de la JVM
+     * y con la capacidad de cola por defecto.
+     */
+    public PlanificadorInformes() {
+        this(calcularTrabajadores(Runtime.getRuntime().availableProcessors(),
+            Runtime.getRuntime().maxMemory(), MEMORIA_POR_TRABAJO), CAPACIDAD_POR_DEFECTO);
+    }
+
+    /**
+     * Crea un planificador con un número fijo de trabajadores.
+     *
+     * @param numeroTrabajadores Número de informes que se generan a la vez
+     * @param capacidad Número máximo de trabajos esperando en la cola
+     * @throws IllegalArgumentException Si algún parámetro no es positivo
+     */
+    public PlanificadorInformes(int numeroTrabajadores, int capacidad) {
+        if (numeroTrabajadores <= 0 || capacidad <= 0) {
+            throw new IllegalArgumentException("El número de trabajadores y la capacidad deben ser positivos");
+        }
+        this.capacidad = capacidad;
+        this.capacidadLote = Math.max(1, (int) (capacidad * FRACCION_LOTE));
+
+        for (int i = 0; i < numeroTrabajadores; i++) {
+            Thread hilo = new Thread(this::atenderCola, "informes-trabajador-" + (i + 1));
+            hilo.setDaemon(true);
+            trabajadores.add(hilo);
+            hilo.start();
+        }
+    }
+
+    /**
+     * Calcula cuántos informes pueden generarse a la vez sin pasar de un núcleo
+     * por informe ni agotar la memoria disponible.
+     *
+     * @param nucleos Núcleos disponibles
+     * @param memoriaMaxima Memoria máxima de la JVM en bytes
+     * @param memoriaPorTrabajo Memoria estimada de un trabajo en bytes
+     * @return Número de trabajadores (al menos uno)
+     */
+    public static int calcularTrabajadores(int nucleos, long memoriaMaxima, long memoriaPorTrabajo) {
+        long porMemoria = memoriaMaxima / memoriaPorTrabajo;
+        return (int) Math.max(1, Math.min(nucleos, porMemoria));
+    }
+
+    /**
+     * Encola la exportación de un informe PDF a un archivo.
+     *
+     * @param clientes Lista de clientes a incluir en el informe
+     * @param destino Archivo donde se guardará el PDF
+     * @param prioridad Clase de prioridad del trabajo
+     * @return Futuro que se completa con los tiempos del trabajo al terminar
+     * @throws RejectedExecutionException Si la cola está llena o el planificador está cerrado
+     */
+    public CompletableFuture<MetricasTrabajo> enviar(List<Cliente> clientes, Path destino, Prioridad prioridad) {
+        return enviar(() -> PDFExporter.exportarAPDF(clientes, destino.toString()), prioridad);
+    }
+
+    /**
+     * Encola un trabajo, rechazándolo si no hay sitio en la cola.
+     *
+     * @param tarea Trabajo a ejecutar
+     * @param prioridad Clase de prioridad del trabajo
+     * @return Futuro que se completa con los tiempos del trabajo al terminar
+     * @throws RejectedExecutionException Si la cola está llena o el planificador está cerrado
+     */
+    public CompletableFuture<MetricasTrabajo> enviar(Tarea tarea, Prioridad prioridad) {
+        cerrojo.lock();
+        try {
+            comprobarAbierto();
+            if (!cabe(prioridad)) {
+                rechazados.incrementAndGet();
+                throw new RejectedExecutionException("La cola de informes está llena");
+            }
+            return encolar(tarea, prioridad);
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Encola un trabajo, esperando a que haya sitio en la cola si está llena.
+     *
+     * @param tarea Trabajo a ejecutar
+     * @param prioridad Clase de prioridad del trabajo
+     * @param espera Tiempo máximo de espera
+     * @param unidad Unidad del tiempo de espera
+     * @return Futuro que se completa con los tiempos del trabajo al terminar
+     * @throws InterruptedException Si el hilo se interrumpe mientras espera
+     * @throws RejectedExecutionException Si no hay sitio tras la espera o el planificador está cerrado
+     */
+    public CompletableFuture<MetricasTrabajo> enviarEsperando(Tarea tarea, Prioridad prioridad, long espera,
+                                                              TimeUnit unidad) throws InterruptedException {
+        long restante = unidad.toNanos(espera);
+        cerrojo.lockInterruptibly();
+        try {
+            comprobarAbierto();
+            while (!cabe(prioridad)) {
+                if (restante <= 0) {
+                    rechazados.incrementAndGet();
+                    throw new RejectedExecutionException("La cola de informes sigue llena");
+                }
+                restante = hayHueco.awaitNanos(restante);
+                comprobarAbierto();
+            }
+            return encolar(tarea, prioridad);
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Número de trabajos esperando en la cola.
+     *
+     * @return Profundidad total de la cola
+     */
+    public int getProfundidadCola() {
+        cerrojo.lock();
+        try {
+            return colaInteractiva.size() + colaLote.size();
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Número de trabajos de una prioridad esperando en la cola.
+     *
+     * @param prioridad Clase de prioridad
+     * @return Profundidad de la cola de esa prioridad
+     */
+    public int getProfundidadCola(Prioridad prioridad) {
+        cerrojo.lock();
+        try {
+            return cola(prioridad).size();
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Número de trabajos que se están ejecutando en este momento.
+     *
+     * @return Trabajos en ejecución
+     */
+    public int getEnEjecucion() {
+        cerrojo.lock();
+        try {
+            return enEjecucion;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Número de trabajadores del planificador.
+     *
+     * @return Informes que pueden generarse a la vez
+     */
+    public int getTrabajadores() {
+        return trabajadores.size();
+    }
+
+    /**
+     * Número de trabajos terminados correctamente.
+     *
+     * @return Trabajos completados
+     */
+    public long getCompletados() {
+        return completados.get();
+    }
+
+    /**
+     * Número de trabajos terminados con error.
+     *
+     * @return Trabajos fallidos
+     */
+    public long getFallidos() {
+        return fallidos.get();
+    }
+
+    /**
+     * Número de trabajos rechazados por tener la cola llena.
+     *
+     * @return Trabajos rechazados
+     */
+    public long getRechazados() {
+        return rechazados.get();
+    }
+
+    /**
+     * Tiempo medio que han esperado en cola los trabajos terminados.
+     *
+     * @return Espera media, o cero si no ha terminado ninguno
+     */
+    public Duration getEsperaMedia() {
+        long terminados = completados.get() + fallidos.get();
+        return terminados == 0 ? Duration.ZERO : Duration.ofNanos(esperaTotalNanos.get() / terminados);
+    }
+
+    /**
+     * Tiempo medio de ejecución de los trabajos terminados.
+     *
+     * @return Ejecución media, o cero si no ha terminado ninguno
+     */
+    public Duration getEjecucionMedia() {
+        long terminados = completados.get() + fallidos.get();
+        return terminados == 0 ? Duration.ZERO : Duration.ofNanos(ejecucionTotalNanos.get() / terminados);
+    }
+
+    /**
+     * Deja de aceptar trabajos, termina los que ya estaban en la cola y espera
+     * a que acaben los trabajadores.
+     */
+    @Override
+    public void close() {
+        cerrojo.lock();
+        try {
+            cerrado = true;
+            hayTrabajo.signalAll();
+            hayHueco.signalAll();
+        } finally {
+            cerrojo.unlock();
+        }
+
+        boolean interrumpido = false;
+        for (Thread hilo : trabajadores) {
+            while (hilo.isAlive()) {
+                try {
+                    hilo.join();
+                } catch (InterruptedException e) {
+                    interrumpido = true;
+                }
+            }
+        }
+        if (interrumpido) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Bucle de cada trabajador: toma el siguiente trabajo, dando preferencia a
+     * los interactivos, y lo ejecuta fuera del cerrojo.
+     */
+    private void atenderCola() {
+        while (true) {
+            Trabajo trabajo;
+            cerrojo.lock();
+            try {
+                while (colaInteractiva.isEmpty() && colaLote.isEmpty() && !cerrado) {
+                    hayTrabajo.awaitUninterruptibly();
+                }
+                trabajo = colaInteractiva.isEmpty() ? colaLote.poll() : colaInteractiva.poll();
+                if (trabajo == null) {
+                    return;
+                }
+                enEjecucion++;
+                hayHueco.signalAll();
+            } finally {
+                cerrojo.unlock();
+            }
+
+            ejecutar(trabajo);
+
+            cerrojo.lock();
+            try {
+                enEjecucion--;
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+    }
+
+    private void ejecutar(Trabajo trabajo) {
+        long inicio = System.nanoTime();
+        long espera = inicio - trabajo.encolado;
+        try {
+            trabajo.tarea.ejecutar();
+            long ejecucion = System.nanoTime() - inicio;
+            registrarTiempos(espera, ejecucion);
+            completados.incrementAndGet();
+            trabajo.resultado.complete(new MetricasTrabajo(Duration.ofNanos(espera), Duration.ofNanos(ejecucion)));
+        } catch (Throwable e) {
+            registrarTiempos(espera, System.nanoTime() - inicio);
+            fallidos.incrementAndGet();
+            trabajo.resultado.completeExceptionally(e);
+        }
+    }
+
+    private void registrarTiempos(long espera, long ejecucion) {
+        esperaTotalNanos.addAndGet(espera);
+        ejecucionTotalNanos.addAndGet(ejecucion);
+    }
+
+    private CompletableFuture<MetricasTrabajo> encolar(Tarea tarea, Prioridad prioridad) {
+        Trabajo trabajo = new Trabajo(tarea);
+        cola(prioridad).add(trabajo);
+        hayTrabajo.signal();
+        return trabajo.resultado;
+    }
+
+    /**
+     * Indica si un trabajo de una prioridad cabe en la cola. Los interactivos
+     * pueden usar toda la capacidad; los de lote, solo su parte.
+     */
+    private boolean cabe(Prioridad prioridad) {
+        int total = colaInteractiva.size() + colaLote.size();
+        if (prioridad == Prioridad.INTERACTIVA) {
+            return total < capacidad;
+        }
+        return total < capacidad && colaLote.size() < capacidadLote;
+    }
+
+    private ArrayDeque<Trabajo> cola(Prioridad prioridad) {
+        return prioridad == Prioridad.INTERACTIVA ? colaInteractiva : colaLote;
+    }
+
+    private void comprobarAbierto() {
+        if (cerrado) {
+            throw new RejectedExecutionException("El planificador de informes está cerrado");
+        }
+    }
+
+    /**
+     * Trabajo encolado con su instante de entrada en la cola.
+     */
+    private static final class Trabajo {
+        final Tarea tarea;
+        final CompletableFuture<MetricasTrabajo> resultado = new CompletableFuture<>();
+        final long encolado = System.nanoTime();
+
+        Trabajo(Tarea tarea) {
+            this.tarea = tarea;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.reportgenerator;
+
+/**
+ * Estado de avance de una exportación a PDF, tal como lo notifica
+ * {@link PDFExporter} a un {@link Oyente} registrado en {@link OpcionesExportacion}.
+ *
+ * <p>La exportación pasa por dos fases: primero se componen las páginas del
+ * listado, notificando al terminar cada una, y después se escribe el documento,
+ * notificando cada bloque de bytes escrito. El total de bytes no se conoce
+ * hasta el final, por lo que la fracción completada se mide en páginas.
+ *
+ * @param filasRenderizadas Clientes ya escritos en páginas del listado
+ * @param filasTotales Clientes del informe
+ * @param paginasRenderizadas Páginas ya compuestas
+ * @param paginasTotales Páginas del documento
+ * @param bytesEscritos Bytes del PDF escritos en el destino
+ *
+ * @author Álvaro
+ * @version 1.1
+ * @since 2026-10-19
+ */
+public record ProgresoExportacion(int filasRenderizadas, int filasTotales, int paginasRenderizadas,
+                                  int paginasTotales, long bytesEscritos) {
+
+    /**
+     * Recibe las notificaciones de progreso de una exportación.
+     *
+     * <p>Se invoca desde el hilo que exporta, o desde varios hilos a la vez si la
+     * composición es paralela, por lo que la implementación debe ser rápida y
+     * segura entre hilos. Para actualizar una interfaz JavaFX basta con
+     * {@code Task.updateProgress}, que ya agrupa las actualizaciones.
+     */
+    @FunctionalInterface
+    public interface Oyente {
+        /**
+         * Notifica un avance de la exportación.
+         *
+         * @param progreso Estado actual de la exportación
+         */
+        void actualizar(ProgresoExportacion progreso);
+    }
+
+    /**
+     * Fracción de páginas compuestas, entre 0 y 1.
+     *
+     * @return Fracción completada de la exportación
+     */
+    public double getFraccion() {
+        return paginasTotales == 0 ? 1 : (double) paginasRenderizadas / paginasTotales;
+    }
+
+    /**
+     * Bytes escritos por página del documento. Al terminar la exportación es
+     * el tamaño medio de cada página del PDF, la medida con la que se compara
+     * la salida compacta con la normal.
+     *
+     * @return Bytes escritos entre páginas totales
+     */
+    public double getBytesPorPagina() {
+        return paginasTotales == 0 ? 0 : (double) bytesEscritos / paginasTotales;
+    }
+}
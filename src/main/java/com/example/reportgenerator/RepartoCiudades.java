@@ -0,0 +1,82 @@
+package com.example.reportgenerator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Porciones del gráfico circular de clientes por ciudad: las ciudades con más
+ * clientes y una porción "Otros" con el resto.
+ *
+ * <p>Con miles de ciudades distintas, un gráfico con una porción por ciudad
+ * crea miles de nodos y es ilegible. Las ciudades principales se eligen con un
+ * montículo del tamaño del gráfico, sin ordenar todas, así que el coste de
+ * preparar y dibujar el gráfico apenas depende del número de ciudades.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+final class RepartoCiudades {
+
+    /** Nombre de la porción que agrupa las ciudades que no caben en el gráfico. */
+    static final String OTROS = "Otros";
+
+    /** Más clientes primero; a igualdad, por nombre de ciudad para que el orden sea estable. */
+    private static final Comparator<Porcion> MAYORES_PRIMERO = Comparator
+        .comparingInt(Porcion::clientes).reversed()
+        .thenComparing(Porcion::ciudad);
+
+    /**
+     * Porción del gráfico.
+     *
+     * @param ciudad Ciudad, o {@link #OTROS}
+     * @param clientes Número de clientes
+     */
+    record Porcion(String ciudad, int clientes) {
+    }
+
+    private RepartoCiudades() {
+    }
+
+    /**
+     * Agrupa un reparto de clientes por ciudad en, como mucho, un número dado
+     * de porciones. Si hay más ciudades, la última porción es {@link #OTROS}
+     * con la suma de las que no caben.
+     *
+     * @param clientesPorCiudad Número de clientes de cada ciudad
+     * @param maximoPorciones Porciones como máximo, al menos 2
+     * @return Porciones de más a menos clientes, con "Otros" al final
+     */
+    static List<Porcion> agrupar(Map<String, Integer> clientesPorCiudad, int maximoPorciones) {
+        if (maximoPorciones < 2) {
+            throw new IllegalArgumentException("El gráfico necesita al menos 2 porciones");
+        }
+        int principales = clientesPorCiudad.size() <= maximoPorciones
+            ? clientesPorCiudad.size() : maximoPorciones - 1;
+
+        // Montículo con las mayores hasta ahora; en la cima, la menor de ellas
+        PriorityQueue<Porcion> mayores = new PriorityQueue<>(principales + 1, MAYORES_PRIMERO.reversed());
+        long total = 0;
+        for (Map.Entry<String, Integer> entrada : clientesPorCiudad.entrySet()) {
+            total += entrada.getValue();
+            mayores.add(new Porcion(entrada.getKey(), entrada.getValue()));
+            if (mayores.size() > principales) {
+                mayores.poll();
+            }
+        }
+
+        List<Porcion> porciones = new ArrayList<>(mayores);
+        porciones.sort(MAYORES_PRIMERO);
+        long resto = total;
+        for (Porcion porcion : porciones) {
+            resto -= porcion.clientes();
+        }
+        if (principales < clientesPorCiudad.size()) {
+            porciones.add(new Porcion(OTROS, (int) resto));
+        }
+        return porciones;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.reportgenerator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Salida de texto UTF-8 con buffer sobre un canal, usada por los exportadores
+ * de formatos de texto.
+ *
+ * <p>Los caracteres se codifican directamente en un array de
+ * {@value #TAMANO_BLOQUE} bytes, con una vía rápida para ASCII, y el array se
+ * entrega al canal solo cuando se llena. Así cada fila exportada no crea
+ * cadenas, codificadores ni buffers intermedios, y el canal recibe escrituras
+ * grandes y alineadas. Los sustitutos UTF-16 sin pareja se escriben como
+ * {@code ?}.
+ *
+ * <p>Cada vez que se vacía el buffer se comprueba el token de cancelación, si lo hay.
+ *
+ * <p>No es segura para uso concurrente.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+final class SalidaTexto implements Appendable {
+
+    /** Tamaño del buffer y de cada escritura en el canal. */
+    static final int TAMANO_BLOQUE = 64 * 1024;
+
+    private final WritableByteChannel canal;
+    private final TokenCancelacion cancelacion;
+    private final byte[] bytes = new byte[TAMANO_BLOQUE];
+    private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    private int posicion;
+    private long bytesEscritos;
+
+    /**
+     * Crea una salida de texto sobre un canal.
+     *
+     * @param canal Canal de destino; no se cierra al terminar
+     * @param cancelacion Token que se comprueba en cada escritura al canal, o {@code null}
+     */
+    SalidaTexto(WritableByteChannel canal, TokenCancelacion cancelacion) {
+        this.canal = canal;
+        this.cancelacion = cancelacion;
+    }
+
+    @Override
+    public SalidaTexto append(CharSequence texto) throws IOException {
+        return append(texto, 0, texto.length());
+    }
+
+    @Override
+    public SalidaTexto append(CharSequence texto, int desde, int hasta) throws IOException {
+        for (int i = desde; i < hasta; i++) {
+            char c = texto.charAt(i);
+            if (c < 0x80) {
+                if (posicion == bytes.length) {
+                    vaciar();
+                }
+                bytes[posicion++] = (byte) c;
+            } else if (Character.isHighSurrogate(c) && i + 1 < hasta && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                escribirCodePoint(Character.toCodePoint(c, texto.charAt(++i)));
+            } else {
+                escribirCodePoint(Character.isSurrogate(c) ? '?' : c);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public SalidaTexto append(char c) throws IOException {
+        if (c < 0x80) {
+            if (posicion == bytes.length) {
+                vaciar();
+            }
+            bytes[posicion++] = (byte) c;
+        } else {
+            escribirCodePoint(Character.isSurrogate(c) ? '?' : c);
+        }
+        return this;
+    }
+
+    /**
+     * Escribe un entero en decimal.
+     *
+     * @param valor Entero a escribir
+     * @return Esta misma salida
+     * @throws IOException Si ocurre un error al escribir en el canal
+     */
+    SalidaTexto append(int valor) throws IOException {
+        return append(Integer.toString(valor));
+    }
+
+    /**
+     * Número de bytes entregados al canal o pendientes en el buffer.
+     *
+     * @return Bytes escritos
+     */
+    long getBytesEscritos() {
+        return bytesEscritos + posicion;
+    }
+
+    /**
+     * Entrega al canal el contenido pendiente del buffer.
+     *
+     * @throws IOException Si ocurre un error al escribir en el canal
+     * @throws java.io.InterruptedIOException Si el token de cancelación está cancelado
+     */
+    void vaciar() throws IOException {
+        if (cancelacion != null) {
+            cancelacion.comprobar();
+        }
+        buffer.clear().limit(posicion);
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        bytesEscritos += posicion;
+        posicion = 0;
+    }
+
+    /**
+     * Codifica en UTF-8 un punto de código que no es ASCII.
+     */
+    private void escribirCodePoint(int cp) throws IOException {
+        if (posicion + 4 > bytes.length) {
+            vaciar();
+        }
+        if (cp < 0x800) {
+            bytes[posicion++] = (byte) (0xC0 | cp >> 6);
+        } else if (cp < 0x10000) {
+            bytes[posicion++] = (byte) (0xE0 | cp >> 12);
+            bytes[posicion++] = (byte) (0x80 | cp >> 6 & 0x3F);
+        } else {
+            bytes[posicion++] = (byte) (0xF0 | cp >> 18);
+            bytes[posicion++] = (byte) (0x80 | cp >> 12 & 0x3F);
+            bytes[posicion++] = (byte) (0x80 | cp >> 6 & 0x3F);
+        }
+        bytes[posicion++] = (byte) (0x80 | cp & 0x3F);
+    }
+}
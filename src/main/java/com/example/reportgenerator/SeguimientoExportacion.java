@@ -0,0 +1,115 @@
+package com.example.reportgenerator;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seguimiento del progreso y la cancelación de una exportación concreta.
+ *
+ * <p>Acumula las filas, páginas y bytes completados, los notifica al
+ * {@link ProgresoExportacion.Oyente} de las opciones y comprueba su
+ * {@link TokenCancelacion} en cada límite de página y de bloque. Sin oyente ni
+ * token registrados todas las operaciones son triviales. Es segura entre hilos,
+ * ya que la composición paralela notifica páginas desde varios hilos y
+ * {@link ExportacionPorVolumenes} comparte un mismo seguimiento entre los
+ * volúmenes que genera a la vez.
+ *
+ * @author Álvaro
+ * @version 1.1
+ * @since 2026-10-19
+ */
+final class SeguimientoExportacion {
+
+    private final ProgresoExportacion.Oyente oyente;
+    private final TokenCancelacion cancelacion;
+    private final int filasTotales;
+    private final int paginasTotales;
+    private final AtomicInteger filasRenderizadas = new AtomicInteger();
+    private final AtomicInteger paginasRenderizadas = new AtomicInteger();
+    private final AtomicLong bytesEscritos = new AtomicLong();
+    private volatile boolean abortado;
+
+    /**
+     * Crea el seguimiento de una exportación.
+     *
+     * @param opciones Opciones de la exportación, con el oyente y el token si los hay
+     * @param filasTotales Clientes del informe
+     * @param paginasTotales Páginas del documento
+     */
+    SeguimientoExportacion(OpcionesExportacion opciones, int filasTotales, int paginasTotales) {
+        this.oyente = opciones.getOyenteProgreso();
+        this.cancelacion = opciones.getCancelacion();
+        this.filasTotales = filasTotales;
+        this.paginasTotales = paginasTotales;
+    }
+
+    /**
+     * Abandona la exportación si se ha solicitado la cancelación.
+     *
+     * @throws InterruptedIOException Si el token de las opciones está cancelado o se ha abortado
+     */
+    void comprobarCancelacion() throws IOException {
+        if (cancelacion != null) {
+            cancelacion.comprobar();
+        }
+        if (abortado) {
+            throw new InterruptedIOException("Exportación abortada");
+        }
+    }
+
+    /**
+     * Detiene todas las exportaciones que comparten este seguimiento, por
+     * ejemplo porque otra de ellas ha fallado, sin cancelar el token del llamante.
+     */
+    void abortar() {
+        abortado = true;
+    }
+
+    /**
+     * Registra una página terminada y comprueba la cancelación.
+     *
+     * @param filas Clientes escritos en la página
+     * @throws java.io.InterruptedIOException Si el token de las opciones está cancelado
+     */
+    void paginaCompletada(int filas) throws IOException {
+        int totalFilas = filasRenderizadas.addAndGet(filas);
+        int paginas = paginasRenderizadas.incrementAndGet();
+        notificar(totalFilas, paginas);
+        comprobarCancelacion();
+    }
+
+    /**
+     * Envuelve la salida del documento para contar los bytes escritos,
+     * notificarlos y comprobar la cancelación en cada escritura.
+     *
+     * @param salida Destino del documento; {@link PDFExporter} ya escribe en bloques
+     * @return Salida con seguimiento
+     */
+    OutputStream seguir(OutputStream salida) {
+        return new FilterOutputStream(salida) {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                comprobarCancelacion();
+                out.write(b, off, len);
+                bytesEscritos.addAndGet(len);
+                notificar(filasRenderizadas.get(), paginasRenderizadas.get());
+            }
+        };
+    }
+
+    private void notificar(int filas, int paginas) {
+        if (oyente != null) {
+            oyente.actualizar(new ProgresoExportacion(filas, filasTotales, paginas, paginasTotales,
+                bytesEscritos.get()));
+        }
+    }
+}
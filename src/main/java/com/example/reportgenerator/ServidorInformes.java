@@ -0,0 +1,472 @@
+package com.example.reportgenerator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor HTTP embebido que expone las consultas de {@link ClienteDAO}
+ * y los informes de {@link PDFExporter} a otras herramientas internas.
+ *
+ * <p>Rutas disponibles (todas con método GET):
+ * <ul>
+ *   <li>{@code /clientes?nombre=&ciudad=} - Listado de clientes en JSON</li>
+ *   <li>{@code /clientes/total?nombre=&ciudad=} - Número de clientes en JSON</li>
+ *   <li>{@code /clientes/por-ciudad} - Clientes agrupados por ciudad en JSON</li>
+ *   <li>{@code /informe.pdf?nombre=&ciudad=} - Informe PDF de los clientes filtrados</li>
+ *   <li>{@code /informe.html}, {@code /informe.jsonl}, {@code /informe.csv} (mismos parámetros) -
+ *       Clientes filtrados en el formato de cualquier otro {@link ExportadorInformes} disponible</li>
+ * </ul>
+ *
+ * <p>Cada petición se atiende en un hilo virtual. Las respuestas se guardan
+ * en una caché LRU limitada en bytes cuya clave incluye la versión del CSV
+ * (tamaño y fecha de modificación) y los parámetros que usa la ruta, de modo
+ * que cualquier cambio en el archivo invalida automáticamente las entradas.
+ * Los PDF se escriben directamente en el cuerpo de la respuesta mientras se
+ * generan, sin archivos temporales.
+ *
+ * <p>La generación de informes pasa por un {@link PlanificadorInformes} con
+ * prioridad de lote, que limita cuántos PDF se generan a la vez. Si su cola
+ * está llena, la petición se responde con {@code 503} y {@code Retry-After}
+ * para que el cliente reintente más tarde.
+ *
+ * <p>Los formatos de texto se escriben fila a fila en la respuesta a medida
+ * que se lee el CSV; son baratos de generar y pueden ser muy grandes, así que
+ * no pasan por el planificador ni por la caché.
+ *
+ * @author Álvaro
+ * @version 1.1
+ * @since 2026-10-19
+ */
+public class ServidorInformes implements AutoCloseable {
+
+    /** Tamaño máximo total de la caché de respuestas (32 MB). */
+    private static final long MAX_BYTES_CACHE = 32L * 1024 * 1024;
+
+    /** Tamaño máximo de un único PDF para que se guarde en caché (8 MB). */
+    private static final int MAX_BYTES_PDF_CACHEABLE = 8 * 1024 * 1024;
+
+    private final ClienteDAO clienteDAO;
+    private final int puertoSolicitado;
+    private final CacheRespuestas cache = new CacheRespuestas(MAX_BYTES_CACHE);
+    private final AtomicLong aciertosCache = new AtomicLong();
+    private final AtomicLong fallosCache = new AtomicLong();
+    private final Map<String, ExportadorInformes> exportadores = new HashMap<>();
+
+    private HttpServer servidor;
+    private ExecutorService ejecutor;
+    private PlanificadorInformes planificador;
+
+    /**
+     * Crea un servidor de informes sobre un archivo CSV de clientes.
+     * El servidor no escucha hasta llamar a {@link #iniciar()}.
+     *
+     * @param rutaCSV Ruta al archivo CSV con los datos de clientes
+     * @param puerto Puerto TCP en el que escuchar; 0 para elegir uno libre
+     */
+    public ServidorInformes(String rutaCSV, int puerto) {
+        this.clienteDAO = new ClienteDAO(rutaCSV);
+        this.puertoSolicitado = puerto;
+        for (ExportadorInformes exportador : ExportadorInformes.disponibles()) {
+            exportadores.putIfAbsent(exportador.getFormato(), exportador);
+        }
+    }
+
+    /**
+     * Arranca el servidor en la interfaz local (loopback).
+     *
+     * @throws IOException Si no se puede abrir el puerto
+     */
+    public void iniciar() throws IOException {
+        servidor = HttpServer.create(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), puertoSolicitado), 0);
+        ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+        planificador = new PlanificadorInformes();
+        servidor.setExecutor(ejecutor);
+        servidor.createContext("/", this::atenderPeticion);
+        servidor.start();
+    }
+
+    /**
+     * Devuelve el puerto en el que escucha realmente el servidor.
+     *
+     * @return Puerto TCP del servidor
+     */
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Número de peticiones servidas desde la caché.
+     *
+     * @return Aciertos de caché acumulados
+     */
+    public long getAciertosCache() {
+        return aciertosCache.get();
+    }
+
+    /**
+     * Número de peticiones que tuvieron que calcularse.
+     *
+     * @return Fallos de caché acumulados
+     */
+    public long getFallosCache() {
+        return fallosCache.get();
+    }
+
+    /**
+     * Detiene el servidor y libera los hilos de atención.
+     */
+    @Override
+    public void close() {
+        if (servidor != null) {
+            servidor.stop(0);
+            servidor = null;
+        }
+        if (ejecutor != null) {
+            ejecutor.close();
+            ejecutor = null;
+        }
+        if (planificador != null) {
+            planificador.close();
+            planificador = null;
+        }
+    }
+
+    private void atenderPeticion(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                enviarError(exchange, 405, "Método no permitido");
+                return;
+            }
+
+            String ruta = exchange.getRequestURI().getPath();
+            Map<String, String> parametros = leerParametros(exchange.getRequestURI().getRawQuery());
+            String nombre = parametros.getOrDefault("nombre", "");
+            String ciudad = parametros.getOrDefault("ciudad", "");
+
+            ExportadorInformes exportador = ruta.startsWith("/informe.") && !ruta.equals("/informe.pdf")
+                ? exportadores.get(ruta.substring("/informe.".length()))
+                : null;
+            if (exportador != null) {
+                exchange.getResponseHeaders().set("Content-Type", exportador.getTipoContenido());
+                exchange.sendResponseHeaders(200, 0);
+                exportador.exportar(clienteDAO, nombre, ciudad, Channels.newChannel(exchange.getResponseBody()),
+                    new OpcionesExportacion());
+                return;
+            }
+
+            String tipoContenido;
+            switch (ruta) {
+                case "/clientes", "/clientes/total", "/clientes/por-ciudad" ->
+                    tipoContenido = "application/json; charset=utf-8";
+                case "/informe.pdf" -> tipoContenido = "application/pdf";
+                default -> {
+                    enviarError(exchange, 404, "Ruta no encontrada: " + ruta);
+                    return;
+                }
+            }
+
+            // El recuento por ciudad no usa los filtros: no deben multiplicar sus entradas en caché
+            boolean usaFiltros = !ruta.equals("/clientes/por-ciudad");
+            ClaveRespuesta clave = new ClaveRespuesta(versionDatos(), ruta,
+                usaFiltros ? nombre : "", usaFiltros ? ciudad : "");
+            byte[] enCache = cache.obtener(clave);
+            exchange.getResponseHeaders().set("Content-Type", tipoContenido);
+
+            if (enCache != null) {
+                aciertosCache.incrementAndGet();
+                exchange.getResponseHeaders().set("X-Cache", "HIT");
+                exchange.sendResponseHeaders(200, enCache.length);
+                exchange.getResponseBody().write(enCache);
+                return;
+            }
+
+            fallosCache.incrementAndGet();
+            exchange.getResponseHeaders().set("X-Cache", "MISS");
+
+            if (ruta.equals("/informe.pdf")) {
+                enviarInforme(exchange, clave, nombre, ciudad);
+            } else {
+                byte[] cuerpo = generarJSON(ruta, nombre, ciudad).getBytes(StandardCharsets.UTF_8);
+                cache.guardar(clave, cuerpo);
+                exchange.sendResponseHeaders(200, cuerpo.length);
+                exchange.getResponseBody().write(cuerpo);
+            }
+
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error atendiendo petición: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Genera el PDF en el planificador escribiéndolo directamente en la respuesta
+     * con codificación chunked, guardando una copia en caché si no es demasiado grande.
+     *
+     * <p>Los clientes se leen dentro del trabajo, así que una petición en cola
+     * no retiene memoria y una rechazada no llega a leer el CSV. Las cabeceras
+     * se envían con el primer byte del PDF, cuando el documento ya está
+     * construido: un error al construirlo se responde con {@code 500} en lugar
+     * de con un {@code 200} truncado.
+     */
+    private void enviarInforme(HttpExchange exchange, ClaveRespuesta clave, String nombre, String ciudad)
+            throws IOException {
+        CompletableFuture<PlanificadorInformes.MetricasTrabajo> trabajo;
+        try {
+            trabajo = planificador.enviar(() -> {
+                List<Cliente> clientes = clienteDAO.obtenerPorFiltros(nombre, ciudad);
+                SalidaConCopia salida = new SalidaConCopia(exchange, MAX_BYTES_PDF_CACHEABLE);
+                PDFExporter.exportarAPDF(clientes, salida);
+
+                byte[] copia = salida.getCopia();
+                if (copia != null) {
+                    cache.guardar(clave, copia);
+                }
+            }, PlanificadorInformes.Prioridad.LOTE);
+        } catch (RejectedExecutionException e) {
+            exchange.getResponseHeaders().set("Retry-After", "5");
+            enviarError(exchange, 503, "Servidor saturado, reintente más tarde");
+            return;
+        }
+
+        try {
+            trabajo.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrumpido esperando el informe");
+        } catch (ExecutionException e) {
+            if (exchange.getResponseCode() == -1) {
+                System.err.println("Error generando el informe: " + e.getCause());
+                enviarError(exchange, 500, "Error generando el informe");
+                return;
+            }
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private String generarJSON(String ruta, String nombre, String ciudad) {
+        StringBuilder json = new StringBuilder();
+
+        switch (ruta) {
+            case "/clientes/total" -> json.append("{\"total\":")
+                .append(clienteDAO.obtenerPorFiltros(nombre, ciudad).size())
+                .append('}');
+            case "/clientes/por-ciudad" -> {
+                json.append('{');
+                boolean primero = true;
+                for (Map.Entry<String, Integer> entry
+                        : new TreeMap<>(clienteDAO.contarClientesPorCiudad()).entrySet()) {
+                    if (!primero) {
+                        json.append(',');
+                    }
+                    primero = false;
+                    FormatoJSON.escribirCadena(json, entry.getKey());
+                    json.append(':').append(entry.getValue());
+                }
+                json.append('}');
+            }
+            default -> {
+                json.append('[');
+                boolean primero = true;
+                for (Cliente c : clienteDAO.obtenerPorFiltros(nombre, ciudad)) {
+                    if (!primero) {
+                        json.append(',');
+                    }
+                    primero = false;
+                    json.append("{\"id\":").append(c.getId()).append(",\"nombre\":");
+                    FormatoJSON.escribirCadena(json, c.getNombre());
+                    json.append(",\"email\":");
+                    FormatoJSON.escribirCadena(json, c.getEmail());
+                    json.append(",\"ciudad\":");
+                    FormatoJSON.escribirCadena(json, c.getCiudad());
+                    json.append('}');
+                }
+                json.append(']');
+            }
+        }
+
+        return json.toString();
+    }
+
+    /**
+     * Identifica la versión actual del CSV a partir de su tamaño y fecha de modificación.
+     */
+    private String versionDatos() throws IOException {
+        Path csv = Paths.get(clienteDAO.getRutaCSV());
+        if (!Files.exists(csv)) {
+            return "sin-datos";
+        }
+        BasicFileAttributes atributos = Files.readAttributes(csv, BasicFileAttributes.class);
+        return atributos.size() + ":" + atributos.lastModifiedTime().toMillis();
+    }
+
+    private static Map<String, String> leerParametros(String consulta) {
+        Map<String, String> parametros = new HashMap<>();
+        if (consulta == null || consulta.isEmpty()) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            String clave = igual < 0 ? par : par.substring(0, igual);
+            String valor = igual < 0 ? "" : par.substring(igual + 1);
+            parametros.put(URLDecoder.decode(clave, StandardCharsets.UTF_8),
+                           URLDecoder.decode(valor, StandardCharsets.UTF_8).trim());
+        }
+        return parametros;
+    }
+
+    private static void enviarError(HttpExchange exchange, int codigo, String mensaje) throws IOException {
+        byte[] cuerpo = mensaje.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(codigo, cuerpo.length);
+        exchange.getResponseBody().write(cuerpo);
+    }
+
+    /**
+     * Flujo sobre el cuerpo de una respuesta que envía las cabeceras
+     * {@code 200} con el primer byte, reenvía los bytes y guarda una copia
+     * mientras no supere el límite indicado.
+     */
+    private static class SalidaConCopia extends FilterOutputStream {
+
+        private final HttpExchange exchange;
+        private final int limite;
+        private ByteArrayOutputStream copia = new ByteArrayOutputStream();
+        private boolean cabecerasEnviadas;
+
+        SalidaConCopia(HttpExchange exchange, int limite) {
+            super(exchange.getResponseBody());
+            this.exchange = exchange;
+            this.limite = limite;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            enviarCabeceras();
+            out.write(b);
+            copiar(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            enviarCabeceras();
+            out.write(b, off, len);
+            copiar(b, off, len);
+        }
+
+        private void enviarCabeceras() throws IOException {
+            if (!cabecerasEnviadas) {
+                exchange.sendResponseHeaders(200, 0);
+                cabecerasEnviadas = true;
+            }
+        }
+
+        private void copiar(byte[] b, int off, int len) {
+            if (copia == null) {
+                return;
+            }
+            if (copia.size() + len > limite) {
+                copia = null;
+            } else {
+                copia.write(b, off, len);
+            }
+        }
+
+        byte[] getCopia() {
+            return copia == null ? null : copia.toByteArray();
+        }
+    }
+
+    /**
+     * Clave de una respuesta en caché: la versión del CSV, la ruta y los
+     * filtros que usa. Los campos se comparan por separado, así que ningún
+     * valor de los parámetros puede hacer que dos consultas compartan clave.
+     */
+    private record ClaveRespuesta(String versionDatos, String ruta, String nombre, String ciudad) {
+    }
+
+    /**
+     * Caché LRU de respuestas limitada por el número total de bytes almacenados.
+     */
+    private static class CacheRespuestas {
+
+        private final long maxBytes;
+        private final LinkedHashMap<ClaveRespuesta, byte[]> entradas = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytesActuales;
+
+        CacheRespuestas(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized byte[] obtener(ClaveRespuesta clave) {
+            return entradas.get(clave);
+        }
+
+        synchronized void guardar(ClaveRespuesta clave, byte[] valor) {
+            if (valor.length > maxBytes) {
+                return;
+            }
+            byte[] anterior = entradas.put(clave, valor);
+            if (anterior != null) {
+                bytesActuales -= anterior.length;
+            }
+            bytesActuales += valor.length;
+
+            Iterator<byte[]> it = entradas.values().iterator();
+            while (bytesActuales > maxBytes && it.hasNext()) {
+                bytesActuales -= it.next().length;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Arranca el servidor desde línea de comandos.
+     *
+     * <p>Uso: {@code ServidorInformes <ruta-csv> [puerto]} (puerto por defecto 8080).
+     *
+     * @param args Ruta del CSV y, opcionalmente, el puerto
+     * @throws IOException Si no se puede abrir el puerto
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Uso: ServidorInformes <ruta-csv> [puerto]");
+            return;
+        }
+        int puerto = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+
+        ServidorInformes servidorInformes = new ServidorInformes(args[0], puerto);
+        servidorInformes.iniciar();
+        Runtime.getRuntime().addShutdownHook(new Thread(servidorInformes::close));
+        System.out.println("Servidor de informes escuchando en http://localhost:" + servidorInformes.getPuerto());
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.reportgenerator;
+
+import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.contentstream.operator.OperatorName;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.pdfwriter.ContentStreamWriter;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.BitSet;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Motor de renderizado del listado de clientes en las páginas del PDF.
+ *
+ * <p>Cada bloque de filas de una página se emite como un único objeto de texto
+ * ({@code BT ... ET}): se fija la fuente y el interlineado una vez, se posiciona
+ * la primera fila y el resto avanza con saltos de línea relativos ({@code T*}).
+ * Así el flujo de contenido contiene solo una operación {@code Tj} y un
+ * {@code T*} por fila, en lugar de repetir {@code BT/Td/ET} para cada cliente.
+ *
+ * <p>Cada página se compone como un fragmento de flujo de contenido ya comprimido
+ * con Flate e independiente del documento, que incluye sus filas y su número de
+ * página. Esto permite componer las páginas en paralelo y adjuntarlas después en
+ * orden. La fuente se referencia por el nombre de recurso {@link #RECURSO_FUENTE},
+ * que cada página debe registrar.
+ *
+ * <p>El texto se codifica con la fuente Unicode de {@link FuenteUnicode}. Los
+ * caracteres sin glifo se sustituyen por {@link FuenteUnicode#CARACTER_SUSTITUTO}
+ * y los usados se anotan para registrarlos después, con
+ * {@link #registrarCaracteresUsados(PDFont)}, en el subconjunto que el documento
+ * incrustará al guardarse.
+ *
+ * <p>Las filas más anchas que el ancho disponible se truncan con una elipsis,
+ * midiéndolas con las {@link MetricasTexto} de la fuente sin codificarlas.
+ *
+ * <p>La instancia reutiliza sus buffers y su fuente de codificación, por lo que
+ * no es segura para uso concurrente: cada hilo de composición crea la suya.
+ *
+ * @author Álvaro
+ * @version 1.6
+ * @since 2026-10-19
+ */
+final class TablaPDF {
+
+    /** Nombre del recurso de fuente usado por los fragmentos del listado. */
+    static final COSName RECURSO_FUENTE = COSName.getPDFName("FL");
+
+    private static final Operator BEGIN_TEXT = Operator.getOperator(OperatorName.BEGIN_TEXT);
+    private static final Operator END_TEXT = Operator.getOperator(OperatorName.END_TEXT);
+    private static final Operator SET_FONT = Operator.getOperator(OperatorName.SET_FONT_AND_SIZE);
+    private static final Operator SET_LEADING = Operator.getOperator(OperatorName.SET_TEXT_LEADING);
+    private static final Operator MOVE_TEXT = Operator.getOperator(OperatorName.MOVE_TEXT);
+    private static final Operator NEXT_LINE = Operator.getOperator(OperatorName.NEXT_LINE);
+    private static final Operator SHOW_TEXT = Operator.getOperator(OperatorName.SHOW_TEXT);
+    private static final Operator DRAW_OBJECT = Operator.getOperator(OperatorName.DRAW_OBJECT);
+
+    private final PDFont fuente;
+    private final float tamanoFuente;
+    private final float interlineado;
+    private final float anchoMaximoFila;
+    private final MetricasTexto metricas;
+    private final StringBuilder fila = new StringBuilder(128);
+    private final StringBuilder representable = new StringBuilder(128);
+    private final BitSet caracteresUsados = new BitSet(256);
+    private final ByteArrayOutputStream contenido = new ByteArrayOutputStream(16 * 1024);
+    private final ByteArrayOutputStream comprimido = new ByteArrayOutputStream(4 * 1024);
+    private final Deflater deflater = new Deflater();
+    private final ContentStreamWriter escritor = new ContentStreamWriter(contenido);
+
+    /**
+     * Crea un motor de tabla con la fuente y la geometría de las filas.
+     *
+     * @param fuente Fuente Unicode con la que se codifica el texto de las filas
+     * @param tamanoFuente Tamaño de la fuente en puntos
+     * @param interlineado Distancia vertical entre filas consecutivas
+     * @param anchoMaximoFila Ancho disponible para cada fila; las más anchas se truncan
+     * @throws IOException Si no se pueden leer las métricas de la fuente
+     */
+    TablaPDF(PDFont fuente, float tamanoFuente, float interlineado, float anchoMaximoFila) throws IOException {
+        this.fuente = fuente;
+        this.tamanoFuente = tamanoFuente;
+        this.interlineado = interlineado;
+        this.anchoMaximoFila = anchoMaximoFila;
+        this.metricas = MetricasTexto.de(fuente);
+    }
+
+    /**
+     * Empieza un fragmento nuevo, descartando el contenido del anterior.
+     */
+    void iniciarFragmento() {
+        contenido.reset();
+    }
+
+    /**
+     * Empieza un fragmento nuevo que continúa un contenido sin comprimir
+     * obtenido antes con {@link #contenidoSinComprimir()}.
+     *
+     * @param contenidoPrevio Operadores ya escritos del fragmento
+     */
+    void iniciarFragmento(byte[] contenidoPrevio) {
+        contenido.reset();
+        contenido.writeBytes(contenidoPrevio);
+    }
+
+    /**
+     * Devuelve una copia del contenido escrito en el fragmento actual, sin
+     * comprimir, para completarlo más tarde.
+     *
+     * @return Operadores del fragmento actual
+     */
+    byte[] contenidoSinComprimir() {
+        return contenido.toByteArray();
+    }
+
+    /**
+     * Escribe un rango de clientes en el fragmento actual como un único objeto de texto.
+     *
+     * @param clientes Lista completa de clientes
+     * @param desde Índice del primer cliente a dibujar (incluido)
+     * @param hasta Índice del último cliente a dibujar (excluido)
+     * @param x Posición horizontal de las filas
+     * @param yPosition Posición vertical de la primera fila
+     * @throws IOException Si ocurre un error al codificar el texto
+     */
+    void escribirFilas(List<Cliente> clientes, int desde, int hasta, float x, float yPosition)
+            throws IOException {
+        if (desde >= hasta) {
+            return;
+        }
+
+        escritor.writeTokens(BEGIN_TEXT);
+        escritor.writeTokens(RECURSO_FUENTE, new COSFloat(tamanoFuente), SET_FONT);
+        escritor.writeTokens(new COSFloat(interlineado), SET_LEADING);
+        escritor.writeTokens(new COSFloat(x), new COSFloat(yPosition), MOVE_TEXT);
+
+        for (int i = desde; i < hasta; i++) {
+            if (i > desde) {
+                escritor.writeTokens(NEXT_LINE);
+            }
+            escritor.writeTokens(new COSString(codificar(formatearFila(clientes.get(i)))), SHOW_TEXT);
+        }
+
+        escritor.writeTokens(END_TEXT);
+    }
+
+    /**
+     * Escribe en el fragmento actual una línea de texto alineada a la derecha,
+     * como el número de página del pie.
+     *
+     * @param texto Texto a escribir
+     * @param tamano Tamaño de la fuente en puntos
+     * @param xDerecha Posición horizontal del borde derecho del texto
+     * @param yPosition Posición vertical de la línea base
+     * @throws IOException Si ocurre un error al codificar el texto
+     */
+    void escribirTextoAlineadoDerecha(String texto, float tamano, float xDerecha, float yPosition)
+            throws IOException {
+        // Se mide el texto que se dibuja: un carácter sin glifo fuera del plano básico se mide como dos
+        // sustitutos, pero se escribe como uno solo
+        String seguro = hacerRepresentable(texto);
+        float ancho = metricas.anchoTexto(seguro, tamano);
+        escritor.writeTokens(BEGIN_TEXT);
+        escritor.writeTokens(RECURSO_FUENTE, new COSFloat(tamano), SET_FONT);
+        escritor.writeTokens(new COSFloat(xDerecha - ancho), new COSFloat(yPosition), MOVE_TEXT);
+        escritor.writeTokens(new COSString(codificar(seguro)), SHOW_TEXT);
+        escritor.writeTokens(END_TEXT);
+    }
+
+    /**
+     * Sustituye el contenido de un formulario por una línea de texto en su
+     * origen, con la fuente como único recurso. Los operadores se escriben
+     * directamente, como los fragmentos, y los caracteres se registran en el
+     * subconjunto de la fuente: {@code PDFormContentStream} no conoce el
+     * documento y avisa en cada exportación al usar una fuente que se incrusta
+     * como subconjunto.
+     *
+     * @param formulario Formulario que se reescribe
+     * @param fuente Fuente del documento con la que se dibuja el texto
+     * @param tamano Tamaño de la fuente en puntos
+     * @param texto Texto a escribir; todos sus caracteres deben tener glifo
+     * @throws IOException Si ocurre un error al codificar o escribir el texto
+     */
+    static void escribirFormulario(PDFormXObject formulario, PDFont fuente, float tamano, String texto)
+            throws IOException {
+        PDResources recursos = new PDResources();
+        recursos.put(RECURSO_FUENTE, fuente);
+        formulario.setResources(recursos);
+        if (fuente.willBeSubset()) {
+            texto.codePoints().forEach(fuente::addToSubset);
+        }
+        try (OutputStream salida = formulario.getContentStream().createOutputStream()) {
+            ContentStreamWriter escritor = new ContentStreamWriter(salida);
+            escritor.writeTokens(BEGIN_TEXT);
+            escritor.writeTokens(RECURSO_FUENTE, new COSFloat(tamano), SET_FONT);
+            escritor.writeTokens(new COSString(fuente.encode(texto)), SHOW_TEXT);
+            escritor.writeTokens(END_TEXT);
+        }
+    }
+
+    /**
+     * Dibuja en el fragmento actual un formulario (XObject) de los recursos de la página.
+     *
+     * @param recurso Nombre del formulario en los recursos de la página
+     * @throws IOException Si ocurre un error al escribir el operador
+     */
+    void dibujarFormulario(COSName recurso) throws IOException {
+        escritor.writeTokens(recurso, DRAW_OBJECT);
+    }
+
+    /**
+     * Termina el fragmento actual y lo comprime.
+     *
+     * @return Fragmento de flujo de contenido comprimido con Flate
+     * @throws IOException Si ocurre un error al comprimir
+     */
+    byte[] terminarFragmento() throws IOException {
+        comprimido.reset();
+        deflater.reset();
+        try (DeflaterOutputStream salida = new DeflaterOutputStream(comprimido, deflater, 8 * 1024)) {
+            contenido.writeTo(salida);
+        }
+        return comprimido.toByteArray();
+    }
+
+    /**
+     * Registra en el subconjunto de la fuente del documento todos los caracteres
+     * escritos por esta tabla, para que sus glifos se incrusten al guardar.
+     *
+     * @param fuenteDocumento Fuente del documento al que se adjuntan los fragmentos
+     */
+    void registrarCaracteresUsados(PDFont fuenteDocumento) {
+        if (!fuenteDocumento.willBeSubset()) {
+            return;
+        }
+        for (int c = caracteresUsados.nextSetBit(0); c >= 0; c = caracteresUsados.nextSetBit(c + 1)) {
+            fuenteDocumento.addToSubset(c);
+        }
+    }
+
+    /**
+     * Codifica un texto con la fuente de la tabla, sustituyendo los caracteres
+     * sin glifo y anotando los usados.
+     *
+     * @param texto Texto a codificar
+     * @return Bytes del texto en la codificación de la fuente
+     * @throws IOException Si ocurre un error al codificar el texto
+     */
+    private byte[] codificar(String texto) throws IOException {
+        String seguro = hacerRepresentable(texto);
+        for (int i = 0; i < seguro.length(); ) {
+            int c = seguro.codePointAt(i);
+            caracteresUsados.set(c);
+            i += Character.charCount(c);
+        }
+        return fuente.encode(seguro);
+    }
+
+    /**
+     * Sustituye los caracteres que la fuente no puede dibujar.
+     *
+     * @param texto Texto original
+     * @return El mismo texto si todos sus caracteres tienen glifo, o una copia con sustituciones
+     * @throws IOException Si no se puede leer la fuente Unicode
+     */
+    String hacerRepresentable(String texto) throws IOException {
+        int i = 0;
+        while (i < texto.length() && FuenteUnicode.esRepresentable(texto.codePointAt(i))) {
+            i += Character.charCount(texto.codePointAt(i));
+        }
+        if (i == texto.length()) {
+            return texto;
+        }
+
+        representable.setLength(0);
+        representable.append(texto, 0, i);
+        while (i < texto.length()) {
+            int c = texto.codePointAt(i);
+            if (FuenteUnicode.esRepresentable(c)) {
+                representable.appendCodePoint(c);
+            } else {
+                representable.append(FuenteUnicode.CARACTER_SUSTITUTO);
+            }
+            i += Character.charCount(c);
+        }
+        return representable.toString();
+    }
+
+    /**
+     * Compone el texto de una fila reutilizando el buffer interno y lo trunca
+     * si no cabe en el ancho de la fila.
+     *
+     * @param cliente Cliente a representar
+     * @return Texto de la fila con el formato "- Nombre (Ciudad)"
+     */
+    String formatearFila(Cliente cliente) {
+        fila.setLength(0);
+        fila.append("- ").append(cliente.getNombre())
+            .append(" (").append(cliente.getCiudad()).append(')');
+        metricas.truncar(fila, tamanoFuente, anchoMaximoFila);
+        return fila.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.reportgenerator;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Señal para detener una exportación en curso desde otro hilo.
+ *
+ * <p>Se registra en {@link OpcionesExportacion#setCancelacion(TokenCancelacion)} y
+ * {@link PDFExporter} la comprueba al terminar cada página y cada bloque de
+ * bytes escrito; al detectarla abandona la exportación con una
+ * {@link InterruptedIOException} y elimina la salida parcial si la escribía en
+ * un archivo. Un token cancelado no se puede reactivar: cada exportación usa el suyo.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+public final class TokenCancelacion {
+
+    private volatile boolean cancelado;
+
+    /**
+     * Crea un token sin cancelar.
+     */
+    public TokenCancelacion() {
+    }
+
+    /**
+     * Solicita la cancelación. La exportación se detiene en el siguiente límite
+     * de página o de bloque, no de forma inmediata.
+     */
+    public void cancelar() {
+        cancelado = true;
+    }
+
+    /**
+     * Indica si se ha solicitado la cancelación.
+     *
+     * @return true si el token está cancelado
+     */
+    public boolean isCancelado() {
+        return cancelado;
+    }
+
+    /**
+     * Abandona la operación en curso si se ha solicitado la cancelación.
+     *
+     * @throws InterruptedIOException Si el token está cancelado
+     */
+    void comprobar() throws InterruptedIOException {
+        if (cancelado) {
+            throw new InterruptedIOException("Exportación cancelada");
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.reportgenerator;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Vista previa de la primera página del informe, generada fuera del hilo de
+ * la interfaz con {@link PDFExporter#renderizarPrimeraPagina} a resolución de
+ * pantalla.
+ *
+ * <p>Las imágenes se guardan en una pequeña caché por versión de los datos,
+ * filtro y orden, de modo que volver a un filtro ya visto la muestra al
+ * momento. Solo se entrega la vista previa de la última petición.
+ *
+ * @author Álvaro
+ * @version 1.0
+ * @since 2026-10-19
+ */
+final class VistaPreviaInforme implements AutoCloseable {
+
+    /** Resolución de la vista previa: la de una pantalla corriente. */
+    static final float DPI_PANTALLA = 96;
+
+    /** Número de vistas previas que se conservan; cada una ocupa unos 3,5 MB. */
+    private static final int MAXIMO_EN_CACHE = 8;
+
+    /**
+     * Datos de los que depende la primera página del informe.
+     *
+     * @param versionDatos Número de la carga de datos, que cambia con cada CSV cargado
+     * @param nombre Texto del filtro por nombre
+     * @param ciudad Ciudad del filtro, o {@code null}
+     * @param orden Orden de la tabla
+     */
+    record Clave(long versionDatos, String nombre, String ciudad, List<OrdenacionClientes.Criterio> orden) {
+    }
+
+    /**
+     * Vista previa generada.
+     *
+     * @param consulta Número de la petición que la produjo
+     * @param imagen Primera página, o {@code null} si no se pudo generar
+     * @param milisegundos Tiempo que costó generarla; 0 si estaba en la caché
+     */
+    record Resultado(long consulta, BufferedImage imagen, long milisegundos) {
+    }
+
+    /** Dibuja la primera página del informe de unos clientes. */
+    @FunctionalInterface
+    interface Renderizador {
+        BufferedImage renderizar(List<Cliente> clientes) throws IOException;
+    }
+
+    private final Renderizador renderizador;
+    private final ExecutorService ejecutor;
+    private final AtomicLong ultimaConsulta = new AtomicLong();
+
+    /** Solo la usa el hilo de trabajo. */
+    private final Map<Clave, BufferedImage> cache = new LinkedHashMap<>(MAXIMO_EN_CACHE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Clave, BufferedImage> eldest) {
+            return size() > MAXIMO_EN_CACHE;
+        }
+    };
+
+    /**
+     * Crea una vista previa que dibuja con {@link PDFExporter} a resolución de pantalla.
+     */
+    VistaPreviaInforme() {
+        this(clientes -> PDFExporter.renderizarPrimeraPagina(clientes, DPI_PANTALLA));
+    }
+
+    /**
+     * Crea una vista previa con su propio hilo de trabajo.
+     *
+     * @param renderizador Dibuja la primera página
+     */
+    VistaPreviaInforme(Renderizador renderizador) {
+        this.renderizador = renderizador;
+        this.ejecutor = Executors.newSingleThreadExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "vista-previa");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Pide la vista previa de unos clientes, que sustituye a las peticiones anteriores.
+     *
+     * @param clave Versión de los datos, filtro y orden de los que salen los clientes
+     * @param clientes Clientes del informe; la lista no debe modificarse después
+     * @param destino Recibe la vista previa en el hilo de trabajo, solo si sigue
+     *                siendo la última petición; debe comprobarlo otra vez con
+     *                {@link #esVigente} al aplicarla en otro hilo
+     * @return Número de la petición
+     */
+    long generar(Clave clave, List<Cliente> clientes, Consumer<Resultado> destino) {
+        long consulta = ultimaConsulta.incrementAndGet();
+        ejecutor.execute(() -> {
+            if (consulta != ultimaConsulta.get()) {
+                return;
+            }
+            BufferedImage imagen = cache.get(clave);
+            long milisegundos = 0;
+            if (imagen == null) {
+                long inicio = System.nanoTime();
+                try {
+                    imagen = renderizador.renderizar(clientes);
+                    cache.put(clave, imagen);
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("No se pudo generar la vista previa: " + e.getMessage());
+                }
+                milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+            }
+            Resultado resultado = new Resultado(consulta, imagen, milisegundos);
+            if (esVigente(resultado)) {
+                destino.accept(resultado);
+            }
+        });
+        return consulta;
+    }
+
+    /**
+     * Descarta las peticiones pendientes sin hacer otra.
+     */
+    void cancelar() {
+        ultimaConsulta.incrementAndGet();
+    }
+
+    /**
+     * Comprueba si una vista previa corresponde a la última petición.
+     *
+     * @param resultado Vista previa a comprobar
+     * @return true si no se ha pedido otra después
+     */
+    boolean esVigente(Resultado resultado) {
+        return resultado.consulta() == ultimaConsulta.get();
+    }
+
+    /**
+     * Detiene el hilo de trabajo; las peticiones pendientes no se entregan.
+     */
+    @Override
+    public void close() {
+        ultimaConsulta.incrementAndGet();
+        ejecutor.shutdownNow();
+    }
+}
@@ -1,22 +1,29 @@
 module com.example.reportgenerator {
     requires javafx.controls;
     requires javafx.fxml;
-    requires javafx.web;
+    // Report preview images
     requires javafx.swing;
 
-    requires org.controlsfx.controls;
-    requires com.dlsc.formsfx;
-    requires net.synedra.validatorfx;
-    requires org.kordamp.bootstrapfx.core;
-    requires eu.hansolo.tilesfx;
-    
     // PDF library
     requires org.apache.pdfbox;
+    requires org.apache.pdfbox.io;
+    requires org.apache.fontbox;
     requires java.desktop;
     
     // JFreeChart for charts
     requires org.jfree.jfreechart;
 
+    // Embedded HTTP report service
+    requires jdk.httpserver;
+
+    // Report format providers
+    uses com.example.reportgenerator.ExportadorInformes;
+    provides com.example.reportgenerator.ExportadorInformes with
+        com.example.reportgenerator.ExportadorPDF,
+        com.example.reportgenerator.ExportadorHTML,
+        com.example.reportgenerator.ExportadorJSONLines,
+        com.example.reportgenerator.ExportadorCSV;
+
     opens com.example.reportgenerator to javafx.fxml;
     exports com.example.reportgenerator;
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.example.reportgenerator;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Pruebas de los archivos temporales de las exportaciones.
+ * Verifica que los informes exportados tienen los permisos por defecto del
+ * sistema y que al sustituir un archivo se conservan los suyos.
+ */
+@DisplayName("Pruebas de ArchivoTemporal")
+class ArchivoTemporalTest {
+
+    @TempDir
+    Path directorio;
+
+    private final List<Cliente> clientes = List.of(new Cliente(1, "Ana López", "ana@email.com", "Madrid"));
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"),
+            "Solo aplica a sistemas de archivos POSIX");
+    }
+
+    @Test
+    @DisplayName("Un informe nuevo tiene los permisos por defecto, no solo los del dueño")
+    void testPermisosPorDefecto() throws IOException {
+        // Arrange
+        Path referencia = Files.createFile(directorio.resolve("referencia.pdf"));
+        Path destino = directorio.resolve("informe.pdf");
+
+        // Act
+        PDFExporter.exportarAPDF(clientes, destino.toString(), new OpcionesExportacion());
+
+        // Assert
+        assertEquals(Files.getPosixFilePermissions(referencia), Files.getPosixFilePermissions(destino));
+    }
+
+    @Test
+    @DisplayName("Al sustituir un archivo se conservan sus permisos")
+    void testConservaPermisos() throws IOException {
+        // Arrange
+        Path destino = Files.createFile(directorio.resolve("informe.csv"));
+        Files.setPosixFilePermissions(destino, PosixFilePermissions.fromString("rw-r-----"));
+
+        // Act
+        new CacheInformes(directorio.resolve("cache"), CacheInformes.TAMANO_MAXIMO_POR_DEFECTO)
+            .exportarAPDF(clientes, destino);
+
+        // Assert
+        assertEquals("%PDF", new String(Files.readAllBytes(destino), 0, 4));
+        assertEquals(PosixFilePermissions.fromString("rw-r-----"), Files.getPosixFilePermissions(destino));
+    }
+
+    @Test
+    @DisplayName("Cada temporal tiene un nombre distinto junto al destino")
+    void testNombresUnicos() throws IOException {
+        Path destino = directorio.resolve("informe.pdf");
+
+        Path primero = ArchivoTemporal.junto(destino);
+        Path segundo = ArchivoTemporal.junto(destino);
+
+        assertNotEquals(primero, segundo);
+        assertEquals(directorio.toAbsolutePath(), primero.getParent());
+        assertTrue(primero.getFileName().toString().startsWith("informe.pdf."));
+        assertTrue(primero.getFileName().toString().endsWith(".tmp"));
+    }
+}
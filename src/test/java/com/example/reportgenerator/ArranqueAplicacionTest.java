@@ -0,0 +1,51 @@
+package com.example.reportgenerator;
+
+import org.junit.jupiter.api.*;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del arranque de la aplicación.
+ * Verifica la precarga de las clases del informe en segundo plano y la medida
+ * del tiempo hasta la ventana y de la primera exportación.
+ */
+@DisplayName("Pruebas de ArranqueAplicacion")
+class ArranqueAplicacionTest {
+
+    @Test
+    @DisplayName("La precarga genera el informe en un hilo de baja prioridad que no retiene la aplicación")
+    void testPrecarga() throws InterruptedException {
+        // Arrange
+        ArranqueAplicacion arranque = new ArranqueAplicacion();
+
+        // Act
+        Thread hilo = arranque.precargarEnSegundoPlano();
+        hilo.join(60_000);
+
+        // Assert
+        assertTrue(hilo.isDaemon());
+        assertEquals(Thread.MIN_PRIORITY, hilo.getPriority());
+        assertFalse(hilo.isAlive());
+        assertTrue(arranque.isPrecargado(), "La precarga debe terminar sin errores");
+    }
+
+    @Test
+    @DisplayName("Mide la ventana desde el arranque del proceso y solo la primera exportación")
+    void testMedidas() {
+        // Arrange
+        ArranqueAplicacion arranque = new ArranqueAplicacion(Instant.now().minusSeconds(2));
+
+        // Act
+        long ventana = arranque.registrarVentana();
+        boolean primera = arranque.registrarExportacion(850);
+        boolean segunda = arranque.registrarExportacion(120);
+
+        // Assert
+        assertTrue(ventana >= 2000 && ventana < 60_000, "Tiempo hasta la ventana: " + ventana);
+        assertEquals(ventana, arranque.getMilisegundosVentana());
+        assertTrue(primera);
+        assertFalse(segunda, "Solo se mide la primera exportación");
+        assertFalse(arranque.isPrecargado());
+    }
+}
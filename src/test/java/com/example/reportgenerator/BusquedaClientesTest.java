@@ -0,0 +1,112 @@
+package com.example.reportgenerator;
+
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la búsqueda de clientes en memoria mientras se escribe.
+ * Verifica que filtra igual que el DAO, que agrupa las pulsaciones seguidas
+ * y que solo entrega el resultado de la última búsqueda.
+ */
+@DisplayName("Pruebas de BusquedaClientes")
+class BusquedaClientesTest {
+
+    private final BlockingQueue<BusquedaClientes.Resultado> resultados = new LinkedBlockingQueue<>();
+    private BusquedaClientes busqueda;
+
+    @AfterEach
+    void tearDown() {
+        busqueda.close();
+    }
+
+    private static List<Cliente> crearClientes(int numero) {
+        String[] ciudades = {"Madrid", "Barcelona", "Valencia", "Sevilla"};
+        List<Cliente> clientes = new ArrayList<>(numero);
+        for (int i = 1; i <= numero; i++) {
+            clientes.add(new Cliente(i, "Cliente " + i, "c" + i + "@test.com", ciudades[i % ciudades.length]));
+        }
+        return clientes;
+    }
+
+    @Test
+    @DisplayName("Filtra por nombre y ciudad igual que el DAO, también al refinar una búsqueda")
+    void testFiltraComoElDAO() throws InterruptedException {
+        // Arrange
+        List<Cliente> clientes = crearClientes(5000);
+        busqueda = new BusquedaClientes(0);
+        busqueda.setClientes(clientes);
+
+        // Act: cada búsqueda refina la anterior salvo la última, que la amplía
+        busqueda.buscar("CLIENTE 1", null, resultados::add);
+        BusquedaClientes.Resultado primero = resultados.poll(5, TimeUnit.SECONDS);
+        busqueda.buscar("cliente 12", "madrid", resultados::add);
+        BusquedaClientes.Resultado segundo = resultados.poll(5, TimeUnit.SECONDS);
+        busqueda.buscar("2", "Madrid", resultados::add);
+        BusquedaClientes.Resultado tercero = resultados.poll(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(filtrar(clientes, "cliente 1", ""), primero.clientes());
+        assertEquals(filtrar(clientes, "cliente 12", "Madrid"), segundo.clientes());
+        assertEquals(filtrar(clientes, "2", "Madrid"), tercero.clientes());
+        assertEquals(Map.of("Madrid", tercero.clientes().size()), tercero.clientesPorCiudad());
+        assertEquals(primero.clientes().size(), primero.clientesPorCiudad().values().stream().mapToInt(i -> i).sum());
+    }
+
+    @Test
+    @DisplayName("Las pulsaciones seguidas se agrupan en una sola búsqueda")
+    void testAgrupaPulsaciones() throws InterruptedException {
+        // Arrange
+        busqueda = new BusquedaClientes(200);
+        busqueda.setClientes(crearClientes(1000));
+
+        // Act
+        busqueda.buscar("c", null, resultados::add);
+        busqueda.buscar("cl", null, resultados::add);
+        long ultima = busqueda.buscar("cliente 99", null, resultados::add);
+
+        // Assert
+        BusquedaClientes.Resultado resultado = resultados.poll(5, TimeUnit.SECONDS);
+        assertNotNull(resultado);
+        assertEquals(ultima, resultado.consulta());
+        assertEquals(11, resultado.clientes().size(), "Cliente 99 y Cliente 990 a 999");
+        assertNull(resultados.poll(400, TimeUnit.MILLISECONDS), "Las búsquedas superadas no se entregan");
+        assertTrue(busqueda.esVigente(resultado));
+    }
+
+    @Test
+    @DisplayName("Una búsqueda en curso se abandona cuando llega otra")
+    void testDescartaBusquedaObsoleta() throws InterruptedException {
+        // Arrange
+        List<Cliente> clientes = crearClientes(1_000_000);
+        busqueda = new BusquedaClientes(0);
+        busqueda.setClientes(clientes);
+
+        // Act
+        busqueda.buscar("cliente", null, resultados::add);
+        Thread.sleep(2);
+        long ultima = busqueda.buscar("cliente 7", "Sevilla", resultados::add);
+
+        // Assert
+        BusquedaClientes.Resultado resultado = resultados.poll(10, TimeUnit.SECONDS);
+        assertNotNull(resultado);
+        assertEquals(ultima, resultado.consulta(), "Solo debe entregarse la última búsqueda");
+        assertEquals(filtrar(clientes, "cliente 7", "Sevilla").size(), resultado.clientes().size());
+        assertNull(resultados.poll(200, TimeUnit.MILLISECONDS));
+        busqueda.setClientes(List.of());
+        assertFalse(busqueda.esVigente(resultado), "Cambiar los clientes invalida los resultados anteriores");
+    }
+
+    private static List<Cliente> filtrar(List<Cliente> clientes, String texto, String ciudad) {
+        return clientes.stream()
+            .filter(c -> c.getNombre().toLowerCase().contains(texto.toLowerCase()))
+            .filter(c -> ciudad.isEmpty() || c.getCiudad().equalsIgnoreCase(ciudad))
+            .toList();
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.reportgenerator;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la caché en disco de informes PDF.
+ * Verifica las claves por contenido, los aciertos y fallos, la expulsión
+ * LRU por tamaño y la persistencia entre instancias.
+ */
+@DisplayName("Pruebas de CacheInformes")
+class CacheInformesTest {
+
+    @TempDir
+    Path directorio;
+
+    private List<Cliente> clientes;
+
+    @BeforeEach
+    void setUp() {
+        clientes = new ArrayList<>();
+        clientes.add(new Cliente(1, "Ana López", "ana@email.com", "Madrid"));
+        clientes.add(new Cliente(2, "Carlos Ruiz", "carlos@email.com", "Barcelona"));
+        clientes.add(new Cliente(3, "María García", "maria@email.com", "Madrid"));
+    }
+
+    @Test
+    @DisplayName("calcularClave() depende de las filas y de su orden")
+    void testClavePorContenido() {
+        String clave = CacheInformes.calcularClave(clientes);
+
+        assertEquals(64, clave.length());
+        assertEquals(clave, CacheInformes.calcularClave(new ArrayList<>(clientes)), "Mismos datos, misma clave");
+        assertNotEquals(clave, CacheInformes.calcularClave(clientes.subList(0, 2)), "Otro filtro, otra clave");
+        assertNotEquals(clave, CacheInformes.calcularClave(List.of(clientes.get(1), clientes.get(0), clientes.get(2))),
+            "El orden de las filas forma parte de la clave");
+        assertNotEquals(CacheInformes.calcularClave(List.of(new Cliente(1, "ab", "c", "d"))),
+            CacheInformes.calcularClave(List.of(new Cliente(1, "a", "bc", "d"))),
+            "Los campos no deben poder confundirse al concatenarse");
+        assertNotEquals(clave, CacheInformes.calcularClave(clientes, true),
+            "El informe compacto es otro archivo");
+    }
+
+    @Test
+    @DisplayName("La segunda exportación con los mismos datos sale de la caché")
+    void testAciertoTrasFallo() throws IOException {
+        // Arrange
+        CacheInformes cache = new CacheInformes(directorio.resolve("cache"), CacheInformes.TAMANO_MAXIMO_POR_DEFECTO);
+        Path primero = directorio.resolve("primero.pdf");
+        Path segundo = directorio.resolve("segundo.pdf");
+
+        // Act
+        cache.exportarAPDF(clientes, primero);
+        cache.exportarAPDF(clientes, segundo);
+
+        // Assert
+        assertArrayEquals(Files.readAllBytes(primero), Files.readAllBytes(segundo));
+        assertEquals("%PDF", new String(Files.readAllBytes(segundo), 0, 4));
+        assertEquals(1, cache.getFallos());
+        assertEquals(1, cache.getAciertos());
+        assertEquals(1, cache.getNumeroInformes());
+        assertEquals(Files.size(primero), cache.getTamanoActual());
+    }
+
+    @Test
+    @DisplayName("exportarAPDF() sobre un canal entrega el PDF cacheado completo")
+    void testExportarACanal() throws IOException {
+        CacheInformes cache = new CacheInformes(directorio, CacheInformes.TAMANO_MAXIMO_POR_DEFECTO);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        cache.exportarAPDF(clientes, Channels.newChannel(salida));
+
+        assertEquals(cache.getTamanoActual(), salida.size());
+    }
+
+    @Test
+    @DisplayName("Al superar el tamaño máximo se expulsa el informe usado hace más tiempo")
+    void testExpulsionLRU() throws IOException {
+        // Arrange - un informe ocupa unos 30 KB: caben dos
+        CacheInformes cache = new CacheInformes(directorio.resolve("cache"), 70 * 1024);
+        List<Cliente> soloMadrid = List.of(clientes.get(0), clientes.get(2));
+        List<Cliente> soloBarcelona = List.of(clientes.get(1));
+        Path destino = directorio.resolve("informe.pdf");
+
+        // Act
+        cache.exportarAPDF(clientes, destino);
+        cache.exportarAPDF(soloMadrid, destino);
+        cache.exportarAPDF(clientes, destino);        // acierto: pasa a ser el más reciente
+        cache.exportarAPDF(soloBarcelona, destino);   // expulsa soloMadrid
+
+        // Assert
+        assertEquals(2, cache.getNumeroInformes());
+        assertTrue(cache.getTamanoActual() <= 70 * 1024);
+        assertTrue(Files.exists(directorio.resolve("cache").resolve(CacheInformes.calcularClave(clientes) + ".pdf")));
+        assertFalse(Files.exists(directorio.resolve("cache").resolve(CacheInformes.calcularClave(soloMadrid) + ".pdf")));
+    }
+
+    @Test
+    @DisplayName("Un informe mayor que la caché se exporta sin guardarse ni expulsar a los demás")
+    void testInformeMayorQueLaCache() throws IOException {
+        // Arrange - un informe pequeño ocupa unos 30 KB y el de 5000 clientes bastante más de 70 KB
+        Path cacheDir = directorio.resolve("cache");
+        CacheInformes cache = new CacheInformes(cacheDir, 70 * 1024);
+        List<Cliente> muchos = new ArrayList<>();
+        for (int i = 1; i <= 5000; i++) {
+            muchos.add(new Cliente(i, "Cliente" + i, "c" + i + "@test.com", "Ciudad" + (i % 20)));
+        }
+        Path destino = directorio.resolve("informe.pdf");
+        cache.exportarAPDF(clientes, destino);
+
+        // Act
+        cache.exportarAPDF(muchos, destino);
+
+        // Assert
+        assertTrue(Files.size(destino) > 70 * 1024);
+        assertEquals("%PDF", new String(Files.readAllBytes(destino), 0, 4));
+        assertEquals(1, cache.getNumeroInformes());
+        try (Stream<Path> archivos = Files.list(cacheDir)) {
+            assertEquals(List.of(CacheInformes.calcularClave(clientes) + ".pdf"),
+                archivos.map(archivo -> archivo.getFileName().toString()).toList(),
+                "El informe grande no debe quedar en la caché ni como temporal");
+        }
+    }
+
+    @Test
+    @DisplayName("Si no se puede eliminar un informe expulsado la exportación termina igualmente")
+    void testExpulsionSinBorrar() throws IOException {
+        // Arrange - caben dos informes; el archivo del primero no se puede eliminar
+        Path cacheDir = directorio.resolve("cache");
+        CacheInformes cache = new CacheInformes(cacheDir, 70 * 1024);
+        List<Cliente> soloMadrid = List.of(clientes.get(0), clientes.get(2));
+        List<Cliente> soloBarcelona = List.of(clientes.get(1));
+        Path destino = directorio.resolve("informe.pdf");
+        cache.exportarAPDF(clientes, destino);
+        cache.exportarAPDF(soloMadrid, destino);
+        Path bloqueado = cacheDir.resolve(CacheInformes.calcularClave(clientes) + ".pdf");
+        Files.delete(bloqueado);
+        Files.createDirectories(bloqueado.resolve("en-uso"));
+
+        // Act
+        cache.exportarAPDF(soloBarcelona, destino);
+
+        // Assert
+        assertEquals(2, cache.getNumeroInformes());
+        assertTrue(cache.getTamanoActual() <= 70 * 1024);
+        assertTrue(Files.exists(cacheDir.resolve(CacheInformes.calcularClave(soloBarcelona) + ".pdf")));
+    }
+
+    @Test
+    @DisplayName("Un informe borrado por otro proceso se vuelve a generar")
+    void testInformeBorradoFuera() throws IOException {
+        // Arrange
+        Path cacheDir = directorio.resolve("cache");
+        CacheInformes cache = new CacheInformes(cacheDir, CacheInformes.TAMANO_MAXIMO_POR_DEFECTO);
+        Path destino = directorio.resolve("informe.pdf");
+        cache.exportarAPDF(clientes, destino);
+        Path archivo = cacheDir.resolve(CacheInformes.calcularClave(clientes) + ".pdf");
+        Files.delete(archivo);
+
+        // Act
+        cache.exportarAPDF(clientes, destino);
+        cache.exportarAPDF(clientes, destino);
+
+        // Assert
+        assertEquals("%PDF", new String(Files.readAllBytes(destino), 0, 4));
+        assertTrue(Files.exists(archivo));
+        assertEquals(2, cache.getFallos());
+        assertEquals(1, cache.getAciertos());
+        assertEquals(1, cache.getNumeroInformes());
+        assertEquals(Files.size(archivo), cache.getTamanoActual());
+    }
+
+    @Test
+    @DisplayName("Una nueva instancia reutiliza los informes guardados en el directorio")
+    void testPersistenciaEntreInstancias() throws IOException {
+        Path destino = directorio.resolve("informe.pdf");
+        new CacheInformes(directorio.resolve("cache"), CacheInformes.TAMANO_MAXIMO_POR_DEFECTO)
+            .exportarAPDF(clientes, destino);
+
+        CacheInformes reabierta = new CacheInformes(directorio.resolve("cache"), CacheInformes.TAMANO_MAXIMO_POR_DEFECTO);
+        reabierta.exportarAPDF(clientes, destino);
+
+        assertEquals(1, reabierta.getAciertos());
+        assertEquals(0, reabierta.getFallos());
+    }
+
+    @Test
+    @DisplayName("Al abrirse solo elimina los temporales abandonados, no los de otra instancia en curso")
+    void testLimpiezaTemporales() throws IOException {
+        // Arrange
+        Path cacheDir = Files.createDirectories(directorio.resolve("cache"));
+        Path abandonado = Files.writeString(cacheDir.resolve("abandonado.tmp"), "x");
+        Files.setLastModifiedTime(abandonado, FileTime.from(
+            Instant.now().minus(CacheInformes.ANTIGUEDAD_TEMPORALES).minusSeconds(60)));
+        Path enCurso = Files.writeString(cacheDir.resolve("en-curso.tmp"), "x");
+
+        // Act
+        new CacheInformes(cacheDir, CacheInformes.TAMANO_MAXIMO_POR_DEFECTO);
+
+        // Assert
+        assertFalse(Files.exists(abandonado));
+        assertTrue(Files.exists(enCurso), "Un temporal reciente puede ser de otra instancia");
+    }
+
+    @Test
+    @DisplayName("RENDIMIENTO: Exportación repetida servida desde la caché")
+    void testRendimientoAcierto() throws IOException {
+        // Arrange
+        List<Cliente> muchos = new ArrayList<>();
+        for (int i = 1; i <= 20000; i++) {
+            muchos.add(new Cliente(i, "Cliente" + i, "c" + i + "@test.com", "Ciudad" + (i % 20)));
+        }
+        CacheInformes cache = new CacheInformes(directorio.resolve("cache"), CacheInformes.TAMANO_MAXIMO_POR_DEFECTO);
+        Path destino = directorio.resolve("informe.pdf");
+
+        // Act
+        long inicio = System.nanoTime();
+        cache.exportarAPDF(muchos, destino);
+        long tiempoFallo = System.nanoTime() - inicio;
+
+        inicio = System.nanoTime();
+        cache.exportarAPDF(muchos, destino);
+        long tiempoAcierto = System.nanoTime() - inicio;
+
+        // Assert
+        System.out.printf("Caché de informes (20000 clientes): fallo %.1f ms, acierto %.1f ms%n",
+            tiempoFallo / 1e6, tiempoAcierto / 1e6);
+        assertEquals(1, cache.getAciertos());
+        assertTrue(tiempoAcierto < tiempoFallo, "Servir desde la caché debe ser más rápido que generar");
+    }
+
+    @Test
+    @DisplayName("Una exportación cancelada no deja el PDF de destino ni entra en la caché")
+    void testExportacionCancelada() throws IOException {
+        // Arrange
+        CacheInformes cache = new CacheInformes(directorio.resolve("cache"), CacheInformes.TAMANO_MAXIMO_POR_DEFECTO);
+        Path destino = directorio.resolve("cancelado.pdf");
+        TokenCancelacion cancelacion = new TokenCancelacion();
+        cancelacion.cancelar();
+
+        // Act & Assert
+        assertThrows(java.io.InterruptedIOException.class,
+            () -> cache.exportarAPDF(clientes, destino, new OpcionesExportacion().setCancelacion(cancelacion)));
+        assertFalse(Files.exists(destino), "No debe quedar un PDF incompleto");
+        assertEquals(0, cache.getNumeroInformes());
+
+        // Una exportación posterior sin cancelar notifica el progreso completo
+        List<ProgresoExportacion> eventos = new ArrayList<>();
+        cache.exportarAPDF(clientes, destino, new OpcionesExportacion().setOyenteProgreso(eventos::add));
+        cache.exportarAPDF(clientes, destino, new OpcionesExportacion().setOyenteProgreso(eventos::add));
+        assertEquals(1, cache.getAciertos());
+        assertEquals(Files.size(destino), eventos.get(eventos.size() - 1).bytesEscritos());
+        assertEquals(1.0, eventos.get(eventos.size() - 1).getFraccion());
+    }
+
+    @Test
+    @DisplayName("Una exportación cancelada deja intacto el PDF que ya existía en el destino")
+    void testCancelacionConservaDestino() throws IOException {
+        // Arrange
+        CacheInformes cache = new CacheInformes(directorio.resolve("cache"), CacheInformes.TAMANO_MAXIMO_POR_DEFECTO);
+        Path destino = directorio.resolve("existente.pdf");
+        byte[] anterior = "%PDF-1.4 informe anterior".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+        Files.write(destino, anterior);
+        TokenCancelacion cancelacion = new TokenCancelacion();
+        cancelacion.cancelar();
+
+        // Act
+        assertThrows(java.io.InterruptedIOException.class,
+            () -> cache.exportarAPDF(clientes, destino, new OpcionesExportacion().setCancelacion(cancelacion)));
+
+        // Assert
+        assertArrayEquals(anterior, Files.readAllBytes(destino));
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            assertEquals(List.of("cache", "existente.pdf"),
+                archivos.map(archivo -> archivo.getFileName().toString()).sorted().toList(),
+                "No debe quedar el archivo temporal");
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package com.example.reportgenerator;
 
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -236,4 +242,141 @@ class ClienteDAOTest {
         // Assert
         assertEquals(1, clientesMadridConAna, "Debe haber 1 Ana en Madrid");
     }
+
+    @Test
+    @DisplayName("obtenerPorFiltros() combina nombre y ciudad en una sola pasada")
+    void testObtenerPorFiltros() {
+        // Act
+        List<Cliente> anaEnMadrid = dao.obtenerPorFiltros("ana", "MADRID");
+        List<Cliente> soloCiudad = dao.obtenerPorFiltros("", "Barcelona");
+        List<Cliente> sinFiltros = dao.obtenerPorFiltros(null, null);
+        
+        // Assert
+        assertEquals(1, anaEnMadrid.size(), "Debe haber 1 Ana en Madrid");
+        assertEquals("Ana López", anaEnMadrid.get(0).getNombre());
+        assertEquals(2, soloCiudad.size(), "Debe haber 2 clientes en Barcelona");
+        assertEquals(7, sinFiltros.size(), "Sin filtros debe devolver todos los clientes");
+    }
+
+    @Test
+    @DisplayName("leerPorLotes() entrega los clientes filtrados en lotes del tamaño pedido")
+    void testLeerPorLotes() throws Exception {
+        // Arrange
+        List<List<Cliente>> lotes = new ArrayList<>();
+        
+        // Act
+        dao.leerPorLotes(null, null, 3, lote -> lotes.add(List.copyOf(lote)));
+        List<Cliente> madrid = new ArrayList<>();
+        dao.leerPorLotes("", "madrid", 2, madrid::addAll);
+        
+        // Assert
+        assertEquals(List.of(3, 3, 1), lotes.stream().map(List::size).toList(), "El último lote lleva el resto");
+        assertEquals(dao.obtenerTodos().stream().map(Cliente::getId).toList(),
+            lotes.stream().flatMap(List::stream).map(Cliente::getId).toList(), "Debe respetar el orden del archivo");
+        assertEquals(dao.obtenerPorCiudad("Madrid").size(), madrid.size());
+    }
+
+    @Test
+    @DisplayName("cargarPorLotes() entrega un primer lote pequeño y cuenta las ciudades en la misma pasada")
+    void testCargarPorLotes() throws Exception {
+        // Arrange
+        List<List<Cliente>> lotes = new ArrayList<>();
+        List<Long> avance = new ArrayList<>();
+        long tamanoArchivo = new File(TEST_CSV_PATH).length();
+        
+        // Act
+        ClienteDAO.Carga carga = dao.cargarPorLotes(2, 4, (lote, leidos, totales) -> {
+            lotes.add(lote);
+            avance.add(leidos);
+            assertEquals(tamanoArchivo, totales);
+        });
+        
+        // Assert
+        assertEquals(List.of(2, 4, 1), lotes.stream().map(List::size).toList());
+        assertEquals(dao.obtenerTodos().stream().map(Cliente::getId).toList(),
+            carga.clientes().stream().map(Cliente::getId).toList());
+        assertEquals(lotes.stream().flatMap(List::stream).toList(), carga.clientes());
+        assertEquals(dao.contarClientesPorCiudad(), carga.clientesPorCiudad());
+        assertEquals(tamanoArchivo, avance.get(avance.size() - 1), "Al terminar se ha leído todo el archivo");
+        for (int i = 1; i < avance.size(); i++) {
+            assertTrue(avance.get(i) >= avance.get(i - 1), "El avance no puede retroceder");
+        }
+    }
+
+    @Test
+    @DisplayName("cargarPorLotes() se detiene si el consumidor interrumpe la carga")
+    void testCargarPorLotesInterrumpida() {
+        // Arrange
+        List<Cliente> recibidos = new ArrayList<>();
+        
+        // Act & Assert
+        assertThrows(InterruptedException.class, () -> dao.cargarPorLotes(3, 3, (lote, leidos, totales) -> {
+            recibidos.addAll(lote);
+            throw new InterruptedException("Carga cancelada");
+        }));
+        assertEquals(3, recibidos.size(), "No debe leerse nada tras la interrupción");
+    }
+
+    @Test
+    @DisplayName("muestrear() lee líneas completas del archivo sin la cabecera y estima el total")
+    void testMuestrear() throws IOException {
+        // Act
+        ClienteDAO.Muestra muestra = dao.muestrear(500, new Random(42));
+        ClienteDAO.Estimacion madrid = muestra.estimar(c -> c.getCiudad().equals("Madrid"));
+        
+        // Assert
+        assertEquals(dao.obtenerTodos().stream().map(Cliente::getId).toList(),
+            muestra.getClientes().stream().map(Cliente::getId).toList(),
+            "Con tantas extracciones salen todas las líneas, una vez y en el orden del archivo");
+        assertEquals("María García", muestra.getClientes().get(2).getNombre());
+        assertEquals(7, muestra.getClientesEstimados());
+        assertEquals(3.0 / 7, madrid.proporcion(), madrid.margen());
+        assertEquals(3, muestra.getClientesPorCiudad().get("Madrid"));
+        
+        // Un archivo con solo la cabecera da una muestra vacía
+        try (FileWriter writer = new FileWriter(TEST_CSV_PATH)) {
+            writer.write("id,nombre,email,ciudad\n");
+        }
+        ClienteDAO.Muestra vacia = dao.muestrear(100, new Random(42));
+        assertTrue(vacia.getClientes().isEmpty());
+        assertEquals(0, vacia.getClientesEstimados());
+        assertEquals(0, vacia.estimar(c -> true).clientes());
+    }
+
+    @Test
+    @DisplayName("muestrear() compensa que las líneas largas salgan más a menudo")
+    void testMuestrearLineasDeDistintaLongitud(@TempDir Path directorio) throws IOException {
+        // Arrange: los clientes de Madrid ocupan cuatro veces más que los de Lugo
+        Path csv = directorio.resolve("clientes.csv");
+        int numeroClientes = 100_000;
+        try (Writer writer = Files.newBufferedWriter(csv)) {
+            writer.write("id,nombre,email,ciudad\n");
+            for (int i = 1; i <= numeroClientes; i++) {
+                if (i % 10 < 5) {
+                    writer.write(i + ",Cliente con un nombre bastante largo " + i + ",cliente" + i
+                        + "@una-empresa-con-dominio-largo.com,Madrid\n");
+                } else if (i % 10 < 8) {
+                    writer.write(i + ",C" + i + ",c@e.es,Lugo\n");
+                } else {
+                    writer.write(i + ",Cliente " + i + ",c" + i + "@correo.es,Alcalá de Henares\n");
+                }
+            }
+        }
+        ClienteDAO daoGrande = new ClienteDAO(csv.toString());
+        
+        // Act
+        ClienteDAO.Muestra muestra = daoGrande.muestrear(4000, new Random(7));
+        
+        // Assert
+        assertEquals(numeroClientes, muestra.getClientesEstimados(), numeroClientes * 0.03);
+        Map<String, Double> proporciones = Map.of("Madrid", 0.5, "Lugo", 0.3, "Alcalá de Henares", 0.2);
+        proporciones.forEach((ciudad, proporcion) -> {
+            ClienteDAO.Estimacion estimacion = muestra.estimar(c -> c.getCiudad().equals(ciudad));
+            assertTrue(estimacion.margen() > 0 && estimacion.margen() < 0.03, "Margen de " + ciudad);
+            assertEquals(proporcion, estimacion.proporcion(), 2 * estimacion.margen(), ciudad);
+        });
+        long madrid = muestra.getClientes().stream().filter(c -> c.getCiudad().equals("Madrid")).count();
+        assertTrue(madrid > 0.65 * muestra.getClientes().size(),
+            "Sin pesos, Madrid parecería tener bastante más de la mitad de los clientes");
+    }
 }
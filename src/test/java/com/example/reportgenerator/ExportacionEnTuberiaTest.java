@@ -0,0 +1,94 @@
+package com.example.reportgenerator;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la exportación en tubería (lectura del CSV y renderizado solapados).
+ * Verifica que el informe coincide con el de la exportación por etapas
+ * y que los errores de lectura se propagan.
+ */
+@DisplayName("Pruebas de ExportacionEnTuberia")
+class ExportacionEnTuberiaTest {
+
+    @TempDir
+    Path directorio;
+
+    private ClienteDAO dao;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path csv = directorio.resolve("clientes.csv");
+        String[] ciudades = {"Madrid", "Barcelona", "Valencia", "Sevilla", "Bilbao"};
+        try (Writer writer = Files.newBufferedWriter(csv)) {
+            writer.write("id,nombre,email,ciudad\n");
+            for (int i = 1; i <= 2500; i++) {
+                writer.write(i + ",Cliente " + i + ",cliente" + i + "@email.com," + ciudades[i % ciudades.length] + "\n");
+            }
+        }
+        dao = new ClienteDAO(csv.toString());
+    }
+
+    @Test
+    @DisplayName("El informe en tubería tiene el mismo contenido que el de la exportación por etapas")
+    void testMismoContenidoQuePorEtapas() throws IOException {
+        // Arrange
+        ByteArrayOutputStream porEtapas = new ByteArrayOutputStream();
+        ByteArrayOutputStream enTuberia = new ByteArrayOutputStream();
+
+        // Act
+        PDFExporter.exportarAPDF(dao.obtenerPorFiltros("1", null), porEtapas);
+        ExportacionEnTuberia.exportarAPDF(dao, "1", null, enTuberia);
+
+        // Assert
+        try (PDDocument esperado = Loader.loadPDF(porEtapas.toByteArray());
+             PDDocument obtenido = Loader.loadPDF(enTuberia.toByteArray())) {
+            assertEquals(esperado.getNumberOfPages(), obtenido.getNumberOfPages());
+            PDFTextStripper stripper = new PDFTextStripper();
+            assertEquals(stripper.getText(esperado), stripper.getText(obtenido));
+        }
+    }
+
+    @Test
+    @DisplayName("Un filtro sin resultados genera un informe de una página")
+    void testFiltroSinResultados() throws IOException {
+        // Arrange
+        Path pdf = directorio.resolve("vacio.pdf");
+
+        // Act
+        ExportacionEnTuberia.exportarAPDF(dao, "no existe", "Madrid", pdf.toString());
+
+        // Assert
+        try (PDDocument document = Loader.loadPDF(pdf.toFile())) {
+            String texto = new PDFTextStripper().getText(document);
+            assertEquals(PDFExporter.calcularNumeroPaginas(0), document.getNumberOfPages());
+            assertTrue(texto.contains("Total de clientes: 0"));
+            assertTrue(texto.contains("Página 1 de 1"));
+        }
+    }
+
+    @Test
+    @DisplayName("Un error al leer el CSV se propaga y no deja el hilo lector bloqueado")
+    void testErrorDeLectura() throws IOException {
+        // Arrange
+        ClienteDAO inexistente = new ClienteDAO(directorio.resolve("no-existe.csv").toString());
+        Files.writeString(directorio.resolve("corrupto.csv"), "id,nombre,email,ciudad\nabc,Ana,ana@email.com,Madrid\n");
+        ClienteDAO corrupto = new ClienteDAO(directorio.resolve("corrupto.csv").toString());
+
+        // Act & Assert
+        assertThrows(IOException.class,
+            () -> ExportacionEnTuberia.exportarAPDF(inexistente, null, null, new ByteArrayOutputStream()));
+        assertThrows(NumberFormatException.class,
+            () -> ExportacionEnTuberia.exportarAPDF(corrupto, null, null, new ByteArrayOutputStream()));
+    }
+}
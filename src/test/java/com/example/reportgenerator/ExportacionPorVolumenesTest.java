@@ -0,0 +1,155 @@
+package com.example.reportgenerator;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la exportación de informes divididos en volúmenes.
+ * Verifica el reparto de clientes, los límites por filas y por páginas,
+ * el manifiesto y que una cancelación no deja volúmenes a medias.
+ */
+@DisplayName("Pruebas de ExportacionPorVolumenes")
+class ExportacionPorVolumenesTest {
+
+    @TempDir
+    Path directorio;
+
+    private List<Cliente> clientes;
+
+    @BeforeEach
+    void setUp() {
+        String[] ciudades = {"Madrid", "Barcelona", "Valencia", "Sevilla", "Bilbao"};
+        clientes = new ArrayList<>();
+        for (int i = 1; i <= 2500; i++) {
+            clientes.add(new Cliente(i, "Cliente " + i, "cliente" + i + "@email.com", ciudades[i % ciudades.length]));
+        }
+    }
+
+    @Test
+    @DisplayName("Reparte los clientes en volúmenes con su rango y el total global")
+    void testVolumenesPorFilas() throws IOException {
+        // Arrange
+        OpcionesExportacion opciones = new OpcionesExportacion().setFilasPorVolumen(1000);
+
+        // Act
+        List<ExportacionPorVolumenes.Volumen> volumenes =
+            ExportacionPorVolumenes.exportar(clientes, directorio, "informe", opciones);
+
+        // Assert
+        assertEquals(3, volumenes.size());
+        assertEquals(List.of(1000, 1000, 500), volumenes.stream().map(ExportacionPorVolumenes.Volumen::filas).toList());
+        assertEquals(directorio.resolve("informe-002.pdf"), volumenes.get(1).archivo());
+        try (PDDocument document = Loader.loadPDF(volumenes.get(1).archivo().toFile())) {
+            String texto = new PDFTextStripper().getText(document);
+            assertEquals(volumenes.get(1).paginas(), document.getNumberOfPages());
+            assertTrue(texto.contains("volumen 2 de 3, clientes 1001 a 2000"));
+            assertTrue(texto.contains("Cliente 1001"));
+            assertFalse(texto.contains("Cliente 2001 "));
+            assertTrue(texto.contains("Total de clientes: 2500 (1000 en este volumen)"));
+            assertTrue(texto.contains("Página 1 de " + volumenes.get(1).paginas()));
+        }
+    }
+
+    @Test
+    @DisplayName("Ningún volumen supera el límite de páginas")
+    void testLimitePorPaginas() throws IOException {
+        // Arrange
+        OpcionesExportacion opciones = new OpcionesExportacion().setPaginasPorVolumen(10);
+
+        // Act
+        List<ExportacionPorVolumenes.Volumen> volumenes =
+            ExportacionPorVolumenes.exportar(clientes, directorio, "informe", opciones);
+
+        // Assert
+        assertTrue(volumenes.size() > 1);
+        assertEquals(clientes.size(), volumenes.stream().mapToInt(ExportacionPorVolumenes.Volumen::filas).sum());
+        for (ExportacionPorVolumenes.Volumen volumen : volumenes) {
+            try (PDDocument document = Loader.loadPDF(volumen.archivo().toFile())) {
+                assertTrue(document.getNumberOfPages() <= 10);
+            }
+        }
+        assertThrows(IllegalArgumentException.class,
+            () -> ExportacionPorVolumenes.exportar(clientes, directorio, "otro", new OpcionesExportacion()));
+    }
+
+    @Test
+    @DisplayName("El manifiesto recoge cada volumen con su hash SHA-256")
+    void testManifiesto() throws Exception {
+        // Arrange
+        OpcionesExportacion opciones = new OpcionesExportacion().setFilasPorVolumen(1000);
+
+        // Act
+        List<ExportacionPorVolumenes.Volumen> volumenes =
+            ExportacionPorVolumenes.exportar(clientes, directorio, "informe", opciones);
+
+        // Assert
+        String manifiesto = Files.readString(directorio.resolve("informe" + ExportacionPorVolumenes.SUFIJO_MANIFIESTO));
+        assertTrue(manifiesto.contains("\"totalClientes\": 2500"));
+        assertTrue(manifiesto.contains("\"Madrid\": 500"));
+        for (ExportacionPorVolumenes.Volumen volumen : volumenes) {
+            byte[] contenido = Files.readAllBytes(volumen.archivo());
+            String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(contenido));
+            assertEquals(sha256, volumen.sha256());
+            assertEquals(contenido.length, volumen.bytes());
+            assertTrue(manifiesto.contains("\"archivo\": \"" + volumen.archivo().getFileName() + "\""));
+            assertTrue(manifiesto.contains("\"sha256\": \"" + sha256 + "\""));
+        }
+    }
+
+    @Test
+    @DisplayName("Una cancelación detiene todos los volúmenes y no deja archivos")
+    void testCancelacion() throws IOException {
+        // Arrange
+        TokenCancelacion cancelacion = new TokenCancelacion();
+        OpcionesExportacion opciones = new OpcionesExportacion()
+            .setFilasPorVolumen(500)
+            .setCancelacion(cancelacion)
+            .setOyenteProgreso(progreso -> {
+                if (progreso.paginasRenderizadas() >= 3) {
+                    cancelacion.cancelar();
+                }
+            });
+
+        // Act & Assert
+        assertThrows(InterruptedIOException.class,
+            () -> ExportacionPorVolumenes.exportar(clientes, directorio, "informe", opciones));
+        try (var restos = Files.list(directorio)) {
+            assertEquals(0, restos.count(), "No deben quedar volúmenes, temporales ni manifiesto");
+        }
+    }
+
+    @Test
+    @DisplayName("Un fallo al mover los volúmenes no borra los que dejó una exportación anterior")
+    void testFalloConservaVolumenesAnteriores() throws IOException {
+        // Arrange: el primer volumen no se puede sustituir y los demás son de otra exportación
+        Files.createDirectories(directorio.resolve("informe-001.pdf").resolve("bloqueo"));
+        byte[] anterior = "%PDF-1.4 volumen anterior".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+        Files.write(directorio.resolve("informe-002.pdf"), anterior);
+        Files.write(directorio.resolve("informe-003.pdf"), anterior);
+        OpcionesExportacion opciones = new OpcionesExportacion().setFilasPorVolumen(500);
+
+        // Act
+        assertThrows(IOException.class,
+            () -> ExportacionPorVolumenes.exportar(clientes.subList(0, 1500), directorio, "informe", opciones));
+
+        // Assert
+        assertArrayEquals(anterior, Files.readAllBytes(directorio.resolve("informe-002.pdf")));
+        assertArrayEquals(anterior, Files.readAllBytes(directorio.resolve("informe-003.pdf")));
+        try (var archivos = Files.list(directorio)) {
+            assertEquals(3, archivos.count(), "No deben quedar temporales ni manifiesto");
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.reportgenerator;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del SPI de exportadores y de los formatos de texto.
+ * Verifica el descubrimiento con ServiceLoader, el contenido y el escapado
+ * de cada formato y la limpieza de la salida al cancelar.
+ */
+@DisplayName("Pruebas de ExportadorInformes")
+class ExportadorInformesTest {
+
+    @TempDir
+    Path directorio;
+
+    private ClienteDAO dao;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path csv = directorio.resolve("clientes.csv");
+        Files.writeString(csv, """
+            id,nombre,email,ciudad
+            1,Ana López,ana@email.com,Madrid
+            2,Carlos "Charly" Ruiz,carlos@email.com,Barcelona
+            3,<b>María</b> & García,maria@email.com,Madrid
+            4,Luis \\ Pérez,luis@email.com,Valencia
+            """);
+        dao = new ClienteDAO(csv.toString());
+    }
+
+    @Test
+    @DisplayName("ServiceLoader descubre los cuatro formatos de la aplicación")
+    void testDescubrimientoDeFormatos() {
+        List<String> formatos = ExportadorInformes.disponibles().stream().map(ExportadorInformes::getFormato).toList();
+
+        assertTrue(formatos.containsAll(List.of("pdf", "html", "jsonl", "csv")), "Formatos: " + formatos);
+        assertInstanceOf(ExportadorCSV.class, ExportadorInformes.buscar("CSV").orElseThrow());
+        assertTrue(ExportadorInformes.buscar("docx").isEmpty());
+    }
+
+    @Test
+    @DisplayName("El CSV exportado entrecomilla los campos con comillas y respeta los filtros")
+    void testExportarCSV() throws IOException {
+        // Act
+        String csv = exportar(new ExportadorCSV(), null, null);
+        String madrid = exportar(new ExportadorCSV(), null, "madrid");
+
+        // Assert
+        assertEquals("id,nombre,email,ciudad", csv.lines().findFirst().orElseThrow());
+        assertTrue(csv.contains("2,\"Carlos \"\"Charly\"\" Ruiz\",carlos@email.com,Barcelona\n"));
+        assertTrue(csv.contains("1,Ana López,ana@email.com,Madrid\n"), "Los caracteres no ASCII deben ir en UTF-8");
+        assertEquals(3, madrid.lines().count(), "Cabecera y los dos clientes de Madrid");
+    }
+
+    @Test
+    @DisplayName("JSON Lines escribe un objeto escapado por cliente y línea")
+    void testExportarJSONLines() throws IOException {
+        // Act
+        String jsonl = exportar(new ExportadorJSONLines(), "", null);
+
+        // Assert
+        List<String> lineas = jsonl.lines().toList();
+        assertEquals(4, lineas.size());
+        assertEquals("{\"id\":1,\"nombre\":\"Ana López\",\"email\":\"ana@email.com\",\"ciudad\":\"Madrid\"}", lineas.get(0));
+        assertTrue(lineas.get(1).contains("\"nombre\":\"Carlos \\\"Charly\\\" Ruiz\""));
+        assertTrue(lineas.get(3).contains("\"nombre\":\"Luis \\\\ Pérez\""));
+    }
+
+    @Test
+    @DisplayName("La tabla HTML escapa el marcado de los datos")
+    void testExportarHTML() throws IOException {
+        // Act
+        String html = exportar(new ExportadorHTML(), null, null);
+
+        // Assert
+        assertTrue(html.startsWith("<!DOCTYPE html>"));
+        assertTrue(html.trim().endsWith("</html>"));
+        assertEquals(5, html.split("<tr>", -1).length - 1, "Cabecera y cuatro filas");
+        assertTrue(html.contains("<td>&lt;b&gt;María&lt;/b&gt; &amp; García</td>"));
+        assertFalse(html.contains("<b>María"), "Los datos no deben poder inyectar marcado");
+    }
+
+    @Test
+    @DisplayName("Exportar a archivo cancelado no deja el archivo a medias")
+    void testExportarAArchivoCancelado() throws IOException {
+        // Arrange
+        Path destino = directorio.resolve("clientes.jsonl");
+        TokenCancelacion cancelacion = new TokenCancelacion();
+        cancelacion.cancelar();
+
+        // Act & Assert
+        for (ExportadorInformes exportador : ExportadorInformes.disponibles()) {
+            assertThrows(InterruptedIOException.class, () -> exportador.exportar(dao, null, null, destino,
+                new OpcionesExportacion().setCancelacion(cancelacion)), exportador.getFormato());
+        }
+        try (var archivos = Files.list(directorio)) {
+            assertEquals(List.of(directorio.resolve("clientes.csv")), archivos.toList(),
+                "Solo debe quedar el CSV de entrada");
+        }
+
+        new ExportadorJSONLines().exportar(dao, null, null, destino, new OpcionesExportacion());
+        assertEquals(4, Files.readAllLines(destino).size());
+    }
+
+    private String exportar(ExportadorInformes exportador, String texto, String ciudad) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        exportador.exportar(dao, texto, ciudad, Channels.newChannel(salida), new OpcionesExportacion());
+        return salida.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.reportgenerator;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias del gestor de la fuente Unicode de los informes.
+ * Verifica que la fuente se analiza una sola vez y qué caracteres puede dibujar.
+ */
+@DisplayName("Pruebas unitarias de FuenteUnicode")
+class FuenteUnicodeTest {
+
+    @Test
+    @DisplayName("La fuente TrueType se analiza una vez y se comparte entre documentos")
+    void testFuenteCompartida() throws IOException {
+        // Act
+        try (PDDocument primero = new PDDocument(); PDDocument segundo = new PDDocument()) {
+            PDType0Font fuentePrimero = FuenteUnicode.cargar(primero);
+            PDType0Font fuenteSegundo = FuenteUnicode.cargar(segundo);
+
+            // Assert
+            assertSame(FuenteUnicode.obtenerFuenteCompartida(), FuenteUnicode.obtenerFuenteCompartida());
+            assertNotSame(fuentePrimero, fuenteSegundo, "Cada documento debe tener su propia fuente");
+            assertTrue(fuentePrimero.willBeSubset(), "La fuente debe incrustarse como subconjunto");
+        }
+    }
+
+    @Test
+    @DisplayName("esRepresentable() distingue los caracteres con glifo")
+    void testEsRepresentable() throws IOException {
+        assertTrue(FuenteUnicode.esRepresentable('A'));
+        assertTrue(FuenteUnicode.esRepresentable('ñ'));
+        assertTrue(FuenteUnicode.esRepresentable('Ж'), "Debe cubrir el cirílico");
+        assertTrue(FuenteUnicode.esRepresentable('€'));
+        assertFalse(FuenteUnicode.esRepresentable('北'), "DejaVu Sans no incluye ideogramas");
+        assertFalse(FuenteUnicode.esRepresentable('\n'), "Los caracteres de control no se dibujan");
+        assertFalse(FuenteUnicode.esRepresentable(0x1F525), "Los emojis no tienen glifo");
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.reportgenerator;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.junit.jupiter.api.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la codificación del gráfico para la salida compacta.
+ * Verifica la paleta, la sustitución por el color más parecido y la caché.
+ */
+@DisplayName("Pruebas de GraficoCompacto")
+class GraficoCompactoTest {
+
+    @Test
+    @DisplayName("Con pocos colores la imagen se conserva exacta, sobre fondo blanco")
+    void testPaletaExacta() throws IOException {
+        // Arrange
+        BufferedImage imagen = new BufferedImage(40, 20, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < 40; x++) {
+            for (int y = 0; y < 20; y++) {
+                imagen.setRGB(x, y, x < 20 ? 0xFFE74C3C : 0x00000000);
+            }
+        }
+
+        // Act
+        GraficoCompacto grafico = GraficoCompacto.codificar(imagen);
+
+        // Assert
+        assertEquals(2, grafico.getColores());
+        try (PDDocument document = new PDDocument()) {
+            BufferedImage decodificada = grafico.crearImagen(document).getImage();
+            assertEquals(0xE74C3C, decodificada.getRGB(5, 5) & 0xFFFFFF);
+            assertEquals(0xFFFFFF, decodificada.getRGB(30, 5) & 0xFFFFFF, "Lo transparente pasa a blanco");
+        }
+    }
+
+    @Test
+    @DisplayName("Con más de 256 colores, los menos frecuentes se sustituyen por el más parecido")
+    void testColorMasParecido() throws IOException {
+        // Arrange: 300 grises que difieren en una unidad de azul según la columna sea
+        // par o impar, más frecuentes los pares, y un fondo rojo que es el color más frecuente
+        BufferedImage imagen = new BufferedImage(300, 10, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 300; x++) {
+            int gris = x / 2;
+            imagen.setRGB(x, 0, (gris << 16) | (gris << 8) | (gris + x % 2));
+            imagen.setRGB(x, 1, (gris << 16) | (gris << 8) | gris);
+            for (int y = 2; y < 10; y++) {
+                imagen.setRGB(x, y, 0xC03020);
+            }
+        }
+
+        // Act
+        GraficoCompacto grafico = GraficoCompacto.codificar(imagen);
+
+        // Assert
+        assertEquals(256, grafico.getColores());
+        try (PDDocument document = new PDDocument()) {
+            PDImageXObject pdf = grafico.crearImagen(document);
+            BufferedImage decodificada = pdf.getImage();
+            assertEquals(0xC03020, decodificada.getRGB(150, 5) & 0xFFFFFF);
+            for (int x = 0; x < 300; x++) {
+                int original = imagen.getRGB(x, 0) & 0xFFFFFF;
+                int obtenido = decodificada.getRGB(x, 0) & 0xFFFFFF;
+                assertEquals(original >> 8, obtenido >> 8, "Columna " + x + ": el rojo y el verde no cambian");
+                assertTrue(Math.abs((original & 0xFF) - (obtenido & 0xFF)) <= 1, "Columna " + x + ": azul demasiado distinto");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("El mismo reparto por ciudad se dibuja y codifica una sola vez")
+    void testCache() {
+        // Arrange
+        AtomicInteger dibujos = new AtomicInteger();
+        Map<String, Integer> clientesPorCiudad = Map.of("Madrid", 3, "Soria", System.identityHashCode(dibujos));
+        BufferedImage imagen = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+
+        // Act
+        GraficoCompacto primero = GraficoCompacto.de(clientesPorCiudad, () -> {
+            dibujos.incrementAndGet();
+            return imagen;
+        });
+        GraficoCompacto segundo = GraficoCompacto.de(Map.copyOf(clientesPorCiudad), () -> {
+            dibujos.incrementAndGet();
+            return imagen;
+        });
+
+        // Assert
+        assertSame(primero, segundo);
+        assertEquals(1, dibujos.get());
+        assertNull(GraficoCompacto.de(Map.of("Teruel", -1), () -> null), "Si el dibujo falla no hay gráfico");
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.reportgenerator;
+
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del índice de palabras de los nombres para autocompletar el filtro.
+ * Verifica la búsqueda por prefijo sin acentos ni mayúsculas, el orden por
+ * frecuencia y el límite de sugerencias.
+ */
+@DisplayName("Pruebas de IndiceNombres")
+class IndiceNombresTest {
+
+    private static IndiceNombres indice(String... nombres) {
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 0; i < nombres.length; i++) {
+            clientes.add(new Cliente(i + 1, nombres[i], "c" + i + "@test.com", "Madrid"));
+        }
+        return IndiceNombres.construir(clientes);
+    }
+
+    @Test
+    @DisplayName("Sugiere las palabras que empiezan por el texto, de más a menos frecuente")
+    void testCompletar() {
+        // Arrange
+        IndiceNombres indice = indice("Álvaro López", "alvaro Ruiz", "Alba Núñez", "Ana Álvarez",
+            "María López", "Luis  Lorenzo", "Lola Nuño", "ÁLVARO Gil");
+
+        // Act & Assert
+        assertEquals(List.of("Álvaro", "Alba", "Álvarez", "alvaro"), indice.completar("al", 10),
+            "Sin acentos ni mayúsculas; Álvaro aparece dos veces");
+        assertEquals(List.of("Álvaro", "Álvarez", "alvaro"), indice.completar(" ÁLVA", 10));
+        assertEquals(List.of("López", "Lola", "Lorenzo"), indice.completar("lo", 10));
+        assertEquals(List.of("López", "Lola"), indice.completar("lo", 2), "Como mucho las pedidas");
+        assertEquals(List.of("Núñez", "Nuño"), indice.completar("nuñ", 10));
+        assertEquals(List.of("Núñez", "Nuño"), indice.completar("nu", 10));
+        assertEquals(List.of(), indice.completar("x", 10));
+        assertEquals(List.of(), indice.completar("  ", 10));
+        assertEquals(14, indice.size(), "Álvaro y ÁLVARO son la misma palabra, pero no alvaro");
+    }
+
+    @Test
+    @DisplayName("Las más frecuentes de un tramo grande coinciden con ordenarlo entero")
+    void testMasFrecuentes() {
+        // Arrange: apariciones que no siguen el orden alfabético
+        List<String> nombres = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            int palabra = (i * 37) % 500;
+            nombres.add("Pal" + palabra + " Otro" + (palabra % 7));
+        }
+        IndiceNombres indice = indice(nombres.toArray(String[]::new));
+
+        // Act
+        List<String> sugerencias = indice.completar("pal", 5);
+
+        // Assert: las 500 palabras "PalN" aparecen 6 veces; a igualdad, en orden alfabético
+        assertEquals(List.of("Pal0", "Pal1", "Pal10", "Pal100", "Pal101"), sugerencias);
+        assertEquals(List.of("Otro0", "Otro1", "Otro2", "Otro3", "Otro4", "Otro5", "Otro6"),
+            indice.completar("o", 10));
+        assertTrue(IndiceNombres.VACIO.completar("a", 5).isEmpty());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.reportgenerator;
+
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la lista observable que muestra los clientes en la tabla.
+ * Verifica que sustituye los datos sin copiarlos y con un único aviso, y
+ * la carga por lotes.
+ */
+@DisplayName("Pruebas de ListaClientesVirtual")
+class ListaClientesVirtualTest {
+
+    private final ListaClientesVirtual lista = new ListaClientesVirtual();
+    private final List<String> cambios = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lista.addListener((ListChangeListener<Cliente>) cambio -> {
+            while (cambio.next()) {
+                cambios.add(cambio.getFrom() + "-" + cambio.getTo()
+                    + (cambio.wasRemoved() ? " quita " + cambio.getRemovedSize() : ""));
+            }
+        });
+    }
+
+    private static List<Cliente> crearClientes(int desde, int numero) {
+        List<Cliente> clientes = new ArrayList<>(numero);
+        for (int i = desde; i < desde + numero; i++) {
+            clientes.add(new Cliente(i, "Cliente " + i, "c" + i + "@test.com", "Ciudad" + i % 3));
+        }
+        return clientes;
+    }
+
+    private static List<Integer> ids(List<Cliente> clientes) {
+        return clientes.stream().map(Cliente::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Mostrar otra lista no la copia y avisa con un único cambio")
+    void testMostrarSinCopiar() {
+        // Arrange
+        List<Cliente> primeros = crearClientes(1, 1_000_000);
+        List<Cliente> segundos = crearClientes(1, 10);
+
+        // Act
+        lista.mostrar(primeros);
+        lista.mostrar(segundos);
+        lista.mostrar(List.of());
+        lista.mostrar(List.of());
+
+        // Assert
+        assertEquals(List.of("0-1000000", "0-10 quita 1000000", "0-0 quita 10"), cambios,
+            "Vaciar una lista ya vacía no avisa");
+        lista.mostrar(primeros);
+        assertSame(primeros, lista.getClientes());
+        assertEquals(primeros.get(123_456), lista.get(123_456));
+        assertThrows(UnsupportedOperationException.class, () -> lista.add(primeros.get(0)));
+    }
+
+    @Test
+    @DisplayName("Durante la carga los lotes se añaden al final")
+    void testCargaPorLotes() {
+        // Arrange
+        lista.mostrar(crearClientes(100, 5));
+        cambios.clear();
+
+        // Act
+        lista.vaciar();
+        lista.anadir(crearClientes(1, 3));
+        lista.anadir(crearClientes(4, 2));
+
+        // Assert
+        assertEquals(List.of("0-0 quita 5", "0-3", "3-5"), cambios);
+        assertEquals(List.of(1, 2, 3, 4, 5), ids(lista));
+        lista.mostrar(crearClientes(1, 5));
+        assertThrows(IllegalStateException.class, () -> lista.anadir(crearClientes(6, 1)),
+            "Terminada la carga no se admiten más lotes");
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.reportgenerator;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias de las métricas de texto usadas en la maquetación del PDF.
+ * Verifica que los anchos cacheados coinciden con los de PDFBox y el truncado.
+ */
+@DisplayName("Pruebas unitarias de MetricasTexto")
+class MetricasTextoTest {
+
+    private PDDocument document;
+    private PDFont fuenteUnicode;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        document = new PDDocument();
+        fuenteUnicode = FuenteUnicode.cargar(document);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        document.close();
+    }
+
+    @Test
+    @DisplayName("anchoTexto() coincide con getStringWidth() en la fuente Unicode")
+    void testAnchoFuenteUnicode() throws IOException {
+        MetricasTexto metricas = MetricasTexto.de(fuenteUnicode);
+
+        for (String texto : new String[] {"- Ana López (Madrid)", "Владимир (Москва)", "© 2026 Informe", ""}) {
+            float esperado = fuenteUnicode.getStringWidth(texto) / 1000 * 8;
+            assertEquals(esperado, metricas.anchoTexto(texto, 8), 0.01, "Ancho incorrecto para: " + texto);
+        }
+    }
+
+    @Test
+    @DisplayName("anchoTexto() coincide con getStringWidth() en una fuente estándar")
+    void testAnchoFuenteEstandar() throws IOException {
+        PDFont helvetica = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+        MetricasTexto metricas = MetricasTexto.de(helvetica);
+
+        String texto = "Total de clientes: 1234 €";
+        assertEquals(helvetica.getStringWidth(texto) / 1000 * 14, metricas.anchoTexto(texto, 14), 0.01);
+    }
+
+    @Test
+    @DisplayName("Los caracteres sin glifo miden lo mismo que el sustituto")
+    void testAnchoCaracterSinGlifo() throws IOException {
+        MetricasTexto metricas = MetricasTexto.de(fuenteUnicode);
+
+        assertEquals(metricas.anchoTexto("a?b", 10), metricas.anchoTexto("a北b", 10), 0.001);
+    }
+
+    @Test
+    @DisplayName("Las métricas se calculan una vez por fuente y se comparten entre documentos")
+    void testMetricasCompartidas() throws IOException {
+        try (PDDocument otro = new PDDocument()) {
+            assertSame(MetricasTexto.de(fuenteUnicode), MetricasTexto.de(FuenteUnicode.cargar(otro)));
+        }
+    }
+
+    @Test
+    @DisplayName("truncar() deja el texto dentro del ancho y termina en elipsis")
+    void testTruncar() throws IOException {
+        MetricasTexto metricas = MetricasTexto.de(fuenteUnicode);
+        StringBuilder corto = new StringBuilder("Ana López");
+        StringBuilder largo = new StringBuilder("María de los Ángeles Fernández de Córdoba y Figueroa");
+
+        assertFalse(metricas.truncar(corto, 10, 200), "Un texto que cabe no se modifica");
+        assertEquals("Ana López", corto.toString());
+
+        assertTrue(metricas.truncar(largo, 10, 100));
+        assertEquals(MetricasTexto.ELIPSIS, largo.charAt(largo.length() - 1));
+        assertTrue(metricas.anchoTexto(largo, 10) <= 100, "El texto truncado debe caber en el ancho");
+        assertEquals(largo.length(), metricas.caracteresQueCaben(largo, 10, 100));
+    }
+}
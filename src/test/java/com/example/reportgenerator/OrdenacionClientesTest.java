@@ -0,0 +1,141 @@
+package com.example.reportgenerator;
+
+import org.junit.jupiter.api.*;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la ordenación de clientes en segundo plano.
+ * Verifica el orden en español, la ordenación por varias columnas de todos
+ * los clientes y de resultados del filtro, la caché y el descarte de las
+ * ordenaciones superadas.
+ */
+@DisplayName("Pruebas de OrdenacionClientes")
+class OrdenacionClientesTest {
+
+    private final BlockingQueue<OrdenacionClientes.Resultado> resultados = new LinkedBlockingQueue<>();
+    private final OrdenacionClientes ordenacion = new OrdenacionClientes();
+
+    @AfterEach
+    void tearDown() {
+        ordenacion.close();
+    }
+
+    private static List<Cliente> crearClientes(int numero) {
+        String[] ciudades = {"Ávila", "Madrid", "avila", "Logroño", "Lugo", "Badajoz"};
+        List<Cliente> clientes = new ArrayList<>(numero);
+        for (int i = 1; i <= numero; i++) {
+            // Los ids no siguen el orden de la lista y los nombres se repiten
+            int id = (i * 7919) % numero + 1;
+            clientes.add(new Cliente(id, "Cliente " + (i % 997), "c" + i + "@test.com", ciudades[i % ciudades.length]));
+        }
+        return clientes;
+    }
+
+    private static List<Integer> ids(List<Cliente> clientes) {
+        return clientes.stream().map(Cliente::getId).toList();
+    }
+
+    private OrdenacionClientes.Resultado ordenar(List<Cliente> clientes, OrdenacionClientes.Criterio... criterios)
+            throws InterruptedException {
+        ordenacion.ordenar(clientes, List.of(criterios), resultados::add);
+        OrdenacionClientes.Resultado resultado = resultados.poll(10, TimeUnit.SECONDS);
+        assertNotNull(resultado);
+        return resultado;
+    }
+
+    @Test
+    @DisplayName("Los textos se ordenan como en español")
+    void testOrdenEnEspanol() throws InterruptedException {
+        // Arrange
+        String[] nombres = {"Zoe", "álvaro", "Ñandú", "beatriz", "Alvaro", "Nuria", "ana", "Óscar"};
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 0; i < nombres.length; i++) {
+            clientes.add(new Cliente(i + 1, nombres[i], "c" + i + "@test.com", "Madrid"));
+        }
+        ordenacion.setClientes(clientes);
+
+        // Act
+        List<Cliente> ordenados = ordenar(clientes,
+            new OrdenacionClientes.Criterio(OrdenacionClientes.Columna.NOMBRE, false)).clientes();
+
+        // Assert
+        assertEquals(List.of("Alvaro", "álvaro", "ana", "beatriz", "Nuria", "Ñandú", "Óscar", "Zoe"),
+            ordenados.stream().map(Cliente::getNombre).toList());
+        assertTrue(OrdenacionClientes.claveOrden("Ñu").compareTo(OrdenacionClientes.claveOrden("nz")) > 0);
+        assertTrue(OrdenacionClientes.claveOrden("Ñu").compareTo(OrdenacionClientes.claveOrden("o")) < 0);
+        assertEquals("avila", OrdenacionClientes.claveOrden("ÁVILA"));
+    }
+
+    @Test
+    @DisplayName("Ordena por varias columnas todos los clientes y los resultados del filtro")
+    void testVariasColumnas() throws InterruptedException {
+        // Arrange
+        List<Cliente> clientes = crearClientes(20_000);
+        ordenacion.setClientes(clientes);
+        int[] pocas = {3, 50, 51, 999, 4_000, 19_999};
+        int[] muchas = new int[10_000];
+        for (int i = 0; i < muchas.length; i++) {
+            muchas[i] = 2 * i;
+        }
+        OrdenacionClientes.Criterio ciudadDescendente =
+            new OrdenacionClientes.Criterio(OrdenacionClientes.Columna.CIUDAD, true);
+        OrdenacionClientes.Criterio nombre = new OrdenacionClientes.Criterio(OrdenacionClientes.Columna.NOMBRE, false);
+        OrdenacionClientes.Criterio id = new OrdenacionClientes.Criterio(OrdenacionClientes.Columna.ID, false);
+        Comparator<Cliente> porCiudad = Comparator
+            .comparing((Cliente c) -> OrdenacionClientes.claveOrden(c.getCiudad()))
+            .thenComparing(Cliente::getCiudad, Collator.getInstance(Locale.of("es", "ES")));
+        Comparator<Cliente> esperado = porCiudad.reversed()
+            .thenComparing(c -> OrdenacionClientes.claveOrden(c.getNombre()))
+            .thenComparingInt(Cliente::getId);
+
+        // Act
+        List<Cliente> todos = ordenar(clientes, ciudadDescendente, nombre, id).clientes();
+        List<Cliente> pocosFiltrados = ordenar(new FilasClientes(clientes, pocas), ciudadDescendente, nombre, id).clientes();
+        List<Cliente> muchosFiltrados = ordenar(new FilasClientes(clientes, muchas), ciudadDescendente, nombre, id).clientes();
+        List<Cliente> otraLista = ordenar(List.copyOf(clientes.subList(0, 500)), ciudadDescendente, nombre, id).clientes();
+        List<Cliente> porId = ordenar(clientes, id).clientes();
+
+        // Assert
+        assertEquals(ids(clientes.stream().sorted(esperado).toList()), ids(todos));
+        assertEquals(ids(new FilasClientes(clientes, pocas).stream().sorted(esperado).toList()), ids(pocosFiltrados));
+        assertEquals(ids(new FilasClientes(clientes, muchas).stream().sorted(esperado).toList()), ids(muchosFiltrados));
+        assertEquals(ids(clientes.subList(0, 500).stream().sorted(esperado).toList()), ids(otraLista));
+        for (int i = 0; i < porId.size(); i++) {
+            assertEquals(i + 1, porId.get(i).getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Repetir una ordenación reutiliza el resultado y solo se entrega la última pedida")
+    void testCacheYDescarte() throws InterruptedException {
+        // Arrange
+        List<Cliente> clientes = crearClientes(300_000);
+        ordenacion.setClientes(clientes);
+        OrdenacionClientes.Criterio email = new OrdenacionClientes.Criterio(OrdenacionClientes.Columna.EMAIL, true);
+        OrdenacionClientes.Criterio ciudad = new OrdenacionClientes.Criterio(OrdenacionClientes.Columna.CIUDAD, false);
+
+        // Act: la primera ordenación por email aún está calculando su permutación
+        ordenacion.ordenar(clientes, List.of(email), resultados::add);
+        long ultima = ordenacion.ordenar(clientes, List.of(ciudad), resultados::add);
+        OrdenacionClientes.Resultado primero = resultados.poll(10, TimeUnit.SECONDS);
+        OrdenacionClientes.Resultado repetido = ordenar(clientes, ciudad);
+
+        // Assert
+        assertNotNull(primero);
+        assertEquals(ultima, primero.consulta(), "Solo debe entregarse la última ordenación");
+        assertSame(clientes, primero.origen());
+        assertSame(primero.clientes(), repetido.clientes(), "La repetición no vuelve a ordenar");
+        assertTrue(resultados.isEmpty());
+        ordenacion.setClientes(List.of());
+        assertFalse(ordenacion.esVigente(repetido), "Cambiar los clientes invalida los resultados anteriores");
+    }
+}
@@ -1,10 +1,30 @@
 package com.example.reportgenerator;
 
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.color.PDIndexed;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.text.PDFTextStripper;
 import org.junit.jupiter.api.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -216,4 +236,422 @@ class PDFExporterTest {
             PDFExporter.exportarAPDF(clientesPrueba, rutaInvalida);
         }, "Debe lanzar IOException con ruta inválida");
     }
+
+    @Test
+    @DisplayName("exportarAPDF() escribe en un OutputStream sin cerrarlo")
+    void testExportarAPDFAOutputStream() throws IOException {
+        // Arrange
+        final boolean[] cerrado = {false};
+        ByteArrayOutputStream salida = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                cerrado[0] = true;
+            }
+        };
+        
+        // Act
+        PDFExporter.exportarAPDF(clientesPrueba, salida);
+        
+        // Assert
+        byte[] pdf = salida.toByteArray();
+        assertTrue(pdf.length > 0, "El PDF debe tener contenido");
+        assertEquals("%PDF", new String(pdf, 0, 4, StandardCharsets.US_ASCII));
+        assertFalse(cerrado[0], "El flujo no debe cerrarse");
+        assertFalse(new File(TEST_PDF_PATH).exists(), "No debe crearse ningún archivo");
+    }
+
+    @Test
+    @DisplayName("exportarAPDF() escribe en un WritableByteChannel")
+    void testExportarAPDFACanal() throws IOException {
+        // Act
+        try (FileChannel canal = FileChannel.open(Path.of(TEST_PDF_PATH),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            PDFExporter.exportarAPDF(clientesPrueba, canal);
+            assertTrue(canal.isOpen(), "El canal no debe cerrarse");
+        }
+        
+        // Assert
+        byte[] pdf = Files.readAllBytes(Path.of(TEST_PDF_PATH));
+        assertEquals("%PDF", new String(pdf, 0, 4, StandardCharsets.US_ASCII));
+        assertTrue(new String(pdf, StandardCharsets.ISO_8859_1).trim().endsWith("%%EOF"),
+            "El PDF debe escribirse completo");
+    }
+
+    @Test
+    @DisplayName("exportarAPDF() en modo paralelo produce el mismo informe que el secuencial")
+    void testComposicionParalelaEquivalente() throws IOException {
+        // Arrange
+        List<Cliente> muchosClientes = new ArrayList<>();
+        for (int i = 1; i <= 2000; i++) {
+            muchosClientes.add(new Cliente(i, "Cliente" + i, "c" + i + "@test.com", "Ciudad" + (i % 7)));
+        }
+        ByteArrayOutputStream secuencial = new ByteArrayOutputStream();
+        ByteArrayOutputStream paralelo = new ByteArrayOutputStream();
+        
+        // Act
+        PDFExporter.exportarAPDF(muchosClientes, secuencial);
+        PDFExporter.exportarAPDF(muchosClientes, paralelo, new OpcionesExportacion().setComposicionParalela(true));
+        
+        // Assert
+        try (PDDocument docSecuencial = Loader.loadPDF(secuencial.toByteArray());
+             PDDocument docParalelo = Loader.loadPDF(paralelo.toByteArray())) {
+            assertEquals(docSecuencial.getNumberOfPages(), docParalelo.getNumberOfPages());
+            PDFTextStripper stripper = new PDFTextStripper();
+            String texto = stripper.getText(docParalelo);
+            assertEquals(stripper.getText(docSecuencial), texto, "El texto de ambos informes debe coincidir");
+            assertTrue(texto.indexOf("- Cliente1 (") < texto.indexOf("- Cliente2000 ("),
+                "Las páginas deben ensamblarse en orden");
+        }
+    }
+
+    @Test
+    @DisplayName("calcularNumeroPaginas() coincide con las páginas generadas y el pie \"Página X de Y\"")
+    void testNumeroDePaginasPrecalculado() throws IOException {
+        for (int numero : new int[] {0, 1, 36, 60, 61, 500}) {
+            // Arrange
+            List<Cliente> clientes = new ArrayList<>();
+            for (int i = 1; i <= numero; i++) {
+                clientes.add(new Cliente(i, "Cliente" + i, "c" + i + "@test.com", "Madrid"));
+            }
+            int esperadas = PDFExporter.calcularNumeroPaginas(numero);
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            
+            // Act
+            PDFExporter.exportarAPDF(clientes, salida);
+            
+            // Assert
+            try (PDDocument document = Loader.loadPDF(salida.toByteArray())) {
+                assertEquals(esperadas, document.getNumberOfPages(),
+                    "Páginas precalculadas incorrectas para " + numero + " clientes");
+                PDFTextStripper stripper = new PDFTextStripper();
+                stripper.setStartPage(esperadas);
+                stripper.setEndPage(esperadas);
+                assertTrue(stripper.getText(document).contains("Página " + esperadas + " de " + esperadas),
+                    "La última página debe llevar su número y el total");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("exportarAPDF() escribe nombres no latinos con un subconjunto de la fuente Unicode")
+    void testFuenteUnicodeIncrustadaComoSubconjunto() throws IOException {
+        // Arrange
+        List<Cliente> clientes = new ArrayList<>(clientesPrueba);
+        clientes.add(new Cliente(4, "Владимир Петров", "vlad@test.ru", "Москва"));
+        clientes.add(new Cliente(5, "Γιώργος Παπαδόπουλος", "g@test.gr", "Αθήνα"));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        
+        // Act
+        PDFExporter.exportarAPDF(clientes, salida);
+        
+        // Assert
+        try (PDDocument document = Loader.loadPDF(salida.toByteArray())) {
+            String texto = new PDFTextStripper().getText(document);
+            assertTrue(texto.contains("Владимир Петров (Москва)"), "El texto cirílico debe poder extraerse");
+            assertTrue(texto.contains("Γιώργος Παπαδόπουλος (Αθήνα)"), "El texto griego debe poder extraerse");
+            
+            PDFont fuente = document.getPage(0).getResources().getFont(COSName.getPDFName("FL"));
+            assertTrue(fuente.isEmbedded(), "La fuente del listado debe estar incrustada");
+            assertTrue(fuente.getName().matches("[A-Z]{6}\\+.*"), "La fuente debe incrustarse como subconjunto");
+        }
+        assertTrue(salida.size() < 60_000, "El subconjunto debe mantener el PDF pequeño: " + salida.size() + " bytes");
+    }
+
+    @Test
+    @DisplayName("exportarAPDF() concurrentes comparten la fuente y generan el mismo PDF")
+    void testExportacionesConcurrentesConFuenteCompartida() throws Exception {
+        // Arrange
+        List<Cliente> clientes = new ArrayList<>(clientesPrueba);
+        clientes.add(new Cliente(4, "Владимир Петров", "vlad@test.ru", "Москва"));
+        ByteArrayOutputStream referencia = new ByteArrayOutputStream();
+        PDFExporter.exportarAPDF(clientes, referencia);
+        String textoReferencia;
+        try (PDDocument document = Loader.loadPDF(referencia.toByteArray())) {
+            textoReferencia = new PDFTextStripper().getText(document);
+        }
+        
+        // Act
+        List<Future<byte[]>> resultados = new ArrayList<>();
+        try (ExecutorService ejecutor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 16; i++) {
+                resultados.add(ejecutor.submit(() -> {
+                    ByteArrayOutputStream salida = new ByteArrayOutputStream();
+                    PDFExporter.exportarAPDF(clientes, salida);
+                    return salida.toByteArray();
+                }));
+            }
+        }
+        
+        // Assert - solo el identificador del documento varía entre exportaciones
+        for (Future<byte[]> resultado : resultados) {
+            byte[] pdf = resultado.get();
+            assertEquals(referencia.size(), pdf.length, "Todas las exportaciones deben tener el mismo tamaño");
+            try (PDDocument document = Loader.loadPDF(pdf)) {
+                assertEquals(textoReferencia, new PDFTextStripper().getText(document),
+                    "Todas las exportaciones deben tener el mismo contenido");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("El oyente de progreso recibe filas, páginas y bytes hasta completar el informe")
+    void testProgresoExportacion() throws IOException {
+        // Arrange
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 1; i <= 500; i++) {
+            clientes.add(new Cliente(i, "Cliente " + i, "c" + i + "@test.com", "Ciudad" + (i % 5)));
+        }
+        List<ProgresoExportacion> eventos = new ArrayList<>();
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        
+        // Act
+        PDFExporter.exportarAPDF(clientes, salida, new OpcionesExportacion().setOyenteProgreso(eventos::add));
+        
+        // Assert
+        int paginas = PDFExporter.calcularNumeroPaginas(clientes.size());
+        ProgresoExportacion ultimo = eventos.get(eventos.size() - 1);
+        assertEquals(clientes.size(), ultimo.filasRenderizadas());
+        assertEquals(paginas, ultimo.paginasRenderizadas());
+        assertEquals(salida.size(), ultimo.bytesEscritos(), "Deben contarse todos los bytes escritos");
+        assertEquals(1.0, ultimo.getFraccion());
+        for (int i = 1; i < eventos.size(); i++) {
+            assertTrue(eventos.get(i).paginasRenderizadas() >= eventos.get(i - 1).paginasRenderizadas());
+            assertTrue(eventos.get(i).bytesEscritos() >= eventos.get(i - 1).bytesEscritos());
+        }
+    }
+
+    @Test
+    @DisplayName("Cancelar la exportación la detiene en un límite de página sin dejar el PDF a medias")
+    void testCancelarExportacion() throws IOException {
+        // Arrange
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 1; i <= 2000; i++) {
+            clientes.add(new Cliente(i, "Cliente " + i, "c" + i + "@test.com", "Madrid"));
+        }
+        Files.writeString(Path.of(TEST_PDF_PATH), "anterior");
+        
+        for (boolean paralela : new boolean[] {false, true}) {
+            TokenCancelacion cancelacion = new TokenCancelacion();
+            List<ProgresoExportacion> eventos = new ArrayList<>();
+            OpcionesExportacion opciones = new OpcionesExportacion()
+                .setComposicionParalela(paralela)
+                .setCancelacion(cancelacion)
+                .setOyenteProgreso(progreso -> {
+                    synchronized (eventos) {
+                        eventos.add(progreso);
+                    }
+                    if (progreso.paginasRenderizadas() == 2) {
+                        cancelacion.cancelar();
+                    }
+                });
+            
+            // Act & Assert
+            assertThrows(java.io.InterruptedIOException.class,
+                () -> PDFExporter.exportarAPDF(clientes, TEST_PDF_PATH, opciones));
+            assertTrue(eventos.stream().noneMatch(p -> p.bytesEscritos() > 0), "No debe llegar a escribirse el PDF");
+            assertEquals("anterior", Files.readString(Path.of(TEST_PDF_PATH)), "El destino debe quedar como estaba");
+            try (var restos = Files.list(Path.of("."))) {
+                assertTrue(restos.noneMatch(f -> f.getFileName().toString().startsWith(TEST_PDF_PATH + ".")),
+                    "No deben quedar archivos temporales");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("actualizarPDF() añade los clientes nuevos al final del archivo sin tocar lo anterior")
+    void testActualizacionIncremental() throws IOException {
+        // Arrange
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 1; i <= 20300; i++) {
+            clientes.add(new Cliente(i, "Cliente " + i, "c" + i + "@test.com", i % 2 == 0 ? "Madrid" : "Bilbao"));
+        }
+        clientes.set(20299, new Cliente(20300, "Łukasz Żółć", "lz@test.com", "Kraków"));
+        PDFExporter.exportarAPDF(clientes.subList(0, 20000), TEST_PDF_PATH);
+        byte[] original = Files.readAllBytes(Path.of(TEST_PDF_PATH));
+        ByteArrayOutputStream completo = new ByteArrayOutputStream();
+        PDFExporter.exportarAPDF(clientes, completo);
+        
+        // Act
+        boolean incremental = PDFExporter.actualizarPDF(clientes, TEST_PDF_PATH);
+        
+        // Assert
+        byte[] actualizado = Files.readAllBytes(Path.of(TEST_PDF_PATH));
+        assertTrue(incremental);
+        assertArrayEquals(original, java.util.Arrays.copyOf(actualizado, original.length),
+            "El contenido anterior del archivo no debe modificarse");
+        assertTrue(actualizado.length - original.length < completo.size() / 4,
+            "La actualización debe ocupar mucho menos que el informe completo");
+        try (PDDocument esperado = Loader.loadPDF(completo.toByteArray());
+             PDDocument obtenido = Loader.loadPDF(actualizado)) {
+            assertEquals(esperado.getNumberOfPages(), obtenido.getNumberOfPages());
+            // Desde la penúltima página del informe original, que se conserva, hasta el final
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setStartPage(PDFExporter.calcularNumeroPaginas(20000) - 1);
+            String texto = stripper.getText(obtenido);
+            assertEquals(stripper.getText(esperado), texto);
+            assertTrue(texto.contains("Łukasz Żółć (Kraków)"));
+            stripper.setStartPage(1);
+            stripper.setEndPage(1);
+            assertTrue(stripper.getText(obtenido).contains("Página 1 de " + PDFExporter.calcularNumeroPaginas(20300)));
+        }
+        assertTrue(PDFExporter.actualizarPDF(clientes, TEST_PDF_PATH), "Sin clientes nuevos no hay nada que añadir");
+        assertEquals(actualizado.length, Files.size(Path.of(TEST_PDF_PATH)));
+    }
+
+    @Test
+    @DisplayName("actualizarPDF() regenera el informe si los clientes anteriores han cambiado")
+    void testActualizacionConCambios() throws IOException {
+        // Arrange
+        PDFExporter.exportarAPDF(clientesPrueba, TEST_PDF_PATH);
+        List<Cliente> modificados = new ArrayList<>(clientesPrueba);
+        modificados.set(1, new Cliente(2, "Carlos Ruiz", "carlos@email.com", "Valencia"));
+        modificados.add(new Cliente(4, "Pedro Sánchez", "pedro@email.com", "Sevilla"));
+        
+        // Act
+        boolean incremental = PDFExporter.actualizarPDF(modificados, TEST_PDF_PATH);
+        
+        // Assert
+        assertFalse(incremental);
+        try (PDDocument document = Loader.loadPDF(new File(TEST_PDF_PATH))) {
+            String texto = new PDFTextStripper().getText(document);
+            assertTrue(texto.contains("Carlos Ruiz (Valencia)"));
+            assertTrue(texto.contains("Total de clientes: 4"));
+        }
+        Files.delete(Path.of(TEST_PDF_PATH));
+        assertFalse(PDFExporter.actualizarPDF(clientesPrueba, TEST_PDF_PATH), "Sin informe previo se genera entero");
+        assertTrue(Files.exists(Path.of(TEST_PDF_PATH)));
+    }
+
+    @Test
+    @DisplayName("Una actualización cancelada deja el informe como estaba")
+    void testActualizacionCancelada() throws IOException {
+        // Arrange
+        PDFExporter.exportarAPDF(clientesPrueba, TEST_PDF_PATH);
+        byte[] original = Files.readAllBytes(Path.of(TEST_PDF_PATH));
+        List<Cliente> ampliados = new ArrayList<>(clientesPrueba);
+        for (int i = 4; i <= 500; i++) {
+            ampliados.add(new Cliente(i, "Cliente " + i, "c" + i + "@test.com", "Madrid"));
+        }
+        TokenCancelacion cancelacion = new TokenCancelacion();
+        OpcionesExportacion opciones = new OpcionesExportacion()
+            .setCancelacion(cancelacion)
+            .setOyenteProgreso(progreso -> {
+                if (progreso.paginasRenderizadas() == 2) {
+                    cancelacion.cancelar();
+                }
+            });
+        
+        // Act & Assert
+        assertThrows(java.io.InterruptedIOException.class,
+            () -> PDFExporter.actualizarPDF(ampliados, TEST_PDF_PATH, opciones));
+        assertArrayEquals(original, Files.readAllBytes(Path.of(TEST_PDF_PATH)));
+    }
+
+    @Test
+    @DisplayName("La salida compacta tiene el mismo texto, comparte recursos y ocupa menos")
+    void testSalidaCompacta() throws IOException {
+        // Arrange
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 1; i <= 2500; i++) {
+            clientes.add(new Cliente(i, "Cliente " + i, "c" + i + "@test.com", "Ciudad" + (i % 7)));
+        }
+        ByteArrayOutputStream normal = new ByteArrayOutputStream();
+        ByteArrayOutputStream compacta = new ByteArrayOutputStream();
+        
+        // Act
+        PDFExporter.exportarAPDF(clientes, normal);
+        PDFExporter.exportarAPDF(clientes, compacta, new OpcionesExportacion().setSalidaCompacta(true));
+        
+        // Assert
+        assertTrue(compacta.size() < normal.size() * 0.9, "La salida compacta debe ocupar al menos un 10% menos");
+        try (PDDocument esperado = Loader.loadPDF(normal.toByteArray());
+             PDDocument obtenido = Loader.loadPDF(compacta.toByteArray())) {
+            int paginas = obtenido.getNumberOfPages();
+            assertEquals(esperado.getNumberOfPages(), paginas);
+            assertEquals(new PDFTextStripper().getText(esperado), new PDFTextStripper().getText(obtenido));
+            assertSame(obtenido.getPage(1).getResources().getCOSObject(),
+                obtenido.getPage(paginas - 3).getResources().getCOSObject(),
+                "Las páginas intermedias del listado deben compartir los recursos");
+            
+            PDPage ultima = obtenido.getPage(paginas - 1);
+            PDImageXObject grafico = null;
+            for (COSName nombre : ultima.getResources().getXObjectNames()) {
+                if (ultima.getResources().getXObject(nombre) instanceof PDImageXObject imagen) {
+                    grafico = imagen;
+                }
+            }
+            assertNotNull(grafico, "La última página debe incluir el gráfico");
+            assertInstanceOf(PDIndexed.class, grafico.getColorSpace());
+            assertNull(grafico.getSoftMask(), "El gráfico compacto no lleva máscara de transparencia");
+            assertEquals(600, grafico.getWidth());
+        }
+    }
+
+    @Test
+    @DisplayName("Un informe compacto se puede actualizar de forma incremental")
+    void testActualizacionSalidaCompacta() throws IOException {
+        // Arrange
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 1; i <= 1200; i++) {
+            clientes.add(new Cliente(i, "Cliente " + i, "c" + i + "@test.com", i % 2 == 0 ? "Madrid" : "Bilbao"));
+        }
+        OpcionesExportacion opciones = new OpcionesExportacion().setSalidaCompacta(true);
+        PDFExporter.exportarAPDF(clientes.subList(0, 1000), TEST_PDF_PATH, opciones);
+        ByteArrayOutputStream completo = new ByteArrayOutputStream();
+        PDFExporter.exportarAPDF(clientes, completo, opciones);
+        
+        // Act
+        boolean incremental = PDFExporter.actualizarPDF(clientes, TEST_PDF_PATH, opciones);
+        
+        // Assert
+        assertTrue(incremental);
+        try (PDDocument esperado = Loader.loadPDF(completo.toByteArray());
+             PDDocument obtenido = Loader.loadPDF(new File(TEST_PDF_PATH))) {
+            assertEquals(esperado.getNumberOfPages(), obtenido.getNumberOfPages());
+            assertEquals(new PDFTextStripper().getText(esperado), new PDFTextStripper().getText(obtenido));
+        }
+    }
+
+    @Test
+    @DisplayName("La vista previa es igual a la primera página del informe exportado")
+    void testRenderizarPrimeraPagina() throws IOException {
+        // Arrange: un informe de una página, con gráfico, y otro de muchas
+        List<Cliente> muchos = new ArrayList<>();
+        for (int i = 1; i <= 20_000; i++) {
+            muchos.add(new Cliente(i, "Cliente Ñandú " + i, "c" + i + "@test.com", "Ciudad" + i % 7));
+        }
+        OpcionesExportacion compacta = new OpcionesExportacion().setSalidaCompacta(true);
+
+        for (List<Cliente> clientes : List.of(clientesPrueba, muchos)) {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            PDFExporter.exportarAPDF(clientes, salida, compacta);
+
+            // Act
+            long inicio = System.nanoTime();
+            BufferedImage vistaPrevia = PDFExporter.renderizarPrimeraPagina(clientes, 96);
+            long duracion = System.nanoTime() - inicio;
+
+            // Assert
+            BufferedImage esperada;
+            try (PDDocument document = Loader.loadPDF(salida.toByteArray())) {
+                esperada = new PDFRenderer(document).renderImageWithDPI(0, 96, ImageType.RGB);
+            }
+            assertEquals(esperada.getWidth(), vistaPrevia.getWidth());
+            assertEquals(esperada.getHeight(), vistaPrevia.getHeight());
+            int distintos = 0;
+            for (int y = 0; y < esperada.getHeight(); y++) {
+                for (int x = 0; x < esperada.getWidth(); x++) {
+                    if (esperada.getRGB(x, y) != vistaPrevia.getRGB(x, y)) {
+                        distintos++;
+                    }
+                }
+            }
+            // Solo cambia el suavizado de algunos bordes de letra: la vista previa
+            // dibuja con la fuente completa y el PDF guardado con su subconjunto
+            assertTrue(distintos < esperada.getWidth() * esperada.getHeight() / 100,
+                distintos + " píxeles distintos con " + clientes.size() + " clientes");
+            assertTrue(duracion < 5_000_000_000L, "La vista previa no compone el informe entero");
+        }
+    }
 }
+
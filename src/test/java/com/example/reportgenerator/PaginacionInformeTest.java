@@ -0,0 +1,89 @@
+package com.example.reportgenerator;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias de la pasada de maquetación del informe.
+ * Verifica el reparto de filas entre páginas y el cálculo del total de páginas.
+ */
+@DisplayName("Pruebas unitarias de PaginacionInforme")
+class PaginacionInformeTest {
+
+    // Geometría sencilla: 36 filas en la primera página y 43 en el resto
+    private static final float Y_PRIMERA = 675;
+    private static final float Y_RESTO = 780;
+    private static final float LIMITE = 150;
+    private static final float INTERLINEADO = 15;
+    private static final float ALTO_RESUMEN = 60;
+    private static final float ESPACIO_GRAFICO = 350;
+
+    private PaginacionInforme paginar(int filas) {
+        return new PaginacionInforme(filas, Y_PRIMERA, Y_RESTO, LIMITE, INTERLINEADO, ALTO_RESUMEN, ESPACIO_GRAFICO);
+    }
+
+    @Test
+    @DisplayName("filasQueCaben() calcula las filas entre la posición y el límite")
+    void testFilasQueCaben() {
+        assertEquals(1, PaginacionInforme.filasQueCaben(150, 150, 15), "Cabe una fila justo en el límite");
+        assertEquals(2, PaginacionInforme.filasQueCaben(165, 150, 15));
+        assertEquals(2, PaginacionInforme.filasQueCaben(179, 150, 15));
+        assertEquals(0, PaginacionInforme.filasQueCaben(149, 150, 15), "No cabe ninguna fila bajo el límite");
+    }
+
+    @Test
+    @DisplayName("Un listado vacío ocupa una sola página sin filas")
+    void testListadoVacio() {
+        PaginacionInforme paginacion = paginar(0);
+
+        assertEquals(1, paginacion.getPaginasListado());
+        assertEquals(0, paginacion.getFilas(0));
+        assertEquals(1, paginacion.getPaginasTotales(), "El gráfico cabe bajo la cabecera");
+    }
+
+    @Test
+    @DisplayName("Las filas se reparten en orden y sin huecos entre páginas")
+    void testRepartoDeFilas() {
+        PaginacionInforme paginacion = paginar(100);
+
+        assertEquals(3, paginacion.getPaginasListado());
+        assertEquals(0, paginacion.getDesde(0));
+        assertEquals(36, paginacion.getHasta(0));
+        assertEquals(36, paginacion.getDesde(1));
+        assertEquals(79, paginacion.getHasta(1));
+        assertEquals(79, paginacion.getDesde(2));
+        assertEquals(100, paginacion.getHasta(2));
+        assertEquals(21, paginacion.getFilas(2));
+        assertEquals(Y_RESTO - 21 * INTERLINEADO, paginacion.getYFinalListado(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Un listado que llena exactamente las páginas no añade una vacía")
+    void testPaginasExactas() {
+        assertEquals(1, paginar(36).getPaginasListado());
+        assertEquals(2, paginar(79).getPaginasListado());
+        assertEquals(3, paginar(80).getPaginasListado());
+    }
+
+    @Test
+    @DisplayName("El gráfico pasa a una página nueva solo si no cabe tras el resumen")
+    void testPaginaDelGrafico() {
+        // 780 - 24 * 15 - 60 = 360 >= 350: el gráfico cabe en la última página
+        PaginacionInforme cabe = paginar(36 + 24);
+        assertFalse(cabe.isGraficoEnPaginaNueva());
+        assertEquals(2, cabe.getPaginasTotales());
+
+        // 780 - 25 * 15 - 60 = 345 < 350: el gráfico necesita otra página
+        PaginacionInforme noCabe = paginar(36 + 25);
+        assertTrue(noCabe.isGraficoEnPaginaNueva());
+        assertEquals(3, noCabe.getPaginasTotales());
+    }
+
+    @Test
+    @DisplayName("Geometrías sin espacio para filas se rechazan")
+    void testCapacidadInvalida() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new PaginacionInforme(10, 100, Y_RESTO, LIMITE, INTERLINEADO, ALTO_RESUMEN, ESPACIO_GRAFICO));
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.reportgenerator;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del planificador de trabajos de exportación.
+ * Verifica la prioridad de los trabajos interactivos, el rechazo y la
+ * contrapresión con la cola llena y las métricas de espera y ejecución.
+ */
+@DisplayName("Pruebas de PlanificadorInformes")
+@Timeout(value = 30, unit = TimeUnit.SECONDS)
+class PlanificadorInformesTest {
+
+    @TempDir
+    Path directorio;
+
+    private PlanificadorInformes planificador;
+    private final CountDownLatch liberar = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        liberar.countDown();
+        if (planificador != null) {
+            planificador.close();
+        }
+    }
+
+    /** Ocupa el único trabajador hasta que se libere el cerrojo de la prueba. */
+    private void bloquearTrabajador() throws InterruptedException {
+        CountDownLatch empezado = new CountDownLatch(1);
+        planificador.enviar(() -> {
+            empezado.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, PlanificadorInformes.Prioridad.LOTE);
+        empezado.await();
+    }
+
+    @Test
+    @DisplayName("calcularTrabajadores() limita por núcleos y por memoria")
+    void testCalcularTrabajadores() {
+        long mb = 1024 * 1024;
+        assertEquals(4, PlanificadorInformes.calcularTrabajadores(4, 4096 * mb, 128 * mb), "Limitado por núcleos");
+        assertEquals(2, PlanificadorInformes.calcularTrabajadores(16, 256 * mb, 128 * mb), "Limitado por memoria");
+        assertEquals(1, PlanificadorInformes.calcularTrabajadores(8, 64 * mb, 128 * mb), "Siempre al menos uno");
+    }
+
+    @Test
+    @DisplayName("Los trabajos interactivos se ejecutan antes que los de lote")
+    void testPrioridadInteractiva() throws Exception {
+        // Arrange
+        planificador = new PlanificadorInformes(1, 10);
+        List<String> orden = new CopyOnWriteArrayList<>();
+        bloquearTrabajador();
+
+        // Act
+        CompletableFuture<?> lote1 = planificador.enviar(() -> orden.add("lote1"), PlanificadorInformes.Prioridad.LOTE);
+        CompletableFuture<?> lote2 = planificador.enviar(() -> orden.add("lote2"), PlanificadorInformes.Prioridad.LOTE);
+        CompletableFuture<?> interactiva = planificador.enviar(() -> orden.add("interactiva"),
+            PlanificadorInformes.Prioridad.INTERACTIVA);
+        assertEquals(3, planificador.getProfundidadCola());
+        assertEquals(1, planificador.getProfundidadCola(PlanificadorInformes.Prioridad.INTERACTIVA));
+        liberar.countDown();
+        CompletableFuture.allOf(lote1, lote2, interactiva).get();
+
+        // Assert
+        assertEquals(List.of("interactiva", "lote1", "lote2"), orden);
+        assertEquals(4, planificador.getCompletados());
+    }
+
+    @Test
+    @DisplayName("Con la cola llena se rechaza, reservando sitio para los interactivos")
+    void testRechazoConColaLlena() throws Exception {
+        // Arrange - capacidad 4: los trabajos de lote solo pueden ocupar 3
+        planificador = new PlanificadorInformes(1, 4);
+        bloquearTrabajador();
+        PlanificadorInformes.Tarea vacia = () -> { };
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            planificador.enviar(vacia, PlanificadorInformes.Prioridad.LOTE);
+        }
+
+        // Assert
+        assertThrows(RejectedExecutionException.class,
+            () -> planificador.enviar(vacia, PlanificadorInformes.Prioridad.LOTE));
+        assertDoesNotThrow(() -> planificador.enviar(vacia, PlanificadorInformes.Prioridad.INTERACTIVA),
+            "Debe quedar sitio para las exportaciones interactivas");
+        assertThrows(RejectedExecutionException.class,
+            () -> planificador.enviar(vacia, PlanificadorInformes.Prioridad.INTERACTIVA));
+        assertEquals(2, planificador.getRechazados());
+    }
+
+    @Test
+    @DisplayName("enviarEsperando() aplica contrapresión hasta que hay hueco")
+    void testContrapresion() throws Exception {
+        // Arrange
+        planificador = new PlanificadorInformes(1, 1);
+        bloquearTrabajador();
+        planificador.enviar(() -> { }, PlanificadorInformes.Prioridad.INTERACTIVA);
+
+        // Act & Assert - sin hueco, la espera caduca
+        assertThrows(RejectedExecutionException.class, () -> planificador.enviarEsperando(
+            () -> { }, PlanificadorInformes.Prioridad.INTERACTIVA, 50, TimeUnit.MILLISECONDS));
+
+        // Al liberar al trabajador la cola se vacía y el productor continúa
+        CompletableFuture<CompletableFuture<PlanificadorInformes.MetricasTrabajo>> productor =
+            CompletableFuture.supplyAsync(() -> {
+                try {
+                    return planificador.enviarEsperando(() -> { }, PlanificadorInformes.Prioridad.INTERACTIVA,
+                        10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        liberar.countDown();
+        assertNotNull(productor.get().get());
+    }
+
+    @Test
+    @DisplayName("Cada trabajo informa de su espera en cola y de su ejecución")
+    void testMetricasTrabajo() throws Exception {
+        // Arrange
+        planificador = new PlanificadorInformes(1, 10);
+        bloquearTrabajador();
+        CompletableFuture<PlanificadorInformes.MetricasTrabajo> trabajo =
+            planificador.enviar(() -> dormir(20), PlanificadorInformes.Prioridad.INTERACTIVA);
+
+        // Act
+        dormir(50);
+        liberar.countDown();
+        PlanificadorInformes.MetricasTrabajo metricas = trabajo.get();
+
+        // Assert
+        assertTrue(metricas.espera().toMillis() >= 50, "Debe contar el tiempo en cola");
+        assertTrue(metricas.ejecucion().toMillis() >= 20, "Debe contar el tiempo de ejecución");
+        assertTrue(planificador.getEsperaMedia().toNanos() > 0);
+        assertEquals(0, planificador.getProfundidadCola());
+    }
+
+    @Test
+    @DisplayName("Un trabajo con error completa su futuro con la excepción")
+    void testTrabajoFallido() {
+        planificador = new PlanificadorInformes(1, 10);
+
+        CompletableFuture<?> trabajo = planificador.enviar(() -> {
+            throw new IOException("disco lleno");
+        }, PlanificadorInformes.Prioridad.LOTE);
+
+        ExecutionException e = assertThrows(ExecutionException.class, trabajo::get);
+        assertInstanceOf(IOException.class, e.getCause());
+        assertEquals(1, planificador.getFallidos());
+    }
+
+    @Test
+    @DisplayName("close() termina los trabajos encolados y rechaza los nuevos")
+    void testCierreOrdenado() throws Exception {
+        // Arrange
+        planificador = new PlanificadorInformes(2, 10);
+        List<Cliente> clientes = List.of(new Cliente(1, "Ana López", "ana@email.com", "Madrid"));
+        Path pdf = directorio.resolve("informe.pdf");
+        CompletableFuture<PlanificadorInformes.MetricasTrabajo> trabajo =
+            planificador.enviar(clientes, pdf, PlanificadorInformes.Prioridad.INTERACTIVA);
+
+        // Act
+        planificador.close();
+
+        // Assert
+        assertTrue(trabajo.isDone());
+        assertTrue(Files.size(pdf) > 0);
+        assertThrows(RejectedExecutionException.class,
+            () -> planificador.enviar(() -> { }, PlanificadorInformes.Prioridad.LOTE));
+    }
+
+    private static void dormir(long milisegundos) {
+        try {
+            Thread.sleep(milisegundos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,12 +1,24 @@
 package com.example.reportgenerator;
 
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.text.PDFTextStripper;
 import org.junit.jupiter.api.*;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -267,6 +279,105 @@ class RendimientoYVolumenTest {
         assertTrue(new File(TEST_PDF_GRANDE).exists());
     }
 
+    @Test
+    @Order(9)
+    @DisplayName("RENDIMIENTO: Filas/s y bytes por fila del listado PDF")
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    void testRendimientoListadoPDF() throws IOException {
+        // Arrange
+        String[] ciudades = {"Madrid", "Barcelona", "Valencia", "Sevilla", "Bilbao"};
+        List<Cliente> pocos = new ArrayList<>();
+        List<Cliente> muchos = new ArrayList<>();
+        for (int i = 1; i <= 20000; i++) {
+            Cliente c = new Cliente(i, "Cliente" + i + " Test" + i, "cliente" + i + "@test.com",
+                                    ciudades[i % ciudades.length]);
+            muchos.add(c);
+            if (i <= 1000) {
+                pocos.add(c);
+            }
+        }
+        
+        // Calentamiento
+        PDFExporter.exportarAPDF(pocos, new ByteArrayOutputStream());
+        
+        // Act
+        ByteArrayOutputStream salidaPocos = new ByteArrayOutputStream();
+        PDFExporter.exportarAPDF(pocos, salidaPocos);
+        
+        ByteArrayOutputStream salidaMuchos = new ByteArrayOutputStream();
+        long inicio = System.nanoTime();
+        PDFExporter.exportarAPDF(muchos, salidaMuchos);
+        long tiempo = System.nanoTime() - inicio;
+        
+        // Assert
+        double filasPorSegundo = muchos.size() / (tiempo / 1e9);
+        double bytesPorFila = (double) (salidaMuchos.size() - salidaPocos.size()) / (muchos.size() - pocos.size());
+        System.out.printf("Listado PDF: %.0f filas/s, %.1f bytes por fila%n", filasPorSegundo, bytesPorFila);
+        
+        assertTrue(bytesPorFila < 40, "Cada fila del listado debe ocupar menos de 40 bytes");
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("RENDIMIENTO: Composición paralela de páginas frente a secuencial")
+    @Timeout(value = 120, unit = TimeUnit.SECONDS)
+    void testRendimientoComposicionParalela() throws IOException {
+        // Arrange
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 1; i <= 100000; i++) {
+            clientes.add(new Cliente(i, "Cliente" + i + " Test" + i, "cliente" + i + "@test.com", "Ciudad" + (i % 10)));
+        }
+        OpcionesExportacion paralela = new OpcionesExportacion().setComposicionParalela(true);
+        
+        // Calentamiento
+        PDFExporter.exportarAPDF(clientes.subList(0, 5000), new ByteArrayOutputStream());
+        PDFExporter.exportarAPDF(clientes.subList(0, 5000), new ByteArrayOutputStream(), paralela);
+        
+        // Act
+        ByteArrayOutputStream secuencial = new ByteArrayOutputStream();
+        long inicio = System.nanoTime();
+        PDFExporter.exportarAPDF(clientes, secuencial);
+        long tiempoSecuencial = System.nanoTime() - inicio;
+        
+        ByteArrayOutputStream enParalelo = new ByteArrayOutputStream();
+        inicio = System.nanoTime();
+        PDFExporter.exportarAPDF(clientes, enParalelo, paralela);
+        long tiempoParalelo = System.nanoTime() - inicio;
+        
+        // Assert
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        System.out.printf("Composición de 100000 filas con %d núcleos: secuencial %d ms, paralela %d ms (x%.2f)%n",
+            nucleos, tiempoSecuencial / 1_000_000, tiempoParalelo / 1_000_000,
+            (double) tiempoSecuencial / tiempoParalelo);
+        
+        assertMismoInforme(secuencial.toByteArray(), enParalelo.toByteArray());
+        // Con un solo núcleo las páginas se componen igualmente una tras otra
+        if (nucleos > 1) {
+            assertTrue(tiempoParalelo < tiempoSecuencial,
+                "Con " + nucleos + " núcleos la composición paralela debe ser más rápida que la secuencial");
+        }
+    }
+
+    /**
+     * Comprueba que dos informes tienen las mismas páginas y el mismo texto
+     * en la primera, la última y algunas intermedias.
+     */
+    private static void assertMismoInforme(byte[] esperado, byte[] obtenido) throws IOException {
+        try (PDDocument documentoEsperado = Loader.loadPDF(esperado);
+             PDDocument documentoObtenido = Loader.loadPDF(obtenido)) {
+            int paginas = documentoEsperado.getNumberOfPages();
+            assertEquals(paginas, documentoObtenido.getNumberOfPages(), "Ambos informes deben tener las mismas páginas");
+            
+            PDFTextStripper stripper = new PDFTextStripper();
+            for (int pagina : new int[] {1, 2, paginas / 2, paginas - 1, paginas}) {
+                stripper.setStartPage(pagina);
+                stripper.setEndPage(pagina);
+                assertEquals(stripper.getText(documentoEsperado), stripper.getText(documentoObtenido),
+                    "Texto de la página " + pagina);
+            }
+        }
+    }
+
     /**
      * Crea un archivo CSV grande con el número especificado de clientes
      */
@@ -283,4 +394,392 @@ class RendimientoYVolumenTest {
             }
         }
     }
+
+    @Test
+    @Order(11)
+    @DisplayName("RENDIMIENTO: Medición de anchos de texto con métricas cacheadas")
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    void testRendimientoMetricasTexto() throws IOException {
+        // Arrange
+        String[] textos = new String[1000];
+        for (int i = 0; i < textos.length; i++) {
+            textos[i] = "- Cliente" + i + " Apellido" + i + " (Ciudad" + (i % 50) + ")";
+        }
+        int repeticiones = 200;
+        
+        try (PDDocument document = new PDDocument()) {
+            PDFont fuente = FuenteUnicode.cargar(document);
+            MetricasTexto metricas = MetricasTexto.de(fuente);
+            
+            // Act - PDFBox codificando cada cadena
+            float totalPDFBox = 0;
+            long inicio = System.nanoTime();
+            for (int r = 0; r < repeticiones; r++) {
+                for (String texto : textos) {
+                    totalPDFBox += fuente.getStringWidth(texto) / 1000 * 10;
+                }
+            }
+            long tiempoPDFBox = System.nanoTime() - inicio;
+            
+            // Act - métricas cacheadas
+            float totalMetricas = 0;
+            inicio = System.nanoTime();
+            for (int r = 0; r < repeticiones; r++) {
+                for (String texto : textos) {
+                    totalMetricas += metricas.anchoTexto(texto, 10);
+                }
+            }
+            long tiempoMetricas = System.nanoTime() - inicio;
+            
+            // Assert
+            int mediciones = textos.length * repeticiones;
+            System.out.printf("Anchos de texto: PDFBox %.0f ns/cadena, métricas cacheadas %.0f ns/cadena%n",
+                (double) tiempoPDFBox / mediciones, (double) tiempoMetricas / mediciones);
+            
+            assertEquals(totalPDFBox, totalMetricas, totalPDFBox * 1e-4, "Ambas mediciones deben coincidir");
+        }
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("RENDIMIENTO: Exportación en tubería frente a exportación por etapas")
+    @Timeout(value = 120, unit = TimeUnit.SECONDS)
+    void testRendimientoExportacionEnTuberia() throws IOException {
+        // Arrange
+        crearCSVGrande(100000);
+        AtomicLong primerLoteEnTuberia = new AtomicLong();
+        ClienteDAO dao = new ClienteDAO(TEST_CSV_GRANDE) {
+            @Override
+            public void leerPorLotes(String texto, String ciudadFiltro, int tamanoLote, ConsumidorLotes consumidor)
+                    throws IOException, InterruptedException {
+                // La tubería no notifica el progreso. Su cola admite LOTES_EN_COLA lotes y el renderizado
+                // no toma el segundo hasta terminar el primero, así que el lote LOTES_EN_COLA + 2 solo
+                // entra en la cola cuando el primero ya está renderizado
+                AtomicInteger entregados = new AtomicInteger();
+                super.leerPorLotes(texto, ciudadFiltro, tamanoLote, lote -> {
+                    consumidor.aceptar(lote);
+                    if (entregados.incrementAndGet() == ExportacionEnTuberia.LOTES_EN_COLA + 2) {
+                        primerLoteEnTuberia.set(System.nanoTime());
+                    }
+                });
+            }
+        };
+        
+        // Calentamiento
+        PDFExporter.exportarAPDF(dao.obtenerPorFiltros("1", null), new ByteArrayOutputStream());
+        ExportacionEnTuberia.exportarAPDF(dao, "1", null, new ByteArrayOutputStream());
+        
+        // Act
+        AtomicLong primerLotePorEtapas = new AtomicLong();
+        OpcionesExportacion opciones = new OpcionesExportacion().setOyenteProgreso(progreso -> {
+            if (progreso.filasRenderizadas() >= ExportacionEnTuberia.TAMANO_LOTE) {
+                primerLotePorEtapas.compareAndSet(0, System.nanoTime());
+            }
+        });
+        long inicio = System.nanoTime();
+        ByteArrayOutputStream porEtapas = new ByteArrayOutputStream();
+        PDFExporter.exportarAPDF(dao.obtenerPorFiltros(null, null), porEtapas, opciones);
+        long tiempoPorEtapas = System.nanoTime() - inicio;
+        long latenciaPorEtapas = primerLotePorEtapas.get() - inicio;
+        
+        primerLoteEnTuberia.set(0);
+        inicio = System.nanoTime();
+        ByteArrayOutputStream enTuberia = new ByteArrayOutputStream();
+        ExportacionEnTuberia.exportarAPDF(dao, null, null, enTuberia);
+        long tiempoEnTuberia = System.nanoTime() - inicio;
+        long latenciaEnTuberia = primerLoteEnTuberia.get() - inicio;
+        
+        // Assert
+        System.out.printf("Exportación de 100000 filas desde CSV: por etapas %d ms, en tubería %d ms (x%.2f)%n",
+            tiempoPorEtapas / 1_000_000, tiempoEnTuberia / 1_000_000, (double) tiempoPorEtapas / tiempoEnTuberia);
+        System.out.printf("Primer lote de %d filas renderizado: por etapas a los %d ms, en tubería a los %d ms%n",
+            ExportacionEnTuberia.TAMANO_LOTE, latenciaPorEtapas / 1_000_000, latenciaEnTuberia / 1_000_000);
+        
+        assertMismoInforme(porEtapas.toByteArray(), enTuberia.toByteArray());
+        assertTrue(primerLotePorEtapas.get() > 0 && primerLoteEnTuberia.get() > 0);
+        assertTrue(latenciaEnTuberia < latenciaPorEtapas,
+            "La tubería debe renderizar el primer lote sin esperar a leer todo el CSV");
+        assertTrue(tiempoEnTuberia < tiempoPorEtapas * 2,
+            "La exportación en tubería no debe ser mucho más lenta que por etapas");
+    }
+
+    @Test
+    @Order(13)
+    @DisplayName("RENDIMIENTO: Exportadores de texto en streaming (MB/s)")
+    @Timeout(value = 120, unit = TimeUnit.SECONDS)
+    void testRendimientoExportadoresTexto() throws IOException {
+        // Arrange
+        int numeroClientes = 500000;
+        crearCSVGrande(numeroClientes);
+        ClienteDAO dao = new ClienteDAO(TEST_CSV_GRANDE);
+        
+        // Calentamiento: también deja el CSV en la caché de páginas del sistema
+        new ExportadorCSV().exportar(dao, null, null, Path.of(TEST_PDF_GRANDE), new OpcionesExportacion());
+        
+        for (ExportadorInformes exportador : List.of(new ExportadorCSV(), new ExportadorJSONLines(), new ExportadorHTML())) {
+            // Act
+            long inicio = System.nanoTime();
+            exportador.exportar(dao, null, null, Path.of(TEST_PDF_GRANDE), new OpcionesExportacion());
+            long tiempo = System.nanoTime() - inicio;
+            
+            // Assert
+            long bytes = Files.size(Path.of(TEST_PDF_GRANDE));
+            System.out.printf("Exportación %s de %d filas: %d ms, %.1f MB/s escritos, %.0f filas/s%n",
+                exportador.getFormato(), numeroClientes, tiempo / 1_000_000,
+                bytes / 1e6 / (tiempo / 1e9), numeroClientes / (tiempo / 1e9));
+            assertTrue(bytes > numeroClientes * 30L, "La salida debe contener todas las filas");
+        }
+    }
+
+    @Test
+    @Order(14)
+    @DisplayName("RENDIMIENTO: Actualización incremental frente a regeneración completa")
+    @Timeout(value = 120, unit = TimeUnit.SECONDS)
+    void testRendimientoActualizacionIncremental() throws IOException {
+        // Arrange
+        crearCSVGrande(100500);
+        List<Cliente> clientes = new ClienteDAO(TEST_CSV_GRANDE).obtenerTodos();
+        
+        // Calentamiento
+        PDFExporter.exportarAPDF(clientes.subList(0, 100000), TEST_PDF_GRANDE);
+        PDFExporter.actualizarPDF(clientes, TEST_PDF_GRANDE);
+        PDFExporter.exportarAPDF(clientes.subList(0, 100000), TEST_PDF_GRANDE);
+        long tamanoOriginal = Files.size(Path.of(TEST_PDF_GRANDE));
+        
+        // Act
+        long inicio = System.nanoTime();
+        PDFExporter.exportarAPDF(clientes, new ByteArrayOutputStream());
+        long tiempoCompleto = System.nanoTime() - inicio;
+        
+        inicio = System.nanoTime();
+        boolean incremental = PDFExporter.actualizarPDF(clientes, TEST_PDF_GRANDE);
+        long tiempoIncremental = System.nanoTime() - inicio;
+        
+        // Assert
+        long incremento = Files.size(Path.of(TEST_PDF_GRANDE)) - tamanoOriginal;
+        System.out.printf("Añadir 500 clientes a un informe de 100000: completo %d ms, incremental %d ms (x%.1f), "
+                + "%d KB añadidos a %d KB%n",
+            tiempoCompleto / 1_000_000, tiempoIncremental / 1_000_000, (double) tiempoCompleto / tiempoIncremental,
+            incremento / 1024, tamanoOriginal / 1024);
+        
+        assertTrue(incremental);
+        assertTrue(incremento < tamanoOriginal / 10, "Solo deben escribirse las páginas nuevas y el resumen");
+        assertTrue(tiempoIncremental < tiempoCompleto, "Actualizar debe ser más rápido que regenerar");
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("RENDIMIENTO: Bytes por página y tiempo de la salida compacta frente a la normal")
+    @Timeout(value = 120, unit = TimeUnit.SECONDS)
+    void testRendimientoSalidaCompacta() throws IOException {
+        // Arrange
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 1; i <= 100000; i++) {
+            clientes.add(new Cliente(i, "Cliente" + i + " Test" + i, "cliente" + i + "@test.com", "Ciudad" + (i % 10)));
+        }
+        OpcionesExportacion compacta = new OpcionesExportacion().setSalidaCompacta(true);
+        int paginas = PDFExporter.calcularNumeroPaginas(clientes.size());
+        
+        // Calentamiento
+        PDFExporter.exportarAPDF(clientes.subList(0, 5000), new ByteArrayOutputStream());
+        PDFExporter.exportarAPDF(clientes.subList(0, 5000), new ByteArrayOutputStream(), compacta);
+        
+        // Act: el mejor de tres intentos de cada formato
+        long tiempoNormal = Long.MAX_VALUE;
+        long tiempoCompacta = Long.MAX_VALUE;
+        int bytesNormal = 0;
+        int bytesCompacta = 0;
+        for (int intento = 0; intento < 3; intento++) {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            long inicio = System.nanoTime();
+            PDFExporter.exportarAPDF(clientes, salida);
+            tiempoNormal = Math.min(tiempoNormal, System.nanoTime() - inicio);
+            bytesNormal = salida.size();
+            
+            salida = new ByteArrayOutputStream();
+            inicio = System.nanoTime();
+            PDFExporter.exportarAPDF(clientes, salida, compacta);
+            tiempoCompacta = Math.min(tiempoCompacta, System.nanoTime() - inicio);
+            bytesCompacta = salida.size();
+        }
+        
+        // Assert
+        System.out.printf("Salida PDF de %d páginas: normal %.1f bytes/página en %d ms, "
+                + "compacta %.1f bytes/página en %d ms (%.1f%% menos)%n",
+            paginas, (double) bytesNormal / paginas, tiempoNormal / 1_000_000,
+            (double) bytesCompacta / paginas, tiempoCompacta / 1_000_000,
+            100.0 * (bytesNormal - bytesCompacta) / bytesNormal);
+        
+        assertTrue(bytesCompacta < bytesNormal, "La salida compacta debe ocupar menos por página");
+        assertTrue(tiempoCompacta < tiempoNormal * 1.25, "La salida compacta no debe ser más lenta que la normal");
+    }
+
+    @Test
+    @Order(16)
+    @DisplayName("RENDIMIENTO: Filtrado en memoria mientras se escribe sobre 2 millones de clientes")
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    void testRendimientoBusquedaMientrasSeEscribe() throws InterruptedException {
+        // Arrange
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 1; i <= 2_000_000; i++) {
+            clientes.add(new Cliente(i, "Cliente" + i + " Test" + i, "cliente" + i + "@test.com", "Ciudad" + (i % 10)));
+        }
+        BlockingQueue<BusquedaClientes.Resultado> resultados = new LinkedBlockingQueue<>();
+        String[] pulsaciones = {"c", "cl", "cli", "clie", "clien", "client", "cliente", "cliente1", "cliente12"};
+        
+        try (BusquedaClientes busqueda = new BusquedaClientes(0)) {
+            busqueda.setClientes(clientes);
+            busqueda.buscar("calentamiento", null, resultados::add);
+            resultados.take();
+            
+            // Act: cada pulsación espera a su resultado, como si se escribiera despacio
+            long peor = 0;
+            long inicioTotal = System.nanoTime();
+            for (String texto : pulsaciones) {
+                long inicio = System.nanoTime();
+                busqueda.buscar(texto, null, resultados::add);
+                resultados.take();
+                peor = Math.max(peor, System.nanoTime() - inicio);
+            }
+            long total = System.nanoTime() - inicioTotal;
+            
+            // Ahora todas seguidas: solo se entrega la última
+            for (String texto : pulsaciones) {
+                busqueda.buscar(texto, "Ciudad2", resultados::add);
+            }
+            BusquedaClientes.Resultado ultimo = resultados.take();
+            
+            // Assert
+            System.out.printf("Filtrado de 2000000 clientes: %d pulsaciones en %d ms, la más lenta %d ms%n",
+                pulsaciones.length, total / 1_000_000, peor / 1_000_000);
+            
+            assertTrue(peor < 2_000_000_000L, "Ninguna pulsación debe tardar más de 2 s en filtrar");
+            assertEquals(11112, ultimo.clientes().size(), "Los que empiezan por 12 y acaban en 2: 12, 122, 12X2... 12XXXX2");
+            assertTrue(resultados.isEmpty());
+        }
+    }
+    
+    @Test
+    @Order(17)
+    @DisplayName("RENDIMIENTO: Ordenación en segundo plano de 2 millones de clientes")
+    @Timeout(value = 120, unit = TimeUnit.SECONDS)
+    void testRendimientoOrdenacion() throws InterruptedException {
+        // Arrange
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 1; i <= 2_000_000; i++) {
+            clientes.add(new Cliente(i, "Cliente" + i + " Test" + i, "cliente" + i + "@test.com", "Ciudad" + (i % 10)));
+        }
+        int[] filas = new int[clientes.size() / 3];
+        for (int i = 0; i < filas.length; i++) {
+            filas[i] = 3 * i;
+        }
+        List<Cliente> filtrados = new FilasClientes(clientes, filas);
+        OrdenacionClientes.Criterio nombre = new OrdenacionClientes.Criterio(OrdenacionClientes.Columna.NOMBRE, false);
+        OrdenacionClientes.Criterio ciudad = new OrdenacionClientes.Criterio(OrdenacionClientes.Columna.CIUDAD, true);
+        BlockingQueue<OrdenacionClientes.Resultado> resultados = new LinkedBlockingQueue<>();
+        
+        try (OrdenacionClientes ordenacion = new OrdenacionClientes()) {
+            ordenacion.setClientes(clientes);
+            
+            // Act: la primera vez se calcula la permutación por nombre
+            long inicio = System.nanoTime();
+            ordenacion.ordenar(clientes, List.of(nombre), resultados::add);
+            List<Cliente> porNombre = resultados.take().clientes();
+            long primera = System.nanoTime() - inicio;
+            
+            inicio = System.nanoTime();
+            ordenacion.ordenar(filtrados, List.of(ciudad, nombre), resultados::add);
+            List<Cliente> filtradosOrdenados = resultados.take().clientes();
+            long filtrado = System.nanoTime() - inicio;
+            
+            inicio = System.nanoTime();
+            ordenacion.ordenar(clientes, List.of(nombre), resultados::add);
+            List<Cliente> repetida = resultados.take().clientes();
+            long repeticion = System.nanoTime() - inicio;
+            
+            // Assert
+            System.out.printf("Ordenación de 2000000 clientes: primera %d ms, filtrados por dos columnas %d ms, repetida %d ms%n",
+                primera / 1_000_000, filtrado / 1_000_000, repeticion / 1_000_000);
+            
+            assertEquals("Cliente1 Test1", porNombre.get(0).getNombre());
+            assertEquals("Cliente10 Test10", porNombre.get(1).getNombre());
+            assertEquals(filas.length, filtradosOrdenados.size());
+            assertEquals("Ciudad9", filtradosOrdenados.get(0).getCiudad());
+            assertEquals("Ciudad0", filtradosOrdenados.get(filas.length - 1).getCiudad());
+            assertSame(porNombre, repetida);
+            assertTrue(filtrado < 2_000_000_000L, "Con las permutaciones calculadas, ordenar no debe tardar más de 2 s");
+            assertTrue(repeticion < 100_000_000L, "Repetir una ordenación debe ser inmediato");
+        }
+    }
+    
+    @Test
+    @Order(18)
+    @DisplayName("RENDIMIENTO: Muestra aleatoria frente a carga completa de 1 millón de clientes")
+    @Timeout(value = 120, unit = TimeUnit.SECONDS)
+    void testRendimientoMuestreo() throws IOException, InterruptedException {
+        // Arrange
+        int numeroClientes = 1_000_000;
+        crearCSVGrande(numeroClientes);
+        ClienteDAO dao = new ClienteDAO(TEST_CSV_GRANDE);
+        
+        // Act
+        long inicio = System.nanoTime();
+        ClienteDAO.Muestra muestra = dao.muestrear(2000, new Random(2026));
+        long muestreo = System.nanoTime() - inicio;
+        
+        inicio = System.nanoTime();
+        ClienteDAO.Carga carga = dao.cargarPorLotes(100, 5000, (lote, leidos, totales) -> { });
+        long cargaCompleta = System.nanoTime() - inicio;
+        
+        // Assert
+        ClienteDAO.Estimacion madrid = muestra.estimar(c -> c.getCiudad().equals("Madrid"));
+        System.out.printf("Muestra de %d líneas de %d clientes: %d ms (carga completa %d ms); "
+                + "estimados %d clientes, Madrid %.1f %% ± %.1f %%%n",
+            muestra.getClientes().size(), numeroClientes, muestreo / 1_000_000, cargaCompleta / 1_000_000,
+            muestra.getClientesEstimados(), 100 * madrid.proporcion(), 100 * madrid.margen());
+        
+        assertEquals(numeroClientes, carga.clientes().size());
+        assertEquals(numeroClientes, muestra.getClientesEstimados(), numeroClientes * 0.03);
+        assertEquals(0.1, madrid.proporcion(), 2 * madrid.margen());
+        assertEquals(10, muestra.getClientesPorCiudad().size(), "En la muestra aparecen todas las ciudades");
+        assertTrue(muestreo < 1_000_000_000L, "La muestra debe estar lista en menos de 1 s");
+    }
+    
+    @Test
+    @Order(19)
+    @DisplayName("RENDIMIENTO: Sugerencias del filtro por nombre sobre 1 millón de clientes")
+    @Timeout(value = 120, unit = TimeUnit.SECONDS)
+    void testRendimientoSugerenciasNombre() {
+        // Arrange: 200.000 apellidos distintos, casi todos empezando por "apellido"
+        String[] nombres = {"Ana", "Álvaro", "Beatriz", "Carlos", "Elena", "Íñigo", "Lucía", "Nuria", "Óscar", "Pablo"};
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 1; i <= 1_000_000; i++) {
+            clientes.add(new Cliente(i, nombres[i % nombres.length] + " Apellido" + (i * 7919L % 200_000),
+                "cliente" + i + "@test.com", "Madrid"));
+        }
+        String[] prefijos = {"a", "ap", "apellido1", "apellido12", "apellido123", "ana", "i", "nu", "x"};
+        
+        // Act
+        long inicio = System.nanoTime();
+        IndiceNombres indice = IndiceNombres.construir(clientes);
+        long construccion = System.nanoTime() - inicio;
+        
+        int consultas = 20_000;
+        int sugerencias = 0;
+        inicio = System.nanoTime();
+        for (int i = 0; i < consultas; i++) {
+            sugerencias += indice.completar(prefijos[i % prefijos.length], 8).size();
+        }
+        long porConsulta = (System.nanoTime() - inicio) / consultas;
+        
+        // Assert
+        System.out.printf("Índice de nombres de 1000000 clientes: %d palabras en %d ms; %.1f µs por sugerencia%n",
+            indice.size(), construccion / 1_000_000, porConsulta / 1000.0);
+        
+        assertEquals(200_010, indice.size());
+        assertEquals(List.of("Álvaro", "Ana", "Apellido0", "Apellido1", "Apellido10"), indice.completar("a", 5));
+        assertEquals(List.of("Íñigo"), indice.completar("iñ", 8));
+        assertTrue(sugerencias > 0);
+        assertTrue(porConsulta < 100_000, "Cada sugerencia debe tardar microsegundos, no recorrer el índice");
+    }
 }
@@ -0,0 +1,59 @@
+package com.example.reportgenerator;
+
+import org.junit.jupiter.api.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de las porciones del gráfico de clientes por ciudad.
+ * Verifica que se eligen las ciudades con más clientes y que el resto se
+ * agrupa en "Otros" sin perder clientes.
+ */
+@DisplayName("Pruebas de RepartoCiudades")
+class RepartoCiudadesTest {
+
+    @Test
+    @DisplayName("Si caben todas las ciudades no hay porción Otros")
+    void testSinOtros() {
+        // Arrange
+        Map<String, Integer> clientesPorCiudad = Map.of("Madrid", 5, "Soria", 1, "Bilbao", 5);
+
+        // Act
+        List<RepartoCiudades.Porcion> porciones = RepartoCiudades.agrupar(clientesPorCiudad, 3);
+
+        // Assert
+        assertEquals(List.of(
+            new RepartoCiudades.Porcion("Bilbao", 5),
+            new RepartoCiudades.Porcion("Madrid", 5),
+            new RepartoCiudades.Porcion("Soria", 1)), porciones);
+        assertTrue(RepartoCiudades.agrupar(Map.of(), 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Con miles de ciudades se muestran las mayores y el resto va a Otros")
+    void testMilesDeCiudades() {
+        // Arrange: la ciudad i tiene i clientes
+        Map<String, Integer> clientesPorCiudad = new HashMap<>();
+        long total = 0;
+        for (int i = 1; i <= 5000; i++) {
+            clientesPorCiudad.put("Ciudad" + i, i);
+            total += i;
+        }
+
+        // Act
+        List<RepartoCiudades.Porcion> porciones = RepartoCiudades.agrupar(clientesPorCiudad, 10);
+
+        // Assert
+        assertEquals(10, porciones.size());
+        for (int i = 0; i < 9; i++) {
+            assertEquals(new RepartoCiudades.Porcion("Ciudad" + (5000 - i), 5000 - i), porciones.get(i));
+        }
+        assertEquals(RepartoCiudades.OTROS, porciones.get(9).ciudad());
+        assertEquals(total, porciones.stream().mapToLong(RepartoCiudades.Porcion::clientes).sum(),
+            "La suma de las porciones es el total de clientes");
+        assertThrows(IllegalArgumentException.class, () -> RepartoCiudades.agrupar(clientesPorCiudad, 1));
+    }
+}
@@ -97,7 +97,6 @@ class SeguridadTest {
     }
 
     @Test
-    @Disabled("Unicode avanzado (cirílico, chino, árabe) no soportado por Helvetica")
     @DisplayName("SEGURIDAD: Caracteres especiales y Unicode")
     void testCaracteresEspecialesUnicode() throws IOException {
         // Arrange
@@ -214,7 +213,6 @@ class SeguridadTest {
     }
 
     @Test
-    @Disabled("El código actual no escapa caracteres especiales de control en PDF")
     @DisplayName("SEGURIDAD: Inyección de formato en PDFs")
     void testInyeccionFormatoPDF() throws IOException {
         // Arrange - Intentar inyectar comandos de formato PDF
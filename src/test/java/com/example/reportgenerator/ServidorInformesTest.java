@@ -0,0 +1,204 @@
+package com.example.reportgenerator;
+
+import org.junit.jupiter.api.*;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del servidor HTTP embebido de informes.
+ * Verifica las rutas disponibles, la caché de respuestas y el rendimiento
+ * bajo carga concurrente en localhost.
+ */
+@DisplayName("Pruebas del servidor de informes")
+class ServidorInformesTest {
+
+    private static final String TEST_CSV = "test_servidor_clientes.csv";
+    private ServidorInformes servidor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        try (FileWriter writer = new FileWriter(TEST_CSV)) {
+            writer.write("id,nombre,email,ciudad\n");
+            writer.write("1,Ana López,ana@email.com,Madrid\n");
+            writer.write("2,Carlos Ruiz,carlos@email.com,Barcelona\n");
+            writer.write("3,María García,maria@email.com,Madrid\n");
+            writer.write("4,Luis Pérez,luis@email.com,Valencia\n");
+        }
+        servidor = new ServidorInformes(TEST_CSV, 0);
+        servidor.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        servidor.close();
+        new File(TEST_CSV).delete();
+    }
+
+    @Test
+    @DisplayName("/clientes devuelve el listado filtrado en JSON")
+    void testListadoClientesJSON() throws IOException {
+        String json = new String(get("/clientes?ciudad=madrid"), StandardCharsets.UTF_8);
+
+        assertTrue(json.startsWith("["), "Debe devolver un array JSON");
+        assertTrue(json.contains("\"nombre\":\"Ana López\""));
+        assertTrue(json.contains("\"nombre\":\"María García\""));
+        assertFalse(json.contains("Carlos Ruiz"), "No debe incluir clientes de otras ciudades");
+    }
+
+    @Test
+    @DisplayName("/clientes/total y /clientes/por-ciudad devuelven agregados")
+    void testAgregadosJSON() throws IOException {
+        assertEquals("{\"total\":4}", new String(get("/clientes/total"), StandardCharsets.UTF_8));
+        assertEquals("{\"total\":1}",
+            new String(get("/clientes/total?nombre=ana&ciudad=Madrid"), StandardCharsets.UTF_8));
+        assertEquals("{\"Barcelona\":1,\"Madrid\":2,\"Valencia\":1}",
+            new String(get("/clientes/por-ciudad"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("/informe.pdf devuelve un PDF y la segunda petición sale de caché")
+    void testInformePDFConCache() throws IOException {
+        byte[] primero = get("/informe.pdf?ciudad=Madrid");
+        byte[] segundo = get("/informe.pdf?ciudad=Madrid");
+
+        assertEquals("%PDF", new String(primero, 0, 4, StandardCharsets.US_ASCII));
+        assertArrayEquals(primero, segundo, "La respuesta cacheada debe ser idéntica");
+        assertEquals(1, servidor.getFallosCache());
+        assertEquals(1, servidor.getAciertosCache());
+    }
+
+    @Test
+    @DisplayName("/informe.csv y /informe.jsonl devuelven los clientes filtrados en el formato pedido")
+    void testInformesEnFormatosDeTexto() throws IOException {
+        HttpURLConnection conexion = abrir("/informe.csv?ciudad=Madrid");
+        assertEquals("text/csv; charset=utf-8", conexion.getContentType());
+        conexion.disconnect();
+
+        String csv = new String(get("/informe.csv?ciudad=Madrid"), StandardCharsets.UTF_8);
+        String jsonl = new String(get("/informe.jsonl?nombre=luis"), StandardCharsets.UTF_8);
+
+        assertEquals("id,nombre,email,ciudad\n1,Ana López,ana@email.com,Madrid\n3,María García,maria@email.com,Madrid\n", csv);
+        assertEquals("{\"id\":4,\"nombre\":\"Luis Pérez\",\"email\":\"luis@email.com\",\"ciudad\":\"Valencia\"}\n", jsonl);
+    }
+
+    @Test
+    @DisplayName("La caché se invalida cuando cambia el CSV")
+    void testCacheSeInvalidaAlCambiarDatos() throws IOException {
+        assertEquals("{\"total\":4}", new String(get("/clientes/total"), StandardCharsets.UTF_8));
+
+        try (FileWriter writer = new FileWriter(TEST_CSV, true)) {
+            writer.write("5,Elena Fernández,elena@email.com,Sevilla\n");
+        }
+
+        assertEquals("{\"total\":5}", new String(get("/clientes/total"), StandardCharsets.UTF_8));
+        assertEquals(2, servidor.getFallosCache());
+    }
+
+    @Test
+    @DisplayName("La clave de caché no confunde parámetros y omite los que la ruta no usa")
+    void testClaveCache() throws IOException {
+        // Arrange: un nombre con el separador que usaba la clave
+        try (FileWriter writer = new FileWriter(TEST_CSV, true)) {
+            writer.write("5,Ana|Sol,sol@email.com,Sevilla\n");
+        }
+
+        // Act
+        String conBarra = new String(get("/clientes/total?nombre=ana%7C&ciudad="), StandardCharsets.UTF_8);
+        String ciudadConBarra = new String(get("/clientes/total?nombre=ana&ciudad=%7C"), StandardCharsets.UTF_8);
+        byte[] porCiudad = get("/clientes/por-ciudad");
+        byte[] porCiudadConFiltros = get("/clientes/por-ciudad?nombre=ana&ciudad=Madrid");
+
+        // Assert
+        assertEquals("{\"total\":1}", conBarra);
+        assertEquals("{\"total\":0}", ciudadConBarra, "nombre=ana|&ciudad= y nombre=ana&ciudad=| son consultas distintas");
+        assertArrayEquals(porCiudad, porCiudadConFiltros);
+        assertEquals(3, servidor.getFallosCache());
+        assertEquals(1, servidor.getAciertosCache(), "/clientes/por-ciudad ignora los filtros");
+    }
+
+    @Test
+    @DisplayName("Rutas desconocidas devuelven 404")
+    void testRutaDesconocida() throws IOException {
+        HttpURLConnection conexion = abrir("/no-existe");
+        assertEquals(404, conexion.getResponseCode());
+        conexion.disconnect();
+    }
+
+    @Test
+    @DisplayName("CARGA: Peticiones concurrentes en localhost (peticiones/s y p99)")
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    void testCargaConcurrente() throws Exception {
+        int clientesConcurrentes = 32;
+        int peticionesPorCliente = 50;
+        String[] rutas = {"/clientes", "/clientes/total?ciudad=Madrid", "/clientes/por-ciudad", "/informe.pdf"};
+
+        // Calentamiento para que la medida no incluya la carga de clases
+        for (String ruta : rutas) {
+            get(ruta);
+        }
+
+        List<Future<long[]>> resultados = new ArrayList<>();
+        long inicio = System.nanoTime();
+        try (ExecutorService ejecutor = Executors.newFixedThreadPool(clientesConcurrentes)) {
+            for (int i = 0; i < clientesConcurrentes; i++) {
+                final int desplazamiento = i;
+                resultados.add(ejecutor.submit(() -> {
+                    long[] latencias = new long[peticionesPorCliente];
+                    for (int j = 0; j < peticionesPorCliente; j++) {
+                        long t0 = System.nanoTime();
+                        get(rutas[(desplazamiento + j) % rutas.length]);
+                        latencias[j] = System.nanoTime() - t0;
+                    }
+                    return latencias;
+                }));
+            }
+        }
+        long duracion = System.nanoTime() - inicio;
+
+        long[] todas = new long[clientesConcurrentes * peticionesPorCliente];
+        int pos = 0;
+        for (Future<long[]> f : resultados) {
+            long[] latencias = f.get();
+            System.arraycopy(latencias, 0, todas, pos, latencias.length);
+            pos += latencias.length;
+        }
+        Arrays.sort(todas);
+
+        double peticionesPorSegundo = todas.length / (duracion / 1e9);
+        double p99ms = todas[(int) Math.ceil(todas.length * 0.99) - 1] / 1e6;
+        System.out.printf("Servidor de informes: %d peticiones, %.0f peticiones/s, p99 %.2f ms%n",
+            todas.length, peticionesPorSegundo, p99ms);
+
+        assertTrue(p99ms < 2000, "El p99 de latencia debe ser inferior a 2 segundos");
+    }
+
+    private HttpURLConnection abrir(String ruta) throws IOException {
+        return (HttpURLConnection) URI.create("http://localhost:" + servidor.getPuerto() + ruta)
+            .toURL().openConnection();
+    }
+
+    private byte[] get(String ruta) throws IOException {
+        HttpURLConnection conexion = abrir(ruta);
+        assertEquals(200, conexion.getResponseCode(), "Respuesta inesperada para " + ruta);
+        try (InputStream in = conexion.getInputStream()) {
+            ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+            in.transferTo(cuerpo);
+            return cuerpo.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.reportgenerator;
+
+import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.cos.COSNumber;
+import org.apache.pdfbox.pdfparser.PDFStreamParser;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias del motor de tabla del listado PDF.
+ * Verifica que cada bloque se emite como un único objeto de texto y la
+ * sustitución de caracteres sin glifo en la fuente Unicode.
+ */
+@DisplayName("Pruebas unitarias de TablaPDF")
+class TablaPDFTest {
+
+    private PDDocument document;
+    private TablaPDF tabla;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        document = new PDDocument();
+        tabla = new TablaPDF(FuenteUnicode.cargar(document), 10, 15, 495);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        document.close();
+    }
+
+    @Test
+    @DisplayName("formatearFila() compone el texto reutilizando el buffer")
+    void testFormatearFila() {
+        assertEquals("- Ana López (Madrid)", tabla.formatearFila(new Cliente(1, "Ana López", "a@a.com", "Madrid")));
+        assertEquals("- Luis (Sevilla)", tabla.formatearFila(new Cliente(2, "Luis", "l@l.com", "Sevilla")));
+    }
+
+    @Test
+    @DisplayName("formatearFila() trunca con elipsis las filas que no caben")
+    void testFormatearFilaTruncada() {
+        String nombreLargo = "Juan Sebastián Alejandro Maximiano de la Rosa García López ".repeat(4);
+
+        String fila = tabla.formatearFila(new Cliente(1, nombreLargo, "j@j.com", "Madrid"));
+
+        assertTrue(fila.startsWith("- Juan Sebastián"));
+        assertTrue(fila.endsWith("…"), "La fila truncada debe terminar en elipsis");
+        assertTrue(fila.length() < nombreLargo.length());
+    }
+
+    @Test
+    @DisplayName("escribirFilas() emite un único objeto de texto por bloque")
+    void testUnObjetoDeTextoPorBloque() throws IOException {
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 1; i <= 40; i++) {
+            clientes.add(new Cliente(i, "Cliente" + i, "c" + i + "@test.com", "Madrid"));
+        }
+
+        tabla.iniciarFragmento();
+        tabla.escribirFilas(clientes, 0, clientes.size(), 50, 800);
+        byte[] fragmento = tabla.terminarFragmento();
+        byte[] contenido = new InflaterInputStream(new ByteArrayInputStream(fragmento)).readAllBytes();
+
+        int objetosTexto = 0;
+        int textos = 0;
+        int saltos = 0;
+        for (Object token : new PDFStreamParser(contenido).parse()) {
+            if (token instanceof Operator operador) {
+                switch (operador.getName()) {
+                    case "BT" -> objetosTexto++;
+                    case "Tj" -> textos++;
+                    case "T*" -> saltos++;
+                    default -> { }
+                }
+            }
+        }
+        assertEquals(1, objetosTexto, "Debe haber un solo objeto de texto");
+        assertEquals(40, textos, "Debe haber una operación de texto por fila");
+        assertEquals(39, saltos, "Las filas deben avanzar con saltos de línea relativos");
+    }
+
+    @Test
+    @DisplayName("Un fragmento con rango vacío y pie solo contiene el pie")
+    void testFragmentoSoloPie() throws IOException {
+        tabla.iniciarFragmento();
+        tabla.escribirFilas(new ArrayList<>(), 0, 0, 50, 800);
+        tabla.escribirTextoAlineadoDerecha("Página 1 de 1", 8, 545, 30);
+        byte[] fragmento = tabla.terminarFragmento();
+        byte[] contenido = new InflaterInputStream(new ByteArrayInputStream(fragmento)).readAllBytes();
+
+        long textos = new PDFStreamParser(contenido).parse().stream()
+            .filter(t -> t instanceof Operator o && o.getName().equals("Tj"))
+            .count();
+        assertEquals(1, textos, "Solo debe escribirse el pie");
+    }
+
+    @Test
+    @DisplayName("El texto alineado a la derecha se mide con los caracteres que se dibujan")
+    void testAlineadoDerechaConSustituciones() throws IOException {
+        // Arrange
+        String texto = "Página 1 de 1 🔥";
+        float esperado = 545 - MetricasTexto.de(FuenteUnicode.cargar(document))
+            .anchoTexto(tabla.hacerRepresentable(texto), 8);
+
+        // Act
+        tabla.iniciarFragmento();
+        tabla.escribirTextoAlineadoDerecha(texto, 8, 545, 30);
+        byte[] contenido = new InflaterInputStream(new ByteArrayInputStream(tabla.terminarFragmento())).readAllBytes();
+
+        // Assert: el primer operando de Td es la posición horizontal del texto
+        List<Object> tokens = new PDFStreamParser(contenido).parse();
+        int td = 0;
+        while (!(tokens.get(td) instanceof Operator o && o.getName().equals("Td"))) {
+            td++;
+        }
+        assertEquals(esperado, ((COSNumber) tokens.get(td - 2)).floatValue(), 0.01f);
+    }
+
+    @Test
+    @DisplayName("hacerRepresentable() sustituye solo los caracteres sin glifo")
+    void testHacerRepresentable() throws IOException {
+        String cirilico = "Владимир (Москва)";
+        assertSame(cirilico, tabla.hacerRepresentable(cirilico), "Sin sustituciones no debe copiar el texto");
+        assertEquals("José Ñoño", tabla.hacerRepresentable("José Ñoño"));
+        assertEquals("?? (??)", tabla.hacerRepresentable("李明 (北京)"));
+        assertEquals("?Emoji", tabla.hacerRepresentable("🔥Emoji"), "Un emoji fuera del BMP es un único carácter");
+        assertEquals("a?b", tabla.hacerRepresentable("a\nb"), "Los caracteres de control no se dibujan");
+    }
+}
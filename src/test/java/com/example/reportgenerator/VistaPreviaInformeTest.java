@@ -0,0 +1,124 @@
+package com.example.reportgenerator;
+
+import org.junit.jupiter.api.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la vista previa del informe en segundo plano.
+ * Verifica la caché por datos, filtro y orden, el descarte de las peticiones
+ * superadas y los errores al dibujar.
+ */
+@DisplayName("Pruebas de VistaPreviaInforme")
+class VistaPreviaInformeTest {
+
+    private final BlockingQueue<VistaPreviaInforme.Resultado> resultados = new LinkedBlockingQueue<>();
+    private final AtomicInteger dibujadas = new AtomicInteger();
+    private final List<Cliente> clientes = List.of(new Cliente(1, "Ana", "ana@test.com", "Madrid"));
+    private VistaPreviaInforme vistaPrevia;
+
+    @AfterEach
+    void tearDown() {
+        vistaPrevia.close();
+    }
+
+    private static VistaPreviaInforme.Clave clave(long versionDatos, String nombre) {
+        return new VistaPreviaInforme.Clave(versionDatos, nombre, null,
+            List.of(new OrdenacionClientes.Criterio(OrdenacionClientes.Columna.NOMBRE, false)));
+    }
+
+    private VistaPreviaInforme.Resultado siguiente() throws InterruptedException {
+        VistaPreviaInforme.Resultado resultado = resultados.poll(10, TimeUnit.SECONDS);
+        assertNotNull(resultado);
+        return resultado;
+    }
+
+    @Test
+    @DisplayName("Repetir los mismos datos, filtro y orden reutiliza la vista previa")
+    void testCache() throws InterruptedException {
+        // Arrange
+        vistaPrevia = new VistaPreviaInforme(lista -> {
+            dibujadas.incrementAndGet();
+            return new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        });
+
+        // Act
+        vistaPrevia.generar(clave(1, "ana"), clientes, resultados::add);
+        VistaPreviaInforme.Resultado primera = siguiente();
+        vistaPrevia.generar(clave(1, "ana"), clientes, resultados::add);
+        VistaPreviaInforme.Resultado repetida = siguiente();
+        vistaPrevia.generar(clave(2, "ana"), clientes, resultados::add);
+        VistaPreviaInforme.Resultado otrosDatos = siguiente();
+
+        // Assert
+        assertSame(primera.imagen(), repetida.imagen(), "La repetición no vuelve a dibujar");
+        assertEquals(0, repetida.milisegundos());
+        assertNotSame(primera.imagen(), otrosDatos.imagen(), "Otra carga de datos sí vuelve a dibujar");
+        assertEquals(2, dibujadas.get());
+    }
+
+    @Test
+    @DisplayName("Solo se entrega la vista previa de la última petición")
+    void testDescarte() throws InterruptedException {
+        // Arrange: la primera petición se queda dibujando hasta que llegan las demás
+        CountDownLatch empezada = new CountDownLatch(1);
+        CountDownLatch pedidas = new CountDownLatch(1);
+        vistaPrevia = new VistaPreviaInforme(lista -> {
+            dibujadas.incrementAndGet();
+            empezada.countDown();
+            try {
+                pedidas.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        });
+
+        // Act
+        vistaPrevia.generar(clave(1, "a"), clientes, resultados::add);
+        assertTrue(empezada.await(10, TimeUnit.SECONDS));
+        vistaPrevia.generar(clave(1, "an"), clientes, resultados::add);
+        long ultima = vistaPrevia.generar(clave(1, "ana"), clientes, resultados::add);
+        pedidas.countDown();
+        VistaPreviaInforme.Resultado resultado = siguiente();
+
+        // Assert
+        assertEquals(ultima, resultado.consulta());
+        assertTrue(vistaPrevia.esVigente(resultado));
+        assertEquals(2, dibujadas.get(), "La petición intermedia no llega a dibujarse");
+        assertTrue(resultados.isEmpty());
+        vistaPrevia.cancelar();
+        assertFalse(vistaPrevia.esVigente(resultado));
+    }
+
+    @Test
+    @DisplayName("Un error al dibujar entrega una vista previa vacía y no se guarda")
+    void testError() throws InterruptedException {
+        // Arrange
+        vistaPrevia = new VistaPreviaInforme(lista -> {
+            if (dibujadas.incrementAndGet() == 1) {
+                throw new IOException("Fuente no disponible");
+            }
+            return new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        });
+
+        // Act
+        vistaPrevia.generar(clave(1, ""), clientes, resultados::add);
+        VistaPreviaInforme.Resultado fallida = siguiente();
+        vistaPrevia.generar(clave(1, ""), clientes, resultados::add);
+        VistaPreviaInforme.Resultado reintento = siguiente();
+
+        // Assert
+        assertNull(fallida.imagen());
+        assertNotNull(reintento.imagen(), "El error no queda en la caché");
+        assertEquals(2, dibujadas.get());
+    }
+}